@@ -223,6 +223,12 @@ struct ProcessCallbacks
    // is terminated.
    boost::function<bool(ProcessOperations&)> onContinue;
 
+   // Called before standard output is read on each poll. If it returns
+   // false the output is left in the pipe until a later poll, so a child
+   // producing output faster than it can be consumed blocks once the pipe
+   // is full. Output still unread when the child exits is always delivered.
+   boost::function<bool(ProcessOperations&)> onReadStdout;
+
    // Streaming callback for standard output
    boost::function<void(ProcessOperations&, const std::string&)> onStdout;
 
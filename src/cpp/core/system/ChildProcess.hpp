@@ -203,6 +203,9 @@ public:
 
 private:
 
+   // read and report any available standard output
+   void readStdout();
+
    void reportError(const Error& error)
    {
       if (callbacks_.onError)
@@ -733,25 +733,11 @@ void AsyncChildProcess::poll()
       }
    }
 
-   // check stdout and fire event if we got output
-   if (!pAsyncImpl_->finishedStdout_)
-   {
-      bool eof;
-      std::string out;
-      Error error = readPipe(pImpl_->fdStdout, &out, &eof);
-      if (error)
-      {
-         reportError(error);
-      }
-      else
-      {
-         if (!out.empty() && callbacks_.onStdout)
-            callbacks_.onStdout(*this, out);
-
-         if (eof)
-           pAsyncImpl_->finishedStdout_ = true;
-      }
-   }
+   // check stdout and fire event if we got output (unless the callbacks
+   // have asked for it to be left in the pipe for now)
+   bool holdStdout = callbacks_.onReadStdout && !callbacks_.onReadStdout(*this);
+   if (!holdStdout)
+      readStdout();
 
    // check stderr and fire event if we got output
    if (!pAsyncImpl_->finishedStderr_)
@@ -788,6 +774,10 @@ void AsyncChildProcess::poll()
    // either a normal exit or an error while waiting
    if (result != 0)
    {
+      // deliver any output which was being held in the pipe
+      if (holdStdout)
+         readStdout();
+
       // close all of our pipes
       pImpl_->closeAll(ERROR_LOCATION);
 
@@ -816,6 +806,28 @@ void AsyncChildProcess::poll()
    }
 }
 
+void AsyncChildProcess::readStdout()
+{
+   if (pAsyncImpl_->finishedStdout_)
+      return;
+
+   bool eof;
+   std::string out;
+   Error error = readPipe(pImpl_->fdStdout, &out, &eof);
+   if (error)
+   {
+      reportError(error);
+   }
+   else
+   {
+      if (!out.empty() && callbacks_.onStdout)
+         callbacks_.onStdout(*this, out);
+
+      if (eof)
+        pAsyncImpl_->finishedStdout_ = true;
+   }
+}
+
 bool AsyncChildProcess::exited()
 {
    return pAsyncImpl_->exited_;
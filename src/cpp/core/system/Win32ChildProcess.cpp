@@ -574,17 +574,15 @@ void AsyncChildProcess::poll()
       }
    }
 
-   // check stdout
-   std::string stdOut;
-   Error error = readPipeAvailableBytes(pImpl_->hStdOutRead, &stdOut);
-   if (error)
-      reportError(error);
-   if (!stdOut.empty() && callbacks_.onStdout)
-      callbacks_.onStdout(*this, stdOut);
+   // check stdout (unless the callbacks have asked for it to be left in
+   // the pipe for now)
+   bool holdStdout = callbacks_.onReadStdout && !callbacks_.onReadStdout(*this);
+   if (!holdStdout)
+      readStdout();
 
    // check stderr
    std::string stdErr;
-   error = readPipeAvailableBytes(pImpl_->hStdErrRead, &stdErr);
+   Error error = readPipeAvailableBytes(pImpl_->hStdErrRead, &stdErr);
    if (error)
       reportError(error);
    if (!stdErr.empty() && callbacks_.onStderr)
@@ -596,6 +594,10 @@ void AsyncChildProcess::poll()
    // check for process exit (or error waiting)
    if (result != WAIT_TIMEOUT)
    {
+      // deliver any output which was being held in the pipe
+      if (holdStdout)
+         readStdout();
+
       // try to get exit status
       int exitStatus = -1;
 
@@ -637,6 +639,16 @@ void AsyncChildProcess::poll()
    }
 }
 
+void AsyncChildProcess::readStdout()
+{
+   std::string stdOut;
+   Error error = readPipeAvailableBytes(pImpl_->hStdOutRead, &stdOut);
+   if (error)
+      reportError(error);
+   if (!stdOut.empty() && callbacks_.onStdout)
+      callbacks_.onStdout(*this, stdOut);
+}
+
 bool AsyncChildProcess::exited()
 {
    return pImpl_->hProcess == NULL;
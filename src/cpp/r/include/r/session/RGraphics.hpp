@@ -114,6 +114,7 @@ public:
    virtual int plotCount() const = 0 ;
    virtual core::Error plotImageFilename(int index, 
                                          std::string* pImageFilename) const = 0;
+   virtual std::string currentPlotImageFilename(int index) const = 0;
    virtual int activePlotIndex() const = 0;
    virtual core::Error setActivePlot(int index) = 0;
    virtual core::Error removePlot(int index) = 0;
@@ -72,6 +72,14 @@ bool Plot::hasValidStorage() const
    return hasStorage() && snapshotFilePath().exists();
 }
 
+bool Plot::isRenderedAt(const DisplaySize& size) const
+{
+   return hasStorage() &&
+          !needsUpdate_ &&
+          (renderedSize_ == size) &&
+          imageFilePath(storageUuid_).exists();
+}
+
 void Plot::invalidate()
 {
    needsUpdate_ = true;
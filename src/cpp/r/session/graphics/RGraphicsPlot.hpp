@@ -57,6 +57,7 @@ public:
    std::string storageUuid() const;  
    bool hasValidStorage() const;
    const DisplaySize& renderedSize() const { return renderedSize_; }
+   bool isRenderedAt(const DisplaySize& size) const;
 
    bool hasManipulator() const;
    SEXP manipulatorSEXP() const;
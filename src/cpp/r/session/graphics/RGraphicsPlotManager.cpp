@@ -134,6 +134,21 @@ Error PlotManager::plotImageFilename(int index,
    }
 }      
    
+// returns the image filename for the plot at the given index if its image
+// is up to date at the current display size (so can be shown without
+// re-rendering), otherwise an empty string
+std::string PlotManager::currentPlotImageFilename(int index) const
+{
+   if (!isValidPlotIndex(index))
+      return std::string();
+
+   const Plot& plot = *(plots_[index]);
+   if (!plot.isRenderedAt(graphicsDevice_.displaySize()))
+      return std::string();
+
+   return plot.imageFilename();
+}
+
 int PlotManager::activePlotIndex() const
 {
    return activePlot_;
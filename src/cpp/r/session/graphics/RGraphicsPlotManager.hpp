@@ -70,6 +70,7 @@ public:
    virtual int plotCount() const;
    virtual core::Error plotImageFilename(int index, 
                                          std::string* pImageFilename) const;
+   virtual std::string currentPlotImageFilename(int index) const;
    virtual int activePlotIndex() const;
    virtual core::Error setActivePlot(int index) ;
    virtual core::Error removePlot(int index);
@@ -144,6 +144,8 @@ const int kUserFollowStarted = 120;
 const int kUserFollowEnded = 121;
 const int kProjectAccessRevoked = 122;
 const int kCollabEditSaved = 123;
+const int kSessionInfoSection = 124;
+const int kRmdChunkExecution = 125;
 }
 
 void ClientEvent::init(int type, const json::Value& data)
@@ -391,6 +393,10 @@ std::string ClientEvent::typeName() const
          return "project_access_revoked";
       case client_events::kCollabEditSaved:
          return "collab_edit_saved";
+      case client_events::kSessionInfoSection:
+         return "session_info_section";
+      case client_events::kRmdChunkExecution:
+         return "rmd_chunk_execution";
       default:
          LOG_WARNING_MESSAGE("unexpected event type: " + 
                              safe_convert::numberToString(type_));
@@ -366,6 +366,76 @@ FilePath getInitialWorkingDirectory()
 }
 
 
+// A part of the session info which is sent to the client in a
+// session_info_section event after the client_init response, rather than in
+// the response itself, so that the workbench can be shown without waiting
+// for it to be computed, sent and parsed
+typedef std::pair<std::string, boost::function<json::Value()> >
+                                                      SessionInfoSection;
+
+json::Value consoleHistoryAsJson()
+{
+   // note that this is computed after restoreBuildRestartContext, which
+   // may have reset the history
+   json::Array historyArray;
+   rstudio::r::session::consoleHistory().asJson(&historyArray);
+   return historyArray;
+}
+
+json::Value consoleActionsAsJson(bool resumed)
+{
+   if (!resumed)
+      return json::Value();
+
+   json::Object actionsObject;
+   rstudio::r::session::consoleActions().asJson(&actionsObject);
+   return actionsObject;
+}
+
+// sections are sent in roughly the order the client needs them: the console
+// first, then the panes which are typically visible
+std::vector<SessionInfoSection> deferredSessionInfoSections(bool resumed)
+{
+   std::vector<SessionInfoSection> sections;
+   sections.push_back(SessionInfoSection(
+         "console_history", consoleHistoryAsJson));
+   sections.push_back(SessionInfoSection(
+         "console_actions", boost::bind(consoleActionsAsJson, resumed)));
+   sections.push_back(SessionInfoSection(
+         "environment_state", modules::environment::environmentStateAsJson));
+   sections.push_back(SessionInfoSection(
+         "console_processes", rsession::console_process::processesAsJson));
+   sections.push_back(SessionInfoSection(
+         "build_state", modules::build::buildStateAsJson));
+   sections.push_back(SessionInfoSection(
+         "compile_pdf_state", modules::authoring::compilePdfStateAsJson));
+   sections.push_back(SessionInfoSection(
+         "find_in_files_state", modules::find::findInFilesStateAsJson));
+   sections.push_back(SessionInfoSection(
+         "markers_state", modules::markers::markersStateAsJson));
+   sections.push_back(SessionInfoSection(
+         "lists", modules::lists::allListsAsJson));
+   return sections;
+}
+
+void enqueSessionInfoSection(const SessionInfoSection& section)
+{
+   using namespace boost::posix_time;
+   ptime startTime = microsec_clock::universal_time();
+   json::Value value = section.second();
+   long elapsedMs = (microsec_clock::universal_time() - startTime)
+                                                   .total_milliseconds();
+
+   // the time taken to compute the section is reported with it; its size
+   // is measured by the client, from the event it receives
+   json::Object sectionJson;
+   sectionJson["name"] = section.first;
+   sectionJson["value"] = value;
+   sectionJson["elapsed_ms"] = static_cast<int>(elapsedMs);
+   module_context::enqueClientEvent(
+         ClientEvent(client_events::kSessionInfoSection, sectionJson));
+}
+
 void handleClientInit(const boost::function<void()>& initFunction,
                       boost::shared_ptr<HttpConnection> ptrConnection)
 {
@@ -449,25 +519,13 @@ void handleClientInit(const boost::function<void()>& initFunction,
 
    // resumed
    sessionInfo["resumed"] = resumed; 
-   if (resumed)
-   {
-      // console actions
-      json::Object actionsObject;
-      consoleActions.asJson(&actionsObject);
-      sessionInfo["console_actions"] = actionsObject;
-   }
 
    sessionInfo["rnw_weave_types"] = modules::authoring::supportedRnwWeaveTypes();
    sessionInfo["latex_program_types"] = modules::authoring::supportedLatexProgramTypes();
    sessionInfo["tex_capabilities"] = modules::authoring::texCapabilitiesAsJson();
-   sessionInfo["compile_pdf_state"] = modules::authoring::compilePdfStateAsJson();
 
    sessionInfo["html_capabilities"] = modules::html_preview::capabilitiesAsJson();
 
-   sessionInfo["find_in_files_state"] = modules::find::findInFilesStateAsJson();
-
-   sessionInfo["markers_state"] = modules::markers::markersStateAsJson();
-
    sessionInfo["rstudio_version"] = std::string(RSTUDIO_VERSION);
 
    sessionInfo["ui_prefs"] = userSettings().uiPrefs();
@@ -514,12 +572,6 @@ void handleClientInit(const boost::function<void()>& initFunction,
                               modules::source_control::defaultSshKeyDir());
    sessionInfo["is_github_repo"] = modules::git::isGithubRepository();
 
-   // contents of all lists
-   sessionInfo["lists"] = modules::lists::allListsAsJson();
-
-   sessionInfo["console_processes"] =
-         rsession::console_process::processesAsJson();
-
    // send sumatra pdf exe path if we are on windows
 #ifdef _WIN32
    sessionInfo["sumatra_pdf_exe_path"] =
@@ -565,18 +617,12 @@ void handleClientInit(const boost::function<void()>& initFunction,
    sessionInfo["tutorial_api_available"] = false;
    sessionInfo["tutorial_api_client_origin"] = json::Value();
 
-   sessionInfo["build_state"] = modules::build::buildStateAsJson();
    sessionInfo["devtools_installed"] = module_context::isMinimumDevtoolsInstalled();
    sessionInfo["have_cairo_pdf"] = modules::plots::haveCairoPdf();
 
    sessionInfo["have_srcref_attribute"] =
          modules::breakpoints::haveSrcrefAttribute();
 
-   // console history -- we do this at the end because
-   // restoreBuildRestartContext may have reset it
-   json::Array historyArray;
-   rstudio::r::session::consoleHistory().asJson(&historyArray);
-   sessionInfo["console_history"] = historyArray;
    sessionInfo["console_history_capacity"] =
                               rstudio::r::session::consoleHistory().capacity();
 
@@ -610,7 +656,6 @@ void handleClientInit(const boost::function<void()>& initFunction,
          core::system::getenv(kRStudioDisableProjectSharing).empty() &&
          !options.getOverlayOption(kSessionSharedStoragePath).empty();
 
-   sessionInfo["environment_state"] = modules::environment::environmentStateAsJson();
    sessionInfo["error_state"] = modules::errors::errorStateAsJson();
 
    // send whether we should show the user identity
@@ -646,6 +691,16 @@ void handleClientInit(const boost::function<void()>& initFunction,
 
    module_context::events().onSessionInfo(&sessionInfo);
 
+   // the larger parts of the session info follow the response as events
+   std::vector<SessionInfoSection> deferredSections =
+                                    deferredSessionInfoSections(resumed);
+   json::Array deferredSectionNames;
+   BOOST_FOREACH(const SessionInfoSection& section, deferredSections)
+   {
+      deferredSectionNames.push_back(section.first);
+   }
+   sessionInfo["deferred_sections"] = deferredSectionNames;
+
    // send response  (we always set kEventsPending to false so that the client
    // won't poll for events until it is ready)
    json::JsonRpcResponse jsonRpcResponse ;
@@ -653,6 +708,13 @@ void handleClientInit(const boost::function<void()>& initFunction,
    jsonRpcResponse.setResult(sessionInfo) ;
    ptrConnection->sendJsonRpcResponse(jsonRpcResponse);
 
+   // send the deferred sections; these are queued ahead of any events
+   // raised below, so the client has them before any updates to them
+   BOOST_FOREACH(const SessionInfoSection& section, deferredSections)
+   {
+      enqueSessionInfoSection(section);
+   }
+
    // complete initialization of session
    ensureSessionInitialized();
    
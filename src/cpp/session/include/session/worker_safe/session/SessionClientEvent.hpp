@@ -145,6 +145,8 @@ extern const int kUserFollowStarted;
 extern const int kUserFollowEnded;
 extern const int kProjectAccessRevoked;
 extern const int kCollabEditSaved;
+extern const int kSessionInfoSection;
+extern const int kRmdChunkExecution;
 }
    
 class ClientEvent
@@ -19,6 +19,7 @@
 
 #include <boost/algorithm/string.hpp>
 #include <boost/bind.hpp>
+#include <boost/date_time/posix_time/posix_time.hpp>
 #include <boost/enable_shared_from_this.hpp>
 
 #include <core/Exec.hpp>
@@ -42,8 +43,24 @@ namespace find {
 
 namespace {
 
-// This must be the same as MAX_COUNT in FindOutputPane.java
-const size_t MAX_COUNT = 1000;
+// Results are kept here and only a summary (the number of matches in each
+// file) is sent to the client, which fetches the match rows it is showing
+// with get_find_results. At most kMaxBatchesInFlight summaries are sent
+// before the client acknowledges one (via ack_find_results); until then
+// grep's output is left unread, so a search producing a very large number
+// of results never runs ahead of the client.
+const int kMaxBatchesInFlight = 2;
+
+// the most match rows returned by a single get_find_results call
+const size_t kMaxRowsPerRequest = 1000;
+
+// The most matches kept for a search (they're held in memory and saved
+// with the session's state); grep is stopped once it has found this many
+const size_t kMaxResults = 25000;
+
+// If grep has been waiting on the client this long without an
+// acknowledgement (e.g. because the browser was closed), it's stopped
+const int kAckTimeoutSeconds = 60;
 
 // Reflects the current set of Find results that are being
 // displayed, in case they need to be re-fetched (i.e. browser
@@ -52,7 +69,9 @@ class FindInFilesState : public boost::noncopyable
 {
 public:
 
-   explicit FindInFilesState() : running_(false)
+   explicit FindInFilesState()
+      : running_(false), truncated_(false), sentCount_(0),
+        batchesInFlight_(0), exitPending_(false)
    {
    }
 
@@ -71,6 +90,33 @@ public:
       return running_;
    }
 
+   // Whether more results can be taken now; when false, the grep process
+   // is left blocked on its output until the client catches up
+   bool isAcceptingResults(const std::string& handle) const
+   {
+      return handle_ != handle || batchesInFlight_ < kMaxBatchesInFlight;
+   }
+
+   // Whether the given search should go on. A search the client has
+   // stopped acknowledging is ended here, with its results marked as
+   // incomplete.
+   bool continueSearch(const std::string& handle)
+   {
+      if (!running_ || handle_ != handle)
+         return false;
+
+      using namespace boost::posix_time;
+      if (batchesInFlight_ >= kMaxBatchesInFlight &&
+          blockedSince_ + seconds(kAckTimeoutSeconds) <
+             second_clock::universal_time())
+      {
+         running_ = false;
+         truncated_ = true;
+      }
+
+      return running_;
+   }
+
    bool addResult(const std::string& handle,
                   const json::Array& files,
                   const json::Array& lineNums,
@@ -83,14 +129,58 @@ public:
       else if (handle_ != handle)
          return false;
 
-      std::copy(files.begin(), files.end(), std::back_inserter(files_));
-      std::copy(lineNums.begin(), lineNums.end(), std::back_inserter(lineNums_));
-      std::copy(contents.begin(), contents.end(), std::back_inserter(contents_));
-      std::copy(matchOns.begin(), matchOns.end(), std::back_inserter(matchOns_));
-      std::copy(matchOffs.begin(), matchOffs.end(), std::back_inserter(matchOffs_));
+      // take no more than kMaxResults in all, then stop the search
+      size_t room = kMaxResults - std::min(kMaxResults, files_.size());
+      size_t count = std::min(files.size(), room);
+      std::copy(files.begin(), files.begin() + count, std::back_inserter(files_));
+      std::copy(lineNums.begin(), lineNums.begin() + count, std::back_inserter(lineNums_));
+      std::copy(contents.begin(), contents.begin() + count, std::back_inserter(contents_));
+      std::copy(matchOns.begin(), matchOns.begin() + count, std::back_inserter(matchOns_));
+      std::copy(matchOffs.begin(), matchOffs.begin() + count, std::back_inserter(matchOffs_));
+      if (files_.size() >= kMaxResults && running_)
+      {
+         running_ = false;
+         truncated_ = true;
+      }
+
+      flushSummary();
       return true;
    }
 
+   void onBatchAcknowledged(const std::string& handle)
+   {
+      if (handle_ != handle)
+         return;
+
+      if (batchesInFlight_ > 0)
+         batchesInFlight_--;
+
+      flushSummary();
+   }
+
+   // The grep process has exited; the operation is reported as ended to the
+   // client only once the summary of every result has been sent
+   void onProcessExit(const std::string& handle)
+   {
+      if (handle_ != handle)
+      {
+         module_context::enqueClientEvent(
+               ClientEvent(client_events::kFindOperationEnded, handle));
+         return;
+      }
+
+      exitPending_ = true;
+      flushSummary();
+   }
+
+   // A client (re)initialized with the summary of every result sent so
+   // far; reset flow control so the rest are sent to it
+   void onClientInit()
+   {
+      batchesInFlight_ = 0;
+      flushSummary();
+   }
+
    void onFindBegin(const std::string& handle,
                     const std::string& input,
                     const std::string& path,
@@ -101,6 +191,7 @@ public:
       path_ = path;
       regex_ = asRegex;
       running_ = true;
+      truncated_ = false;
    }
 
    void onFindEnd(const std::string& handle)
@@ -112,6 +203,10 @@ public:
    void clear()
    {
       handle_ = std::string();
+      truncated_ = false;
+      sentCount_ = 0;
+      batchesInFlight_ = 0;
+      exitPending_ = false;
       files_.clear();
       lineNums_.clear();
       contents_.clear();
@@ -141,6 +236,16 @@ public:
       if (error)
          return error;
 
+      // states saved by older versions don't say whether the search was
+      // stopped early
+      truncated_ = false;
+      if (asJson.find("truncated") != asJson.end())
+      {
+         error = json::readObject(asJson, "truncated", &truncated_);
+         if (error)
+            LOG_ERROR(error);
+      }
+
       if (files_.size() != lineNums_.size() || files_.size() != contents_.size())
       {
          files_.clear();
@@ -148,31 +253,126 @@ public:
          contents_.clear();
       }
 
+      // everything restored is summarized with the session state
+      sentCount_ = files_.size();
+      batchesInFlight_ = 0;
+
       return Success();
    }
 
    json::Object asJson()
+   {
+      json::Object obj = headerAsJson();
+      obj["results"] = resultsAsJson(0, files_.size());
+      return obj;
+   }
+
+   // State for an initializing client. Only the results which have already
+   // been summarized are included; the rest will follow as find_result
+   // events.
+   json::Object clientStateAsJson()
+   {
+      json::Object obj = headerAsJson();
+      obj["summary"] = summaryAsJson(0, sentCount_);
+      return obj;
+   }
+
+   // The match rows in [begin, end) of those summarized so far
+   json::Object resultRowsAsJson(const std::string& handle,
+                                 size_t begin,
+                                 size_t end) const
+   {
+      if (handle_ != handle)
+         return resultsAsJson(0, 0);
+
+      end = std::min(end, std::min(begin + kMaxRowsPerRequest, sentCount_));
+      return resultsAsJson(begin, end);
+   }
+
+private:
+   json::Object headerAsJson()
    {
       json::Object obj;
       obj["handle"] = handle_;
       obj["input"] = input_;
       obj["path"] = path_;
       obj["regex"] = regex_;
+      obj["running"] = running_;
+      obj["truncated"] = truncated_;
+      return obj;
+   }
+
+   static json::Array slice(const json::Array& array, size_t begin, size_t end)
+   {
+      end = std::min(end, array.size());
+      begin = std::min(begin, end);
+      return json::Array(array.begin() + begin, array.begin() + end);
+   }
 
+   json::Object resultsAsJson(size_t begin, size_t end) const
+   {
       json::Object results;
-      results["file"] = files_;
-      results["line"] = lineNums_;
-      results["lineValue"] = contents_;
-      results["matchOn"] = matchOns_;
-      results["matchOff"] = matchOffs_;
-      obj["results"] = results;
+      results["file"] = slice(files_, begin, end);
+      results["line"] = slice(lineNums_, begin, end);
+      results["lineValue"] = slice(contents_, begin, end);
+      results["matchOn"] = slice(matchOns_, begin, end);
+      results["matchOff"] = slice(matchOffs_, begin, end);
+      return results;
+   }
 
-      obj["running"] = running_;
+   // The number of matches in each run of results from the same file (grep
+   // reports all of a file's matches together), and the largest line number
+   json::Object summaryAsJson(size_t begin, size_t end) const
+   {
+      json::Array files;
+      json::Array counts;
+      int maxLine = 0;
+      for (size_t i = begin; i < end; i++)
+      {
+         const std::string& file = files_[i].get_str();
+         if (files.empty() || files.back().get_str() != file)
+         {
+            files.push_back(file);
+            counts.push_back(1);
+         }
+         else
+         {
+            counts.back() = counts.back().get_int() + 1;
+         }
+         maxLine = std::max(maxLine, lineNums_[i].get_int());
+      }
 
-      return obj;
+      json::Object summary;
+      summary["file"] = files;
+      summary["count"] = counts;
+      summary["maxLine"] = maxLine;
+      summary["truncated"] = truncated_;
+      return summary;
+   }
+
+   void flushSummary()
+   {
+      if (batchesInFlight_ < kMaxBatchesInFlight && sentCount_ < files_.size())
+      {
+         json::Object result;
+         result["handle"] = handle_;
+         result["summary"] = summaryAsJson(sentCount_, files_.size());
+         module_context::enqueClientEvent(
+                  ClientEvent(client_events::kFindResult, result));
+
+         sentCount_ = files_.size();
+         if (++batchesInFlight_ == kMaxBatchesInFlight)
+            blockedSince_ = boost::posix_time::second_clock::universal_time();
+      }
+
+      if (exitPending_ && sentCount_ == files_.size())
+      {
+         exitPending_ = false;
+         module_context::enqueClientEvent(
+               ClientEvent(client_events::kFindOperationEnded, handle_));
+      }
    }
 
-private:
    std::string handle_;
    std::string input_;
    std::string path_;
@@ -183,6 +383,15 @@ private:
    json::Array matchOns_;
    json::Array matchOffs_;
    bool running_;
+
+   // whether the search was stopped before grep finished
+   bool truncated_;
+
+   // flow control for sending results to the client
+   size_t sentCount_;
+   int batchesInFlight_;
+   boost::posix_time::ptime blockedSince_;
+   bool exitPending_;
 };
 
 FindInFilesState& findResults()
@@ -223,6 +432,9 @@ public:
       callbacks.onContinue = boost::bind(&GrepOperation::onContinue,
                                          shared_from_this(),
                                          _1);
+      callbacks.onReadStdout = boost::bind(&GrepOperation::onReadStdout,
+                                           shared_from_this(),
+                                           _1);
       callbacks.onStdout = boost::bind(&GrepOperation::onStdout,
                                        shared_from_this(),
                                        _1, _2);
@@ -238,7 +450,12 @@ public:
 private:
    bool onContinue(const core::system::ProcessOperations& ops) const
    {
-      return findResults().isRunning() && findResults().handle() == handle();
+      return findResults().continueSearch(handle());
+   }
+
+   bool onReadStdout(const core::system::ProcessOperations& ops) const
+   {
+      return findResults().isAcceptingResults(handle());
    }
 
    std::string decode(const std::string& encoded)
@@ -313,15 +530,10 @@ private:
       json::Array matchOns;
       json::Array matchOffs;
 
-      int recordsToProcess = MAX_COUNT + 1 - findResults().resultCount();
-      if (recordsToProcess < 0)
-         recordsToProcess = 0;
-
       stdOutBuf_.append(data);
       size_t nextLineStart = 0;
       size_t pos = -1;
-      while (recordsToProcess &&
-             std::string::npos != (pos = stdOutBuf_.find('\n', pos + 1)))
+      while (std::string::npos != (pos = stdOutBuf_.find('\n', pos + 1)))
       {
          std::string line = stdOutBuf_.substr(nextLineStart, pos - nextLineStart);
          nextLineStart = pos + 1;
@@ -354,8 +566,6 @@ private:
             contents.push_back(lineContents);
             matchOns.push_back(matchOn);
             matchOffs.push_back(matchOff);
-
-            recordsToProcess--;
          }
       }
 
@@ -364,31 +574,17 @@ private:
          stdOutBuf_.erase(0, nextLineStart);
       }
 
+      // results are kept in the find state, which sends the client a
+      // summary of them
       if (files.size() > 0)
       {
-         json::Object result;
-         result["handle"] = handle();
-         json::Object results;
-         results["file"] = files;
-         results["line"] = lineNums;
-         results["lineValue"] = contents;
-         results["matchOn"] = matchOns;
-         results["matchOff"] = matchOffs;
-         result["results"] = results;
-
          findResults().addResult(handle(),
                                  files,
                                  lineNums,
                                  contents,
                                  matchOns,
                                  matchOffs);
-
-         module_context::enqueClientEvent(
-                  ClientEvent(client_events::kFindResult, result));
       }
-
-      if (recordsToProcess <= 0)
-         findResults().onFindEnd(handle());
    }
 
    void onStderr(const core::system::ProcessOperations& ops, const std::string& data)
@@ -399,8 +595,7 @@ private:
    void onExit(int exitCode)
    {
       findResults().onFindEnd(handle());
-      module_context::enqueClientEvent(
-            ClientEvent(client_events::kFindOperationEnded, handle()));
+      findResults().onProcessExit(handle());
       if (!tempFile_.empty())
          tempFile_.removeIfExists();
    }
@@ -533,6 +728,35 @@ core::Error stopFind(const json::JsonRpcRequest& request,
    return Success();
 }
 
+core::Error ackFindResults(const json::JsonRpcRequest& request,
+                           json::JsonRpcResponse* pResponse)
+{
+   std::string handle;
+   Error error = json::readParams(request.params, &handle);
+   if (error)
+      return error;
+
+   findResults().onBatchAcknowledged(handle);
+
+   return Success();
+}
+
+core::Error getFindResults(const json::JsonRpcRequest& request,
+                           json::JsonRpcResponse* pResponse)
+{
+   std::string handle;
+   int begin, end;
+   Error error = json::readParams(request.params, &handle, &begin, &end);
+   if (error)
+      return error;
+
+   pResponse->setResult(findResults().resultRowsAsJson(handle,
+                                                       std::max(begin, 0),
+                                                       std::max(end, 0)));
+
+   return Success();
+}
+
 core::Error clearFindResults(const json::JsonRpcRequest& request,
                              json::JsonRpcResponse* pResponse)
 {
@@ -567,7 +791,9 @@ void onResume(const core::Settings& settings)
 
 json::Object findInFilesStateAsJson()
 {
-   return findResults().asJson();
+   json::Object stateJson = findResults().clientStateAsJson();
+   findResults().onClientInit();
+   return stateJson;
 }
 
 core::Error initialize()
@@ -583,6 +809,8 @@ core::Error initialize()
    initBlock.addFunctions()
       (bind(registerRpcMethod, "begin_find", beginFind))
       (bind(registerRpcMethod, "stop_find", stopFind))
+      (bind(registerRpcMethod, "ack_find_results", ackFindResults))
+      (bind(registerRpcMethod, "get_find_results", getFindResults))
       (bind(registerRpcMethod, "clear_find_results", clearFindResults));
    return initBlock.execute();
 }
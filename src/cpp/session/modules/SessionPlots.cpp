@@ -66,6 +66,17 @@ Error previousPlot(const json::JsonRpcRequest& request,
    return display.setActivePlot(display.activePlotIndex() - 1);
 }  
 
+Error setActivePlot(const json::JsonRpcRequest& request,
+                    json::JsonRpcResponse* pResponse)
+{
+   int index;
+   Error error = json::readParam(request.params, 0, &index);
+   if (error)
+      return error;
+
+   return r::session::graphics::display().setActivePlot(index);
+}
+
    
 Error removePlot(const json::JsonRpcRequest& request,
                  json::JsonRpcResponse* pResponse)
@@ -701,6 +712,19 @@ void enquePlotsChanged(const r::session::graphics::DisplayState& displayState,
    jsonPlotsState["activatePlots"] = activatePlots &&
                                      (displayState.plotCount > 0);
    jsonPlotsState["showManipulator"] = showManipulator;
+
+   // images of other plots which are already rendered at the current size,
+   // so the client can cache/prefetch them and page through plots without
+   // waiting on a re-render
+   using namespace rstudio::r::session;
+   json::Array plotFilenamesJson;
+   for (int i = 0; i < displayState.plotCount; i++)
+   {
+      plotFilenamesJson.push_back(
+               graphics::display().currentPlotImageFilename(i));
+   }
+   jsonPlotsState["plotFilenames"] = plotFilenamesJson;
+
    ClientEvent plotsStateChangedEvent(client_events::kPlotsStateChanged, 
                                       jsonPlotsState);
       
@@ -859,6 +883,7 @@ Error initialize()
    initBlock.addFunctions()
       (bind(registerRpcMethod, "next_plot", nextPlot))
       (bind(registerRpcMethod, "previous_plot", previousPlot))
+      (bind(registerRpcMethod, "set_active_plot", setActivePlot))
       (bind(registerRpcMethod, "remove_plot", removePlot))
       (bind(registerRpcMethod, "clear_plots", clearPlots))
       (bind(registerRpcMethod, "refresh_plot", refreshPlot))
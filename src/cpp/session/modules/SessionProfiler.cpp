@@ -16,7 +16,11 @@
 
 #include "SessionProfiler.hpp"
 
+#include <map>
+#include <vector>
+
 #include <core/Exec.hpp>
+#include <core/SafeConvert.hpp>
 
 #include <session/SessionModuleContext.hpp>
 
@@ -28,17 +32,135 @@ namespace modules {
 namespace profiler {
 
 namespace {
-      
 
+// Rprof writes one line per sample: the call stack as quoted function
+// names, innermost call first. Unquoted tokens (source references when
+// line profiling, memory statistics when memory profiling) are skipped.
+void parseStack(const std::string& line, std::vector<std::string>* pFrames)
+{
+   std::string::size_type pos = 0;
+   while (true)
+   {
+      std::string::size_type begin = line.find('"', pos);
+      if (begin == std::string::npos)
+         break;
+      std::string::size_type end = line.find('"', begin + 1);
+      if (end == std::string::npos)
+         break;
+      pFrames->push_back(line.substr(begin + 1, end - begin - 1));
+      pos = end + 1;
+   }
+}
+
+// Reads up to maxSamples samples from an Rprof output file, starting at a
+// byte offset, so that large profiles can be loaded in chunks. Identical
+// stacks within the chunk are returned once with a count, and function
+// names are returned once in a table the stacks index into (outermost
+// call first).
+Error getProfileSamples(const json::JsonRpcRequest& request,
+                        json::JsonRpcResponse* pResponse)
+{
+   std::string path;
+   double offset;
+   int maxSamples;
+   Error error = json::readParams(request.params,
+                                  &path,
+                                  &offset,
+                                  &maxSamples);
+   if (error)
+      return error;
 
+   FilePath filePath = module_context::resolveAliasedPath(path);
+   boost::shared_ptr<std::istream> pStream;
+   error = filePath.open_r(&pStream);
+   if (error)
+      return error;
+
+   pStream->seekg(static_cast<std::streamoff>(offset));
+
+   int interval = -1;
+   int samples = 0;
+   std::map<std::string, int> nameIndexes;
+   std::map<std::string, std::size_t> stackIndexes;
+   json::Array namesJson;
+   json::Array stacksJson;
+   std::vector<int> counts;
+
+   std::string line;
+   std::vector<std::string> frames;
+   while (samples < maxSamples && std::getline(*pStream, line))
+   {
+      // skip blank lines and file name declarations (line profiling)
+      if (line.empty() || line[0] == '#')
+         continue;
+
+      // header, e.g. "memory profiling: sample.interval=20000"
+      const std::string intervalTag("sample.interval=");
+      std::string::size_type intervalPos = line.find(intervalTag);
+      if (line[0] != '"' && intervalPos != std::string::npos)
+      {
+         interval = safe_convert::stringTo<int>(
+                  line.substr(intervalPos + intervalTag.size()), -1);
+         continue;
+      }
+
+      samples++;
+
+      std::map<std::string, std::size_t>::iterator it = stackIndexes.find(line);
+      if (it != stackIndexes.end())
+      {
+         counts[it->second]++;
+         continue;
+      }
+
+      frames.clear();
+      parseStack(line, &frames);
+
+      json::Array stackJson;
+      for (std::vector<std::string>::reverse_iterator frame = frames.rbegin();
+           frame != frames.rend();
+           ++frame)
+      {
+         std::map<std::string, int>::iterator name = nameIndexes.find(*frame);
+         if (name == nameIndexes.end())
+         {
+            name = nameIndexes.insert(
+                     std::make_pair(*frame, namesJson.size())).first;
+            namesJson.push_back(*frame);
+         }
+         stackJson.push_back(name->second);
+      }
+
+      stackIndexes[line] = stacksJson.size();
+      stacksJson.push_back(stackJson);
+      counts.push_back(1);
+   }
+
+   // if we stopped short of the sample limit we hit the end of the file
+   double size = static_cast<double>(filePath.size());
+   bool done = !pStream->good();
+   double nextOffset = done ? size : static_cast<double>(pStream->tellg());
+
+   json::Object result;
+   result["interval"] = interval;
+   result["samples"] = samples;
+   result["names"] = namesJson;
+   result["stacks"] = stacksJson;
+   result["counts"] = json::toJsonArray(counts);
+   result["next_offset"] = nextOffset;
+   result["size"] = size;
+   result["done"] = done;
+   pResponse->setResult(result);
+   return Success();
+}
 
-   
 } // anonymous namespace
    
 Error initialize()
 {  
    ExecBlock initBlock ;
    initBlock.addFunctions()
+      (boost::bind(module_context::registerRpcMethod, "get_profile_samples", getProfileSamples))
       (boost::bind(module_context::sourceModuleRFile, "SessionProfiler.R"));
    return initBlock.execute();
 
@@ -93,9 +93,18 @@ public:
          boost::shared_ptr<RSConnectPublish>* pDeployOut)
    {
       boost::shared_ptr<RSConnectPublish> pDeploy(new RSConnectPublish(file));
+      pDeploy->recordTarget_ = !sourceDoc.empty() ? sourceDoc :
+                               !file.empty() ? file : dir;
+      pDeploy->account_ = account;
+      pDeploy->server_ = server;
+      pDeploy->app_ = app;
 
       std::string cmd("{ " + module_context::CRANDownloadOptions() + "; ");
 
+      std::string appDir = string_utils::utf8ToSystem(dir);
+      if (appDir == "~")
+         appDir = "~/";
+
       // create temporary file to host file manifest
       if (!fileList.empty())
       {
@@ -104,12 +113,39 @@ public:
             return error;
 
          // write manifest to temporary file
-         std::vector<std::string> deployFileList;
-         json::fillVectorString(fileList, &deployFileList);
+         std::vector<std::string> deployFiles;
+         json::fillVectorString(fileList, &deployFiles);
          error = core::writeStringVectorToFile(pDeploy->manifestPath_, 
-                                               deployFileList);
+                                               deployFiles);
+         if (error)
+            return error;
+
+         // have the deploy process record the content hash of each file as
+         // it's bundled, so the session doesn't have to read every file
+         // once the deployment completes (see onCompleted)
+         error = FilePath::tempFilePath(&pDeploy->hashesPath_);
          if (error)
             return error;
+         cmd += "tryCatch(local({"
+                "   dir <- path.expand('" + 
+                      string_utils::singleQuotedStrEscape(appDir) + "'); "
+                "   files <- readLines('" +
+                      string_utils::singleQuotedStrEscape(
+                         pDeploy->manifestPath_.absolutePath()) + "', "
+                "                      encoding = 'UTF-8'); "
+                "   paths <- file.path(dir, files); "
+                "   info <- file.info(paths); "
+                "   hashes <- data.frame("
+                "      path = files, "
+                "      size = info$size, "
+                "      mtime = round(as.numeric(info$mtime), 3), "
+                "      md5 = unname(tools::md5sum(paths)), "
+                "      stringsAsFactors = FALSE); "
+                "   write.csv(hashes, file = '" +
+                      string_utils::singleQuotedStrEscape(
+                         pDeploy->hashesPath_.absolutePath()) + "', "
+                "             row.names = FALSE, fileEncoding = 'UTF-8') "
+                "}), error = function(e) NULL); ";
       }
 
       // join and quote incoming filenames to deploy
@@ -131,10 +167,6 @@ public:
          }
       }
       
-      std::string appDir = string_utils::utf8ToSystem(dir);
-      if (appDir == "~")
-         appDir = "~/";
-
       // form the deploy command to hand off to the async deploy process
       cmd += "rsconnect::deployApp("
              "appDir = '" + string_utils::singleQuotedStrEscape(appDir) + "'," +
@@ -228,8 +260,30 @@ private:
                         deployedUrl_);
       module_context::enqueClientEvent(event);
 
-      // clean up the manifest if we created it
-      Error error = manifestPath_.removeIfExists();
+      // record the content hash of each file we deployed (computed by the
+      // deploy process) alongside the deployment record, so the next
+      // deployment can tell which files changed
+      Error error;
+      if (exitStatus == 0 && !deployedUrl_.empty() && 
+          !hashesPath_.empty() && hashesPath_.exists())
+      {
+         r::exec::RFunction writeManifest(".rs.writeRSConnectManifest");
+         writeManifest.addParam(recordTarget_);
+         writeManifest.addParam(account_);
+         writeManifest.addParam(server_);
+         writeManifest.addParam(app_);
+         writeManifest.addParam(string_utils::utf8ToSystem(
+                                   hashesPath_.absolutePath()));
+         error = writeManifest.call();
+         if (error)
+            LOG_ERROR(error);
+      }
+
+      // clean up the manifest and hashes if we created them
+      error = manifestPath_.removeIfExists();
+      if (error)
+         LOG_ERROR(error);
+      error = hashesPath_.removeIfExists();
       if (error)
          LOG_ERROR(error);
    }
@@ -237,6 +291,11 @@ private:
    std::string deployedUrl_;
    std::string sourceFile_;
    FilePath manifestPath_;
+   FilePath hashesPath_;
+   std::string recordTarget_;
+   std::string account_;
+   std::string server_;
+   std::string app_;
 };
 
 boost::shared_ptr<RSConnectPublish> s_pRSConnectPublish_;
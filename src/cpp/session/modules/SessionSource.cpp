@@ -452,6 +452,102 @@ Error saveDocumentDiff(const json::JsonRpcRequest& request,
    return Success();
 }
 
+Error saveDocumentHunks(const json::JsonRpcRequest& request,
+                        json::JsonRpcResponse* pResponse)
+{
+   using namespace rstudio::core::string_utils;
+
+   // Same as saveDocumentDiff, but with several replacements ("hunks"),
+   // each an [offset, length, replacement] triple. Hunks are in ascending
+   // order and don't overlap; offsets and lengths refer to the document
+   // before any of the hunks are applied.
+   std::string id;
+   json::Value jsonPath, jsonType, jsonEncoding, jsonFoldSpec;
+   json::Array hunks;
+   std::string hash;
+   Error error = json::readParams(request.params,
+                                  &id,
+                                  &jsonPath,
+                                  &jsonType,
+                                  &jsonEncoding,
+                                  &jsonFoldSpec,
+                                  &hunks,
+                                  &hash);
+   if (error)
+      return error ;
+
+   // if this has no path then it is an autosave, in this case
+   // suppress change detection
+   bool hasPath = json::isType<std::string>(jsonPath);
+   if (!hasPath)
+       pResponse->setSuppressDetectChanges(true);
+
+   // get the doc
+   boost::shared_ptr<SourceDocument> pDoc(new SourceDocument());
+   error = source_database::get(id, pDoc);
+   if (error)
+      return error ;
+
+   // Don't even attempt anything if we're not working off the same original
+   if (pDoc->hash() != hash)
+      return Success();
+
+   // Build the patched contents in a single pass over the original. Any
+   // problem with the hunks (malformed, out of order, out of range, or bad
+   // UTF8) aborts the differential save; returning no result tells the
+   // client to fall back to a full save.
+   std::string contents(pDoc->contents());
+   std::string patched;
+   patched.reserve(contents.size());
+   std::string::iterator pos = contents.begin();
+   int posChars = 0;
+   BOOST_FOREACH(const json::Value& hunkJson, hunks)
+   {
+      if (!json::isType<json::Array>(hunkJson))
+         return Success();
+
+      int offset, length;
+      std::string replacement;
+      error = json::readParams(hunkJson.get_array(),
+                               &offset,
+                               &length,
+                               &replacement);
+      if (error || offset < posChars || length < 0)
+         return Success();
+
+      // Offset and length are specified in characters, but contents
+      // is in UTF8 bytes. Convert before using.
+      std::string::iterator rangeBegin;
+      error = utf8Advance(pos, offset - posChars, contents.end(), &rangeBegin);
+      if (error)
+         return Success();
+
+      std::string::iterator rangeEnd;
+      error = utf8Advance(rangeBegin, length, contents.end(), &rangeEnd);
+      if (error)
+         return Success();
+
+      patched.append(pos, rangeBegin);
+      patched.append(replacement);
+      pos = rangeEnd;
+      posChars = offset + length;
+   }
+   patched.append(pos, contents.end());
+
+   error = saveDocumentCore(patched, jsonPath, jsonType, jsonEncoding,
+                            jsonFoldSpec, pDoc);
+   if (error)
+      return error;
+
+   // write to the source_database
+   error = sourceDatabasePutWithUpdatedContents(pDoc);
+   if (error)
+      return error;
+
+   pResponse->setResult(pDoc->hash());
+   return Success();
+}
+
 Error checkForExternalEdit(const json::JsonRpcRequest& request,
                            json::JsonRpcResponse* pResponse)
 {
@@ -1164,6 +1260,7 @@ Error initialize()
       (bind(registerRpcMethod, "open_document", openDocument))
       (bind(registerRpcMethod, "save_document", saveDocument))
       (bind(registerRpcMethod, "save_document_diff", saveDocumentDiff))
+      (bind(registerRpcMethod, "save_document_hunks", saveDocumentHunks))
       (bind(registerRpcMethod, "check_for_external_edit", checkForExternalEdit))
       (bind(registerRpcMethod, "ignore_external_edit", ignoreExternalEdit))
       (bind(registerRpcMethod, "set_source_document_on_save", setSourceDocumentOnSave))
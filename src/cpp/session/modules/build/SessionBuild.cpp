@@ -181,8 +181,8 @@ public:
 
 private:
    Build()
-      : isRunning_(false), terminationRequested_(false), restartR_(false),
-        usedDevtools_(false)
+      : isRunning_(false), terminationRequested_(false),
+        currentLinePos_(0), restartR_(false), usedDevtools_(false)
    {
    }
 
@@ -1111,6 +1111,22 @@ public:
       return outputJson;
    }
 
+   // Returns lines [first, first + count) of the output as it would be
+   // displayed (see indexOutputLines). The client drops older lines from
+   // the Build pane's buffer and pages them back in using this.
+   json::Array outputLinesAsJson(int first, int count) const
+   {
+      json::Array linesJson;
+      int size = static_cast<int>(outputLines_.size());
+      first = std::max(0, std::min(first, size));
+      int last = std::max(first, std::min(first + std::max(count, 0), size));
+      std::transform(outputLines_.begin() + first,
+                     outputLines_.begin() + last,
+                     std::back_inserter(linesJson),
+                     module_context::compileOutputAsJson);
+      return linesJson;
+   }
+
    std::string outputAsText()
    {
       std::string output;
@@ -1230,6 +1246,7 @@ private:
       module_context::CompileOutput compileOutput(type, output);
 
       output_.push_back(compileOutput);
+      indexOutputLines(compileOutput);
 
       ClientEvent event(client_events::kBuildOutput,
                         compileOutputAsJson(compileOutput));
@@ -1237,6 +1254,48 @@ private:
       module_context::enqueClientEvent(event);
    }
 
+   // Adds the completed lines of the output to outputLines_, rendered as
+   // the Build pane renders them: carriage returns overwrite the current
+   // line, backspaces erase the previous character on the line and form
+   // feeds clear everything written so far. Each line takes the type of
+   // the output which completes it.
+   void indexOutputLines(const module_context::CompileOutput& compileOutput)
+   {
+      BOOST_FOREACH(char ch, compileOutput.output)
+      {
+         if (ch == '\n')
+         {
+            outputLines_.push_back(module_context::CompileOutput(
+                                         compileOutput.type, currentLine_));
+            currentLine_.clear();
+            currentLinePos_ = 0;
+         }
+         else if (ch == '\r')
+         {
+            currentLinePos_ = 0;
+         }
+         else if (ch == '\b')
+         {
+            if (currentLinePos_ > 0)
+               currentLine_.erase(--currentLinePos_, 1);
+         }
+         else if (ch == '\f')
+         {
+            outputLines_.clear();
+            currentLine_.clear();
+            currentLinePos_ = 0;
+         }
+         else
+         {
+            if (currentLinePos_ < currentLine_.size())
+               currentLine_[currentLinePos_] = ch;
+            else
+               currentLine_.push_back(ch);
+            currentLinePos_++;
+         }
+      }
+   }
+
    void enqueCommandString(const std::string& cmd)
    {
       enqueBuildOutput(module_context::kCompileOutputCommand,
@@ -1368,6 +1427,11 @@ private:
    bool isRunning_;
    bool terminationRequested_;
    std::vector<module_context::CompileOutput> output_;
+
+   // the output's completed lines, and the line being written
+   std::vector<module_context::CompileOutput> outputLines_;
+   std::string currentLine_;
+   std::size_t currentLinePos_;
    CompileErrorParser errorParser_;
    std::string errorsBaseDir_;
    json::Array errorsJson_;
@@ -1426,6 +1490,22 @@ Error terminateBuild(const json::JsonRpcRequest& request,
    return Success();
 }
 
+Error getBuildOutputLines(const json::JsonRpcRequest& request,
+                          json::JsonRpcResponse* pResponse)
+{
+   int first, count;
+   Error error = json::readParams(request.params, &first, &count);
+   if (error)
+      return error;
+
+   if (s_pBuild)
+      pResponse->setResult(s_pBuild->outputLinesAsJson(first, count));
+   else
+      pResponse->setResult(json::Array());
+
+   return Success();
+}
+
 Error getCppCapabilities(const json::JsonRpcRequest& request,
                          json::JsonRpcResponse* pResponse)
 {
@@ -1739,6 +1819,7 @@ Error initialize()
    initBlock.addFunctions()
       (bind(registerRpcMethod, "start_build", startBuild))
       (bind(registerRpcMethod, "terminate_build", terminateBuild))
+      (bind(registerRpcMethod, "get_build_output_lines", getBuildOutputLines))
       (bind(registerRpcMethod, "get_cpp_capabilities", getCppCapabilities))
       (bind(registerRpcMethod, "install_build_tools", installBuildTools))
       (bind(registerRpcMethod, "devtools_load_all_path", devtoolsLoadAllPath))
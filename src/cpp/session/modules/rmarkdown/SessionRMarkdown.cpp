@@ -17,6 +17,8 @@
 #include "../SessionHTMLPreview.hpp"
 #include "../build/SessionBuildErrors.hpp"
 
+#include <algorithm>
+
 #include <boost/algorithm/string/predicate.hpp>
 #include <boost/algorithm/string.hpp>
 #include <boost/iostreams/filter/regex.hpp>
@@ -1047,6 +1049,14 @@ Error getRmdTemplate(const json::JsonRpcRequest& request,
 
 
 
+Error evaluateRmdParams(const std::string& contents)
+{
+   // evaluate params if we can
+   if (module_context::isPackageVersionInstalled("knitr", "1.10"))
+      return r::exec::RFunction(".rs.evaluateRmdParams", contents).call();
+   return Success();
+}
+
 Error prepareForRmdChunkExecution(const json::JsonRpcRequest& request,
                                   json::JsonRpcResponse*)
 {
@@ -1066,19 +1076,100 @@ Error prepareForRmdChunkExecution(const json::JsonRpcRequest& request,
       return error;
    }
 
-   // evaluate params if we can
-   if (module_context::isPackageVersionInstalled("knitr", "1.10"))
+   error = evaluateRmdParams(pDoc->contents());
+   if (error)
+   {
+      LOG_ERROR(error);
+      return error;
+   }
+
+   return Success();
+}
+
+// Queues chunks of a saved document for execution. The client refers to
+// the chunks by their rows rather than sending their code; the code is
+// read here and run by .rs.executeQueuedRmdChunks (which the client then
+// sends to the console), so only that call is echoed.
+Error queueRmdChunks(const json::JsonRpcRequest& request,
+                     json::JsonRpcResponse*)
+{
+   std::string id;
+   json::Array chunksJson;
+   Error error = json::readParams(request.params, &id, &chunksJson);
+   if (error)
+      return error;
+
+   using namespace source_database;
+   boost::shared_ptr<SourceDocument> pDoc(new SourceDocument());
+   error = source_database::get(id, pDoc);
+   if (error)
+   {
+      LOG_ERROR(error);
+      return error;
+   }
+
+   std::vector<std::string> lines;
+   boost::algorithm::split(lines, pDoc->contents(),
+                           boost::algorithm::is_any_of("\n"));
+
+   // each chunk's code is its rows from start_row up to (but not
+   // including) end_row
+   std::vector<std::string> labels;
+   std::vector<std::string> codes;
+   std::vector<int> startRows;
+   BOOST_FOREACH(const json::Value& chunkJson, chunksJson)
    {
-      error = r::exec::RFunction(".rs.evaluateRmdParams", pDoc->contents())
-                                                                      .call();
+      if (chunkJson.type() != json::ObjectType)
+         return Error(json::errc::ParamTypeMismatch, ERROR_LOCATION);
+
+      std::string label;
+      int startRow, endRow;
+      error = json::readObject(chunkJson.get_obj(),
+                               "label", &label,
+                               "start_row", &startRow,
+                               "end_row", &endRow);
       if (error)
-      {
-         LOG_ERROR(error);
          return error;
-      }
+
+      startRow = std::max(startRow, 0);
+      endRow = std::min(endRow, static_cast<int>(lines.size()));
+
+      std::string code;
+      for (int row = startRow; row < endRow; row++)
+         code.append(lines[row]).append("\n");
+
+      labels.push_back(label);
+      codes.push_back(code);
+      startRows.push_back(startRow);
    }
 
-   return Success();
+   error = evaluateRmdParams(pDoc->contents());
+   if (error)
+      LOG_ERROR(error);
+
+   // the document's path (if saved) names the chunks' source references
+   std::string path;
+   if (!pDoc->path().empty())
+      path = module_context::resolveAliasedPath(pDoc->path()).absolutePath();
+
+   r::exec::RFunction queue(".rs.queueRmdChunks");
+   queue.addParam(id);
+   queue.addParam(path);
+   queue.addParam(labels);
+   queue.addParam(codes);
+   queue.addParam(startRows);
+   return queue.call();
+}
+
+Error cancelRmdChunks(const json::JsonRpcRequest& request,
+                      json::JsonRpcResponse*)
+{
+   std::string id;
+   Error error = json::readParams(request.params, &id);
+   if (error)
+      return error;
+
+   return r::exec::RFunction(".rs.cancelRmdChunks", id).call();
 }
 
 
@@ -1145,6 +1236,8 @@ Error initialize()
       (bind(registerRpcMethod, "create_rmd_from_template", createRmdFromTemplate))
       (bind(registerRpcMethod, "get_rmd_template", getRmdTemplate))
       (bind(registerRpcMethod, "prepare_for_rmd_chunk_execution", prepareForRmdChunkExecution))
+      (bind(registerRpcMethod, "queue_rmd_chunks", queueRmdChunks))
+      (bind(registerRpcMethod, "cancel_rmd_chunks", cancelRmdChunks))
       (bind(registerUriHandler, kRmdOutputLocation, handleRmdOutputRequest))
       (bind(module_context::sourceModuleRFile, "SessionRMarkdown.R"));
 
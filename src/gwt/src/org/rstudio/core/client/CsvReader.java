@@ -17,11 +17,32 @@ package org.rstudio.core.client;
 import java.util.ArrayList;
 import java.util.Iterator;
 
+// Reads delimited text a row at a time. By default this is CSV: fields are
+// separated by commas and may be quoted with double quotes (a quote inside
+// a quoted field is doubled). The delimiter, quote, escape and comment
+// characters can be given instead, as read.table's sep, quote and
+// comment.char.
 public class CsvReader implements Iterable<String[]>
 {
    public CsvReader(String data)
+   {
+      this(data, ',', '"', NONE, NONE);
+   }
+
+   // delimiter may be WHITESPACE, meaning that any run of spaces and tabs
+   // separates fields (as read.table's sep = ""); quote, escape and comment
+   // may be NONE
+   public CsvReader(String data,
+                    char delimiter,
+                    char quote,
+                    char escape,
+                    char comment)
    {
       data_ = data;
+      delimiter_ = delimiter;
+      quote_ = quote;
+      escape_ = escape;
+      comment_ = comment;
    }
 
    public Iterator<String[]> iterator()
@@ -50,30 +71,48 @@ public class CsvReader implements Iterable<String[]>
             {
                char c = data_.charAt(pos);
 
+               if (c == comment_ && comment_ != NONE && state != IN_QUOTE)
+               {
+                  // the rest of the line is ignored
+                  int end = data_.indexOf('\n', pos);
+                  pos = end < 0 ? data_.length() : end;
+                  c = '\n';
+               }
                if (c == '\n' && state != IN_QUOTE)
                {
                   pos++;
                   break;
                }
-               if (c == ',' && state != IN_QUOTE)
+               if (isDelimiter(c) && state != IN_QUOTE)
                {
+                  // runs of whitespace are a single delimiter
+                  if (delimiter_ == WHITESPACE && state == START)
+                     continue;
                   if (state != QUOTE_ENDED)
                      list.add(chunk.toString());
                   chunk = new StringBuilder();
                   state = START;
                   continue;
                }
-               if (c == '"' && state == START)
+               if (c == escape_ && escape_ != NONE && 
+                   pos < data_.length() - 1)
+               {
+                  if (state == START)
+                     state = IN_UNQUOTED;
+                  chunk.append(data_.charAt(++pos));
+                  continue;
+               }
+               if (c == quote_ && quote_ != NONE && state == START)
                {
                   state = IN_QUOTE;
                   continue;
                }
-               if (c == '"' && state == IN_QUOTE)
+               if (c == quote_ && quote_ != NONE && state == IN_QUOTE)
                {
                   int lookahead = (pos < data_.length() - 1)
                                   ? data_.charAt(pos+1)
                                   : -1;
-                  if (lookahead == '"')
+                  if (lookahead == quote_)
                   {
                      chunk.append((char)lookahead);
                      pos++;
@@ -90,7 +129,11 @@ public class CsvReader implements Iterable<String[]>
                chunk.append(c);
             }
 
-            if (state != QUOTE_ENDED)
+            // (whitespace at the end of a row doesn't start another field)
+            boolean trailingWhitespace = delimiter_ == WHITESPACE &&
+                                         state == START &&
+                                         !list.isEmpty();
+            if (state != QUOTE_ENDED && !trailingWhitespace)
             {
                list.add(chunk.toString());
             }
@@ -105,5 +148,19 @@ public class CsvReader implements Iterable<String[]>
       };
    }
 
+   private boolean isDelimiter(char c)
+   {
+      if (delimiter_ == WHITESPACE)
+         return c == ' ' || c == '\t';
+      return c == delimiter_;
+   }
+
+   public static final char NONE = '\0';
+   public static final char WHITESPACE = ' ';
+
    private final String data_;
+   private final char delimiter_;
+   private final char quote_;
+   private final char escape_;
+   private final char comment_;
 }
@@ -18,6 +18,7 @@ public class ElementIds
    
    public final static String CONSOLE_INPUT = "console_input";
    public final static String CONSOLE_OUTPUT = "console_output";
+   public final static String ENVIRONMENT_OBJECTS = "environment_objects";
    public final static String FIND_REPLACE_BAR = "find_replace_bar";
    public final static String HELP_FRAME = "help_frame";
    public final static String LOADING_SPINNER = "loading_image";
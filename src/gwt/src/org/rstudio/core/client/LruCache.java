@@ -0,0 +1,44 @@
+/*
+ * LruCache.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// A map holding at most 'maxSize' entries; once full, adding an entry
+// evicts the least recently accessed one.
+public class LruCache<K, V> extends LinkedHashMap<K, V>
+{
+   public LruCache(int maxSize)
+   {
+      super(16, 0.75f, true);
+      maxSize_ = maxSize;
+   }
+
+   public int getMaxSize()
+   {
+      return maxSize_;
+   }
+
+   @Override
+   protected boolean removeEldestEntry(Map.Entry<K, V> eldest)
+   {
+      return size() > maxSize_;
+   }
+
+   private final int maxSize_;
+
+   private static final long serialVersionUID = 1L;
+}
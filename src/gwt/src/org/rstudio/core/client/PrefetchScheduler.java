@@ -0,0 +1,215 @@
+/*
+ * PrefetchScheduler.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client;
+
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.Command;
+import com.google.gwt.user.client.Event;
+import com.google.gwt.user.client.Event.NativePreviewEvent;
+import com.google.gwt.user.client.Event.NativePreviewHandler;
+import com.google.gwt.user.client.Timer;
+
+import java.util.ArrayList;
+
+/**
+ * Runs background prefetch tasks (typically code fragment downloads) with
+ * bounded concurrency and in priority order. Unlike a
+ * SerializedCommandQueue, one slow task doesn't hold up the others, and
+ * tasks aren't started while the user is actively typing or clicking.
+ *
+ * The start and end time of each task (until it invokes its continuation)
+ * are recorded; see getTimings.
+ */
+public class PrefetchScheduler
+{
+   public static final int PRIORITY_HIGH = 0;
+   public static final int PRIORITY_NORMAL = 1;
+   public static final int PRIORITY_LOW = 2;
+
+   public static class Timing
+   {
+      private Timing(String name, long startTime)
+      {
+         name_ = name;
+         startTime_ = startTime;
+      }
+
+      public String getName()
+      {
+         return name_;
+      }
+
+      // times are in milliseconds since the epoch
+      public long getStartTime()
+      {
+         return startTime_;
+      }
+
+      // 0 if the task hasn't finished
+      public long getEndTime()
+      {
+         return endTime_;
+      }
+
+      private final String name_;
+      private final long startTime_;
+      private long endTime_;
+   }
+
+   public PrefetchScheduler(int maxConcurrent)
+   {
+      maxConcurrent_ = maxConcurrent;
+   }
+
+   public void addTask(String name, int priority, SerializedCommand command)
+   {
+      // insert after any existing tasks of the same or higher priority
+      int index = 0;
+      while (index < pending_.size() &&
+             pending_.get(index).priority <= priority)
+      {
+         index++;
+      }
+      pending_.add(index, new Task(name, priority, command));
+   }
+
+   public void start()
+   {
+      if (!started_)
+      {
+         started_ = true;
+         inputMonitor_ = Event.addNativePreviewHandler(
+               new NativePreviewHandler()
+         {
+            @Override
+            public void onPreviewNativeEvent(NativePreviewEvent event)
+            {
+               switch (event.getTypeInt())
+               {
+                  case Event.ONKEYDOWN:
+                  case Event.ONMOUSEDOWN:
+                  case Event.ONMOUSEWHEEL:
+                     lastInputTime_ = System.currentTimeMillis();
+                     break;
+               }
+            }
+         });
+      }
+      launchTasks();
+   }
+
+   public int getPendingCount()
+   {
+      return pending_.size() + running_;
+   }
+
+   // Returns the timings of the tasks which have started, in start order
+   public ArrayList<Timing> getTimings()
+   {
+      return new ArrayList<Timing>(timings_);
+   }
+
+   private void launchTasks()
+   {
+      if (pending_.isEmpty() && running_ == 0)
+      {
+         onAllCompleted();
+         return;
+      }
+
+      // yield to user input: wait until the user has been idle for a bit
+      // before starting more downloads
+      long idle = System.currentTimeMillis() - lastInputTime_;
+      if (idle < INPUT_QUIET_MS)
+      {
+         if (!resumePending_)
+         {
+            resumePending_ = true;
+            resumeTimer_.schedule((int) (INPUT_QUIET_MS - idle));
+         }
+         return;
+      }
+
+      while (running_ < maxConcurrent_ && !pending_.isEmpty())
+         runTask(pending_.remove(0));
+   }
+
+   private void runTask(final Task task)
+   {
+      running_++;
+      final Timing timing = new Timing(task.name, System.currentTimeMillis());
+      timings_.add(timing);
+      final Mutable<Boolean> completed = new Mutable<Boolean>(false);
+      task.command.onExecute(new Command()
+      {
+         @Override
+         public void execute()
+         {
+            // guard against continuations being invoked more than once
+            if (completed.get())
+               return;
+            completed.set(true);
+
+            running_--;
+            timing.endTime_ = System.currentTimeMillis();
+            launchTasks();
+         }
+      });
+   }
+
+   private void onAllCompleted()
+   {
+      if (inputMonitor_ != null)
+      {
+         inputMonitor_.removeHandler();
+         inputMonitor_ = null;
+      }
+   }
+
+   private class Task
+   {
+      public Task(String name, int priority, SerializedCommand command)
+      {
+         this.name = name;
+         this.priority = priority;
+         this.command = command;
+      }
+
+      public final String name;
+      public final int priority;
+      public final SerializedCommand command;
+   }
+
+   private final Timer resumeTimer_ = new Timer()
+   {
+      @Override
+      public void run()
+      {
+         resumePending_ = false;
+         launchTasks();
+      }
+   };
+
+   private final int maxConcurrent_;
+   private final ArrayList<Task> pending_ = new ArrayList<Task>();
+   private final ArrayList<Timing> timings_ = new ArrayList<Timing>();
+   private int running_ = 0;
+   private boolean started_ = false;
+   private long lastInputTime_ = 0;
+   private boolean resumePending_ = false;
+   private HandlerRegistration inputMonitor_;
+
+   private static final int INPUT_QUIET_MS = 300;
+}
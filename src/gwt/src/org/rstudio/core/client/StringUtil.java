@@ -64,7 +64,7 @@ public class StringUtil
       if (date == null)
          return "";
 
-      return DATE_FORMAT.format(date);
+      return Formats.DATE.format(date);
    }
 
    public static String formatFileSize(long size)
@@ -98,7 +98,7 @@ public class StringUtil
          divisor *= 1024;
       }
 
-      return FORMAT.format((double)size / divisor) + " " + LABELS[i];
+      return Formats.SIZE.format((double)size / divisor) + " " + LABELS[i];
    }
    
    // Peform an integer division and return the result. GWT's division operator
@@ -110,7 +110,7 @@ public class StringUtil
    
    public static String prettyFormatNumber(double number)
    {
-      return PRETTY_NUMBER_FORMAT.format(number);
+      return Formats.PRETTY_NUMBER.format(number);
    }
 
    public static String formatGeneralNumber(long number)
@@ -543,7 +543,41 @@ public class StringUtil
    
    public static int countMatches(String line, char chr)
    {
-      return line.length() - line.replace(String.valueOf(chr), "").length();
+      int count = 0;
+      int index = line.indexOf(chr);
+      while (index != -1)
+      {
+         count++;
+         index = line.indexOf(chr, index + 1);
+      }
+      return count;
+   }
+   
+   // Counts occurrences of chr in the range [begin, end) of text without
+   // allocating (useful for incrementally tracking line counts in buffers)
+   public static int countMatches(CharSequence text, char chr,
+                                  int begin, int end)
+   {
+      int count = 0;
+      end = Math.min(end, text.length());
+      for (int i = Math.max(0, begin); i < end; i++)
+         if (text.charAt(i) == chr)
+            count++;
+      return count;
+   }
+   
+   // Returns the index of the n-th (1-based) occurrence of chr in string,
+   // or -1 if there are fewer than n occurrences
+   public static int nthIndexOf(String string, char chr, int n)
+   {
+      int index = -1;
+      for (int i = 0; i < n; i++)
+      {
+         index = string.indexOf(chr, index + 1);
+         if (index == -1)
+            return -1;
+      }
+      return index;
    }
    
    public static String stripRComment(String string)
@@ -1006,10 +1040,18 @@ public class StringUtil
    public static final HashMap<String, String> COMPLEMENTS =
          makeComplementsMap();
    
-   private static final NumberFormat FORMAT = NumberFormat.getFormat("0.#");
-   private static final NumberFormat PRETTY_NUMBER_FORMAT = NumberFormat.getFormat("#,##0.#####");
-   private static final DateTimeFormat DATE_FORMAT
-                          = DateTimeFormat.getFormat("MMM d, yyyy, h:mm a");
+   // the formats are created on first use rather than with the class, so
+   // the string algorithms above can also run outside the browser (see
+   // the benchmarks under test/)
+   private static class Formats
+   {
+      static final NumberFormat SIZE = NumberFormat.getFormat("0.#");
+      static final NumberFormat PRETTY_NUMBER =
+                                    NumberFormat.getFormat("#,##0.#####");
+      static final DateTimeFormat DATE =
+                              DateTimeFormat.getFormat("MMM d, yyyy, h:mm a");
+   }
+
    private static final Pattern RE_INDENT = Pattern.create("^\\s*", "");
 
 }
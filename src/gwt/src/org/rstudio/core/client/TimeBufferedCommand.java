@@ -100,13 +100,28 @@ public abstract class TimeBufferedCommand
       stopped_ = false;
    }
 
+   /**
+    * Resumes a suspended command, including one that fires on passive
+    * intervals: the passive runs start over as when the command was
+    * created, and runs scheduled before it was suspended are dropped.
+    */
+   public final void restart()
+   {
+      stopped_ = false;
+      generation_++;
+      if (initialIntervalMillis_ >= 0 && passiveIntervalMillis_ > 0)
+         scheduleExecution(true, Math.max(1, initialIntervalMillis_));
+   }
+
    private final void scheduleExecution(final boolean passive, final int millis)
    {
+      final int generation = generation_;
       new Timer() {
          @Override
          public void run()
          {
-            execute(passive, millis);
+            if (generation == generation_)
+               execute(passive, millis);
          }
       }.schedule(millis);
    }
@@ -149,4 +164,5 @@ public abstract class TimeBufferedCommand
    private final int activeIntervalMillis_;
    protected Date lastExecuted_;
    private boolean stopped_;
+   private int generation_;
 }
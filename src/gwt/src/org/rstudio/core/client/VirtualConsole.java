@@ -72,7 +72,7 @@ public class VirtualConsole
                carriageReturn();
                // the sequence \r\n or \n\r can be represented in an append-only
                // way, so treat these cases as an append
-               appendOnly = 
+               appendOnly = appendOnly &&
                      ((pos > 0 && data.charAt(pos - 1) == '\n') ||
                       (tail < data.length() && data.charAt(tail) == '\n'));
                break;
@@ -105,6 +105,8 @@ public class VirtualConsole
    {
       if (pos_ == 0)
          return;
+      if (o.charAt(pos_ - 1) == '\n')
+         newlines_--;
       o.deleteCharAt(--pos_);
    }
 
@@ -129,6 +131,7 @@ public class VirtualConsole
    {
       o.setLength(0);
       pos_ = 0;
+      newlines_ = 0;
       charClass.clear();
    }
 
@@ -138,6 +141,11 @@ public class VirtualConsole
 
       int endPos = pos_ + text.length();
       
+      // keep the line count current by counting only the characters being
+      // overwritten and written, so the cost is proportional to the new text
+      newlines_ += StringUtil.countMatches(text, '\n') -
+                   StringUtil.countMatches(o, '\n', pos_, endPos);
+      
       o.replace(pos_, endPos, text);
       
       // record the class of each character emitted
@@ -177,6 +185,24 @@ public class VirtualConsole
       return o.length();
    }
    
+   // Returns the number of newline characters in the buffer
+   public int getNewlineCount()
+   {
+      return newlines_;
+   }
+   
+   public boolean endsWithNewline()
+   {
+      return o.length() > 0 && o.charAt(o.length() - 1) == '\n';
+   }
+   
+   // Returns true if the next submitted text will be written at the end of
+   // the buffer (i.e. no pending carriage return or backspace)
+   public boolean isCursorAtEnd()
+   {
+      return pos_ == o.length();
+   }
+   
    public void submitAndRender(String data, String clazz, Element parent)
    {
       if (!submit(data, clazz))
@@ -265,6 +291,7 @@ public class VirtualConsole
    private final StringBuilder o = new StringBuilder();
    private final ArrayList<String> charClass = new ArrayList<String>();
    private int pos_ = 0;
+   private int newlines_ = 0;
    private static final Pattern CONTROL = Pattern.create("[\r\b\f\n]");
    private static final Pattern CONTROL_SPECIAL = Pattern.create("[\r\b\f]");
 }
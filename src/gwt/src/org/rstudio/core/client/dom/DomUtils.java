@@ -34,6 +34,7 @@ import org.rstudio.core.client.BrowseCap;
 import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.Point;
 import org.rstudio.core.client.Rectangle;
+import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.command.KeyboardShortcut;
 import org.rstudio.core.client.dom.impl.DomUtilsImpl;
 import org.rstudio.core.client.dom.impl.NodeRelativePosition;
@@ -69,6 +70,12 @@ public class DomUtils
          element.focus();
    }-*/;
 
+   // Returns an empty DocumentFragment, for building a set of nodes off the
+   // DOM and then inserting them with a single call
+   public static native Node createDocumentFragment() /*-{
+      return $doc.createDocumentFragment();
+   }-*/;
+
    public static int trimLines(Element element, int linesToTrim)
    {
       return trimLines(element.getChildNodes(), linesToTrim);
@@ -136,7 +143,6 @@ public class DomUtils
       impl.selectElement(el);
    }
 
-   private static final Pattern NEWLINE = Pattern.create("\\n");
    private static int trimLines(NodeList<Node> nodes, final int linesToTrim)
    {
       if (nodes == null || nodes.getLength() == 0 || linesToTrim == 0)
@@ -168,23 +174,17 @@ public class DomUtils
             case Node.TEXT_NODE:
                String text = ((Text)node).getData();
 
-               Match lastMatch = null;
-               Match match = NEWLINE.match(text, 0);
-               while (match != null && linesLeft > 0)
-               {
-                  lastMatch = match;
-                  linesLeft--;
-                  match = match.nextMatch();
-               }
-
-               if (linesLeft > 0 || lastMatch == null)
+               int newlines = StringUtil.countMatches(text, '\n');
+               if (newlines < linesLeft)
                {
+                  linesLeft -= newlines;
                   node = removeAndGetNext(node);
                   continue;
                }
                else
                {
-                  int index = lastMatch.getIndex() + 1;
+                  int index = StringUtil.nthIndexOf(text, '\n', linesLeft) + 1;
+                  linesLeft = 0;
                   if (text.length() == index)
                      node.removeFromParent();
                   else
@@ -228,16 +228,7 @@ public class DomUtils
    {
       if (!pre)
          return 0;
-      String value = textNode.getData();
-      Pattern pattern = Pattern.create("\\n");
-      int count = 0;
-      Match m = pattern.match(value, 0);
-      while (m != null)
-      {
-         count++;
-         m = m.nextMatch();
-      }
-      return count;
+      return StringUtil.countMatches(textNode.getData(), '\n');
    }
 
    private static int countLinesInternal(Element elementNode, boolean pre)
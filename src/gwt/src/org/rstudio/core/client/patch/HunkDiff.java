@@ -0,0 +1,298 @@
+/*
+ * HunkDiff.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.patch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+// Describes the difference between two strings as a list of hunks, each
+// replacing a range of the original string. Unlike SubstringDiff, which
+// always produces a single replacement spanning every change, separate
+// edits (e.g. one near the top of a document and one near the bottom)
+// produce separate hunks, so the size of the diff stays proportional to
+// what actually changed.
+//
+// The changed region is first narrowed by trimming the common head and
+// tail, then split into lines and matched using lines which occur exactly
+// once in both versions (as in patience diff). Hunks are in ascending order
+// of offset, don't overlap, and their offsets and lengths refer to the
+// original string.
+public class HunkDiff
+{
+   public static class Hunk
+   {
+      public Hunk(int offset, int length, String replacement)
+      {
+         this.offset = offset;
+         this.length = length;
+         this.replacement = replacement;
+      }
+
+      public final int offset;
+      public final int length;
+      public final String replacement;
+   }
+
+   public HunkDiff(String origVal, String newVal)
+   {
+      SubstringDiff diff = new SubstringDiff(origVal, newVal);
+      if (diff.isEmpty())
+         return;
+
+      int changedLength = Math.max(diff.getLength(),
+                                   diff.getReplacement().length());
+      if (changedLength < MIN_SPLIT_LENGTH)
+      {
+         hunks_.add(new Hunk(diff.getOffset(),
+                             diff.getLength(),
+                             diff.getReplacement()));
+         return;
+      }
+
+      // widen the changed region to whole lines; the widened parts are
+      // common to both strings as they lie within the common head/tail
+      int start = origVal.lastIndexOf('\n', diff.getOffset() - 1) + 1;
+      int origEnd = lineEnd(origVal, diff.getOffset() + diff.getLength());
+      int newEnd = newVal.length() - (origVal.length() - origEnd);
+
+      diffLines(origVal, start, origEnd, newVal, start, newEnd);
+      mergeNearbyHunks(origVal);
+   }
+
+   public ArrayList<Hunk> getHunks()
+   {
+      return hunks_;
+   }
+
+   /**
+    * @return True iff there was no difference between the strings.
+    */
+   public boolean isEmpty()
+   {
+      return hunks_.isEmpty();
+   }
+
+   public String patch(String original)
+   {
+      StringBuilder result = new StringBuilder();
+      int pos = 0;
+      for (Hunk hunk : hunks_)
+      {
+         result.append(original.substring(pos, hunk.offset));
+         result.append(hunk.replacement);
+         pos = hunk.offset + hunk.length;
+      }
+      result.append(original.substring(pos));
+      return result.toString();
+   }
+
+   private void diffLines(String origVal, int origStart, int origEnd,
+                          String newVal, int newStart, int newEnd)
+   {
+      ArrayList<Integer> origLines = lineOffsets(origVal, origStart, origEnd);
+      ArrayList<Integer> newLines = lineOffsets(newVal, newStart, newEnd);
+      int origCount = origLines.size() - 1;
+      int newCount = newLines.size() - 1;
+
+      // find lines occurring exactly once in each version
+      HashMap<String, int[]> counts = new HashMap<String, int[]>();
+      for (int i = 0; i < origCount; i++)
+      {
+         String line = line(origVal, origLines, i);
+         int[] entry = counts.get(line);
+         if (entry == null)
+            counts.put(line, new int[] {1, 0, i, -1});
+         else
+            entry[0]++;
+      }
+      for (int i = 0; i < newCount; i++)
+      {
+         int[] entry = counts.get(line(newVal, newLines, i));
+         if (entry != null)
+         {
+            entry[1]++;
+            entry[3] = i;
+         }
+      }
+
+      // pair them up in original order
+      ArrayList<int[]> pairs = new ArrayList<int[]>();
+      for (int i = 0; i < origCount; i++)
+      {
+         int[] entry = counts.get(line(origVal, origLines, i));
+         if (entry[0] == 1 && entry[1] == 1)
+            pairs.add(new int[] {entry[2], entry[3]});
+      }
+
+      // the longest run of pairs in order in both versions are our anchors;
+      // add a sentinel anchor at the end of both line lists
+      ArrayList<int[]> anchors = longestIncreasing(pairs);
+      anchors.add(new int[] {origCount, newCount});
+
+      int origLine = 0;
+      int newLine = 0;
+      for (int[] anchor : anchors)
+      {
+         // extend the matched region forward and backward from the anchor
+         while (origLine < anchor[0] && newLine < anchor[1] &&
+                line(origVal, origLines, origLine).equals(
+                      line(newVal, newLines, newLine)))
+         {
+            origLine++;
+            newLine++;
+         }
+
+         int origGapEnd = anchor[0];
+         int newGapEnd = anchor[1];
+         while (origGapEnd > origLine && newGapEnd > newLine &&
+                line(origVal, origLines, origGapEnd - 1).equals(
+                      line(newVal, newLines, newGapEnd - 1)))
+         {
+            origGapEnd--;
+            newGapEnd--;
+         }
+
+         if (origLine < origGapEnd || newLine < newGapEnd)
+         {
+            addHunk(origVal.substring(origLines.get(origLine),
+                                      origLines.get(origGapEnd)),
+                    origLines.get(origLine),
+                    newVal.substring(newLines.get(newLine),
+                                     newLines.get(newGapEnd)));
+         }
+
+         // skip past the anchor line itself
+         origLine = anchor[0] + 1;
+         newLine = anchor[1] + 1;
+      }
+   }
+
+   // Records a hunk replacing 'oldText' (at 'offset') with 'newText',
+   // trimming any common head and tail
+   private void addHunk(String oldText, int offset, String newText)
+   {
+      SubstringDiff diff = new SubstringDiff(oldText, newText);
+      if (!diff.isEmpty())
+      {
+         hunks_.add(new Hunk(offset + diff.getOffset(),
+                             diff.getLength(),
+                             diff.getReplacement()));
+      }
+   }
+
+   // Joins hunks separated by only a little unchanged text, as the
+   // per-hunk overhead would outweigh the text saved
+   private void mergeNearbyHunks(String origVal)
+   {
+      if (hunks_.size() < 2)
+         return;
+
+      ArrayList<Hunk> merged = new ArrayList<Hunk>();
+      Hunk current = hunks_.get(0);
+      for (int i = 1; i < hunks_.size(); i++)
+      {
+         Hunk next = hunks_.get(i);
+         int gapStart = current.offset + current.length;
+         if (next.offset - gapStart < MERGE_GAP_LENGTH)
+         {
+            current = new Hunk(current.offset,
+                               next.offset + next.length - current.offset,
+                               current.replacement +
+                                  origVal.substring(gapStart, next.offset) +
+                                  next.replacement);
+         }
+         else
+         {
+            merged.add(current);
+            current = next;
+         }
+      }
+      merged.add(current);
+      hunks_.clear();
+      hunks_.addAll(merged);
+   }
+
+   // Returns the longest subsequence of pairs whose second elements are
+   // increasing (the first elements are already increasing)
+   private static ArrayList<int[]> longestIncreasing(ArrayList<int[]> pairs)
+   {
+      int n = pairs.size();
+      int[] tails = new int[n];
+      int[] previous = new int[n];
+      int length = 0;
+      for (int i = 0; i < n; i++)
+      {
+         int value = pairs.get(i)[1];
+         int lo = 0;
+         int hi = length;
+         while (lo < hi)
+         {
+            int mid = (lo + hi) >>> 1;
+            if (pairs.get(tails[mid])[1] < value)
+               lo = mid + 1;
+            else
+               hi = mid;
+         }
+         previous[i] = lo > 0 ? tails[lo - 1] : -1;
+         tails[lo] = i;
+         if (lo == length)
+            length++;
+      }
+
+      ArrayList<int[]> result = new ArrayList<int[]>();
+      for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = previous[i])
+         result.add(0, pairs.get(i));
+      return result;
+   }
+
+   // Offsets of the start of each line in [start, end), followed by 'end'
+   private static ArrayList<Integer> lineOffsets(String value,
+                                                 int start,
+                                                 int end)
+   {
+      ArrayList<Integer> offsets = new ArrayList<Integer>();
+      int pos = start;
+      while (pos < end)
+      {
+         offsets.add(pos);
+         pos = lineEnd(value, pos);
+      }
+      offsets.add(end);
+      return offsets;
+   }
+
+   private static String line(String value,
+                              ArrayList<Integer> offsets,
+                              int index)
+   {
+      return value.substring(offsets.get(index), offsets.get(index + 1));
+   }
+
+   // Returns the offset just past the end of the line containing 'pos'
+   // (including its newline)
+   private static int lineEnd(String value, int pos)
+   {
+      int newline = value.indexOf('\n', pos);
+      return newline == -1 ? value.length() : newline + 1;
+   }
+
+   private final ArrayList<Hunk> hunks_ = new ArrayList<Hunk>();
+
+   // changes smaller than this are sent as a single hunk
+   static final int MIN_SPLIT_LENGTH = 512;
+
+   // hunks closer together than this are merged
+   static final int MERGE_GAP_LENGTH = 64;
+}
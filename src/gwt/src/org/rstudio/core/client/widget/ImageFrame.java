@@ -45,6 +45,8 @@ public class ImageFrame extends Frame
                String sizing = "width=\"100%\" height=\"100%\"";
                setupContent(getElement(), sizing);
                replaceLocation(getElement(), url_);
+               if (preserveAspectRatio_)
+                  setObjectFit(getElement(), "contain");
             }
          }
       }.schedule(100);
@@ -69,6 +71,24 @@ public class ImageFrame extends Frame
          replaceLocation(getElement(), url);
    }
 
+   // When enabled the image is scaled to fit the frame without changing
+   // its aspect ratio (rather than being stretched to fill it); used to
+   // preview an image while the frame is being resized
+   public void setPreserveAspectRatio(boolean preserve)
+   {
+      preserveAspectRatio_ = preserve;
+      if (isAttached())
+         setObjectFit(getElement(), preserve ? "contain" : "");
+   }
+
+   private native final void setObjectFit(Element el, String fit) /*-{
+      if (!el.contentWindow || !el.contentWindow.document)
+         return;
+      var img = el.contentWindow.document.getElementById('img');
+      if (img)
+         img.style.objectFit = fit;
+   }-*/;
+
    private native final boolean replaceLocation(Element el, String url) /*-{
       if (!el.contentWindow.document)
          return false;
@@ -110,4 +130,5 @@ public class ImageFrame extends Frame
    }-*/;
 
    private String url_ = "javascript:false";
+   private boolean preserveAspectRatio_ = false;
 }
@@ -0,0 +1,323 @@
+/*
+ * VirtualizedList.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.widget;
+
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.dom.client.DivElement;
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.EventTarget;
+import com.google.gwt.dom.client.Style.Cursor;
+import com.google.gwt.dom.client.Style.Overflow;
+import com.google.gwt.dom.client.Style.Position;
+import com.google.gwt.dom.client.Style.Unit;
+import com.google.gwt.event.dom.client.*;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.ui.RequiresResize;
+import com.google.gwt.user.client.ui.Widget;
+
+// A scrolling list of fixed-height rows which only keeps DOM elements for
+// the rows that are currently visible (plus a small overscan). Row content
+// is produced on demand by a RowRenderer, so the cost of the list is
+// proportional to the size of the viewport rather than the number of rows.
+public class VirtualizedList extends Widget
+   implements RequiresResize, HasAllMouseHandlers, HasClickHandlers,
+              HasAllKeyHandlers
+{
+   public interface RowRenderer
+   {
+      void renderRow(int index, DivElement row);
+   }
+
+   public VirtualizedList(int rowHeight, RowRenderer renderer)
+   {
+      rowHeight_ = rowHeight;
+      renderer_ = renderer;
+
+      DivElement outer = Document.get().createDivElement();
+      outer.setTabIndex(0);
+      outer.getStyle().setOverflow(Overflow.AUTO);
+      outer.getStyle().setPosition(Position.RELATIVE);
+      outer.getStyle().setCursor(Cursor.DEFAULT);
+      setElement(outer);
+
+      spacer_ = Document.get().createDivElement();
+      spacer_.getStyle().setPosition(Position.RELATIVE);
+      spacer_.getStyle().setHeight(0, Unit.PX);
+      outer.appendChild(spacer_);
+
+      rows_ = Document.get().createDivElement();
+      rows_.getStyle().setPosition(Position.ABSOLUTE);
+      rows_.getStyle().setLeft(0, Unit.PX);
+      rows_.getStyle().setRight(0, Unit.PX);
+      rows_.getStyle().setTop(0, Unit.PX);
+      spacer_.appendChild(rows_);
+
+      addDomHandler(new ScrollHandler()
+      {
+         @Override
+         public void onScroll(ScrollEvent event)
+         {
+            scheduleRender();
+         }
+      }, ScrollEvent.getType());
+   }
+
+   public int getRowHeight()
+   {
+      return rowHeight_;
+   }
+
+   public int getRowCount()
+   {
+      return rowCount_;
+   }
+
+   public void setRowCount(int rowCount)
+   {
+      if (rowCount == rowCount_)
+         return;
+      rowCount_ = rowCount;
+      spacer_.getStyle().setHeight(rowCount_ * rowHeight_, Unit.PX);
+      invalidate();
+   }
+
+   // Forces the visible rows to be re-rendered (e.g. because the
+   // underlying model changed without the row count changing)
+   public void invalidate()
+   {
+      renderedFirst_ = -1;
+      renderedLast_ = -1;
+      scheduleRender();
+   }
+
+   // Returns the row index for an element inside the list (typically an
+   // event target), or -1 if the element is not inside a rendered row
+   public int getRowIndex(EventTarget target)
+   {
+      if (!Element.is(target))
+         return -1;
+
+      Element el = Element.as(target);
+      while (el != null && el != getElement())
+      {
+         if (el.getParentElement() == rows_)
+            return renderedFirst_ + indexOfChild(el);
+         el = el.getParentElement();
+      }
+      return -1;
+   }
+
+   // Returns the element currently showing the given row, or null if the
+   // row isn't rendered
+   public DivElement getRowElement(int index)
+   {
+      if (index < renderedFirst_ || index >= renderedLast_)
+         return null;
+      return rows_.getChild(index - renderedFirst_).cast();
+   }
+
+   public void ensureRowVisible(int index)
+   {
+      if (index < 0 || index >= rowCount_)
+         return;
+
+      int top = index * rowHeight_;
+      int bottom = top + rowHeight_;
+      int scrollTop = getElement().getScrollTop();
+      int height = getElement().getClientHeight();
+
+      if (top < scrollTop)
+         getElement().setScrollTop(top);
+      else if (bottom > scrollTop + height)
+         getElement().setScrollTop(bottom - height);
+
+      scheduleRender();
+   }
+
+   // Renders any pending changes now rather than in the deferred command,
+   // so that a list which has just been shown or changed isn't painted
+   // before its rows are
+   public void flush()
+   {
+      if (renderPending_)
+         render();
+   }
+
+   public int getVisibleRowCount()
+   {
+      return Math.max(1, getElement().getClientHeight() / rowHeight_);
+   }
+
+   public void scrollToTop()
+   {
+      getElement().setScrollTop(0);
+      scheduleRender();
+   }
+
+   @Override
+   public void onResize()
+   {
+      invalidate();
+   }
+
+   @Override
+   protected void onLoad()
+   {
+      super.onLoad();
+      invalidate();
+   }
+
+   private void scheduleRender()
+   {
+      if (renderPending_)
+         return;
+      renderPending_ = true;
+      Scheduler.get().scheduleDeferred(new ScheduledCommand()
+      {
+         @Override
+         public void execute()
+         {
+            renderPending_ = false;
+            render();
+         }
+      });
+   }
+
+   private void render()
+   {
+      if (!isAttached())
+         return;
+
+      int scrollTop = getElement().getScrollTop();
+      int height = getElement().getClientHeight();
+
+      int first = Math.max(0, scrollTop / rowHeight_ - OVERSCAN);
+      int last = Math.min(rowCount_,
+                          (scrollTop + height) / rowHeight_ + 1 + OVERSCAN);
+      if (last < first)
+         last = first;
+
+      if (first == renderedFirst_ && last == renderedLast_)
+         return;
+
+      // reuse existing row elements where possible; only add or remove the
+      // difference in the number of rows being shown
+      int needed = last - first;
+      while (rows_.getChildCount() > needed)
+         rows_.getLastChild().removeFromParent();
+      while (rows_.getChildCount() < needed)
+      {
+         DivElement row = Document.get().createDivElement();
+         row.getStyle().setHeight(rowHeight_, Unit.PX);
+         row.getStyle().setOverflow(Overflow.HIDDEN);
+         rows_.appendChild(row);
+      }
+
+      rows_.getStyle().setTop(first * rowHeight_, Unit.PX);
+      for (int i = 0; i < needed; i++)
+      {
+         DivElement row = rows_.getChild(i).cast();
+         row.setClassName("");
+         renderer_.renderRow(first + i, row);
+      }
+
+      renderedFirst_ = first;
+      renderedLast_ = last;
+   }
+
+   private int indexOfChild(Element child)
+   {
+      for (int i = 0; i < rows_.getChildCount(); i++)
+         if (rows_.getChild(i) == child)
+            return i;
+      return -1;
+   }
+
+   @Override
+   public HandlerRegistration addMouseDownHandler(MouseDownHandler handler)
+   {
+      return addDomHandler(handler, MouseDownEvent.getType());
+   }
+
+   @Override
+   public HandlerRegistration addMouseUpHandler(MouseUpHandler handler)
+   {
+      return addDomHandler(handler, MouseUpEvent.getType());
+   }
+
+   @Override
+   public HandlerRegistration addMouseOutHandler(MouseOutHandler handler)
+   {
+      return addDomHandler(handler, MouseOutEvent.getType());
+   }
+
+   @Override
+   public HandlerRegistration addMouseOverHandler(MouseOverHandler handler)
+   {
+      return addDomHandler(handler, MouseOverEvent.getType());
+   }
+
+   @Override
+   public HandlerRegistration addMouseMoveHandler(MouseMoveHandler handler)
+   {
+      return addDomHandler(handler, MouseMoveEvent.getType());
+   }
+
+   @Override
+   public HandlerRegistration addMouseWheelHandler(MouseWheelHandler handler)
+   {
+      return addDomHandler(handler, MouseWheelEvent.getType());
+   }
+
+   @Override
+   public HandlerRegistration addClickHandler(ClickHandler handler)
+   {
+      return addDomHandler(handler, ClickEvent.getType());
+   }
+
+   @Override
+   public HandlerRegistration addKeyUpHandler(KeyUpHandler handler)
+   {
+      return addDomHandler(handler, KeyUpEvent.getType());
+   }
+
+   @Override
+   public HandlerRegistration addKeyDownHandler(KeyDownHandler handler)
+   {
+      return addDomHandler(handler, KeyDownEvent.getType());
+   }
+
+   @Override
+   public HandlerRegistration addKeyPressHandler(KeyPressHandler handler)
+   {
+      return addDomHandler(handler, KeyPressEvent.getType());
+   }
+
+   private final int rowHeight_;
+   private final RowRenderer renderer_;
+   private final DivElement spacer_;
+   private final DivElement rows_;
+
+   private int rowCount_ = 0;
+   private int renderedFirst_ = -1;
+   private int renderedLast_ = -1;
+   private boolean renderPending_ = false;
+
+   // number of rows rendered above and below the viewport so that small
+   // scrolls don't expose unrendered space
+   private static final int OVERSCAN = 10;
+}
@@ -46,6 +46,7 @@ import org.rstudio.core.client.widget.ThemedButton;
 import org.rstudio.core.client.widget.ThemedPopupPanel;
 import org.rstudio.core.client.widget.WizardResources;
 import org.rstudio.core.client.widget.images.ProgressImages;
+import org.rstudio.studio.client.application.Application;
 import org.rstudio.studio.client.application.ui.AboutDialogContents;
 import org.rstudio.studio.client.application.ui.appended.ApplicationEndedPopupPanel;
 import org.rstudio.studio.client.application.ui.serializationprogress.ApplicationSerializationProgress;
@@ -153,70 +154,143 @@ public class RStudio implements EntryPoint
    
    private void delayLoadApplication(final Command dismissProgressAnimation)
    {
-      GWT.runAsync(new RunAsyncCallback()
+      // Each kind of window gets its own split point, so that (for example)
+      // a data viewer popout only downloads and initializes the code for
+      // the data viewer rather than for every satellite type. The class
+      // literals name the split points in the SOYC compile report.
+      String view = Window.Location.getParameter("view");
+      if (VCSApplication.NAME.equals(view))
       {
-         public void onFailure(Throwable reason)
+         GWT.runAsync(VCSApplication.class, 
+               new ApplicationLoader(dismissProgressAnimation)
          {
-            dismissProgressAnimation.execute();
-            Window.alert("Error: " + reason.getMessage());
-         }
+            @Override
+            protected void go()
+            {
+               RStudioGinjector.INSTANCE.getVCSApplication().go(
+                     RootLayoutPanel.get(),
+                     dismissProgressAnimation_);
+            }
+         });
+      }
+      else if (HTMLPreviewApplication.NAME.equals(view))
+      {
+         GWT.runAsync(HTMLPreviewApplication.class, 
+               new ApplicationLoader(dismissProgressAnimation)
+         {
+            @Override
+            protected void go()
+            {
+               RStudioGinjector.INSTANCE.getHTMLPreviewApplication().go(
+                     RootLayoutPanel.get(),
+                     dismissProgressAnimation_);
+            }
+         });
+      }
+      else if (ShinyApplicationSatellite.NAME.equals(view))
+      {
+         GWT.runAsync(ShinyApplicationSatellite.class, 
+               new ApplicationLoader(dismissProgressAnimation)
+         {
+            @Override
+            protected void go()
+            {
+               RStudioGinjector.INSTANCE.getShinyApplicationSatellite().go(
+                     RootLayoutPanel.get(),
+                     dismissProgressAnimation_);
+            }
+         });
+      }
+      else if (RmdOutputSatellite.NAME.equals(view))
+      {
+         GWT.runAsync(RmdOutputSatellite.class, 
+               new ApplicationLoader(dismissProgressAnimation)
+         {
+            @Override
+            protected void go()
+            {
+               RStudioGinjector.INSTANCE.getRmdOutputSatellite().go(
+                     RootLayoutPanel.get(), 
+                     dismissProgressAnimation_);
+            }
+         });
+      }
+      else if (DataViewerSatellite.NAME.equals(view))
+      {
+         GWT.runAsync(DataViewerSatellite.class, 
+               new ApplicationLoader(dismissProgressAnimation)
+         {
+            @Override
+            protected void go()
+            {
+               RStudioGinjector.INSTANCE.getDataViewerSatellite().go(
+                     RootLayoutPanel.get(), 
+                     dismissProgressAnimation_);
+            }
+         });
+      }
+      else if (view != null && 
+               view.startsWith(SourceSatellite.NAME_PREFIX))
+      {
+         final String sourceView = view;
+         GWT.runAsync(SourceSatellite.class, 
+               new ApplicationLoader(dismissProgressAnimation)
+         {
+            @Override
+            protected void go()
+            {
+               SourceSatellite satellite = new SourceSatellite(sourceView);
+               satellite.go(RootLayoutPanel.get(), 
+                     dismissProgressAnimation_);
+            }
+         });
+      }
+      else
+      {
+         GWT.runAsync(Application.class, 
+               new ApplicationLoader(dismissProgressAnimation)
+         {
+            @Override
+            protected void go()
+            {
+               RStudioGinjector.INSTANCE.getApplication().go(
+                  RootLayoutPanel.get(),
+                  dismissProgressAnimation_);
+            }
+         });
+      }
+   }
+   
+   // Common code for loading the main application or a satellite once its
+   // code fragment has been downloaded
+   private abstract class ApplicationLoader implements RunAsyncCallback
+   {
+      public ApplicationLoader(Command dismissProgressAnimation)
+      {
+         dismissProgressAnimation_ = dismissProgressAnimation;
+      }
+      
+      public void onFailure(Throwable reason)
+      {
+         dismissProgressAnimation_.execute();
+         Window.alert("Error: " + reason.getMessage());
+      }
 
-         public void onSuccess()
+      public void onSuccess()
+      {
+         AceEditor.load(new Command()
          {
-            AceEditor.load(new Command()
+            public void execute()
             {
-               public void execute()
-               {
-                  ensureStylesInjected();
-                  
-                  String view = Window.Location.getParameter("view");
-                  if (VCSApplication.NAME.equals(view))
-                  {
-                     RStudioGinjector.INSTANCE.getVCSApplication().go(
-                           RootLayoutPanel.get(),
-                           dismissProgressAnimation);
-                  }
-                  else if (HTMLPreviewApplication.NAME.equals(view))
-                  {
-                     RStudioGinjector.INSTANCE.getHTMLPreviewApplication().go(
-                           RootLayoutPanel.get(),
-                           dismissProgressAnimation);
-                  }
-                  else if (ShinyApplicationSatellite.NAME.equals(view))
-                  {
-                     RStudioGinjector.INSTANCE.getShinyApplicationSatellite().go(
-                           RootLayoutPanel.get(),
-                           dismissProgressAnimation);
-                  }
-                  else if (RmdOutputSatellite.NAME.equals(view))
-                  {
-                     RStudioGinjector.INSTANCE.getRmdOutputSatellite().go(
-                           RootLayoutPanel.get(), 
-                           dismissProgressAnimation);
-                  }
-                  else if (DataViewerSatellite.NAME.equals(view))
-                  {
-                     RStudioGinjector.INSTANCE.getDataViewerSatellite().go(
-                           RootLayoutPanel.get(), 
-                           dismissProgressAnimation);
-                  }
-                  else if (view != null && 
-                           view.startsWith(SourceSatellite.NAME_PREFIX))
-                  {
-                     SourceSatellite satellite = new SourceSatellite(view);
-                     satellite.go(RootLayoutPanel.get(), 
-                           dismissProgressAnimation);
-                  }
-                  else
-                  {
-                     RStudioGinjector.INSTANCE.getApplication().go(
-                        RootLayoutPanel.get(),
-                        dismissProgressAnimation);
-                  }
-               }
-            });
-         }
-      });
+               ensureStylesInjected();
+               go();
+            }
+         });
+      }
+      
+      protected abstract void go();
+      
+      protected final Command dismissProgressAnimation_;
    }
    
    private void ensureStylesInjected()
@@ -62,6 +62,7 @@ import org.rstudio.studio.client.workbench.ClientStateUpdater;
 import org.rstudio.studio.client.workbench.Workbench;
 import org.rstudio.studio.client.workbench.commands.Commands;
 import org.rstudio.studio.client.workbench.events.SessionInitEvent;
+import org.rstudio.studio.client.workbench.events.SessionReinitEvent;
 import org.rstudio.studio.client.workbench.model.Agreement;
 import org.rstudio.studio.client.workbench.model.Session;
 import org.rstudio.studio.client.workbench.model.SessionInfo;
@@ -445,7 +446,7 @@ public class Application implements ApplicationEventHandlers
             }
             else
             {
-               reloadWindowWithDelay(true);
+               switchSessionInPlace();
             }
          }
          else 
@@ -481,6 +482,104 @@ public class Application implements ApplicationEventHandlers
       }
    }
    
+   // Picks up the session which replaced the one that was quit (e.g. the 
+   // session for the project being switched to) without reloading the 
+   // window: the code and the workbench's widgets are kept, and only the 
+   // session's state is fetched again (by client_init, as at startup) and 
+   // handed to the presenters which show it (see SessionReinitEvent). If
+   // the new session needs a different workbench than the one showing 
+   // (see canReinitializeWorkbench) or can't be reached then the window is
+   // reloaded instead, as it always used to be.
+   private void switchSessionInPlace()
+   {
+      final SessionInfo previousInfo = session_.getSessionInfo();
+      
+      view_.showSerializationProgress("Switching projects...", 
+                                      true,   // modal, inputs fall dead
+                                      500,    // the switch is often quick
+                                      0);     // no timeout
+      
+      // wait for the R session to fully exit on the server (as the reload
+      // would have); client_init retries once on a transmission error if 
+      // the new session isn't ready yet
+      new Timer() {
+         @Override
+         public void run()
+         { 
+            server_.reconnect();
+            pClientInit_.get().execute(
+                                 new ServerRequestCallback<SessionInfo>() {
+               @Override
+               public void onResponseReceived(SessionInfo sessionInfo)
+               {
+                  if (!canReinitializeWorkbench(previousInfo, sessionInfo))
+                  {
+                     server_.disconnect();
+                     reloadWindowWithDelay(true);
+                     return;
+                  }
+                  
+                  session_.setSessionInfo(sessionInfo);
+                  reinitializeWorkbench();
+                  view_.hideSerializationProgress();
+               }
+               
+               @Override
+               public void onError(ServerError error)
+               {
+                  Debug.logError(error);
+                  server_.disconnect();
+                  reloadWindowWithDelay(true);
+               }
+            });
+         }
+      }.schedule(100);
+   }
+   
+   // The workbench can only be handed a new session in place if it would
+   // have been built the same way for it: the commands removed and the 
+   // menus, toolbars and tabs created when the workbench was initialized 
+   // depend on whether there's a project, its version control system and 
+   // build tools, and the R session's capabilities
+   private boolean canReinitializeWorkbench(SessionInfo previous, 
+                                            SessionInfo next)
+   {
+      return previous.getMode().equals(next.getMode()) &&
+             previous.getActiveProjectFile() != null &&
+             next.getActiveProjectFile() != null &&
+             StringUtil.notNull(previous.getVcsName()).equals(
+                     StringUtil.notNull(next.getVcsName())) &&
+             StringUtil.notNull(previous.getBuildToolsType()).equals(
+                     StringUtil.notNull(next.getBuildToolsType())) &&
+             previous.projectSupportsSharing() == 
+                                       next.projectSupportsSharing() &&
+             previous.getKnitParamsAvailable() == 
+                                       next.getKnitParamsAvailable() &&
+             previous.isDevtoolsInstalled() == next.isDevtoolsInstalled() &&
+             !isPresentationActive(previous) &&
+             !isPresentationActive(next) &&
+             next.pendingAgreement() == null;
+   }
+   
+   private boolean isPresentationActive(SessionInfo sessionInfo)
+   {
+      return sessionInfo.getPresentationState() != null &&
+             sessionInfo.getPresentationState().isActive();
+   }
+   
+   private void reinitializeWorkbench()
+   {
+      // listen for the new session's events before the presenters ask it
+      // for anything (some of its state arrives as events, e.g. plots and
+      // deferred session info sections)
+      server_.resumeEventListener();
+      
+      eventBusProvider_.get().fireEvent(new SessionReinitEvent());
+      
+      clientStateUpdaterInstance_ = clientStateUpdater_.get();
+      clientStateUpdaterInstance_.restart();
+   }
+   
    private void reloadWindowWithDelay(final boolean baseUrlOnly)
    {
       new Timer() {
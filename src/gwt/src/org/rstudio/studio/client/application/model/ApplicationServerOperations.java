@@ -62,6 +62,12 @@ public interface ApplicationServerOperations extends PrefsServerOperations
    void stopEventListener();
    void ensureEventListener();
    
+   // reconnect after a disconnect (e.g. to pick up the session which 
+   // replaced a quit one); events aren't listened for until the new 
+   // session has been initialized and resumeEventListener is called
+   void reconnect();
+   void resumeEventListener();
+   
    // get an application URL
    String getApplicationURL(String pathName);
    
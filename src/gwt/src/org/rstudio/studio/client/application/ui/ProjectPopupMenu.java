@@ -29,6 +29,7 @@ import org.rstudio.studio.client.projects.model.SharedProjectDetails;
 import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.workbench.commands.Commands;
+import org.rstudio.studio.client.workbench.events.SessionReinitEvent;
 import org.rstudio.studio.client.workbench.model.Session;
 import org.rstudio.studio.client.workbench.model.SessionInfo;
 
@@ -59,48 +60,69 @@ public class ProjectPopupMenu extends ToolbarPopupMenu
    void initialize(ProjectMRUList mruList,
                    ProjectsServerOperations server,
                    EventBus events,
-                   Session session)
+                   final Session session)
    {
       server_ = server;
       events_ = events;
       mruList_ = mruList;
       allowSharedProjects_ = 
             session.getSessionInfo().getAllowOpenSharedProjects();
+      
+      // show the new session's project when the workbench is handed one
+      events_.addHandler(SessionReinitEvent.TYPE, 
+                         new SessionReinitEvent.Handler()
+      {
+         @Override
+         public void onSessionReinit(SessionReinitEvent event)
+         {
+            activeProjectFile_ = 
+                  session.getSessionInfo().getActiveProjectFile();
+            if (toolbarButton_ != null)
+               updateToolbarButton();
+         }
+      });
    }
    
    public ToolbarButton getToolbarButton()
    {
       if (toolbarButton_ == null)
       {
-         String buttonText = activeProjectFile_ != null ?
-                  mruList_.getQualifiedLabel(activeProjectFile_) :
-                  "Project: (None)";
-          
          toolbarButton_ = new ToolbarButton(
-                buttonText, 
+                "", 
                 RESOURCES.projectMenu(),
                 this, 
                 true);
-          
-         if (activeProjectFile_ != null)
-         {
-            toolbarButton_.setTitle(activeProjectFile_);
-          
-            // also set the doc title so the browser tab carries the project
-            if (!Desktop.isDesktop())
-               Document.get().setTitle("RStudio - " + buttonText);
-         }
-        
-          if (activeProjectFile_ == null)
-          {
-             toolbarButton_.addStyleName(
-                   ThemeResources.INSTANCE.themeStyles().emptyProjectMenu());
-          }
+         updateToolbarButton();
       }
        
        return toolbarButton_;
    }
    
+   private void updateToolbarButton()
+   {
+      String buttonText = activeProjectFile_ != null ?
+               mruList_.getQualifiedLabel(activeProjectFile_) :
+               "Project: (None)";
+      toolbarButton_.setText(buttonText);
+       
+      if (activeProjectFile_ != null)
+      {
+         toolbarButton_.setTitle(activeProjectFile_);
+         toolbarButton_.removeStyleName(
+               ThemeResources.INSTANCE.themeStyles().emptyProjectMenu());
+       
+         // also set the doc title so the browser tab carries the project
+         if (!Desktop.isDesktop())
+            Document.get().setTitle("RStudio - " + buttonText);
+      }
+      else
+      {
+         toolbarButton_.setTitle("");
+         toolbarButton_.addStyleName(
+               ThemeResources.INSTANCE.themeStyles().emptyProjectMenu());
+      }
+   }
+   
    @Override
    protected ToolbarMenuBar createMenuBar()
    {
@@ -274,7 +296,7 @@ public class ProjectPopupMenu extends ToolbarPopupMenu
                               (Resources) GWT.create(Resources.class);
    private static final int MAX_SHARED_PROJECTS = 5;
    private static final int MAX_MRU_ENTRIES = 10;
-   private final String activeProjectFile_;
+   private String activeProjectFile_;
    private ToolbarButton toolbarButton_ = null;
 
    private ProjectMRUList mruList_;
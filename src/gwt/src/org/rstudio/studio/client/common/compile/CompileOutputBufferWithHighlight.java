@@ -16,20 +16,55 @@
 
 package org.rstudio.studio.client.common.compile;
 
+import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.VirtualConsole;
 import org.rstudio.core.client.widget.BottomScrollPanel;
 import org.rstudio.core.client.widget.FontSizer;
+import org.rstudio.core.client.widget.HyperlinkLabel;
 import org.rstudio.core.client.widget.PreWidget;
 import org.rstudio.studio.client.RStudioGinjector;
+import org.rstudio.studio.client.server.ServerError;
+import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.workbench.views.console.ConsoleResources;
 
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.Node;
+import com.google.gwt.dom.client.SpanElement;
+import com.google.gwt.event.dom.client.ClickEvent;
+import com.google.gwt.event.dom.client.ClickHandler;
 import com.google.gwt.user.client.ui.Composite;
+import com.google.gwt.user.client.ui.FlowPanel;
 
+// Output is kept as one element per line. Only the line currently being
+// written is held in a VirtualConsole, so carriage returns and backspaces
+// (progress updates from compilers, R CMD INSTALL, etc.) re-render just
+// that line rather than the whole log. If an OlderOutputSource is
+// provided, only the most recent lines are kept (the oldest are dropped
+// once more than maxLines have been written) and dropped lines can be
+// paged back in on request; otherwise all output is kept.
 public class CompileOutputBufferWithHighlight extends Composite 
                                 implements CompileOutputDisplay
 {
+   public interface OlderOutputSource
+   {
+      // Retrieves lines [first, first + count) of the full output, one
+      // CompileOutput (without its trailing newline) per line
+      void getOutputLines(int first, 
+                          int count, 
+                          ServerRequestCallback<JsArray<CompileOutput>> callback);
+   }
+   
    public CompileOutputBufferWithHighlight()
    {
+      this(null);
+   }
+   
+   public CompileOutputBufferWithHighlight(OlderOutputSource olderOutput)
+   {
+      olderOutput_ = olderOutput;
+      maxLines_ = olderOutput == null ? Integer.MAX_VALUE : PAGED_MAX_LINES;
       styles_ = ConsoleResources.INSTANCE.consoleStyles();
       
       output_ = new PreWidget();
@@ -38,21 +73,37 @@ public class CompileOutputBufferWithHighlight extends Composite
       output_.addStyleName("ace_line");
       output_.addStyleName(styles_.paddedOutput());
       FontSizer.applyNormalFontSize(output_);
+      
+      droppedLinesLabel_ = new HyperlinkLabel("", new ClickHandler()
+      {
+         @Override
+         public void onClick(ClickEvent event)
+         {
+            loadOlderOutput();
+         }
+      });
+      droppedLinesLabel_.addStyleName(styles_.paddedOutput());
+      droppedLinesLabel_.setVisible(false);
+      
+      FlowPanel panel = new FlowPanel();
+      panel.add(droppedLinesLabel_);
+      panel.add(output_);
     
       scrollPanel_ = new BottomScrollPanel();
       scrollPanel_.setSize("100%", "100%");
       scrollPanel_.addStyleName("ace_editor");
       scrollPanel_.addStyleName("ace_scroller");
-      scrollPanel_.setWidget(output_);
+      scrollPanel_.setWidget(panel);
       
       initWidget(scrollPanel_);
+      
+      startLine();
    }
    
-   
    @Override
    public void writeCommand(String command)
    {
-      write(command, styles_.command() + ConsoleResources.KEYWORD_CLASS_NAME);
+      write(command, getCommandClass());
    }
    
    @Override
@@ -76,16 +127,188 @@ public class CompileOutputBufferWithHighlight extends Composite
    @Override
    public void clear()
    {
-      console_.clear();
       output_.setText("");
+      completedLines_ = 0;
+      droppedLines_ = 0;
+      pagedInLines_ = 0;
+      pageRequestPending_ = false;
+      generation_++;
+      updateDroppedLinesLabel();
+      startLine();
    }
    
    private void write(String output, String className)
    {
-      console_.submitAndRender(output, className, output_.getElement());
+      // a form feed clears everything written so far
+      int formfeed = output.lastIndexOf('\f');
+      if (formfeed != -1)
+      {
+         clear();
+         output = output.substring(formfeed + 1);
+      }
+      
+      int start = 0;
+      int newline;
+      while ((newline = output.indexOf('\n', start)) != -1)
+      {
+         writeToLine(output.substring(start, newline), className);
+         completeLine();
+         start = newline + 1;
+      }
+      writeToLine(output.substring(start), className);
+      
+      trimLines();
       scrollPanel_.onContentSizeChanged();
    }
    
+   private void writeToLine(String text, String className)
+   {
+      if (text.length() == 0)
+         return;
+      
+      // renders incrementally when it can, and otherwise redraws just the
+      // current line
+      line_.submitAndRender(text, className, currentLine_);
+   }
+   
+   private void startLine()
+   {
+      line_ = new VirtualConsole();
+      currentLine_ = Document.get().createSpanElement();
+      output_.getElement().appendChild(currentLine_);
+   }
+   
+   private void completeLine()
+   {
+      currentLine_.appendChild(Document.get().createTextNode("\n"));
+      completedLines_++;
+      startLine();
+   }
+   
+   // Drops the oldest lines once we've exceeded the limit (plus some slack,
+   // so that we remove lines in chunks rather than one per write)
+   private void trimLines()
+   {
+      if (maxLines_ == Integer.MAX_VALUE)
+         return;
+
+      int limit = maxLines_ + pagedInLines_;
+      if (completedLines_ <= limit + TRIM_SLACK)
+         return;
+      
+      Element pre = output_.getElement();
+      int excess = completedLines_ - limit;
+      for (int i = 0; i < excess; i++)
+      {
+         Node first = pre.getFirstChild();
+         if (first == null || first == currentLine_)
+            break;
+         first.removeFromParent();
+         completedLines_--;
+         droppedLines_++;
+      }
+      
+      // lines we paged back in have now been dropped again
+      pagedInLines_ = Math.max(0, completedLines_ - maxLines_);
+      updateDroppedLinesLabel();
+   }
+   
+   private void updateDroppedLinesLabel()
+   {
+      if (droppedLines_ == 0)
+      {
+         droppedLinesLabel_.setVisible(false);
+         return;
+      }
+      
+      String text = droppedLines_ + " earlier line" + 
+                    (droppedLines_ == 1 ? "" : "s") + " not shown";
+      if (olderOutput_ != null)
+         text += " (click to show " + Math.min(droppedLines_, PAGE_LINES) + 
+                 " more)";
+      droppedLinesLabel_.setText(text);
+      droppedLinesLabel_.setVisible(true);
+   }
+   
+   private void loadOlderOutput()
+   {
+      if (olderOutput_ == null || droppedLines_ == 0 || pageRequestPending_)
+         return;
+      
+      final int count = Math.min(droppedLines_, PAGE_LINES);
+      final int first = droppedLines_ - count;
+      final int generation = generation_;
+      pageRequestPending_ = true;
+      olderOutput_.getOutputLines(first, count, 
+            new ServerRequestCallback<JsArray<CompileOutput>>()
+      {
+         @Override
+         public void onResponseReceived(JsArray<CompileOutput> lines)
+         {
+            // ignore responses for output that has since been cleared
+            if (generation != generation_)
+               return;
+            pageRequestPending_ = false;
+            insertOlderLines(lines);
+         }
+         
+         @Override
+         public void onError(ServerError error)
+         {
+            if (generation == generation_)
+               pageRequestPending_ = false;
+            Debug.logError(error);
+         }
+      });
+   }
+   
+   private void insertOlderLines(JsArray<CompileOutput> lines)
+   {
+      Element scroller = scrollPanel_.getElement();
+      int oldHeight = scroller.getScrollHeight();
+      
+      Element pre = output_.getElement();
+      Node before = pre.getFirstChild();
+      for (int i = 0; i < lines.length(); i++)
+      {
+         CompileOutput line = lines.get(i);
+         SpanElement lineElement = Document.get().createSpanElement();
+         SpanElement text = Document.get().createSpanElement();
+         text.setClassName(getClassForType(line.getType()));
+         text.setInnerText(line.getOutput());
+         lineElement.appendChild(text);
+         lineElement.appendChild(Document.get().createTextNode("\n"));
+         pre.insertBefore(lineElement, before);
+      }
+      
+      completedLines_ += lines.length();
+      droppedLines_ = Math.max(0, droppedLines_ - lines.length());
+      pagedInLines_ += lines.length();
+      updateDroppedLinesLabel();
+      
+      // keep the lines the user was looking at in place
+      scroller.setScrollTop(scroller.getScrollTop() + 
+                            scroller.getScrollHeight() - oldHeight);
+   }
+   
+   private String getClassForType(int type)
+   {
+      switch (type)
+      {
+      case CompileOutput.kCommand:
+         return getCommandClass();
+      case CompileOutput.kError:
+         return getErrorClass();
+      default:
+         return styles_.output();
+      }
+   }
+   
+   private String getCommandClass()
+   {
+      return styles_.command() + ConsoleResources.KEYWORD_CLASS_NAME;
+   }
+   
    private String getErrorClass()
    {
       return styles_.output() + " " + 
@@ -93,7 +316,21 @@ public class CompileOutputBufferWithHighlight extends Composite
    }
  
    PreWidget output_;
-   VirtualConsole console_ = new VirtualConsole();
+   private VirtualConsole line_;
+   private SpanElement currentLine_;
+   private final HyperlinkLabel droppedLinesLabel_;
+   private final OlderOutputSource olderOutput_;
    private BottomScrollPanel scrollPanel_;
    private ConsoleResources.ConsoleStyles styles_;
+   
+   private final int maxLines_;
+   private int completedLines_ = 0;
+   private int droppedLines_ = 0;
+   private int pagedInLines_ = 0;
+   private int generation_ = 0;
+   private boolean pageRequestPending_ = false;
+   
+   private static final int PAGED_MAX_LINES = 5000;
+   private static final int TRIM_SLACK = 500;
+   private static final int PAGE_LINES = 1000;
 }
@@ -18,6 +18,7 @@ import com.google.gwt.core.client.JsArray;
 import com.google.gwt.event.shared.GwtEvent;
 import com.google.gwt.event.shared.HandlerManager;
 import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.Command;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import org.rstudio.core.client.Debug;
@@ -35,6 +36,7 @@ import org.rstudio.studio.client.server.VoidServerRequestCallback;
 import org.rstudio.studio.client.workbench.events.SessionInitEvent;
 import org.rstudio.studio.client.workbench.events.SessionInitHandler;
 import org.rstudio.studio.client.workbench.model.Session;
+import org.rstudio.studio.client.workbench.model.SessionInfo;
 import org.rstudio.studio.client.workbench.views.console.model.ConsoleServerOperations;
 import org.rstudio.studio.client.workbench.views.vcs.common.ConsoleProgressDialog;
 
@@ -62,112 +64,16 @@ public class ConsoleProcess implements ConsoleOutputEvent.HasHandlers,
             @Override
             public void onSessionInit(SessionInitEvent sie)
             {
-               JsArray<ConsoleProcessInfo> procs =
-                     session.getSessionInfo().getConsoleProcesses();
-
-               for (int i = 0; i < procs.length(); i++)
+               session.whenSectionReady(SessionInfo.CONSOLE_PROCESSES,
+                                        new Command()
                {
-                  final ConsoleProcessInfo proc = procs.get(i);
-
-                  // Note on reaping of console processes -- when isDialog
-                  // is false it is the responsibility of the calling code
-                  // to reap the console process (no automatic reaping is
-                  // done). the isDialog == false codepath below handles 
-                  // the case where a client_init happens and the original
-                  // callling code is no longer hooked up. There is still
-                  // some leakiness here though if a console process with
-                  // isDialog == false exits when no client is connected (in
-                  // that case it will never be reaped). 
-                  
-                  // TODO: clean this up and/or eliminate isDialog flag (since
-                  // all known instances currently use isDialog == true)
-                  
-                  connectToProcess(
-                        proc,
-                        new ServerRequestCallback<ConsoleProcess>()
-                        {
-                           @Override
-                           public void onResponseReceived(
-                                 final ConsoleProcess cproc)
-                           {
-                              if (proc.isDialog())
-                              {
-                                 // first determine whether to create and/or
-                                 // show the dialog immdiately
-                                 boolean createDialog = false;
-                                 boolean showDialog = false;
-                                 
-                                 // standard dialog -- always show it
-                                 if (!proc.getShowOnOutput())
-                                 {
-                                    createDialog = true;
-                                    showDialog = true;
-                                 }
-                                 
-                                 // showOnOutput dialog that already has 
-                                 // output -- make sure the user sees it
-                                 //
-                                 // NOTE: we have to trim the  buffered output
-                                 // for the comparison because when the password
-                                 // manager provides a password the back-end
-                                 // process sometimes echos a newline back to us
-                                 //
-                                 else if (proc.getBufferedOutput().trim().length() > 0)
-                                 {
-                                    createDialog = true;
-                                    showDialog = true;
-                                 }
-                                 
-                                 // showOnOutput dialog that has exited
-                                 // and has no output -- reap it
-                                 else if (proc.getExitCode() != null)
-                                 {
-                                    cproc.reap(new VoidServerRequestCallback());
-                                 }
-                                 
-                                 // showOnOutput dialog with no output that is
-                                 // still running -- crate but don't show yet
-                                 else
-                                 {
-                                    createDialog = true;
-                                 }
-                                  
-                                 // take indicated actions
-                                 if (createDialog)
-                                 {
-                                    ConsoleProgressDialog dlg = new ConsoleProgressDialog(
-                                       proc.getCaption(),
-                                       cproc,
-                                       proc.getBufferedOutput(),
-                                       proc.getExitCode(),
-                                       cryptoServer);
-                                    
-                                    if (showDialog)
-                                       dlg.showModal();
-                                    else
-                                       dlg.showOnOutput();
-                                 }
-                              }
-                              else
-                              {
-                                 cproc.addProcessExitHandler(new ProcessExitEvent.Handler()
-                                 {
-                                    @Override
-                                    public void onProcessExit(ProcessExitEvent event)
-                                    {
-                                       cproc.reap(new VoidServerRequestCallback());
-                                    }
-                                 });
-                              }
-                           }
-
-                           @Override
-                           public void onError(ServerError error)
-                           {
-                              Debug.logError(error);
-                           }
-                        });
-               }
+                  @Override
+                  public void execute()
+                  {
+                     connectToProcesses(
+                           session.getSessionInfo().getConsoleProcesses());
+                  }
+               });
             }
          });
          
@@ -224,6 +130,113 @@ public class ConsoleProcess implements ConsoleOutputEvent.HasHandlers,
                });
       }
 
+      private void connectToProcesses(JsArray<ConsoleProcessInfo> procs)
+      {
+         for (int i = 0; i < procs.length(); i++)
+         {
+            final ConsoleProcessInfo proc = procs.get(i);
+
+            // Note on reaping of console processes -- when isDialog
+            // is false it is the responsibility of the calling code
+            // to reap the console process (no automatic reaping is
+            // done). the isDialog == false codepath below handles 
+            // the case where a client_init happens and the original
+            // callling code is no longer hooked up. There is still
+            // some leakiness here though if a console process with
+            // isDialog == false exits when no client is connected (in
+            // that case it will never be reaped). 
+            
+            // TODO: clean this up and/or eliminate isDialog flag (since
+            // all known instances currently use isDialog == true)
+            
+            connectToProcess(
+                  proc,
+                  new ServerRequestCallback<ConsoleProcess>()
+                  {
+                     @Override
+                     public void onResponseReceived(
+                           final ConsoleProcess cproc)
+                     {
+                        if (proc.isDialog())
+                        {
+                           // first determine whether to create and/or
+                           // show the dialog immdiately
+                           boolean createDialog = false;
+                           boolean showDialog = false;
+                           
+                           // standard dialog -- always show it
+                           if (!proc.getShowOnOutput())
+                           {
+                              createDialog = true;
+                              showDialog = true;
+                           }
+                           
+                           // showOnOutput dialog that already has 
+                           // output -- make sure the user sees it
+                           //
+                           // NOTE: we have to trim the  buffered output
+                           // for the comparison because when the password
+                           // manager provides a password the back-end
+                           // process sometimes echos a newline back to us
+                           //
+                           else if (proc.getBufferedOutput().trim().length() > 0)
+                           {
+                              createDialog = true;
+                              showDialog = true;
+                           }
+                           
+                           // showOnOutput dialog that has exited
+                           // and has no output -- reap it
+                           else if (proc.getExitCode() != null)
+                           {
+                              cproc.reap(new VoidServerRequestCallback());
+                           }
+                           
+                           // showOnOutput dialog with no output that is
+                           // still running -- crate but don't show yet
+                           else
+                           {
+                              createDialog = true;
+                           }
+                            
+                           // take indicated actions
+                           if (createDialog)
+                           {
+                              ConsoleProgressDialog dlg = new ConsoleProgressDialog(
+                                 proc.getCaption(),
+                                 cproc,
+                                 proc.getBufferedOutput(),
+                                 proc.getExitCode(),
+                                 cryptoServer_);
+                              
+                              if (showDialog)
+                                 dlg.showModal();
+                              else
+                                 dlg.showOnOutput();
+                           }
+                        }
+                        else
+                        {
+                           cproc.addProcessExitHandler(new ProcessExitEvent.Handler()
+                           {
+                              @Override
+                              public void onProcessExit(ProcessExitEvent event)
+                              {
+                                 cproc.reap(new VoidServerRequestCallback());
+                              }
+                           });
+                        }
+                     }
+
+                     @Override
+                     public void onError(ServerError error)
+                     {
+                        Debug.logError(error);
+                     }
+                  });
+         }
+      }
+
       public void connectToProcess(
             ConsoleProcessInfo procInfo,
             ServerRequestCallback<ConsoleProcess> requestCallback)
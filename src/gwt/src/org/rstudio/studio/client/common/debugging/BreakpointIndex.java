@@ -0,0 +1,262 @@
+/*
+ * BreakpointIndex.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.common.debugging;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Set;
+
+import org.rstudio.studio.client.common.debugging.model.Breakpoint;
+
+// Stores the set of known breakpoints, indexed by ID, file path, function
+// name and package, so the breakpoint manager can find the breakpoints
+// affected by a change without scanning every breakpoint in the project.
+//
+// Breakpoints are mutable JavaScript objects shared with the editor, so
+// the index records the keys each breakpoint was filed under; callers must
+// call update() after changing a breakpoint's function or package. Line
+// numbers change freely as the user edits, so per-file lists are sorted by
+// line lazily when a line range is requested.
+class BreakpointIndex
+{
+   public void add(Breakpoint breakpoint)
+   {
+      Entry entry = new Entry(breakpoint);
+      byId_.put(breakpoint.getBreakpointId(), entry);
+      all_.add(breakpoint);
+      addToList(byFile_, entry.path, breakpoint);
+      addToList(byFunction_, entry.functionName, breakpoint);
+      if (entry.packageName != null)
+         addToList(byPackage_, entry.packageName, breakpoint);
+   }
+
+   public void remove(Breakpoint breakpoint)
+   {
+      Entry entry = byId_.remove(breakpoint.getBreakpointId());
+      if (entry == null)
+         return;
+      all_.remove(breakpoint);
+      removeFromList(byFile_, entry.path, breakpoint);
+      removeFromList(byFunction_, entry.functionName, breakpoint);
+      if (entry.packageName != null)
+         removeFromList(byPackage_, entry.packageName, breakpoint);
+   }
+
+   // Re-files a breakpoint whose function name or package has changed
+   public void update(Breakpoint breakpoint)
+   {
+      Entry entry = byId_.get(breakpoint.getBreakpointId());
+      if (entry == null || entry.matches(breakpoint))
+         return;
+
+      // preserve the breakpoint's position in the overall ordering
+      int pos = all_.indexOf(breakpoint);
+      remove(breakpoint);
+      add(breakpoint);
+      all_.remove(all_.size() - 1);
+      all_.add(pos, breakpoint);
+   }
+
+   public void clear()
+   {
+      all_.clear();
+      byId_.clear();
+      byFile_.clear();
+      byFunction_.clear();
+      byPackage_.clear();
+   }
+
+   public int size()
+   {
+      return all_.size();
+   }
+
+   public boolean isEmpty()
+   {
+      return all_.isEmpty();
+   }
+
+   // All breakpoints, in the order they were added
+   public ArrayList<Breakpoint> getAll()
+   {
+      return all_;
+   }
+
+   public Breakpoint getById(int breakpointId)
+   {
+      Entry entry = byId_.get(breakpointId);
+      return entry == null ? null : entry.breakpoint;
+   }
+
+   public ArrayList<Breakpoint> getInFile(String path)
+   {
+      return getList(byFile_, path);
+   }
+
+   // Returns the breakpoints in files whose paths start with the given prefix
+   public ArrayList<Breakpoint> getInPath(String path)
+   {
+      ArrayList<Breakpoint> breakpoints = new ArrayList<Breakpoint>();
+      for (String file: byFile_.keySet())
+      {
+         if (file.startsWith(path))
+            breakpoints.addAll(byFile_.get(file));
+      }
+      return breakpoints;
+   }
+
+   // Returns the breakpoints in any function with the given name; callers
+   // narrow the result to a specific file as appropriate
+   public ArrayList<Breakpoint> getInFunction(String functionName)
+   {
+      return getList(byFunction_, functionName);
+   }
+
+   public ArrayList<Breakpoint> getInPackage(String packageName)
+   {
+      return getList(byPackage_, packageName);
+   }
+
+   public Set<String> getPackageNames()
+   {
+      return byPackage_.keySet();
+   }
+
+   // Returns the breakpoints in the given file whose line numbers fall
+   // within [firstLine, lastLine], in line order
+   public ArrayList<Breakpoint> getInLines(String path,
+                                           int firstLine,
+                                           int lastLine)
+   {
+      ArrayList<Breakpoint> breakpoints = new ArrayList<Breakpoint>();
+      ArrayList<Breakpoint> inFile = byFile_.get(path);
+      if (inFile == null)
+         return breakpoints;
+
+      ArrayList<Breakpoint> sorted = sortByLine(inFile);
+      for (int i = lowerBound(sorted, firstLine); i < sorted.size(); i++)
+      {
+         Breakpoint breakpoint = sorted.get(i);
+         if (breakpoint.getLineNumber() > lastLine)
+            break;
+         breakpoints.add(breakpoint);
+      }
+      return breakpoints;
+   }
+
+   private ArrayList<Breakpoint> sortByLine(ArrayList<Breakpoint> breakpoints)
+   {
+      ArrayList<Breakpoint> sorted = new ArrayList<Breakpoint>(breakpoints);
+      Collections.sort(sorted, LINE_ORDER);
+      return sorted;
+   }
+
+   // index of the first breakpoint at or after the given line
+   private int lowerBound(ArrayList<Breakpoint> sorted, int line)
+   {
+      int lo = 0;
+      int hi = sorted.size();
+      while (lo < hi)
+      {
+         int mid = (lo + hi) >>> 1;
+         if (sorted.get(mid).getLineNumber() < line)
+            lo = mid + 1;
+         else
+            hi = mid;
+      }
+      return lo;
+   }
+
+   private static ArrayList<Breakpoint> getList(
+         HashMap<String, ArrayList<Breakpoint>> map, String key)
+   {
+      ArrayList<Breakpoint> breakpoints = map.get(key);
+      if (breakpoints == null)
+         return new ArrayList<Breakpoint>();
+      return new ArrayList<Breakpoint>(breakpoints);
+   }
+
+   private static void addToList(HashMap<String, ArrayList<Breakpoint>> map,
+                                 String key,
+                                 Breakpoint breakpoint)
+   {
+      ArrayList<Breakpoint> breakpoints = map.get(key);
+      if (breakpoints == null)
+      {
+         breakpoints = new ArrayList<Breakpoint>();
+         map.put(key, breakpoints);
+      }
+      breakpoints.add(breakpoint);
+   }
+
+   private static void removeFromList(
+         HashMap<String, ArrayList<Breakpoint>> map,
+         String key,
+         Breakpoint breakpoint)
+   {
+      ArrayList<Breakpoint> breakpoints = map.get(key);
+      if (breakpoints == null)
+         return;
+      breakpoints.remove(breakpoint);
+      if (breakpoints.isEmpty())
+         map.remove(key);
+   }
+
+   // The keys a breakpoint was filed under at the time it was indexed
+   private static class Entry
+   {
+      public Entry(Breakpoint bp)
+      {
+         breakpoint = bp;
+         path = bp.getPath();
+         functionName = bp.getFunctionName();
+         packageName = bp.isPackageBreakpoint() ? bp.getPackageName() : null;
+      }
+
+      public boolean matches(Breakpoint bp)
+      {
+         String pkg = bp.isPackageBreakpoint() ? bp.getPackageName() : null;
+         return path.equals(bp.getPath()) &&
+                functionName.equals(bp.getFunctionName()) &&
+                (pkg == null ? packageName == null : pkg.equals(packageName));
+      }
+
+      public final Breakpoint breakpoint;
+      public final String path;
+      public final String functionName;
+      public final String packageName;
+   }
+
+   private static final Comparator<Breakpoint> LINE_ORDER =
+         new Comparator<Breakpoint>()
+   {
+      @Override
+      public int compare(Breakpoint a, Breakpoint b)
+      {
+         return a.getLineNumber() - b.getLineNumber();
+      }
+   };
+
+   private final ArrayList<Breakpoint> all_ = new ArrayList<Breakpoint>();
+   private final HashMap<Integer, Entry> byId_ = new HashMap<Integer, Entry>();
+   private final HashMap<String, ArrayList<Breakpoint>> byFile_ =
+         new HashMap<String, ArrayList<Breakpoint>>();
+   private final HashMap<String, ArrayList<Breakpoint>> byFunction_ =
+         new HashMap<String, ArrayList<Breakpoint>>();
+   private final HashMap<String, ArrayList<Breakpoint>> byPackage_ =
+         new HashMap<String, ArrayList<Breakpoint>>();
+}
@@ -43,6 +43,7 @@ import org.rstudio.studio.client.workbench.WorkbenchContext;
 import org.rstudio.studio.client.workbench.commands.Commands;
 import org.rstudio.studio.client.workbench.events.SessionInitEvent;
 import org.rstudio.studio.client.workbench.events.SessionInitHandler;
+import org.rstudio.studio.client.workbench.events.SessionReinitEvent;
 import org.rstudio.studio.client.workbench.model.ClientState;
 import org.rstudio.studio.client.workbench.model.Session;
 import org.rstudio.studio.client.workbench.model.helper.JSObjectStateValue;
@@ -84,6 +85,7 @@ import com.google.inject.Singleton;
 @Singleton
 public class BreakpointManager 
                implements SessionInitHandler, 
+                          SessionReinitEvent.Handler,
                           ContextDepthChangedEvent.Handler,
                           PackageLoadedEvent.Handler,
                           PackageUnloadedEvent.Handler,
@@ -116,6 +118,7 @@ public class BreakpointManager
       // this singleton class is constructed before the session is initialized,
       // so wait until the session init happens to grab our persisted state
       events_.addHandler(SessionInitEvent.TYPE, this);
+      events_.addHandler(SessionReinitEvent.TYPE, this);
       events_.addHandler(ConsoleWriteInputEvent.TYPE, this);      
       events_.addHandler(ContextDepthChangedEvent.TYPE, this);
       events_.addHandler(PackageLoadedEvent.TYPE, this);
@@ -193,6 +196,7 @@ public class BreakpointManager
                if (state.isPackageFunction())
                {
                   breakpoint.markAsPackageBreakpoint(state.getPackageName());
+                  breakpoints_.update(breakpoint);
                }
                // If the breakpoint is not to be set immediately, 
                // stop processing now
@@ -265,15 +269,7 @@ public class BreakpointManager
    
    public ArrayList<Breakpoint> getBreakpointsInFile(String fileName)
    {
-      ArrayList<Breakpoint> breakpoints = new ArrayList<Breakpoint>();
-      for (Breakpoint breakpoint: breakpoints_)
-      {
-         if (breakpoint.isInFile(fileName))
-         {
-            breakpoints.add(breakpoint);
-         }
-      }
-      return breakpoints;
+      return breakpoints_.getInFile(fileName);
    }
    
    // Event handlers ----------------------------------------------------------
@@ -319,7 +315,7 @@ public class BreakpointManager
                 // breakpoints. as new source windows are opened, they will
                 // call getBreakpointsInFile to populate themselves.
                 events_.fireEvent(
-                      new BreakpointsSavedEvent(breakpoints_, true));
+                      new BreakpointsSavedEvent(breakpoints_.getAll(), true));
              }
           }
    
@@ -328,7 +324,7 @@ public class BreakpointManager
           {
              BreakpointState state = 
                    BreakpointState.create();
-             for (Breakpoint breakpoint: breakpoints_)
+             for (Breakpoint breakpoint: breakpoints_.getAll())
              {
                 state.addPersistedBreakpoint(breakpoint);
              }
@@ -344,6 +340,19 @@ public class BreakpointManager
        };
    }
    
+   @Override
+   public void onSessionReinit(SessionReinitEvent event)
+   {
+      // the breakpoints belong to the previous project; the new project's
+      // are restored by the persistent state object when it's read again
+      notifyBreakpointsSaved(
+            new ArrayList<Breakpoint>(breakpoints_.getAll()), false);
+      breakpoints_.clear();
+      breakpointStateDirty_ = false;
+      currentBreakpointId_ = 0;
+      commands_.debugClearBreakpoints().setEnabled(false);
+   }
+   
    @Override
    public void onConsoleWriteInput(ConsoleWriteInputEvent event)
    {
@@ -411,7 +420,8 @@ public class BreakpointManager
       {
          if (!activeFunctions.contains(function))
          {
-            for (Breakpoint breakpoint: breakpoints_)
+            for (Breakpoint breakpoint: 
+                 breakpoints_.getInFunction(function.functionName))
             {
                if (breakpoint.isPendingDebugCompletion() &&
                    breakpoint.getState() == Breakpoint.STATE_INACTIVE &&
@@ -478,9 +488,10 @@ public class BreakpointManager
          // Restarting R unloads all the packages, so mark all active package
          // breakpoints as inactive when this happens.
          ArrayList<Breakpoint> breakpoints = new ArrayList<Breakpoint>();
-         for (Breakpoint breakpoint: breakpoints_)
+         for (String packageName: breakpoints_.getPackageNames())
          {
-            if (breakpoint.isPackageBreakpoint())
+            for (Breakpoint breakpoint: 
+                 breakpoints_.getInPackage(packageName))
             {
                breakpoint.setState(Breakpoint.STATE_INACTIVE);
                breakpoints.add(breakpoint);
@@ -496,7 +507,8 @@ public class BreakpointManager
    {
       ArrayList<String> steps = new ArrayList<String>();
       final ArrayList<Breakpoint> breakpoints = new ArrayList<Breakpoint>();
-      for (Breakpoint breakpoint: breakpoints_)
+      for (Breakpoint breakpoint: 
+           breakpoints_.getInFunction(function.functionName))
       {
          if (function.containsBreakpoint(breakpoint))
          {
@@ -538,7 +550,8 @@ public class BreakpointManager
             new ArrayList<Breakpoint>();
       int[] inactiveLines = new int[]{};
       int numLines = 0;
-      for (Breakpoint breakpoint: breakpoints_)
+      for (Breakpoint breakpoint: 
+           breakpoints_.getInFunction(function.functionName))
       {
          if (function.containsBreakpoint(breakpoint) &&
              (breakpoint.getState() != Breakpoint.STATE_ACTIVE ||
@@ -607,16 +620,14 @@ public class BreakpointManager
    private void resetBreakpointsInPath(String path, boolean isFile)
    {
       Set<FileFunction> functionsToBreak = new TreeSet<FileFunction>();
-      for (Breakpoint breakpoint: breakpoints_)
+      ArrayList<Breakpoint> breakpoints = isFile ?
+            breakpoints_.getInFile(path) :
+            breakpoints_.getInPath(path);
+      for (Breakpoint breakpoint: breakpoints)
       {
          // set this breakpoint if it's a function breakpoint in the file 
          // (or path) given
-         boolean processBreakpoint = 
-               (breakpoint.getType() == Breakpoint.TYPE_FUNCTION) && 
-               (isFile ?
-                  breakpoint.isInFile(path) :
-                  breakpoint.isInPath(path));
-         if (processBreakpoint)
+         if (breakpoint.getType() == Breakpoint.TYPE_FUNCTION)
          {
             functionsToBreak.add(new FileFunction(breakpoint));
          }
@@ -657,13 +668,12 @@ public class BreakpointManager
             // line; if there is, discard this one.
             if (breakpoint.getLineNumber() != steps.getLineNumber())
             {
-               for (Breakpoint possibleDupe: breakpoints_)
+               for (Breakpoint possibleDupe: breakpoints_.getInLines(
+                       breakpoint.getPath(), 
+                       steps.getLineNumber(), 
+                       steps.getLineNumber()))
                {
-                  if (breakpoint.getPath().equals(
-                         possibleDupe.getPath()) &&
-                      steps.getLineNumber() == 
-                         possibleDupe.getLineNumber() &&
-                      breakpoint.getBreakpointId() != 
+                  if (breakpoint.getBreakpointId() != 
                          possibleDupe.getBreakpointId())
                   {
                      breakpoint.setState(Breakpoint.STATE_REMOVING);
@@ -674,6 +684,10 @@ public class BreakpointManager
             breakpoint.addFunctionSteps(steps.getName(),
                   steps.getLineNumber(),
                   steps.getSteps());
+            
+            // the server may have resolved the breakpoint to a different
+            // function name; keep the index in sync
+            breakpoints_.update(breakpoint);
          }
          else
          {
@@ -694,14 +708,7 @@ public class BreakpointManager
    
    private Breakpoint getBreakpoint (int breakpointId)
    {
-      for (Breakpoint breakpoint: breakpoints_)
-      {
-         if (breakpoint.getBreakpointId() == breakpointId)
-         {
-            return breakpoint;
-         }
-      }
-      return null;
+      return breakpoints_.getById(breakpointId);
    }
    
    private Breakpoint addBreakpoint (Breakpoint breakpoint)
@@ -715,20 +722,16 @@ public class BreakpointManager
    {
       Set<FileFunction> functionsToBreak = new TreeSet<FileFunction>();
       ArrayList<Breakpoint> breakpointsToDisable = new ArrayList<Breakpoint>();
-      for (Breakpoint breakpoint: breakpoints_)
+      for (Breakpoint breakpoint: breakpoints_.getInPackage(packageName))
       {
-         if (breakpoint.isPackageBreakpoint() &&
-             breakpoint.getPackageName().equals(packageName))
+         if (enable)
          {
-            if (enable)
-            {
-               functionsToBreak.add(new FileFunction(breakpoint));
-            }
-            else
-            {
-               breakpoint.setState(Breakpoint.STATE_INACTIVE);
-               breakpointsToDisable.add(breakpoint);
-            }
+            functionsToBreak.add(new FileFunction(breakpoint));
+         }
+         else
+         {
+            breakpoint.setState(Breakpoint.STATE_INACTIVE);
+            breakpointsToDisable.add(breakpoint);
          }
       }
       if (enable)
@@ -747,7 +750,7 @@ public class BreakpointManager
    private void clearAllBreakpoints()
    {
       Set<FileFunction> functions = new TreeSet<FileFunction>();
-      for (Breakpoint breakpoint: breakpoints_)
+      for (Breakpoint breakpoint: breakpoints_.getAll())
       {
          breakpoint.setState(Breakpoint.STATE_REMOVING);
          if (breakpoint.getType () == Breakpoint.TYPE_FUNCTION)
@@ -776,7 +779,8 @@ public class BreakpointManager
       }
 
       server_.removeAllBreakpoints(new VoidServerRequestCallback());
-      notifyBreakpointsSaved(new ArrayList<Breakpoint>(breakpoints_), false);
+      notifyBreakpointsSaved(
+            new ArrayList<Breakpoint>(breakpoints_.getAll()), false);
       breakpoints_.clear();
       onBreakpointAddOrRemove();
    }
@@ -784,7 +788,7 @@ public class BreakpointManager
    private void onBreakpointAddOrRemove()
    {
       breakpointStateDirty_ = true;
-      commands_.debugClearBreakpoints().setEnabled(breakpoints_.size() > 0);
+      commands_.debugClearBreakpoints().setEnabled(!breakpoints_.isEmpty());
    }
    
    private void notifyServer(Breakpoint breakpoint, boolean added, boolean arm)
@@ -797,7 +801,7 @@ public class BreakpointManager
    
    private void activateTopLevelBreakpoints(String path)
    {
-      for (Breakpoint breakpoint: breakpoints_)
+      for (Breakpoint breakpoint: breakpoints_.getInFile(path))
       {
          ArrayList<Breakpoint> activatedBreakpoints = 
                new ArrayList<Breakpoint>();
@@ -889,7 +893,7 @@ public class BreakpointManager
    private final GlobalDisplay globalDisplay_;
    private final Commands commands_;
 
-   private ArrayList<Breakpoint> breakpoints_ = new ArrayList<Breakpoint>();
+   private final BreakpointIndex breakpoints_ = new BreakpointIndex();
    private Set<FileFunction> activeFunctions_ = new TreeSet<FileFunction>();
    private String activeSource_;
 
@@ -18,7 +18,6 @@ import java.util.Map;
 import java.util.TreeMap;
 
 import com.google.gwt.core.client.Scheduler;
-import com.google.gwt.core.client.Scheduler.RepeatingCommand;
 import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.dom.client.Document;
 import com.google.gwt.dom.client.Element;
@@ -381,12 +380,44 @@ public class ShellWidget extends Composite implements ShellDisplay,
          // treat this differently in case the new output uses control
          // characters to pound over parts of the previous output.
 
-         int oldLineCount = DomUtils.countLines(trailingOutput_, true);
-         trailingOutputConsole_.submit(text);
-         trailingOutput_.setNodeValue(
-               ensureNewLine(trailingOutputConsole_.toString()));
-         int newLineCount = DomUtils.countLines(trailingOutput_, true);
-         lines_ += newLineCount - oldLineCount;
+         //
+         // Line counts are maintained from the VirtualConsole's incremental
+         // newline count, so appending costs time proportional to the new
+         // text rather than to everything already in the trailing block.
+
+         VirtualConsole console = trailingOutputConsole_;
+         int oldLength = console.getLength();
+         int oldLineCount = getRenderedLineCount(console);
+         boolean hadAddedNewline = oldLength > 0 && !console.endsWithNewline();
+         boolean wasAtEnd = console.isCursorAtEnd();
+
+         // the node may have been trimmed from the top by trimExcess, in which
+         // case it no longer mirrors the console contents
+         boolean nodeIsComplete = trailingOutput_.getLength() ==
+                                  oldLength + (hadAddedNewline ? 1 : 0);
+
+         boolean appendOnly = console.submit(text);
+         int newLineCount = getRenderedLineCount(console);
+
+         if (appendOnly && wasAtEnd)
+         {
+            // only the new text needs to be added to the node
+            if (hadAddedNewline)
+               trailingOutput_.deleteData(trailingOutput_.getLength() - 1, 1);
+            String added = console.toString().substring(oldLength);
+            if (console.getLength() > 0 && !console.endsWithNewline())
+               added += "\n";
+            trailingOutput_.insertData(trailingOutput_.getLength(), added);
+            lines_ += newLineCount - oldLineCount;
+         }
+         else
+         {
+            int oldNodeLineCount = nodeIsComplete
+                  ? oldLineCount
+                  : DomUtils.countLines(trailingOutput_, true);
+            trailingOutput_.setNodeValue(ensureNewLine(console.toString()));
+            lines_ += newLineCount - oldNodeLineCount;
+         }
       }
       else
       {
@@ -456,6 +487,16 @@ public class ShellWidget extends Composite implements ShellDisplay,
       return result;
    }
 
+   // Returns the number of lines the console's contents occupy once rendered
+   // with ensureNewLine
+   private int getRenderedLineCount(VirtualConsole console)
+   {
+      int count = console.getNewlineCount();
+      if (console.getLength() > 0 && !console.endsWithNewline())
+         count++;
+      return count;
+   }
+
    private String ensureNewLine(String s)
    {
       if (s.length() == 0 || s.charAt(s.length() - 1) == '\n')
@@ -480,58 +521,88 @@ public class ShellWidget extends Composite implements ShellDisplay,
       return false;
    }
 
-   public void playbackActions(final RpcObjectList<ConsoleAction> actions)
+   // Restores the output of a resumed session. The nodes for the actions are
+   // built off the DOM, newest first, until there are enough lines to reach
+   // the output limit (older lines would just be trimmed), and inserted above
+   // any output already shown in one go. Restoring so costs time in
+   // proportion to the lines kept, however many actions they came from.
+   public void playbackActions(RpcObjectList<ConsoleAction> actions)
    {
-      Scheduler.get().scheduleIncremental(new RepeatingCommand()
+      // User hit Ctrl+L before we got here--nothing to restore.
+      if (cleared_)
+         return;
+
+      Element outEl = output_.getElement();
+      Node fragment = DomUtils.createDocumentFragment();
+      Node next = outEl.getFirstChild();
+      int lines = 0;
+
+      for (int i = actions.length() - 1; i >= 0; i--)
       {
-         private int i = actions.length() - 1;
-         private int chunksize = 1000;
+         if (maxLines_ > 0 && lines >= maxLines_)
+            break;
 
-         public boolean execute()
+         ConsoleAction action = actions.get(i);
+         String text = action.getData();
+
+         // a form feed clears the console, so nothing before it is shown
+         int formFeed = text.lastIndexOf('\f');
+         if (formFeed >= 0)
+            text = text.substring(formFeed + 1);
+
+         Node node = createPlaybackNode(action.getType(), text, next);
+         if (node != null)
          {
-            int end = i - chunksize;
-            chunksize = 10;
-            for (; i > end && i >= 0; i--)
-            {
-               // User hit Ctrl+L at some point--we're done.
-               if (cleared_)
-                  return false;
+            fragment.insertFirst(node);
+            lines += DomUtils.countLines(node, true);
+            next = node;
+         }
 
-               boolean canContinue = false;
+         if (formFeed >= 0)
+            break;
+      }
 
-               ConsoleAction action = actions.get(i);
-               switch (action.getType())
-               {
-                  case ConsoleAction.INPUT:
-                     canContinue = output(action.getData() + "\n",
-                                          styles_.command() + " " + KEYWORD_CLASS_NAME,
-                                          true);
-                     break;
-                  case ConsoleAction.OUTPUT:
-                     canContinue = output(action.getData(),
-                                          styles_.output(),
-                                          true);
-                     break;
-                  case ConsoleAction.ERROR:
-                     canContinue = output(action.getData(),
-                                          styles_.error(),
-                                          true);
-                     break;
-                  case ConsoleAction.PROMPT:
-                     canContinue = output(action.getData(),
-                                          styles_.prompt() + " " + KEYWORD_CLASS_NAME,
-                                          true);
-                     break;
-               }
-               if (!canContinue)
-                  return false;
-            }
-            if (!DomUtils.selectionExists())
-               scrollPanel_.scrollToBottom();
+      outEl.insertFirst(fragment);
+      lines_ += lines;
+      trimExcess();
 
-            return i >= 0;
-         }
-      });
+      scrollPanel_.onContentSizeChanged();
+      if (!DomUtils.selectionExists())
+         scrollPanel_.scrollToBottom();
+   }
+
+   // Creates the node for an action being played back, given the node which
+   // will follow it (null if none); matches what output() adds to the top
+   private Node createPlaybackNode(int type, String text, Node next)
+   {
+      switch (type)
+      {
+         case ConsoleAction.INPUT:
+            return createSpan(text + "\n",
+                              styles_.command() + " " + KEYWORD_CLASS_NAME);
+         case ConsoleAction.OUTPUT:
+            String output = VirtualConsole.consolify(text);
+
+            // see output() for when it's safe to add a newline
+            if (next == null || next.getNodeType() != Node.TEXT_NODE)
+               output = ensureNewLine(output);
+            return Document.get().createTextNode(output);
+         case ConsoleAction.ERROR:
+            return createSpan(text, styles_.error());
+         case ConsoleAction.PROMPT:
+            return createSpan(text,
+                              styles_.prompt() + " " + KEYWORD_CLASS_NAME);
+         default:
+            return null;
+      }
+   }
+
+   private Node createSpan(String text, String className)
+   {
+      SpanElement span = Document.get().createSpanElement();
+      span.setClassName(className);
+      span.setInnerText(VirtualConsole.consolify(text));
+      return span;
    }
 
    public void focus()
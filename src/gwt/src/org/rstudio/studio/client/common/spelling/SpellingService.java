@@ -17,8 +17,10 @@ package org.rstudio.studio.client.common.spelling;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 
+import org.rstudio.core.client.LruCache;
 import org.rstudio.core.client.js.JsUtil;
 import org.rstudio.studio.client.common.spelling.model.SpellCheckerResult;
 import org.rstudio.studio.client.common.spelling.model.SpellingServerOperations;
@@ -78,8 +80,11 @@ public class SpellingService implements HasChangeHandlers
       // results to return
       final SpellCheckerResult spellCheckerResult = new SpellCheckerResult();
       
-      // only send words to the server that aren't in the cache
+      // only send words to the server that aren't in the cache, and that
+      // aren't already being checked by another request that's in flight
       final ArrayList<String> wordsToCheck = new ArrayList<String>();
+      final PendingCheck pending = 
+                        new PendingCheck(spellCheckerResult, callback);
       for (int i = 0; i<words.size(); i++)
       {
          String word = words.get(i);
@@ -91,20 +96,29 @@ public class SpellingService implements HasChangeHandlers
             else
                spellCheckerResult.getIncorrect().add(word);
          }
+         else if (inFlight_.containsKey(word))
+         {
+            inFlight_.get(word).add(pending);
+            pending.outstanding++;
+         }
          else
          {
+            inFlight_.put(word, new ArrayList<PendingCheck>());
             wordsToCheck.add(word);
          }
       }
       
-      // if there are no words to check then return
+      // if there are no words to check then we may be done already (or 
+      // waiting only on other requests)
       if (wordsToCheck.size() == 0)
       {
-         callback.onResponseReceived(spellCheckerResult);
+         pending.complete();
          return;
       }
       
       // hit the server
+      pending.outstanding += wordsToCheck.size();
+      final int generation = cacheGeneration_;
       server_.checkSpelling(JsUtil.toJsArrayString(wordsToCheck), 
                             new ServerRequestCallback<JsArrayInteger>() {
 
@@ -112,7 +126,7 @@ public class SpellingService implements HasChangeHandlers
          public void onResponseReceived(JsArrayInteger result)
          {
             // get misspelled indexes
-            ArrayList<Integer> misspelledIndexes = new ArrayList<Integer>();
+            HashSet<Integer> misspelledIndexes = new HashSet<Integer>();
             for (int i=0; i<result.length(); i++)
                misspelledIndexes.add(result.get(i));
             
@@ -120,29 +134,86 @@ public class SpellingService implements HasChangeHandlers
             for (int i=0; i<wordsToCheck.size(); i++)
             {
                String word = wordsToCheck.get(i);
-               if (misspelledIndexes.contains(i))
-               {
-                  spellCheckerResult.getIncorrect().add(word);
-                  previousResults_.put(word, false);
-               }
-               else
+               boolean isCorrect = !misspelledIndexes.contains(i);
+               
+               // don't cache verdicts made against since-changed dictionaries
+               if (generation == cacheGeneration_)
+                  previousResults_.put(word, isCorrect);
+               
+               pending.addResult(word, isCorrect);
+               ArrayList<PendingCheck> waiting = inFlight_.remove(word);
+               if (waiting != null)
                {
-                  spellCheckerResult.getCorrect().add(word);
-                  previousResults_.put(word,  true);
+                  for (PendingCheck check : waiting)
+                     check.addResult(word, isCorrect);
                }
             }
-            
-            // return result
-            callback.onResponseReceived(spellCheckerResult);     
          }
          
          @Override
          public void onError(ServerError error)
          {
-            callback.onError(error);
+            pending.fail(error);
+            for (String word : wordsToCheck)
+            {
+               ArrayList<PendingCheck> waiting = inFlight_.remove(word);
+               if (waiting != null)
+               {
+                  for (PendingCheck check : waiting)
+                     check.fail(error);
+               }
+            }
          }
       });
    }
+   
+   // Collects verdicts for one checkSpelling call, some of which may be
+   // delivered by requests issued on behalf of other callers
+   private class PendingCheck
+   {
+      public PendingCheck(SpellCheckerResult result,
+                          ServerRequestCallback<SpellCheckerResult> callback)
+      {
+         result_ = result;
+         callback_ = callback;
+      }
+      
+      public void addResult(String word, boolean isCorrect)
+      {
+         if (done_)
+            return;
+         
+         if (isCorrect)
+            result_.getCorrect().add(word);
+         else
+            result_.getIncorrect().add(word);
+         
+         outstanding--;
+         complete();
+      }
+      
+      public void complete()
+      {
+         if (done_ || outstanding > 0)
+            return;
+         done_ = true;
+         callback_.onResponseReceived(result_);
+      }
+      
+      public void fail(ServerError error)
+      {
+         if (done_)
+            return;
+         done_ = true;
+         callback_.onError(error);
+      }
+      
+      public int outstanding = 0;
+      
+      private final SpellCheckerResult result_;
+      private final ServerRequestCallback<SpellCheckerResult> callback_;
+      private boolean done_ = false;
+   }
 
    public void suggestionList(String word,
                               ServerRequestCallback<JsArrayString> callback)
@@ -173,6 +244,7 @@ public class SpellingService implements HasChangeHandlers
    public void invalidateCache()
    {
       previousResults_.clear();
+      cacheGeneration_++;
       DomEvent.fireNativeEvent(Document.get().createChangeEvent(),
                                handlerManager_);
    }
@@ -225,8 +297,17 @@ public class SpellingService implements HasChangeHandlers
    private final SpellingServerOperations server_;
    private final UIPrefs uiPrefs_;
    
-   private HashMap<String,Boolean> previousResults_ = 
-                                             new HashMap<String,Boolean>();
+   // verdicts are shared by all documents, so bound the cache rather than
+   // letting it grow with every word ever checked
+   private final LruCache<String,Boolean> previousResults_ = 
+                           new LruCache<String,Boolean>(MAX_CACHED_WORDS);
+   
+   private final HashMap<String, ArrayList<PendingCheck>> inFlight_ =
+                           new HashMap<String, ArrayList<PendingCheck>>();
+   
+   private int cacheGeneration_ = 0;
+   
+   private static final int MAX_CACHED_WORDS = 20000;
    
    HandlerManager handlerManager_ = new HandlerManager(this);
    
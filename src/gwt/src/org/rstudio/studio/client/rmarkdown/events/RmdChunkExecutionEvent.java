@@ -0,0 +1,92 @@
+/*
+ * RmdChunkExecutionEvent.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.rmarkdown.events;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.event.shared.EventHandler;
+import com.google.gwt.event.shared.GwtEvent;
+
+// Progress of a queued chunk (see RMarkdownServerOperations.queueRmdChunks)
+public class RmdChunkExecutionEvent 
+   extends GwtEvent<RmdChunkExecutionEvent.Handler>
+{  
+   public static class Data extends JavaScriptObject
+   {
+      protected Data()
+      {  
+      }
+      
+      public final native String getDocId() /*-{
+         return this.doc_id;
+      }-*/;
+      
+      public final native String getLabel() /*-{
+         return this.label;
+      }-*/;
+      
+      public final native int getIndex() /*-{
+         return this.index;
+      }-*/;
+      
+      public final native int getCount() /*-{
+         return this.count;
+      }-*/;
+      
+      public final native String getState() /*-{
+         return this.state;
+      }-*/;
+      
+      // time the chunk took to run (once it's finished)
+      public final native int getElapsedMs() /*-{
+         return this.elapsed_ms;
+      }-*/;
+   }
+   
+   public interface Handler extends EventHandler
+   {
+      void onRmdChunkExecution(RmdChunkExecutionEvent event);
+   }
+
+   public RmdChunkExecutionEvent(Data data)
+   {
+      data_ = data;
+   }
+
+   public Data getData()
+   {
+      return data_;
+   }
+    
+   @Override
+   public Type<Handler> getAssociatedType()
+   {
+      return TYPE;
+   }
+
+   @Override
+   protected void dispatch(Handler handler)
+   {
+      handler.onRmdChunkExecution(this);
+   }
+   
+   private final Data data_;
+
+   public static final String STATE_STARTED = "started";
+   public static final String STATE_FINISHED = "finished";
+   public static final String STATE_ERROR = "error";
+   public static final String STATE_CANCELLED = "cancelled";
+
+   public static final Type<Handler> TYPE = new Type<Handler>();
+}
@@ -19,6 +19,7 @@ import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.server.Void;
 
 import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
 
 public interface RMarkdownServerOperations extends CryptoServerOperations
 {
@@ -60,6 +61,15 @@ public interface RMarkdownServerOperations extends CryptoServerOperations
    void prepareForRmdChunkExecution(String id,
                                     ServerRequestCallback<Void> requestCallback);
 
+   // queues chunks of the saved document for .rs.executeQueuedRmdChunks()
+   // (replacing any already queued), and prepares for their execution
+   void queueRmdChunks(String id,
+                       JsArray<RmdChunkRef> chunks,
+                       ServerRequestCallback<Void> requestCallback);
+
+   void cancelRmdChunks(String id,
+                        ServerRequestCallback<Void> requestCallback);
+
    void getRmdOutputInfo(String target,
                 ServerRequestCallback<RmdOutputInfo> resultCallback);
 }
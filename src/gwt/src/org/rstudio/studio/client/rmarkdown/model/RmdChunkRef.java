@@ -0,0 +1,40 @@
+/*
+ * RmdChunkRef.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.rmarkdown.model;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+// A chunk of a saved document, by its rows: the chunk's code is the rows
+// from startRow up to (but not including) endRow
+public class RmdChunkRef extends JavaScriptObject
+{
+   protected RmdChunkRef()
+   {
+   }
+   
+   public static native RmdChunkRef create(String label, 
+                                           int startRow, 
+                                           int endRow) /*-{
+      return {
+         'label': label,
+         'start_row': startRow,
+         'end_row': endRow
+      };
+   }-*/;
+   
+   public native final String getLabel() /*-{
+      return this.label;
+   }-*/;
+}
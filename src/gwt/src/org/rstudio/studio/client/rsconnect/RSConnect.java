@@ -71,9 +71,11 @@ import org.rstudio.studio.client.workbench.model.helper.JSObjectStateValue;
 import org.rstudio.studio.client.workbench.prefs.model.UIPrefs;
 import org.rstudio.studio.client.workbench.views.source.model.SourceServerOperations;
 
+import com.google.gwt.core.client.GWT;
 import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.core.client.JsArray;
 import com.google.gwt.core.client.JsArrayString;
+import com.google.gwt.core.client.RunAsyncCallback;
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.event.dom.client.ClickEvent;
 import com.google.gwt.event.dom.client.ClickHandler;
@@ -399,19 +401,59 @@ public class RSConnect implements SessionInitHandler,
       publishAsFiles(input.getOriginatingEvent(), source);
    }
 
-   private void publishAsFiles(RSConnectActionEvent event,
-         RSConnectPublishSource source)
+   private void publishAsFiles(final RSConnectActionEvent event,
+         final RSConnectPublishSource source)
    {
-      RSConnectDeployDialog dialog = 
-            new RSConnectDeployDialog(
-                      event.getContentType(),
-                      server_, this, display_, 
-                      source,
-                      event.getFromPrevious());
-      dialog.showModal();
+      // the deployment UI lives in its own code fragment since most
+      // sessions never publish anything
+      GWT.runAsync(RSConnectDeployDialog.class, new RunAsyncCallback()
+      {
+         @Override
+         public void onSuccess()
+         {
+            RSConnectDeployDialog dialog = 
+                  new RSConnectDeployDialog(
+                            event.getContentType(),
+                            server_, RSConnect.this, display_, 
+                            source,
+                            event.getFromPrevious());
+            dialog.showModal();
+         }
+
+         @Override
+         public void onFailure(Throwable reason)
+         {
+            onPublishUILoadFailure(reason);
+         }
+      });
    }
    
    private void publishWithWizard(final RSConnectPublishInput input)
+   {
+      GWT.runAsync(RSConnectPublishWizard.class, new RunAsyncCallback()
+      {
+         @Override
+         public void onSuccess()
+         {
+            showPublishWizard(input);
+         }
+
+         @Override
+         public void onFailure(Throwable reason)
+         {
+            onPublishUILoadFailure(reason);
+         }
+      });
+   }
+   
+   private void onPublishUILoadFailure(Throwable reason)
+   {
+      display_.showErrorMessage("Error Publishing", 
+            "The publishing interface could not be loaded: " + 
+            reason.getMessage());
+   }
+   
+   private void showPublishWizard(final RSConnectPublishInput input)
    {
       RSConnectPublishWizard wizard = 
             new RSConnectPublishWizard(input, 
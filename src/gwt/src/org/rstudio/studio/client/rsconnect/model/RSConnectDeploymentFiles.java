@@ -34,4 +34,22 @@ public class RSConnectDeploymentFiles extends JavaScriptObject
    public final native int getMaxSize() /*-{
       return this.max_size;
    }-*/;
+
+   // whether the files deployed last time are known, so the added, changed
+   // and removed files below can be compared with them
+   public final native boolean hasDelta() /*-{
+      return this.delta ? true : false;
+   }-*/;
+
+   public final native JsArrayString getAddedFiles() /*-{
+      return this.delta ? this.delta.added : [];
+   }-*/;
+
+   public final native JsArrayString getChangedFiles() /*-{
+      return this.delta ? this.delta.changed : [];
+   }-*/;
+
+   public final native JsArrayString getRemovedFiles() /*-{
+      return this.delta ? this.delta.removed : [];
+   }-*/;
 }
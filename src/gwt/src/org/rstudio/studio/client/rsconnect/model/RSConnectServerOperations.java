@@ -41,8 +41,11 @@ public interface RSConnectServerOperations
    void getRSConnectDeployments(String sourceFile, String outputFile,
                ServerRequestCallback<JsArray<RSConnectDeploymentRecord>> requestCallback); 
    
+   // the previous deployment (if known) is used to find the files which
+   // changed since it; pass null for a new deployment
    void getDeploymentFiles (String target, 
                boolean asMultipleRmd,
+               RSConnectDeploymentRecord previous,
                ServerRequestCallback<RSConnectDeploymentFiles> requestCallback);
    
    void publishContent(RSConnectPublishSource source, 
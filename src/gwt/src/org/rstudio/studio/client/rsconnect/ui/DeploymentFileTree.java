@@ -0,0 +1,468 @@
+/*
+ * DeploymentFileTree.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.rsconnect.ui;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+// The files to deploy, arranged in a tree of folders and exposed as a flat
+// list of rows (one per folder or file, leaving out the contents of
+// collapsed folders), which is the shape the virtualized file list renders
+// from. Files are indexed by path, and each folder counts the files below
+// it and how many are checked, so checking or finding a file never scans
+// the whole list.
+//
+// When the files deployed last time are known, each file's status says how
+// the deployment would change it: a checked file that wasn't deployed is
+// added, an unchecked one that was is removed, and a checked one whose
+// content differs is changed. Files deployed last time that no longer
+// exist are shown as removed, and can't be checked.
+public class DeploymentFileTree
+{
+   public class Node
+   {
+      private Node(Node parent, String name, boolean dir)
+      {
+         parent_ = parent;
+         name_ = name;
+         dir_ = dir;
+         depth_ = parent == null ? -1 : parent.depth_ + 1;
+         path_ = parent == null || parent.path_.length() == 0 ?
+                 name : parent.path_ + "/" + name;
+      }
+
+      public String getPath()
+      {
+         return path_;
+      }
+
+      public String getName()
+      {
+         return name_;
+      }
+
+      public boolean isDir()
+      {
+         return dir_;
+      }
+
+      // nesting level, starting at 0 for the top-level files and folders
+      public int getDepth()
+      {
+         return depth_;
+      }
+
+      public boolean isExpanded()
+      {
+         return expanded_;
+      }
+
+      // a folder is checked when all the files below it are
+      public boolean isChecked()
+      {
+         return dir_ ? fileCount_ > 0 && checkedCount_ == fileCount_ :
+                       checked_;
+      }
+
+      public boolean isPartiallyChecked()
+      {
+         return dir_ && checkedCount_ > 0 && checkedCount_ < fileCount_;
+      }
+
+      public boolean isPrimary()
+      {
+         return primary_;
+      }
+
+      public boolean isEnabled()
+      {
+         return dir_ ? fileCount_ > 0 : !primary_ && !missing_;
+      }
+
+      public int getStatus()
+      {
+         if (dir_ || !tracked_)
+            return STATUS_UNCHANGED;
+         else if (missing_)
+            return STATUS_REMOVED;
+         else if (!deployed_)
+            return checked_ ? STATUS_ADDED : STATUS_UNCHANGED;
+         else if (!checked_)
+            return STATUS_REMOVED;
+         else
+            return changed_ ? STATUS_CHANGED : STATUS_UNCHANGED;
+      }
+
+      private final Node parent_;
+      private final String name_;
+      private final String path_;
+      private final boolean dir_;
+      private final int depth_;
+
+      // folders
+      private final ArrayList<Node> children_ = new ArrayList<Node>();
+      private final HashMap<String, Node> childrenByName_ =
+            new HashMap<String, Node>();
+      private boolean expanded_ = true;
+      private int fileCount_;
+      private int checkedCount_;
+
+      // files
+      private boolean checked_;
+      private boolean primary_;
+      private boolean deployed_;
+      private boolean changed_;
+      private boolean missing_;
+
+      // position in the flattened list, or -1 if hidden
+      private int row_ = -1;
+   }
+
+   public void clear()
+   {
+      root_ = new Node(null, "", true);
+      files_.clear();
+      filesByPath_.clear();
+      tracked_ = false;
+      rowsDirty_ = true;
+   }
+
+   public boolean contains(String path)
+   {
+      Node file = filesByPath_.get(path);
+      return file != null && !file.missing_;
+   }
+
+   public Node getFile(String path)
+   {
+      return filesByPath_.get(path);
+   }
+
+   // Adds a file to deploy (or, if it was only known as a removed file,
+   // makes it deployable again)
+   public Node addFile(String path, boolean checked)
+   {
+      Node file = filesByPath_.get(path);
+      if (file != null && !file.missing_)
+         return file;
+
+      if (file == null)
+      {
+         file = createFile(path);
+      }
+      else
+      {
+         file.missing_ = false;
+         adjustCounts(file.parent_, 1, 0);
+      }
+
+      setChecked(file, checked);
+      return file;
+   }
+
+   // Records the files which were deployed last time and how they compare
+   // with the files to deploy now (see the class comment)
+   public void setDeployedFiles(Iterable<String> added,
+                                Iterable<String> changed,
+                                Iterable<String> removed)
+   {
+      tracked_ = true;
+      for (Node file : files_)
+         file.deployed_ = true;
+
+      for (String path : added)
+      {
+         Node file = filesByPath_.get(path);
+         if (file != null)
+            file.deployed_ = false;
+      }
+
+      for (String path : changed)
+      {
+         Node file = filesByPath_.get(path);
+         if (file != null)
+            file.changed_ = true;
+      }
+
+      for (String path : removed)
+      {
+         if (filesByPath_.containsKey(path))
+            continue;
+
+         Node file = createFile(path);
+         file.deployed_ = true;
+         file.missing_ = true;
+         adjustCounts(file.parent_, -1, 0);
+      }
+      rowsDirty_ = true;
+   }
+
+   public boolean isTracked()
+   {
+      return tracked_;
+   }
+
+   // Forgets the files deployed last time (e.g. when deploying as new
+   // content instead)
+   public void forgetDeployedFiles()
+   {
+      tracked_ = false;
+      changesOnly_ = false;
+      rowsDirty_ = true;
+   }
+
+   // The files which are (or aren't) checked, in the order they were added
+   public ArrayList<String> getFiles(boolean checked)
+   {
+      ArrayList<String> paths = new ArrayList<String>();
+      for (Node file : files_)
+      {
+         if (!file.missing_ && file.checked_ == checked)
+            paths.add(file.path_);
+      }
+      return paths;
+   }
+
+   public int getFileCount()
+   {
+      return root_.fileCount_;
+   }
+
+   // The number of files with the given status
+   public int getStatusCount(int status)
+   {
+      int count = 0;
+      for (Node file : files_)
+      {
+         if (file.getStatus() == status)
+            count++;
+      }
+      return count;
+   }
+
+   // Checks or unchecks the file, or all the files below the folder which
+   // can be checked
+   public void setChecked(Node node, boolean checked)
+   {
+      if (node.dir_)
+      {
+         for (Node child : node.children_)
+            setChecked(child, checked);
+      }
+      else if (!node.missing_ && node.checked_ != checked &&
+               (checked || !node.primary_))
+      {
+         node.checked_ = checked;
+         adjustCounts(node.parent_, 0, checked ? 1 : -1);
+      }
+   }
+
+   // Marks the file as the one which can't be left out, and moves it to
+   // the top of its folder
+   public void setPrimary(String path)
+   {
+      Node file = filesByPath_.get(path);
+      if (file == null || file.missing_)
+         return;
+
+      setChecked(file, true);
+      file.primary_ = true;
+      file.parent_.children_.remove(file);
+      insertChild(file.parent_, file);
+      rowsDirty_ = true;
+   }
+
+   public void setExpanded(Node dir, boolean expanded)
+   {
+      if (!dir.dir_ || dir.expanded_ == expanded)
+         return;
+      dir.expanded_ = expanded;
+      rowsDirty_ = true;
+   }
+
+   public boolean getChangesOnly()
+   {
+      return changesOnly_;
+   }
+
+   // Shows only the files the deployment would add, change or remove (and
+   // the folders they're in). Which rows are shown is decided when this is
+   // set, so a row doesn't disappear when a check changes its status.
+   public void setChangesOnly(boolean changesOnly)
+   {
+      changesOnly_ = changesOnly;
+      rowsDirty_ = true;
+   }
+
+   public int getRowCount()
+   {
+      ensureRows();
+      return rows_.size();
+   }
+
+   public Node getRow(int index)
+   {
+      ensureRows();
+      if (index < 0 || index >= rows_.size())
+         return null;
+      return rows_.get(index);
+   }
+
+   // Returns the node's index in the flattened list, or -1 if it's hidden
+   public int indexOf(Node node)
+   {
+      ensureRows();
+      return node.row_;
+   }
+
+   private Node createFile(String path)
+   {
+      Node dir = root_;
+      String[] parts = path.split("/");
+      for (int i = 0; i < parts.length - 1; i++)
+      {
+         Node child = dir.childrenByName_.get(parts[i]);
+         if (child == null)
+         {
+            child = new Node(dir, parts[i], true);
+            insertChild(dir, child);
+         }
+         dir = child;
+      }
+
+      Node file = new Node(dir, parts[parts.length - 1], false);
+      insertChild(dir, file);
+      files_.add(file);
+      filesByPath_.put(path, file);
+      adjustCounts(dir, 1, 0);
+      rowsDirty_ = true;
+      return file;
+   }
+
+   // Keeps each folder's children sorted: the primary file first, then
+   // folders, then files, each by name
+   private void insertChild(Node dir, Node child)
+   {
+      int lo = 0;
+      int hi = dir.children_.size();
+      while (lo < hi)
+      {
+         int mid = (lo + hi) >>> 1;
+         if (compare(dir.children_.get(mid), child) <= 0)
+            lo = mid + 1;
+         else
+            hi = mid;
+      }
+      dir.children_.add(lo, child);
+      dir.childrenByName_.put(child.name_, child);
+   }
+
+   private static int compare(Node a, Node b)
+   {
+      if (a.primary_ != b.primary_)
+         return a.primary_ ? -1 : 1;
+      if (a.dir_ != b.dir_)
+         return a.dir_ ? -1 : 1;
+      int result = a.name_.compareToIgnoreCase(b.name_);
+      return result != 0 ? result : a.name_.compareTo(b.name_);
+   }
+
+   private void adjustCounts(Node dir, int files, int checked)
+   {
+      for (; dir != null; dir = dir.parent_)
+      {
+         dir.fileCount_ += files;
+         dir.checkedCount_ += checked;
+      }
+   }
+
+   private void ensureRows()
+   {
+      if (!rowsDirty_)
+         return;
+
+      for (Node row : rows_)
+         row.row_ = -1;
+      rows_.clear();
+      addRows(root_);
+      rowsDirty_ = false;
+   }
+
+   // adds the rows for the folder's children and returns whether any were
+   // added
+   private boolean addRows(Node dir)
+   {
+      boolean added = false;
+      for (Node child : dir.children_)
+      {
+         if (child.dir_)
+         {
+            int row = rows_.size();
+            child.row_ = row;
+            rows_.add(child);
+            boolean hasRows = addRows(child);
+            if (!hasRows)
+            {
+               // nothing in this folder is shown (e.g. nothing changed)
+               for (int i = row; i < rows_.size(); i++)
+                  rows_.get(i).row_ = -1;
+               while (rows_.size() > row)
+                  rows_.remove(rows_.size() - 1);
+               continue;
+            }
+         }
+         else if (child.missing_ && !tracked_)
+         {
+            continue;
+         }
+         else if (!changesOnly_ || child.getStatus() != STATUS_UNCHANGED)
+         {
+            child.row_ = rows_.size();
+            rows_.add(child);
+         }
+         else
+         {
+            continue;
+         }
+         added = true;
+      }
+
+      // the rows below a collapsed folder are only needed to decide whether
+      // it has changes
+      if (!dir.expanded_ && dir != root_)
+      {
+         int first = dir.row_ + 1;
+         for (int i = first; i < rows_.size(); i++)
+            rows_.get(i).row_ = -1;
+         while (rows_.size() > first)
+            rows_.remove(rows_.size() - 1);
+      }
+      return added;
+   }
+
+   private Node root_ = new Node(null, "", true);
+   private final ArrayList<Node> files_ = new ArrayList<Node>();
+   private final HashMap<String, Node> filesByPath_ =
+         new HashMap<String, Node>();
+   private final ArrayList<Node> rows_ = new ArrayList<Node>();
+   private boolean rowsDirty_ = true;
+   private boolean tracked_ = false;
+   private boolean changesOnly_ = false;
+
+   public static final int STATUS_UNCHANGED = 0;
+   public static final int STATUS_ADDED = 1;
+   public static final int STATUS_CHANGED = 2;
+   public static final int STATUS_REMOVED = 3;
+}
@@ -15,6 +15,7 @@
 package org.rstudio.studio.client.rsconnect.ui;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 
 import org.rstudio.core.client.JsArrayUtil;
 import org.rstudio.core.client.StringUtil;
@@ -25,6 +26,7 @@ import org.rstudio.core.client.widget.ProgressIndicator;
 import org.rstudio.core.client.widget.ProgressOperation;
 import org.rstudio.core.client.widget.ProgressOperationWithInput;
 import org.rstudio.core.client.widget.ThemedButton;
+import org.rstudio.core.client.widget.VirtualizedList;
 import org.rstudio.studio.client.RStudioGinjector;
 import org.rstudio.studio.client.common.FileDialogs;
 import org.rstudio.studio.client.common.FilePathUtils;
@@ -46,7 +48,10 @@ import com.google.gwt.core.client.GWT;
 import com.google.gwt.core.client.JsArray;
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.core.client.Scheduler.ScheduledCommand;
-import com.google.gwt.dom.client.Style.FontWeight;
+import com.google.gwt.dom.client.DivElement;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.EventTarget;
+import com.google.gwt.dom.client.InputElement;
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.event.dom.client.ChangeEvent;
 import com.google.gwt.event.dom.client.ChangeHandler;
@@ -56,17 +61,18 @@ import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.resources.client.ClientBundle;
 import com.google.gwt.resources.client.CssResource;
 import com.google.gwt.resources.client.ImageResource;
+import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
 import com.google.gwt.uibinder.client.UiBinder;
 import com.google.gwt.uibinder.client.UiField;
 import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.ui.Anchor;
-import com.google.gwt.user.client.ui.CheckBox;
 import com.google.gwt.user.client.ui.Composite;
 import com.google.gwt.user.client.ui.Grid;
 import com.google.gwt.user.client.ui.HTMLPanel;
 import com.google.gwt.user.client.ui.Image;
 import com.google.gwt.user.client.ui.InlineLabel;
 import com.google.gwt.user.client.ui.Label;
+import com.google.gwt.user.client.ui.SimplePanel;
 import com.google.gwt.user.client.ui.VerticalPanel;
 import com.google.gwt.user.client.ui.Widget;
 import com.google.inject.Inject;
@@ -103,6 +109,15 @@ public class RSConnectDeploy extends Composite
       String progressPanel();
       String appDetailsPanel();
       String wizardDeployPage();
+      String fileRow();
+      String disclosure();
+      String primaryFile();
+      String removedFile();
+      String fileStatus();
+      String addedStatus();
+      String changedStatus();
+      String removedStatus();
+      String deltaPanel();
    }
    
    public interface DeployResources extends ClientBundle
@@ -152,6 +167,40 @@ public class RSConnectDeploy extends Composite
       initWidget(uiBinder.createAndBindUi(this));
       style_ = RESOURCES.style();
       
+      // the file list only renders the rows in view, so content with
+      // thousands of files stays responsive
+      fileList_ = new VirtualizedList(ROW_HEIGHT, 
+            new VirtualizedList.RowRenderer()
+      {
+         @Override
+         public void renderRow(int index, DivElement row)
+         {
+            RSConnectDeploy.this.renderRow(index, row);
+         }
+      });
+      fileList_.setSize("100%", "100%");
+      fileList_.addClickHandler(new ClickHandler()
+      {
+         @Override
+         public void onClick(ClickEvent event)
+         {
+            onFileListClick(event);
+         }
+      });
+      fileListPanel_.setWidget(fileList_);
+      
+      showAllAnchor_.addClickHandler(new ClickHandler()
+      {
+         @Override
+         public void onClick(ClickEvent event)
+         {
+            fileTree_.setChangesOnly(!fileTree_.getChangesOnly());
+            updateFileList();
+            event.preventDefault();
+            event.stopPropagation();
+         }
+      });
+      
       if (asWizard)
       {
          deployIllustration_.setVisible(false);
@@ -510,66 +559,169 @@ public class RSConnectDeploy extends Composite
    // Private methods --------------------------------------------------------
    
    private void setFileList(ArrayList<String> files,
-         ArrayList<String> additionalFiles, ArrayList<String> ignoredFiles)
+         ArrayList<String> additionalFiles, ArrayList<String> ignoredFiles,
+         RSConnectDeploymentFiles delta)
    {
-      fileChecks_ = new ArrayList<CheckBox>();
+      fileTree_.clear();
       
-      // clear existing file list
-      fileListPanel_.clear(); 
-      for (int i = 0; i < files.size(); i++)
-      {
-         boolean checked = true;
-         boolean add = true;
-         
-         // if this file is marked ignored, uncheck it
-         if (ignoredFiles != null)
-         {
-            for (int j = 0; j < ignoredFiles.size(); j++)
-            {
-               if (ignoredFiles.get(j).equals(files.get(i)))
-               {
-                  checked = false; 
-                  break;
-               }
-            }
-         }
-
-         // if this file is marked additional, don't add it twice (we're about
-         // to add the additional files separately below)
-         if (additionalFiles != null)
-         {
-            for (int j = 0; j < additionalFiles.size(); j++)
-            {
-               if (additionalFiles.get(j).equals(files.get(i)))
-               {
-                  add = false; 
-                  break;
-               }
-            }
-         }
+      HashSet<String> ignored = new HashSet<String>();
+      if (ignoredFiles != null)
+         ignored.addAll(ignoredFiles);
 
-         if (add)
-         {
-            addFile(files.get(i), checked);
-         }
+      // files marked ignored are unchecked
+      for (String file: files)
+      {
+         fileTree_.addFile(file, !ignored.contains(file));
       }
 
-      // add any additional files 
+      // add any additional files (if one is also in the list above, this
+      // just checks it)
       if (additionalFiles != null)
       {
-         for (int i = 0; i < additionalFiles.size(); i++)
+         for (String file: additionalFiles)
          {
-            addFile(additionalFiles.get(i), true);
+            fileTree_.setChecked(fileTree_.addFile(file, true), true);
          }
       }
       
+      // when redeploying, show how this deployment differs from the last;
+      // if anything changed, start by showing just the changes
+      if (delta != null && delta.hasDelta())
+      {
+         fileTree_.setDeployedFiles(
+               JsArrayUtil.fromJsArrayString(delta.getAddedFiles()),
+               JsArrayUtil.fromJsArrayString(delta.getChangedFiles()),
+               JsArrayUtil.fromJsArrayString(delta.getRemovedFiles()));
+         fileTree_.setChangesOnly(
+               fileTree_.getStatusCount(DeploymentFileTree.STATUS_ADDED) +
+               fileTree_.getStatusCount(DeploymentFileTree.STATUS_CHANGED) +
+               fileTree_.getStatusCount(DeploymentFileTree.STATUS_REMOVED) > 0);
+      }
+      
       // hide check/uncheck all button if there are only a few files
-      if (fileChecks_.size() < 3)
+      if (fileTree_.getFileCount() < 3)
       {
          hideCheckUncheckAllButton();
       }
+      
+      updateFileList();
+   }
+   
+   // Re-renders the file list and the summary of changes after the tree
+   // changes
+   private void updateFileList()
+   {
+      fileList_.setRowCount(fileTree_.getRowCount());
+      fileList_.invalidate();
+      
+      if (!fileTree_.isTracked())
+      {
+         deltaPanel_.setVisible(false);
+         return;
+      }
+      
+      int added = fileTree_.getStatusCount(DeploymentFileTree.STATUS_ADDED);
+      int changed = fileTree_.getStatusCount(
+            DeploymentFileTree.STATUS_CHANGED);
+      int removed = fileTree_.getStatusCount(
+            DeploymentFileTree.STATUS_REMOVED);
+      if (added + changed + removed == 0)
+      {
+         deltaLabel_.setText("No changes since the last deployment. ");
+      }
+      else
+      {
+         deltaLabel_.setText("Since the last deployment: " + 
+               added + " added, " + changed + " changed, " + 
+               removed + " removed. ");
+      }
+      showAllAnchor_.setText(fileTree_.getChangesOnly() ? 
+            "Show all files" : "Show changes only");
+      showAllAnchor_.setVisible(fileTree_.getChangesOnly() || 
+            added + changed + removed > 0);
+      deltaPanel_.setVisible(true);
    }
    
+   private void renderRow(int index, DivElement row)
+   {
+      DeploymentFileTree.Node node = fileTree_.getRow(index);
+      if (node == null)
+      {
+         row.setInnerText("");
+         return;
+      }
+      
+      row.setClassName(style_.fileRow());
+      if (node.isPrimary())
+         row.addClassName(style_.primaryFile());
+      
+      int status = node.getStatus();
+      SafeHtmlBuilder builder = new SafeHtmlBuilder();
+      builder.appendHtmlConstant("<span class=\"" + style_.disclosure() + 
+            "\" style=\"margin-left: " + (node.getDepth() * INDENT) + "px\">");
+      if (node.isDir())
+         builder.appendEscaped(node.isExpanded() ? "\u25BE" : "\u25B8");
+      builder.appendHtmlConstant("</span>");
+      builder.appendHtmlConstant("<input type=\"checkbox\"" + 
+            (node.isChecked() ? " checked" : "") + 
+            (node.isEnabled() ? "" : " disabled") + ">");
+      builder.appendHtmlConstant("<span" + 
+            (status == DeploymentFileTree.STATUS_REMOVED ? 
+                  " class=\"" + style_.removedFile() + "\"" : "") + ">");
+      builder.appendEscaped(node.getName());
+      builder.appendHtmlConstant("</span>");
+      if (status != DeploymentFileTree.STATUS_UNCHANGED)
+      {
+         String statusStyle = 
+               status == DeploymentFileTree.STATUS_ADDED ? 
+                     style_.addedStatus() :
+               status == DeploymentFileTree.STATUS_CHANGED ?
+                     style_.changedStatus() : style_.removedStatus();
+         String statusText = 
+               status == DeploymentFileTree.STATUS_ADDED ? "added" :
+               status == DeploymentFileTree.STATUS_CHANGED ? "changed" : 
+                     "removed";
+         builder.appendHtmlConstant("<span class=\"" + style_.fileStatus() + 
+               " " + statusStyle + "\">");
+         builder.appendEscaped(statusText);
+         builder.appendHtmlConstant("</span>");
+      }
+      row.setInnerHTML(builder.toSafeHtml().asString());
+      row.setTitle(node.getPath());
+      
+      // a folder with some of its files checked shows a partial check
+      InputElement check = row.getElementsByTagName("input").getItem(0).cast();
+      setIndeterminate(check, node.isPartiallyChecked());
+   }
+   
+   private void onFileListClick(ClickEvent event)
+   {
+      int index = fileList_.getRowIndex(event.getNativeEvent().getEventTarget());
+      DeploymentFileTree.Node node = fileTree_.getRow(index);
+      if (node == null)
+         return;
+      
+      // clicking a folder (other than its check box) expands or collapses it;
+      // clicking a file anywhere toggles its check box, as on its label
+      EventTarget target = event.getNativeEvent().getEventTarget();
+      boolean onCheck = Element.is(target) && 
+            Element.as(target).getTagName().equalsIgnoreCase(InputElement.TAG);
+      if (node.isDir() && !onCheck)
+      {
+         fileTree_.setExpanded(node, !node.isExpanded());
+      }
+      else if (node.isEnabled())
+      {
+         fileTree_.setChecked(node, !node.isChecked());
+      }
+      updateFileList();
+   }
+   
+   private static final native void setIndeterminate(InputElement input, 
+                                                     boolean indeterminate) /*-{
+      input.indeterminate = indeterminate;
+   }-*/;
+   
    private RSConnectAccount getSelectedAccount()
    {
       return accountList_.getSelectedAccount();
@@ -732,7 +884,7 @@ public class RSConnectDeploy extends Composite
          FileSystemItem selfContained = FileSystemItem.createFile(
                      source_.getDeployFile());
          files.add(selfContained.getName());
-         setFileList(files, null, null);
+         setFileList(files, null, null, null);
          setPrimaryFile(selfContained.getName());
          return;
       }
@@ -744,6 +896,7 @@ public class RSConnectDeploy extends Composite
       server_.getDeploymentFiles(
             fileSource,
             asMultipleRmd_,
+            fromPrevious_,
             new ServerRequestCallback<RSConnectDeploymentFiles>()
             {
                @Override 
@@ -773,7 +926,8 @@ public class RSConnectDeploy extends Composite
                            fromPrevious_ != null ?
                                  fromPrevious_.getAdditionalFiles() : null, 
                            fromPrevious_ != null ? 
-                                 fromPrevious_.getIgnoredFiles() : null);
+                                 fromPrevious_.getIgnoredFiles() : null,
+                           files);
                      setPrimaryFile(
                            FileSystemItem.createFile(
                                  source_.getDeployFile()).getName());
@@ -802,25 +956,13 @@ public class RSConnectDeploy extends Composite
 
    private void addFile(String path, boolean checked)
    {
-      CheckBox fileCheck = new CheckBox(path);
-      fileCheck.setValue(checked);
-      fileListPanel_.add(fileCheck);
-      fileChecks_.add(fileCheck);
+      fileTree_.addFile(path, checked);
+      updateFileList();
    }
    
    private ArrayList<String> getCheckedFileList(boolean checked)
    {
-      ArrayList<String> files = new ArrayList<String>();
-      if (fileChecks_ == null)
-         return files;
-      for (int i = 0; i < fileChecks_.size(); i++)
-      {
-         if (fileChecks_.get(i).getValue() == checked)
-         {
-            files.add(fileChecks_.get(i).getText());
-         }
-      }
-      return files;
+      return fileTree_.getFiles(checked);
    }
    
    private void onAddFileClick()
@@ -853,14 +995,10 @@ public class RSConnectDeploy extends Composite
                      {
                         // see if the file is already in the list (we don't 
                         // want to duplicate an existing entry)
-                        ArrayList<String> files = getFileList();
-                        for (String file: files)
+                        if (fileTree_.contains(path))
                         {
-                           if (file.equals(path))
-                           {
-                              indicator.onCompleted();
-                              return;
-                           }
+                           indicator.onCompleted();
+                           return;
                         }
                         addFileToList(path);
                         filesAddedManually_.add(path);
@@ -873,23 +1011,10 @@ public class RSConnectDeploy extends Composite
 
    private void setPrimaryFile(String path)
    {
-      if (fileChecks_ == null)
-         return;
-
-      for (int i = 0; i < fileChecks_.size(); i++)
-      {
-         CheckBox fileCheck = fileChecks_.get(i);
-         if (fileCheck.getText().equals(path))
-         {
-            // don't allow the user to unselect the primary file
-            fileCheck.setEnabled(false);
-            
-            // make this bold and move it to the top
-            fileCheck.getElement().getStyle().setFontWeight(FontWeight.BOLD);
-            fileListPanel_.remove(fileCheck);
-            fileListPanel_.insert(fileCheck, 0);
-         }
-      }
+      // don't allow the user to unselect the primary file; it's shown in
+      // bold at the top of the list
+      fileTree_.setPrimary(path);
+      updateFileList();
    }
    
    private void applySource()
@@ -1047,23 +1172,26 @@ public class RSConnectDeploy extends Composite
 
       // pretend we're creating a brand-new app
       fromPrevious_ = null;
+      fileTree_.forgetDeployedFiles();
+      updateFileList();
    }
    
    private void checkUncheckAll()
    {
       allChecked_ = !allChecked_;
-      for (CheckBox box: fileChecks_)
+      for (String path: fileTree_.getFiles(!allChecked_))
       {
-         // don't toggle state for disabled boxes, or common Shiny .R filenames
-         String file = box.getText().toLowerCase();
-         if (box.isEnabled() &&
-             file != "ui.r" &&
-             file != "server.r" &&
-             file != "app.r")
+         // don't toggle state for the primary file, or common Shiny .R 
+         // filenames
+         String file = path.toLowerCase();
+         if (!file.equals("ui.r") &&
+             !file.equals("server.r") &&
+             !file.equals("app.r"))
          {
-            box.setValue(allChecked_);
+            fileTree_.setChecked(fileTree_.getFile(path), allChecked_);
          }
       }
+      updateFileList();
       checkUncheckAllButton_.setText(allChecked_ ? "Uncheck All" : "Check All");
    }
    
@@ -1087,12 +1215,16 @@ public class RSConnectDeploy extends Composite
    @UiField ThemedButton addFileButton_;
    @UiField ThemedButton checkUncheckAllButton_;
    @UiField ThemedButton previewButton_;
-   @UiField VerticalPanel fileListPanel_;
+   @UiField SimplePanel fileListPanel_;
+   @UiField HTMLPanel deltaPanel_;
+   @UiField InlineLabel deltaLabel_;
+   @UiField Anchor showAllAnchor_;
    @UiField VerticalPanel filePanel_;
    @UiField VerticalPanel descriptionPanel_;
    @UiField(provided=true) RSConnectAccountList accountList_;
    
-   private ArrayList<CheckBox> fileChecks_;
+   private final DeploymentFileTree fileTree_ = new DeploymentFileTree();
+   private final VirtualizedList fileList_;
    private ArrayList<String> filesAddedManually_ = 
          new ArrayList<String>();
    
@@ -1111,4 +1243,7 @@ public class RSConnectDeploy extends Composite
 
    private final DeployStyle style_;
    private final boolean forDocument_;
+   
+   private static final int ROW_HEIGHT = 20;
+   private static final int INDENT = 14;
 }
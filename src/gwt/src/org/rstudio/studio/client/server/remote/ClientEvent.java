@@ -135,6 +135,8 @@ class ClientEvent extends JavaScriptObject
    public static final String UserFollowEnded = "user_follow_ended";
    public static final String ProjectAccessRevoked = "project_access_revoked";
    public static final String CollabEditSaved = "collab_edit_saved";
+   public static final String SessionInfoSection = "session_info_section";
+   public static final String RmdChunkExecution = "rmd_chunk_execution";
    
    protected ClientEvent()
    {
@@ -64,6 +64,7 @@ import org.rstudio.studio.client.projects.events.ProjectUserChangedEvent;
 import org.rstudio.studio.client.projects.model.OpenProjectError;
 import org.rstudio.studio.client.projects.model.ProjectUser;
 import org.rstudio.studio.client.rmarkdown.events.ShinyGadgetDialogEvent;
+import org.rstudio.studio.client.rmarkdown.events.RmdChunkExecutionEvent;
 import org.rstudio.studio.client.rmarkdown.events.RmdParamsReadyEvent;
 import org.rstudio.studio.client.rmarkdown.events.RmdRenderCompletedEvent;
 import org.rstudio.studio.client.rmarkdown.events.RmdRenderOutputEvent;
@@ -404,7 +405,7 @@ public class ClientEventDispatcher
          {
             FindResultEvent.Data data = event.getData();
             eventBus_.fireEvent(new FindResultEvent(
-                  data.getHandle(), data.getResults().toArrayList()));
+                  data.getHandle(), data.getSummary()));
          }
          else if (type.equals(ClientEvent.FindOperationEnded))
          {
@@ -747,6 +748,16 @@ public class ClientEventDispatcher
             CollabEditSavedEvent.Data data = event.getData();
             eventBus_.fireEvent(new CollabEditSavedEvent(data));
          }
+         else if (type.equals(ClientEvent.SessionInfoSection))
+         {
+            SessionInfoSectionEvent.Data data = event.getData();
+            eventBus_.fireEvent(new SessionInfoSectionEvent(data));
+         }
+         else if (type.equals(ClientEvent.RmdChunkExecution))
+         {
+            RmdChunkExecutionEvent.Data data = event.getData();
+            eventBus_.fireEvent(new RmdChunkExecutionEvent(data));
+         }
          else
          {
             GWT.log("WARNING: Server event not dispatched: " + type, null);
@@ -33,6 +33,7 @@ import org.rstudio.core.client.jsonrpc.RpcRequest;
 import org.rstudio.core.client.jsonrpc.RpcRequestCallback;
 import org.rstudio.core.client.jsonrpc.RpcResponse;
 import org.rstudio.core.client.jsonrpc.RpcResponseHandler;
+import org.rstudio.core.client.patch.HunkDiff;
 import org.rstudio.studio.client.application.Desktop;
 import org.rstudio.studio.client.application.events.ClientDisconnectedEvent;
 import org.rstudio.studio.client.application.events.EventBus;
@@ -48,6 +49,7 @@ import org.rstudio.studio.client.application.model.SuspendOptions;
 import org.rstudio.studio.client.application.model.UpdateCheckResult;
 import org.rstudio.studio.client.common.JSONUtils;
 import org.rstudio.studio.client.common.codetools.Completions;
+import org.rstudio.studio.client.common.compile.CompileOutput;
 import org.rstudio.studio.client.common.console.ConsoleProcess;
 import org.rstudio.studio.client.common.console.ConsoleProcess.ConsoleProcessFactory;
 import org.rstudio.studio.client.common.console.ConsoleProcessInfo;
@@ -96,6 +98,7 @@ import org.rstudio.studio.client.projects.model.SharedProjectDetails;
 import org.rstudio.studio.client.projects.model.SharingConfigResult;
 import org.rstudio.studio.client.projects.model.SharingResult;
 import org.rstudio.studio.client.rmarkdown.model.RMarkdownContext;
+import org.rstudio.studio.client.rmarkdown.model.RmdChunkRef;
 import org.rstudio.studio.client.rmarkdown.model.RmdCreatedTemplate;
 import org.rstudio.studio.client.rmarkdown.model.RmdOutputInfo;
 import org.rstudio.studio.client.rmarkdown.model.RmdTemplateContent;
@@ -146,13 +149,16 @@ import org.rstudio.studio.client.workbench.views.environment.model.RObject;
 import org.rstudio.studio.client.workbench.views.files.model.DirectoryListing;
 import org.rstudio.studio.client.workbench.views.files.model.FileUploadToken;
 import org.rstudio.studio.client.workbench.views.help.model.HelpInfo;
+import org.rstudio.studio.client.workbench.views.help.model.PackageHelpTopics;
 import org.rstudio.studio.client.workbench.views.history.model.HistoryEntry;
+import org.rstudio.studio.client.workbench.views.output.find.model.FindResult;
 import org.rstudio.studio.client.workbench.views.output.lint.model.LintItem;
 import org.rstudio.studio.client.workbench.views.packages.model.PackageInstallContext;
 import org.rstudio.studio.client.workbench.views.packages.model.PackageState;
 import org.rstudio.studio.client.workbench.views.packages.model.PackageUpdate;
 import org.rstudio.studio.client.workbench.views.plots.model.Point;
 import org.rstudio.studio.client.workbench.views.presentation.model.PresentationRPubsSource;
+import org.rstudio.studio.client.workbench.views.source.editors.profiler.model.ProfileSamplesChunk;
 import org.rstudio.studio.client.workbench.views.source.editors.text.IconvListResult;
 import org.rstudio.studio.client.workbench.views.source.model.CheckForExternalEditResult;
 import org.rstudio.studio.client.workbench.views.source.model.CppCapabilities;
@@ -259,6 +265,19 @@ public class RemoteServer implements Server
       disconnected_ = true;
       serverEventListener_.stop();
    }
+   
+   public void reconnect()
+   {
+      disconnected_ = false;
+      listeningForEvents_ = false;
+      serverEventListener_.reset();
+   }
+   
+   public void resumeEventListener()
+   {
+      listeningForEvents_ = true;
+      serverEventListener_.start();
+   }
      
    public void log(int logEntryType, 
                    String logEntry, 
@@ -842,26 +861,16 @@ public class RemoteServer implements Server
                   requestCallback);
    }
 
-   public void getOutputPreview(String dataFilePath,
-                                String encoding,
-                                boolean heading,
-                                String separator,
-                                String decimal,
-                                String quote,
-                                String comment,
-                                ServerRequestCallback<DataPreviewResult> requestCallback)
+   public void getDataPreviewLines(String dataFilePath,
+                                   String encoding,
+                                   ServerRequestCallback<DataPreviewResult> requestCallback)
    {
       JSONArray params = new JSONArray();
       params.set(0, new JSONString(dataFilePath));
       params.set(1, new JSONString(encoding));
-      params.set(2, JSONBoolean.getInstance(heading));
-      params.set(3, new JSONString(separator));
-      params.set(4, new JSONString(decimal));
-      params.set(5, new JSONString(quote));
-      params.set(6, new JSONString(comment));
 
       sendRequest(RPC_SCOPE,
-                  GET_OUTPUT_PREVIEW,
+                  GET_DATA_PREVIEW_LINES,
                   params,
                   requestCallback);
    }
@@ -959,6 +968,15 @@ public class RemoteServer implements Server
    {
       sendRequest(RPC_SCOPE, "suggest_topics", prefix, requestCallback);
    }
+   
+   public void getHelpTopics(
+               JsArrayString packages,
+               ServerRequestCallback<JsArray<PackageHelpTopics>> requestCallback)
+   {
+      JSONArray params = new JSONArray();
+      setArrayString(params, 0, packages);
+      sendRequest(RPC_SCOPE, GET_HELP_TOPICS, params, requestCallback);
+   }
 
    public void getHelp(String topic,
                        String packageName,
@@ -1243,6 +1261,12 @@ public class RemoteServer implements Server
       sendRequest(RPC_SCOPE, PREVIOUS_PLOT, requestCallback);
    }
    
+   public void setActivePlot(int index,
+                             ServerRequestCallback<Void> requestCallback)
+   {
+      sendRequest(RPC_SCOPE, SET_ACTIVE_PLOT, index, requestCallback);
+   }
+   
    public void removePlot(ServerRequestCallback<Void> requestCallback)
    {
       sendRequest(RPC_SCOPE, REMOVE_PLOT, requestCallback);
@@ -1569,6 +1593,37 @@ public class RemoteServer implements Server
       sendRequest(RPC_SCOPE, SAVE_DOCUMENT_DIFF, params, requestCallback);
    }
 
+   public void saveDocumentHunks(String id,
+                                 String path,
+                                 String fileType,
+                                 String encoding,
+                                 String foldSpec,
+                                 HunkDiff diff,
+                                 String hash,
+                                 ServerRequestCallback<String> requestCallback)
+   {
+      // each hunk is sent as an [offset, length, replacement] triple
+      JSONArray hunks = new JSONArray();
+      for (HunkDiff.Hunk hunk : diff.getHunks())
+      {
+         JSONArray hunkJson = new JSONArray();
+         hunkJson.set(0, new JSONNumber(hunk.offset));
+         hunkJson.set(1, new JSONNumber(hunk.length));
+         hunkJson.set(2, new JSONString(hunk.replacement));
+         hunks.set(hunks.size(), hunkJson);
+      }
+
+      JSONArray params = new JSONArray();
+      params.set(0, new JSONString(id));
+      params.set(1, path == null ? JSONNull.getInstance() : new JSONString(path));
+      params.set(2, fileType == null ? JSONNull.getInstance() : new JSONString(fileType));
+      params.set(3, encoding == null ? JSONNull.getInstance() : new JSONString(encoding));
+      params.set(4, new JSONString(StringUtil.notNull(foldSpec)));
+      params.set(5, hunks);
+      params.set(6, new JSONString(hash));
+      sendRequest(RPC_SCOPE, SAVE_DOCUMENT_HUNKS, params, requestCallback);
+   }
+
    public void checkForExternalEdit(
          String id,
          ServerRequestCallback<CheckForExternalEditResult> requestCallback)
@@ -3481,6 +3536,28 @@ public class RemoteServer implements Server
       sendRequest(RPC_SCOPE, STOP_FIND, findOperationHandle, requestCallback);
    }
 
+   @Override
+   public void ackFindResults(String findOperationHandle,
+                              ServerRequestCallback<Void> requestCallback)
+   {
+      sendRequest(RPC_SCOPE, ACK_FIND_RESULTS, findOperationHandle,
+                  requestCallback);
+   }
+
+   @Override
+   public void getFindResults(
+         String findOperationHandle,
+         int begin,
+         int end,
+         ServerRequestCallback<RpcObjectList<FindResult>> requestCallback)
+   {
+      JSONArray params = new JSONArray();
+      params.set(0, new JSONString(findOperationHandle));
+      params.set(1, new JSONNumber(begin));
+      params.set(2, new JSONNumber(end));
+      sendRequest(RPC_SCOPE, GET_FIND_RESULTS, params, requestCallback);
+   }
+
    @Override
    public void clearFindResults(ServerRequestCallback<Void> requestCallback)
    {
@@ -3515,6 +3592,18 @@ public class RemoteServer implements Server
       sendRequest(RPC_SCOPE, TERMINATE_BUILD, requestCallback);
    }
    
+   @Override
+   public void getBuildOutputLines(
+                  int first,
+                  int count,
+                  ServerRequestCallback<JsArray<CompileOutput>> requestCallback)
+   {
+      JSONArray params = new JSONArray();
+      params.set(0, new JSONNumber(first));
+      params.set(1, new JSONNumber(count));
+      sendRequest(RPC_SCOPE, GET_BUILD_OUTPUT_LINES, params, requestCallback);
+   }
+   
    @Override
    public void devtoolsLoadAllPath(
                               ServerRequestCallback<String> requestCallback)
@@ -3975,11 +4064,18 @@ public class RemoteServer implements Server
    @Override
    public void getDeploymentFiles(String dir,
          boolean asMultipleRmd,
+         RSConnectDeploymentRecord previous,
          ServerRequestCallback<RSConnectDeploymentFiles> requestCallback)
    {
       JSONArray params = new JSONArray();
       params.set(0, new JSONString(dir));
       params.set(1, JSONBoolean.getInstance(asMultipleRmd));
+      params.set(2, new JSONString(previous == null ? "" :
+                                   previous.getAccountName()));
+      params.set(3, new JSONString(previous == null ? "" :
+                                   previous.getServer()));
+      params.set(4, new JSONString(previous == null ? "" :
+                                   previous.getName()));
       sendRequest(RPC_SCOPE,
             GET_DEPLOYMENT_FILES,
             params,
@@ -4160,6 +4256,24 @@ public class RemoteServer implements Server
                   requestCallback);
    }
    
+   @Override
+   public void queueRmdChunks(String id,
+                              JsArray<RmdChunkRef> chunks,
+                              ServerRequestCallback<Void> requestCallback)
+   {
+      JSONArray params = new JSONArray();
+      params.set(0, new JSONString(id));
+      params.set(1, new JSONArray(chunks));
+      sendRequest(RPC_SCOPE, "queue_rmd_chunks", params, requestCallback);
+   }
+   
+   @Override
+   public void cancelRmdChunks(String id,
+                               ServerRequestCallback<Void> requestCallback)
+   {
+      sendRequest(RPC_SCOPE, "cancel_rmd_chunks", id, requestCallback);
+   }
+   
    @Override
    public void getRmdOutputInfo(String input,
          ServerRequestCallback<RmdOutputInfo> requestCallback)
@@ -4399,6 +4513,35 @@ public class RemoteServer implements Server
       sendRequest(RPC_SCOPE, "set_currently_editing", params, callback);
    }
 
+   @Override
+   public void startProfiling(double interval,
+                              ServerRequestCallback<String> callback)
+   {
+      JSONArray params = new JSONArray();
+      params.set(0, new JSONNumber(interval));
+      sendRequest(RPC_SCOPE, START_PROFILING, params, callback);
+   }
+
+   @Override
+   public void stopProfiling(ServerRequestCallback<Void> callback)
+   {
+      sendRequest(RPC_SCOPE, STOP_PROFILING, callback);
+   }
+
+   @Override
+   public void getProfileSamples(
+         String path,
+         double offset,
+         int maxSamples,
+         ServerRequestCallback<ProfileSamplesChunk> callback)
+   {
+      JSONArray params = new JSONArray();
+      params.set(0, new JSONString(path));
+      params.set(1, new JSONNumber(offset));
+      params.set(2, new JSONNumber(maxSamples));
+      sendRequest(RPC_SCOPE, GET_PROFILE_SAMPLES, params, callback);
+   }
+
    @Override
    public void reportCollabDisconnected(String path, String id,
          ServerRequestCallback<Void> callback)
@@ -4498,7 +4641,7 @@ public class RemoteServer implements Server
    private static final String REMOVE_OBJECTS = "remove_objects";
    private static final String DOWNLOAD_DATA_FILE = "download_data_file";
    private static final String GET_DATA_PREVIEW = "get_data_preview";
-   private static final String GET_OUTPUT_PREVIEW = "get_output_preview";
+   private static final String GET_DATA_PREVIEW_LINES = "get_data_preview_lines";
 
    private static final String EDIT_COMPLETED = "edit_completed";
    private static final String CHOOSE_FILE_COMPLETED = "choose_file_completed";
@@ -4532,6 +4675,7 @@ public class RemoteServer implements Server
 
    private static final String NEXT_PLOT = "next_plot";
    private static final String PREVIOUS_PLOT = "previous_plot";
+   private static final String SET_ACTIVE_PLOT = "set_active_plot";
    private static final String REMOVE_PLOT = "remove_plot";
    private static final String CLEAR_PLOTS = "clear_plots";
    private static final String REFRESH_PLOT = "refresh_plot";
@@ -4560,6 +4704,7 @@ public class RemoteServer implements Server
    private static final String OPEN_DOCUMENT = "open_document";
    private static final String SAVE_DOCUMENT = "save_document";
    private static final String SAVE_DOCUMENT_DIFF = "save_document_diff";
+   private static final String SAVE_DOCUMENT_HUNKS = "save_document_hunks";
    private static final String CHECK_FOR_EXTERNAL_EDIT = "check_for_external_edit";
    private static final String IGNORE_EXTERNAL_EDIT = "ignore_external_edit";
    private static final String CLOSE_DOCUMENT = "close_document";
@@ -4691,11 +4836,15 @@ public class RemoteServer implements Server
 
    private static final String BEGIN_FIND = "begin_find";
    private static final String STOP_FIND = "stop_find";
+   private static final String ACK_FIND_RESULTS = "ack_find_results";
+   private static final String GET_FIND_RESULTS = "get_find_results";
    
    private static final String GET_CPP_CAPABILITIES = "get_cpp_capabilities";
    private static final String INSTALL_BUILD_TOOLS = "install_build_tools";
    private static final String START_BUILD = "start_build";
    private static final String TERMINATE_BUILD = "terminate_build";
+   private static final String GET_HELP_TOPICS = "get_help_topics";
+   private static final String GET_BUILD_OUTPUT_LINES = "get_build_output_lines";
    private static final String DEVTOOLS_LOAD_ALL_PATH = "devtools_load_all_path";
 
    private static final String LIST_ENVIRONMENT = "list_environment";
@@ -4774,4 +4923,8 @@ public class RemoteServer implements Server
    private static final String GET_SET_REF_CLASS_CALL = "get_set_ref_class_call";
    private static final String TRANSFORM_SNIPPET = "transform_snippet";
    private static final String GET_SNIPPETS = "get_snippets";
+
+   private static final String START_PROFILING = "start_profiling";
+   private static final String STOP_PROFILING = "stop_profiling";
+   private static final String GET_PROFILE_SAMPLES = "get_profile_samples";
 }
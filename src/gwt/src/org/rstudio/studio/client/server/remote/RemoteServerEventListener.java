@@ -141,6 +141,14 @@ class RemoteServerEventListener
       }
    }
    
+   // stop listening and forget that the session was quit (used when the
+   // window is about to be handed a new session)
+   public void reset()
+   {
+      stop();
+      sessionWasQuit_ = false;
+   }
+   
    // ensure that we are actively listening for events (used to make 
    // sure that we restart listening when the session is about to resume
    // after a suspension)
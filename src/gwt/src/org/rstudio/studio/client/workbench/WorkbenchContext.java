@@ -23,6 +23,7 @@ import org.rstudio.studio.client.application.model.RVersionsInfo;
 import org.rstudio.studio.client.common.vcs.BranchesInfo;
 import org.rstudio.studio.client.workbench.events.BusyEvent;
 import org.rstudio.studio.client.workbench.events.BusyHandler;
+import org.rstudio.studio.client.workbench.events.SessionReinitEvent;
 import org.rstudio.studio.client.workbench.model.Session;
 import org.rstudio.studio.client.workbench.model.SessionInfo;
 import org.rstudio.studio.client.workbench.views.console.events.WorkingDirChangedEvent;
@@ -99,6 +100,23 @@ public class WorkbenchContext
       });
       
       
+      // forget what was known about the previous session when the 
+      // workbench is handed a new one
+      eventBus.addHandler(SessionReinitEvent.TYPE, 
+                          new SessionReinitEvent.Handler()
+      {
+         @Override
+         public void onSessionReinit(SessionReinitEvent event)
+         {
+            activeProjectDir_ = null;
+            rVersionsInfo_ = null;
+            currentWorkingDir_ = FileSystemItem.createDir(
+                     session_.getSessionInfo().getInitialWorkingDir());
+            defaultFileDialogDir_ = getActiveProjectDir() != null ?
+                     getActiveProjectDir() : currentWorkingDir_;
+         }
+      });
+      
       // track R version info
       eventBus.addHandler(RVersionsChangedEvent.TYPE, 
                           new RVersionsChangedEvent.Handler()
@@ -24,11 +24,13 @@ import org.rstudio.studio.client.workbench.events.ListChangedHandler;
 import org.rstudio.studio.client.workbench.events.SessionInitEvent;
 import org.rstudio.studio.client.workbench.events.SessionInitHandler;
 import org.rstudio.studio.client.workbench.model.Session;
+import org.rstudio.studio.client.workbench.model.SessionInfo;
 import org.rstudio.studio.client.workbench.model.WorkbenchLists;
 import org.rstudio.studio.client.workbench.model.WorkbenchListsServerOperations;
 
 import com.google.gwt.event.shared.HandlerManager;
 import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.Command;
 import com.google.inject.Inject;
 
 
@@ -54,13 +56,20 @@ public class WorkbenchListManager
          @Override
          public void onSessionInit(SessionInitEvent sie)
          {
-            WorkbenchLists lists = session_.getSessionInfo().getLists();
-            updateList(FILE_MRU, lists);
-            updateList(PROJECT_MRU, lists);
-            updateList(PLOT_PUBLISH_MRU, lists);
-            updateList(HELP_HISTORY, lists);
-            updateList(USER_DICTIONARY, lists);
-            updateList(ADDINS_MRU, lists);
+            session_.whenSectionReady(SessionInfo.LISTS, new Command()
+            {
+               @Override
+               public void execute()
+               {
+                  WorkbenchLists lists = session_.getSessionInfo().getLists();
+                  updateList(FILE_MRU, lists);
+                  updateList(PROJECT_MRU, lists);
+                  updateList(PLOT_PUBLISH_MRU, lists);
+                  updateList(HELP_HISTORY, lists);
+                  updateList(USER_DICTIONARY, lists);
+                  updateList(ADDINS_MRU, lists);
+               }
+            });
          }  
       });
       
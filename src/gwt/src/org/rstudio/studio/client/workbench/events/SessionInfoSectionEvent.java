@@ -0,0 +1,83 @@
+/*
+ * SessionInfoSectionEvent.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.events;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.event.shared.EventHandler;
+import com.google.gwt.event.shared.GwtEvent;
+
+// A section of the session info sent by the server after the client_init
+// response (see SessionInfo.getDeferredSections)
+public class SessionInfoSectionEvent
+   extends GwtEvent<SessionInfoSectionEvent.Handler>
+{
+   public static class Data extends JavaScriptObject
+   {
+      protected Data()
+      {
+      }
+
+      public final native String getName() /*-{
+         return this.name;
+      }-*/;
+
+      public final native JavaScriptObject getValue() /*-{
+         return this.value;
+      }-*/;
+
+      // time the server took to compute the section
+      public final native int getElapsedMs() /*-{
+         return this.elapsed_ms || 0;
+      }-*/;
+
+      // size of the section's JSON, in characters (measured when asked for,
+      // so sections nobody looks at aren't serialized again)
+      public final native int getSize() /*-{
+         return JSON.stringify(this.value).length;
+      }-*/;
+   }
+
+   public interface Handler extends EventHandler
+   {
+      void onSessionInfoSection(SessionInfoSectionEvent event);
+   }
+
+   public static final GwtEvent.Type<SessionInfoSectionEvent.Handler> TYPE =
+      new GwtEvent.Type<SessionInfoSectionEvent.Handler>();
+
+   public SessionInfoSectionEvent(Data data)
+   {
+      data_ = data;
+   }
+
+   public Data getData()
+   {
+      return data_;
+   }
+
+   @Override
+   protected void dispatch(SessionInfoSectionEvent.Handler handler)
+   {
+      handler.onSessionInfoSection(this);
+   }
+
+   @Override
+   public GwtEvent.Type<SessionInfoSectionEvent.Handler> getAssociatedType()
+   {
+      return TYPE;
+   }
+
+   private final Data data_;
+}
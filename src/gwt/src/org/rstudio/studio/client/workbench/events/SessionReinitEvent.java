@@ -0,0 +1,49 @@
+/*
+ * SessionReinitEvent.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.events;
+
+import com.google.gwt.event.shared.EventHandler;
+import com.google.gwt.event.shared.GwtEvent;
+
+// Fired when the workbench has been handed a new session without reloading
+// the window (e.g. after switching projects), once the new session info is
+// in place. Unlike SessionInitEvent, the workbench has already been created:
+// handlers replace whatever they show from the previous session.
+public class SessionReinitEvent extends GwtEvent<SessionReinitEvent.Handler>
+{
+   public interface Handler extends EventHandler
+   {
+      void onSessionReinit(SessionReinitEvent event);
+   }
+
+   public static final GwtEvent.Type<SessionReinitEvent.Handler> TYPE =
+      new GwtEvent.Type<SessionReinitEvent.Handler>();
+
+   public SessionReinitEvent()
+   {
+   }
+
+   @Override
+   protected void dispatch(SessionReinitEvent.Handler handler)
+   {
+      handler.onSessionReinit(this);
+   }
+
+   @Override
+   public GwtEvent.Type<SessionReinitEvent.Handler> getAssociatedType()
+   {
+      return TYPE;
+   }
+}
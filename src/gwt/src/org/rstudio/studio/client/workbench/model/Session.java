@@ -14,16 +14,23 @@
  */
 package org.rstudio.studio.client.workbench.model;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import com.google.gwt.user.client.Command;
 import com.google.inject.Inject;
+
 import org.rstudio.studio.client.application.events.EventBus;
 import org.rstudio.studio.client.workbench.events.PushClientStateEvent;
+import org.rstudio.studio.client.workbench.events.SessionInfoSectionEvent;
 
-public class Session
+public class Session implements SessionInfoSectionEvent.Handler
 {
    @Inject
    public Session(EventBus events)
    {
       events_ = events;
+      events_.addHandler(SessionInfoSectionEvent.TYPE, this);
    }
 
    public SessionInfo getSessionInfo()
@@ -34,6 +41,53 @@ public class Session
    public void setSessionInfo(SessionInfo sessionInfo)
    {
       sessionInfo_ = sessionInfo;
+      initTime_ = System.currentTimeMillis();
+
+      // sections still awaited from a previous session won't arrive
+      sectionWaiters_.clear();
+      sectionMetrics_.clear();
+   }
+
+   // Runs the command once the given section of the session info has
+   // arrived (right away if it already has)
+   public void whenSectionReady(String name, Command command)
+   {
+      if (sessionInfo_ != null && sessionInfo_.isSectionReady(name))
+      {
+         command.execute();
+         return;
+      }
+
+      if (!sectionWaiters_.containsKey(name))
+         sectionWaiters_.put(name, new ArrayList<Command>());
+      sectionWaiters_.get(name).add(command);
+   }
+
+   // Metrics for the deferred sections of the session info which have
+   // arrived, in order of arrival
+   public ArrayList<SessionInfoSectionMetrics> getSectionMetrics()
+   {
+      return new ArrayList<SessionInfoSectionMetrics>(sectionMetrics_);
+   }
+
+   @Override
+   public void onSessionInfoSection(SessionInfoSectionEvent event)
+   {
+      if (sessionInfo_ == null)
+         return;
+
+      SessionInfoSectionEvent.Data data = event.getData();
+      String name = data.getName();
+      sessionInfo_.setSection(name, data.getValue());
+      sectionMetrics_.add(new SessionInfoSectionMetrics(
+            data, (int) (System.currentTimeMillis() - initTime_)));
+
+      ArrayList<Command> waiters = sectionWaiters_.remove(name);
+      if (waiters != null)
+      {
+         for (Command command : waiters)
+            command.execute();
+      }
    }
 
    public void persistClientState()
@@ -42,5 +96,10 @@ public class Session
    }
 
    private SessionInfo sessionInfo_;
+   private long initTime_;
+   private final ArrayList<SessionInfoSectionMetrics> sectionMetrics_ =
+         new ArrayList<SessionInfoSectionMetrics>();
+   private final HashMap<String, ArrayList<Command>> sectionWaiters_ =
+         new HashMap<String, ArrayList<Command>>();
    private final EventBus events_;
 }
@@ -109,6 +109,35 @@ public class SessionInfo extends JavaScriptObject
       return this.prompt;
    }-*/;
    
+   // Sections of the session info which aren't in the client_init response,
+   // but follow it as SessionInfoSectionEvents. Until a section has arrived
+   // its getter returns null/undefined, so code reading one at startup should
+   // do so with Session.whenSectionReady.
+   public final static String CONSOLE_HISTORY = "console_history";
+   public final static String CONSOLE_ACTIONS = "console_actions";
+   public final static String ENVIRONMENT_STATE = "environment_state";
+   public final static String CONSOLE_PROCESSES = "console_processes";
+   public final static String BUILD_STATE = "build_state";
+   public final static String COMPILE_PDF_STATE = "compile_pdf_state";
+   public final static String FIND_IN_FILES_STATE = "find_in_files_state";
+   public final static String MARKERS_STATE = "markers_state";
+   public final static String LISTS = "lists";
+
+   public final native JsArrayString getDeferredSections() /*-{
+      return this.deferred_sections || [];
+   }-*/;
+
+   // true if the section has arrived, or was never deferred
+   public final native boolean isSectionReady(String name) /*-{
+      var deferred = this.deferred_sections || [];
+      return deferred.indexOf(name) === -1 || this.hasOwnProperty(name);
+   }-*/;
+
+   public final native void setSection(String name,
+                                       JavaScriptObject value) /*-{
+      this[name] = value;
+   }-*/;
+
    public final native JsArrayString getConsoleHistory() /*-{
       return this.console_history;
    }-*/;
@@ -0,0 +1,55 @@
+/*
+ * SessionInfoSectionMetrics.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.model;
+
+import org.rstudio.studio.client.workbench.events.SessionInfoSectionEvent;
+
+// How long a deferred section of the session info took to compute and to
+// arrive, and how large it was
+public class SessionInfoSectionMetrics
+{
+   public SessionInfoSectionMetrics(SessionInfoSectionEvent.Data data,
+                                    int arrivedMs)
+   {
+      data_ = data;
+      arrivedMs_ = arrivedMs;
+   }
+
+   public String getName()
+   {
+      return data_.getName();
+   }
+
+   // time the server took to compute the section
+   public int getComputeMs()
+   {
+      return data_.getElapsedMs();
+   }
+
+   // time from the client_init response to the section's arrival
+   public int getArrivedMs()
+   {
+      return arrivedMs_;
+   }
+
+   // size of the section's JSON, in characters
+   public int getSize()
+   {
+      return data_.getSize();
+   }
+
+   private final SessionInfoSectionEvent.Data data_;
+   private final int arrivedMs_;
+}
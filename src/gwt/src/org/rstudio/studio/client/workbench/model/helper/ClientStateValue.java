@@ -20,6 +20,7 @@ import org.rstudio.studio.client.RStudioGinjector;
 import org.rstudio.studio.client.application.events.EventBus;
 import org.rstudio.studio.client.workbench.events.SaveClientStateEvent;
 import org.rstudio.studio.client.workbench.events.SaveClientStateHandler;
+import org.rstudio.studio.client.workbench.events.SessionReinitEvent;
 import org.rstudio.studio.client.workbench.model.ClientInitState;
 import org.rstudio.studio.client.workbench.model.ClientState;
 import org.rstudio.studio.client.workbench.model.ValueChangeTracker;
@@ -34,6 +35,10 @@ import org.rstudio.studio.client.workbench.model.ValueChangeTracker;
  * cheaper way to determine if the value changed, you can override hasChanged()
  * and have different logic. 
  *
+ * Values persisted with the project are read again (and onInit(T) called
+ * again) when the workbench is handed the session of another project
+ * without being reloaded.
+ *
  * @param <T>
  */
 public abstract class ClientStateValue<T> implements SaveClientStateHandler
@@ -65,14 +70,35 @@ public abstract class ClientStateValue<T> implements SaveClientStateHandler
    }
 
    protected void finishInit(ClientInitState state)
+   {
+      initValue(state);
+
+      EventBus evt = RStudioGinjector.INSTANCE.getEventBus();
+      evt.addHandler(SaveClientStateEvent.TYPE, this);
+
+      // the previous project's value must neither be kept nor be saved
+      // into the new project
+      if (persist_ == ClientState.PROJECT_PERSISTENT)
+      {
+         evt.addHandler(SessionReinitEvent.TYPE,
+                        new SessionReinitEvent.Handler()
+         {
+            @Override
+            public void onSessionReinit(SessionReinitEvent event)
+            {
+               initValue(RStudioGinjector.INSTANCE.getSession()
+                                          .getSessionInfo().getClientState());
+            }
+         });
+      }
+   }
+
+   private void initValue(ClientInitState state)
    {
       JsObject grp = state.peek(group_);
       T obj = doGet(grp, name_);
       valueTracker_ = new ValueChangeTracker<T>(obj);
       onInit(obj);
-
-      EventBus evt = RStudioGinjector.INSTANCE.getEventBus();
-      evt.addHandler(SaveClientStateEvent.TYPE, this);
    }
 
    protected abstract T doGet(JsObject group, String name);
@@ -25,6 +25,7 @@ import org.rstudio.core.client.CommandWithArg;
 import org.rstudio.core.client.js.JsObject;
 
 import java.util.HashMap;
+import java.util.Map;
 
 public abstract class Prefs
 {
@@ -113,6 +114,11 @@ public abstract class Prefs
 
       protected abstract void doSetValue(JsObject root, String name, T value);
 
+      public void fireValueChanged()
+      {
+         ValueChangeEvent.fire(this, getValue());
+      }
+
       public HandlerRegistration addValueChangeHandler(
             ValueChangeHandler<T> handler)
       {
@@ -255,6 +261,30 @@ public abstract class Prefs
       projectRoot_ = projectRoot;
    }
 
+   // Replaces all of the project values (e.g. with those of another
+   // project), notifying the handlers of each value which changes as a result
+   protected void replaceProjectValues(JsObject projectRoot)
+   {
+      HashMap<String, Object> previous = new HashMap<String, Object>();
+      for (Map.Entry<String, PrefValue<?>> entry : values_.entrySet())
+         previous.put(entry.getKey(), entry.getValue().getValue());
+
+      for (String key : projectRoot_.iterableKeys())
+         projectRoot_.unset(key);
+      projectRoot_.insert(projectRoot);
+
+      for (Map.Entry<String, PrefValue<?>> entry : values_.entrySet())
+      {
+         Object value = entry.getValue().getValue();
+         Object previousValue = previous.get(entry.getKey());
+         if (value == null ? previousValue != null
+                           : !value.equals(previousValue))
+         {
+            ((JsonValue<?>) entry.getValue()).fireValueChanged();
+         }
+      }
+   }
+
    @SuppressWarnings("unchecked")
    protected PrefValue<Boolean> bool(String name, boolean defaultValue)
    {
@@ -29,6 +29,7 @@ import org.rstudio.studio.client.notebookv2.CompileNotebookv2Prefs;
 import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.server.Void;
+import org.rstudio.studio.client.workbench.events.SessionReinitEvent;
 import org.rstudio.studio.client.workbench.exportplot.model.ExportPlotOptions;
 import org.rstudio.studio.client.workbench.model.Session;
 import org.rstudio.studio.client.workbench.prefs.events.UiPrefsChangedEvent;
@@ -36,7 +37,9 @@ import org.rstudio.studio.client.workbench.prefs.events.UiPrefsChangedHandler;
 import org.rstudio.studio.client.workbench.views.plots.model.SavePlotAsPdfOptions;
 
 @Singleton
-public class UIPrefs extends UIPrefsAccessor implements UiPrefsChangedHandler
+public class UIPrefs extends UIPrefsAccessor 
+                     implements UiPrefsChangedHandler,
+                                SessionReinitEvent.Handler
 {
    @Inject
    public UIPrefs(Session session, 
@@ -52,6 +55,7 @@ public class UIPrefs extends UIPrefsAccessor implements UiPrefsChangedHandler
       satelliteManager_ = satelliteManager;
       
       eventBus.addHandler(UiPrefsChangedEvent.TYPE, this);
+      eventBus.addHandler(SessionReinitEvent.TYPE, this);
    }
    
    public void writeUIPrefs()
@@ -398,6 +402,10 @@ public class UIPrefs extends UIPrefsAccessor implements UiPrefsChangedHandler
          ignoreWordsWithNumbers().setGlobalValue(
                     newUiPrefs.ignoreWordsWithNumbers().getGlobalValue());
          
+         // real time spell checking
+         realTimeSpellChecking().setGlobalValue(
+                    newUiPrefs.realTimeSpellChecking().getGlobalValue());
+         
          // navigate to build error
          navigateToBuildError().setGlobalValue(
                     newUiPrefs.navigateToBuildError().getGlobalValue());
@@ -481,6 +489,14 @@ public class UIPrefs extends UIPrefsAccessor implements UiPrefsChangedHandler
       }
    }
    
+   // the project's values (e.g. tab width and encoding) are replaced with
+   // those of the new session's project
+   @Override
+   public void onSessionReinit(SessionReinitEvent event)
+   {
+      replaceProjectValues(session_.getSessionInfo().getProjectUIPrefs());
+   }
+   
    private final Session session_;
    private final PrefsServerOperations server_;
    private final SatelliteManager satelliteManager_;
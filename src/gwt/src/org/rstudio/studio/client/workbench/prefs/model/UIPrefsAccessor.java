@@ -434,6 +434,11 @@ public class UIPrefsAccessor extends Prefs
       return bool("ignore_words_with_numbers", true);
    }  
    
+   public PrefValue<Boolean> realTimeSpellChecking()
+   {
+      return bool("real_time_spellchecking", false);
+   }
+   
    public PrefValue<Boolean> navigateToBuildError()
    {
       return bool("navigate_to_build_error", true);
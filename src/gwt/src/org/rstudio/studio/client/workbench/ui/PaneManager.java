@@ -122,11 +122,15 @@ public class PaneManager
       @Override
       protected void onInit(final JsObject value)
       {
-         if (value == null)
-            return;
-         
-         if (!value.hasKey(MAXIMIZED_TAB_KEY) || !value.hasKey(WIDGET_SIZE_KEY))
+         if (value == null ||
+             !value.hasKey(MAXIMIZED_TAB_KEY) || !value.hasKey(WIDGET_SIZE_KEY))
+         {
+            // (when another project is opened, a tab zoomed in the previous
+            // one is restored)
+            if (maximizedWindow_ != null)
+               restoreSavedLayout();
             return;
+         }
          
          // Time-out action just to ensure all client state is ready
          new Timer()
@@ -788,6 +792,24 @@ public class PaneManager
                                   environmentTab_, viewerTab_};
    }
 
+   // Returns true if the tab is currently selected within a pane that is
+   // showing (i.e. neither minimized nor hidden)
+   public boolean isTabVisible(Tab tab)
+   {
+      WorkbenchTabPanel panel = getOwnerTabPanel(tab);
+      Integer index = tabToIndex_.get(tab);
+      if (panel == null || index == null ||
+          panel.getSelectedIndex() != index.intValue())
+      {
+         return false;
+      }
+
+      LogicalWindow parent = panel.getParentWindow();
+      return parent != null &&
+             parent.getState() != WindowState.MINIMIZE &&
+             parent.getState() != WindowState.HIDE;
+   }
+
    public void activateTab(Tab tab)
    {
       lastSelectedTab_ = tab;
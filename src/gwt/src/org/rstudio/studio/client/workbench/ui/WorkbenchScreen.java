@@ -31,8 +31,8 @@ import com.google.inject.Inject;
 import com.google.inject.Provider;
 
 import org.rstudio.core.client.BrowseCap;
+import org.rstudio.core.client.PrefetchScheduler;
 import org.rstudio.core.client.SerializedCommand;
-import org.rstudio.core.client.SerializedCommandQueue;
 import org.rstudio.core.client.Size;
 import org.rstudio.core.client.TimeBufferedCommand;
 import org.rstudio.core.client.command.CommandBinder;
@@ -182,7 +182,6 @@ public class WorkbenchScreen extends Composite
 
    private void prefetch()
    {
-      final SerializedCommandQueue prefetchQueue = new SerializedCommandQueue();
       Scheduler.get().scheduleDeferred(new ScheduledCommand() {
          public void execute()
          {
@@ -194,35 +193,56 @@ public class WorkbenchScreen extends Composite
       {
          public void execute()
          {
-            for (final WorkbenchTab tab : paneManager_.getAllTabs())
-               prefetchQueue.addCommand(new SerializedCommand()
-               {
-                  public void onExecute(Command continuation)
-                  {
-                     tab.prefetch(continuation);
-                  }
-               });
-            prefetchQueue.addCommand(new SerializedCommand()
+            // load the fragments for tabs the user can see first, then the
+            // remaining tabs, then code that is only needed on demand
+            // (overlapping independent fragment downloads)
+            PrefetchScheduler scheduler = 
+                  new PrefetchScheduler(MAX_CONCURRENT_PREFETCH);
+            for (Tab tab : PaneManager.Tab.values())
+            {
+               if (tab == Tab.Source || tab == Tab.Console)
+                  continue;
+
+               final WorkbenchTab wbTab = paneManager_.getTab(tab);
+               scheduler.addTask(
+                     tab.toString(),
+                     paneManager_.isTabVisible(tab) 
+                           ? PrefetchScheduler.PRIORITY_HIGH
+                           : PrefetchScheduler.PRIORITY_NORMAL,
+                     new SerializedCommand()
+                     {
+                        public void onExecute(Command continuation)
+                        {
+                           wbTab.prefetch(continuation);
+                        }
+                     });
+            }
+            scheduler.addTask("Edit", PrefetchScheduler.PRIORITY_NORMAL,
+                              new SerializedCommand()
             {
                public void onExecute(Command continuation)
                {
-                  ApplicationEndedPopupPanel.prefetch(continuation);
+                  edit_.forceLoad(true, continuation);
                }
             });
-            prefetchQueue.addCommand(new SerializedCommand()
+            scheduler.addTask("ApplicationEnded", 
+                              PrefetchScheduler.PRIORITY_LOW,
+                              new SerializedCommand()
             {
                public void onExecute(Command continuation)
                {
-                  edit_.forceLoad(true, continuation);
+                  ApplicationEndedPopupPanel.prefetch(continuation);
                }
             });
-            prefetchQueue.addCommand(new SerializedCommand()
+            scheduler.addTask("Options", PrefetchScheduler.PRIORITY_LOW,
+                              new SerializedCommand()
             {
                public void onExecute(Command continuation)
                {
                   optionsLoader_.forceLoad(true, continuation);
                }
             });
+            scheduler.start();
          }
       });
    }
@@ -279,12 +299,47 @@ public class WorkbenchScreen extends Composite
       // an expensive operation since it involves at least 2 http requests)
       if (!metrics.closeEnoughToPrevious(lastMetrics_))
       {
-         lastMetrics_ = metrics;
-         eventBus_.fireEvent(new WorkbenchMetricsChangedEvent(metrics));
+         // the first metrics go out right away, as does a change in the
+         // console width alone. a change in the plots size waits for the
+         // size to settle, since each one re-renders the current plot
+         // (the plots pane shows a scaled preview in the meantime)
+         WorkbenchMetrics consoleMetrics = WorkbenchMetrics.create(
+                                       metrics.getConsoleWidth(),
+                                       lastMetrics_.getGraphicsWidth(),
+                                       lastMetrics_.getGraphicsHeight(),
+                                       lastMetrics_.getDevicePixelRatio());
+         if (lastMetrics_.getGraphicsWidth() == 0 ||
+             consoleMetrics.equalTo(metrics))
+         {
+            // (if the plots size was settling, it's back where it was, so
+            // none of its changes needed a re-render)
+            metricsSettledTimer_.cancel();
+            if (pendingMetrics_ != null)
+               onMetricsSettled(0);
+            fireMetricsChanged(metrics);
+         }
+         else
+         {
+            if (!consoleMetrics.closeEnoughToPrevious(lastMetrics_))
+               fireMetricsChanged(consoleMetrics);
+
+            // each distinct size we see would previously have been a
+            // re-render
+            if (!metrics.closeEnoughToPrevious(pendingMetrics_))
+               pendingMetricsChanges_++;
+            pendingMetrics_ = metrics;
+            metricsSettledTimer_.schedule(METRICS_SETTLE_MS);
+         }
       }
 
       session_.persistClientState();
    }
+   
+   private void fireMetricsChanged(WorkbenchMetrics metrics)
+   {
+      lastMetrics_ = metrics;
+      eventBus_.fireEvent(new WorkbenchMetricsChangedEvent(metrics));
+   }
 
    public void onSelection(SelectionEvent<Integer> integerSelectionEvent)
    {
@@ -384,7 +439,45 @@ public class WorkbenchScreen extends Composite
 
    private TimeBufferedCommand paneSizesChangedCommand_;
 
+   private final Timer metricsSettledTimer_ = new Timer()
+   {
+      @Override
+      public void run()
+      {
+         if (pendingMetrics_ == null)
+            return;
+         
+         // the size may have ended up back where it started
+         int rendered = 0;
+         if (!pendingMetrics_.closeEnoughToPrevious(lastMetrics_))
+         {
+            fireMetricsChanged(pendingMetrics_);
+            rendered = 1;
+         }
+         onMetricsSettled(rendered);
+      }
+   };
+
+   private void onMetricsSettled(int rendered)
+   {
+      rerendersAvoided_ += pendingMetricsChanges_ - rendered;
+      pendingMetrics_ = null;
+      pendingMetricsChanges_ = 0;
+   }
+
+   // The number of plot re-renders avoided this session by waiting for the
+   // plots pane size to settle
+   public int getRerendersAvoided()
+   {
+      return rerendersAvoided_;
+   }
+
    private WorkbenchMetrics lastMetrics_ = WorkbenchMetrics.create(0,0,0,1.0);
+   private WorkbenchMetrics pendingMetrics_ = null;
+   private int pendingMetricsChanges_ = 0;
+   private int rerendersAvoided_ = 0;
+   
+   private static final int METRICS_SETTLE_MS = 400;
    
    private final GlobalDisplay globalDisplay_;
    private final EventBus eventBus_;
@@ -395,6 +488,9 @@ public class WorkbenchScreen extends Composite
    private final MainSplitPanel tabsPanel_ ;
    private PaneManager paneManager_;
 
+   // number of code fragments downloaded in parallel during prefetch
+   private static final int MAX_CONCURRENT_PREFETCH = 3;
+
   
 
 }
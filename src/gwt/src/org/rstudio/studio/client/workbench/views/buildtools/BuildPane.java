@@ -29,21 +29,35 @@ import org.rstudio.studio.client.common.compile.CompileOutputBufferWithHighlight
 import org.rstudio.studio.client.common.compile.CompilePanel;
 import org.rstudio.studio.client.common.icons.StandardIcons;
 import org.rstudio.studio.client.common.sourcemarkers.SourceMarker;
+import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.workbench.commands.Commands;
 import org.rstudio.studio.client.workbench.model.Session;
 import org.rstudio.studio.client.workbench.model.SessionInfo;
 import org.rstudio.studio.client.workbench.ui.WorkbenchPane;
+import org.rstudio.studio.client.workbench.views.buildtools.model.BuildServerOperations;
 
 public class BuildPane extends WorkbenchPane implements BuildPresenter.Display
 {
    @Inject
    public BuildPane(Commands commands,
-                    Session session)
+                    Session session,
+                    final BuildServerOperations server)
    {
       super("Build");
       commands_ = commands;
       session_ = session;
-      compilePanel_ = new CompilePanel(new CompileOutputBufferWithHighlight());
+      compilePanel_ = new CompilePanel(new CompileOutputBufferWithHighlight(
+         new CompileOutputBufferWithHighlight.OlderOutputSource()
+         {
+            @Override
+            public void getOutputLines(
+                  int first,
+                  int count,
+                  ServerRequestCallback<JsArray<CompileOutput>> callback)
+            {
+               server.getBuildOutputLines(first, count, callback);
+            }
+         }));
       ensureWidget();
    }
    
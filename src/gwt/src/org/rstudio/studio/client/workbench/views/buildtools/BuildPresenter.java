@@ -227,6 +227,13 @@ public class BuildPresenter extends BasePresenter
       
    }
    
+   // clears the output of a build run in a previous session
+   public void clearOutput()
+   {
+      view_.buildStarted();
+      view_.buildCompleted();
+   }
+   
    private void sendLoadCommandToConsole(String loadCommand)
    {
       eventBus_.fireEvent(new SendToConsoleEvent(loadCommand, true, true));
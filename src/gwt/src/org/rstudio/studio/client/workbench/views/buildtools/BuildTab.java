@@ -16,6 +16,7 @@ package org.rstudio.studio.client.workbench.views.buildtools;
 
 import com.google.gwt.event.logical.shared.ValueChangeEvent;
 import com.google.gwt.event.logical.shared.ValueChangeHandler;
+import com.google.gwt.user.client.Command;
 import com.google.inject.Inject;
 
 import org.rstudio.core.client.command.CommandBinder;
@@ -24,6 +25,7 @@ import org.rstudio.studio.client.application.events.EventBus;
 import org.rstudio.studio.client.workbench.commands.Commands;
 import org.rstudio.studio.client.workbench.events.SessionInitEvent;
 import org.rstudio.studio.client.workbench.events.SessionInitHandler;
+import org.rstudio.studio.client.workbench.events.SessionReinitEvent;
 import org.rstudio.studio.client.workbench.model.Session;
 import org.rstudio.studio.client.workbench.model.SessionInfo;
 import org.rstudio.studio.client.workbench.prefs.model.UIPrefs;
@@ -60,6 +62,7 @@ public class BuildTab extends DelayLoadWorkbenchTab<BuildPresenter>
       public abstract void onTestPackage();
       
       abstract void initialize(BuildState buildState);
+      abstract void clearOutput();
    }
 
    @Inject
@@ -95,13 +98,39 @@ public class BuildTab extends DelayLoadWorkbenchTab<BuildPresenter>
             BuildCommands.setBuildCommandState(commands, sessionInfo);
 
             // initialize from build state if necessary
-            BuildState buildState = sessionInfo.getBuildState();
-            if (buildState != null)
-               shim.initialize(buildState);           
+            initializeShim(shim, false);
          }
       });
       
+      // the build commands stay as they are when the workbench is handed
+      // a new session (it only is if the build tools are the same), but 
+      // the output of the previous session's build is replaced
+      eventBus.addHandler(SessionReinitEvent.TYPE, 
+                          new SessionReinitEvent.Handler()
+      {
+         @Override
+         public void onSessionReinit(SessionReinitEvent event)
+         {
+            commands.stopBuild().setEnabled(false);
+            initializeShim(shim, true);
+         }
+      });
+   }
    
+   private void initializeShim(final Shim shim, final boolean clearOutput)
+   {
+      session_.whenSectionReady(SessionInfo.BUILD_STATE, new Command()
+      {
+         @Override
+         public void execute()
+         {
+            BuildState buildState = session_.getSessionInfo().getBuildState();
+            if (buildState != null)
+               shim.initialize(buildState);
+            else if (clearOutput)
+               shim.clearOutput();
+         }
+      });
    }
    
    @Override
@@ -15,9 +15,12 @@
 
 package org.rstudio.studio.client.workbench.views.buildtools.model;
 
+import org.rstudio.studio.client.common.compile.CompileOutput;
 import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.workbench.views.source.model.CppCapabilities;
 
+import com.google.gwt.core.client.JsArray;
+
 public interface BuildServerOperations
 {
    // check if we can build C/C++ code
@@ -38,6 +41,12 @@ public interface BuildServerOperations
    // terminate any running build
    void terminateBuild(ServerRequestCallback<Boolean> requestCallback);
    
+   // get lines [first, first + count) of the current build's output
+   void getBuildOutputLines(
+                  int first,
+                  int count,
+                  ServerRequestCallback<JsArray<CompileOutput>> requestCallback);
+   
    
    // get the devtools::load_all path
    void devtoolsLoadAllPath(ServerRequestCallback<String> requestCallback);
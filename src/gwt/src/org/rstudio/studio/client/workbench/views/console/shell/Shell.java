@@ -42,6 +42,7 @@ import org.rstudio.studio.client.server.Void;
 import org.rstudio.studio.client.server.VoidServerRequestCallback;
 import org.rstudio.studio.client.workbench.ConsoleEditorProvider;
 import org.rstudio.studio.client.workbench.commands.Commands;
+import org.rstudio.studio.client.workbench.events.SessionReinitEvent;
 import org.rstudio.studio.client.workbench.model.ClientInitState;
 import org.rstudio.studio.client.workbench.model.ClientState;
 import org.rstudio.studio.client.workbench.model.ConsoleAction;
@@ -74,7 +75,8 @@ public class Shell implements ConsoleInputHandler,
                               SendToConsoleHandler,
                               DebugModeChangedEvent.Handler,
                               RunCommandWithDebugEvent.Handler,
-                              UnhandledErrorEvent.Handler
+                              UnhandledErrorEvent.Handler,
+                              SessionReinitEvent.Handler
 {
    static interface Binder extends CommandBinder<Commands, Shell>
    {
@@ -110,6 +112,7 @@ public class Shell implements ConsoleInputHandler,
       historyManager_ = new CommandLineHistory(input_);
       browseHistoryManager_ = new CommandLineHistory(input_);
       prefs_ = uiPrefs;
+      session_ = session;
       tracker.setConsoleEditor(input_);
 
       inputAnimator_ = new ShellInputAnimator(view_.getInputEditorDisplay());
@@ -138,6 +141,7 @@ public class Shell implements ConsoleInputHandler,
       eventBus.addHandler(DebugModeChangedEvent.TYPE, this);
       eventBus.addHandler(RunCommandWithDebugEvent.TYPE, this);
       eventBus.addHandler(UnhandledErrorEvent.TYPE, this);
+      eventBus.addHandler(SessionReinitEvent.TYPE, this);
       
       final CompletionManager completionManager
                   = new RCompletionManager(view_.getInputEditorDisplay(),
@@ -160,7 +164,7 @@ public class Shell implements ConsoleInputHandler,
       sessionInit(session);
    }
    
-   private void sessionInit(Session session)
+   private void sessionInit(final Session session)
    {
       SessionInfo sessionInfo = session.getSessionInfo();
       ClientInitState clientState = sessionInfo.getClientState();
@@ -178,15 +182,7 @@ public class Shell implements ConsoleInputHandler,
          }
       };
 
-      JsArrayString history = sessionInfo.getConsoleHistory();
-      if (history != null)
-         setHistory(history);
-
-      RpcObjectList<ConsoleAction> actions = sessionInfo.getConsoleActions();
-      if (actions != null)
-      {
-         view_.playbackActions(actions);
-      }
+      restoreConsole(session);
 
       if (sessionInfo.getResumed())
       {
@@ -195,6 +191,43 @@ public class Shell implements ConsoleInputHandler,
       }
    }
 
+   // shows the session's console output and loads its command history
+   private void restoreConsole(final Session session)
+   {
+      session.whenSectionReady(SessionInfo.CONSOLE_HISTORY, new Command()
+      {
+         @Override
+         public void execute()
+         {
+            JsArrayString history = session.getSessionInfo().getConsoleHistory();
+            if (history != null)
+               setHistory(history);
+         }
+      });
+
+      session.whenSectionReady(SessionInfo.CONSOLE_ACTIONS, new Command()
+      {
+         @Override
+         public void execute()
+         {
+            RpcObjectList<ConsoleAction> actions =
+                  session.getSessionInfo().getConsoleActions();
+            if (actions != null)
+            {
+               view_.playbackActions(actions);
+            }
+         }
+      });
+   }
+   
+   @Override
+   public void onSessionReinit(SessionReinitEvent event)
+   {
+      // replace the previous session's console with the new session's
+      view_.clearOutput();
+      restoreConsole(session_);
+   }
+
    public Display getDisplay()
    {
       return view_ ;
@@ -637,6 +670,7 @@ public class Shell implements ConsoleInputHandler,
 
    private final ConsoleServerOperations server_ ;
    private final EventBus eventBus_ ;
+   private final Session session_ ;
    private final Display view_ ;
    private final Commands commands_;
    private final ErrorManager errorManager_;
@@ -14,6 +14,8 @@
  */
 package org.rstudio.studio.client.workbench.views.console.shell.assist;
 
+import com.google.gwt.dom.client.DivElement;
+import com.google.gwt.dom.client.Element;
 import com.google.gwt.event.dom.client.*;
 import com.google.gwt.event.logical.shared.HasSelectionHandlers;
 import com.google.gwt.event.logical.shared.SelectionEvent;
@@ -21,18 +23,21 @@ import com.google.gwt.event.logical.shared.SelectionHandler;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.user.client.ui.Composite;
 import com.google.gwt.user.client.ui.HTML;
-import com.google.gwt.user.client.ui.HTMLTable.Cell;
-import com.google.gwt.user.client.ui.HTMLTable.CellFormatter;
-import com.google.gwt.user.client.ui.ScrollPanel;
 import org.rstudio.core.client.Point;
 import org.rstudio.core.client.Rectangle;
-import org.rstudio.core.client.dom.DomUtils;
+import org.rstudio.core.client.StringUtil;
+import org.rstudio.core.client.dom.DomMetrics;
 import org.rstudio.core.client.events.HasSelectionCommitHandlers;
 import org.rstudio.core.client.events.SelectionCommitEvent;
 import org.rstudio.core.client.events.SelectionCommitHandler;
 import org.rstudio.core.client.widget.FontSizer;
+import org.rstudio.core.client.widget.VirtualizedList;
 import org.rstudio.studio.client.workbench.views.console.ConsoleResources;
 
+// A list of completions which only renders the rows in view. The list is
+// meant to be kept around and given new items with setItems() (e.g. as the
+// user narrows the completions by typing), and is sized from the length of
+// its items' text rather than by laying them out.
 class CompletionList<TItem> extends Composite 
          implements HasSelectionCommitHandlers<TItem>,
                     HasSelectionHandlers<TItem>
@@ -41,12 +46,9 @@ class CompletionList<TItem> extends Composite
    {
       public void onClick(ClickEvent event)
       {
-         Cell cell = grid_.getCellForEvent(event) ;
-         if (cell != null)
-         {
-            int rowClicked = cell.getRowIndex() ;
+         int rowClicked = getRowForEvent(event) ;
+         if (rowClicked >= 0)
             SelectionCommitEvent.fire(CompletionList.this, items_[rowClicked]) ;
-         }
       }
 
       public void onMouseMove(MouseMoveEvent event)
@@ -72,13 +74,19 @@ class CompletionList<TItem> extends Composite
             return;
          }
 
-         int mousedOverRow = grid_.getRowForEvent(event) ;
+         int mousedOverRow = getRowForEvent(event) ;
          if (mousedOverRow >= 0)
          {
             setSelectedIndex(mousedOverRow) ;
          }
       }
 
+      private int getRowForEvent(MouseEvent<?> event)
+      {
+         int row = list_.getRowIndex(event.getNativeEvent().getEventTarget());
+         return row < items_.length ? row : -1;
+      }
+
       private boolean firstEvent_ = true;
       private Point lastMouseMoveCoordinates_;
    }
@@ -88,57 +96,142 @@ class CompletionList<TItem> extends Composite
                          boolean asHtml,
                          boolean allowVerticalShrink)
    {
+      visibleItems_ = visibleItems;
+      asHtml_ = asHtml;
       allowVerticalShrink_ = allowVerticalShrink;
       styles_ = ConsoleResources.INSTANCE.consoleStyles();
-      GridEx grid = new GridEx(items.length, 1) ;
-      for (int i = 0; i < items.length; i++)
+
+      list_ = new VirtualizedList(ROW_HEIGHT, new VirtualizedList.RowRenderer()
       {
-         if (asHtml)
-            grid.setHTML(i, 0, items[i].toString()) ;
-         else
-            grid.setText(i, 0, items[i].toString()) ;
-      }
-      grid.addClickHandler(new GridMouseHandler()) ;
-      grid.addMouseMoveHandler(new GridMouseHandler()) ;
-      grid.setStylePrimaryName(styles_.completionGrid()) ;
-      
-      FontSizer.applyNormalFontSize(grid);
+         @Override
+         public void renderRow(int index, DivElement row)
+         {
+            CompletionList.this.renderRow(index, row);
+         }
+      });
 
-      scrollPanel_ = new ScrollPanel() ;
-      scrollPanel_.getElement().getStyle().setProperty("overflowX", "hidden");
-      scrollPanel_.add(grid) ;
-      scrollPanel_.setHeight((visibleItems * 26) + "px") ;
-      
-      initWidget(scrollPanel_) ;
-      grid_ = grid ;
-      items_ = items ;
+      // the list takes focus from the editor when clicked otherwise
+      list_.getElement().removeAttribute("tabIndex");
+      list_.getElement().getStyle().setProperty("overflowX", "hidden");
+      list_.setStylePrimaryName(styles_.completionGrid()) ;
+      list_.addClickHandler(new GridMouseHandler()) ;
+      list_.addMouseMoveHandler(new GridMouseHandler()) ;
+
+      FontSizer.applyNormalFontSize(list_);
+
+      initWidget(list_) ;
+      setItems(items) ;
+   }
+
+   // Replaces the items shown, keeping the list's DOM; the first item is
+   // selected if the list is showing (otherwise once it's shown)
+   public void setItems(TItem[] items)
+   {
+      items_ = items;
+      selectedIndex_ = -1;
+
+      list_.setRowCount(items_.length);
+      list_.invalidate();
+      updateSize();
+
+      if (isAttached())
+      {
+         list_.scrollToTop();
+         selectNext();
+         list_.flush();
+      }
    }
    
    @Override
    protected void onLoad()
    {
       super.onLoad() ;
-      int width = grid_.getOffsetWidth() + 20;
+      if (selectedIndex_ < 0)
+         selectNext() ;
+      else
+         list_.ensureRowVisible(selectedIndex_) ;
+      list_.flush() ;
+   }
+
+   private void renderRow(int index, DivElement row)
+   {
+      row.setClassName(styles_.completionRow());
+      if (index == selectedIndex_)
+         row.addClassName(styles_.selected());
+
+      if (asHtml_)
+         row.setInnerHTML(items_[index].toString());
+      else
+         row.setInnerText(items_[index].toString());
+   }
+
+   // Sizes the list from the widest item's text: the completion font is
+   // fixed width, so that's its length in characters times the width of a
+   // character (measured once), plus any icons
+   private void updateSize()
+   {
+      int rows = visibleItems_;
+      if (allowVerticalShrink_)
+         rows = Math.min(rows, items_.length);
+      list_.setHeight((rows * ROW_HEIGHT) + "px");
+
+      int maxChars = 0;
+      int maxIcons = 0;
+      for (TItem item : items_)
+      {
+         String text = item.toString();
+         if (asHtml_)
+         {
+            maxIcons = Math.max(maxIcons, countIcons(text));
+            text = htmlToText(text);
+         }
+         maxChars = Math.max(maxChars, text.length());
+      }
+
+      int width = (int) Math.ceil(maxChars * getCharWidth()) +
+                  maxIcons * ICON_WIDTH +
+                  ROW_PADDING + 20;
+
+      // room for the scrollbar; this also (implicitly) adds padding between
+      // the completion item and the package name (if it exists)
+      if (items_.length > visibleItems_)
+         width += 30;
+
       if (maxWidthInPixels_ != null
           && maxWidthInPixels_ > 0
           && maxWidthInPixels_ < width)
          width = maxWidthInPixels_;
-      scrollPanel_.setWidth(width + "px") ;
-      if (allowVerticalShrink_ &&
-          grid_.getOffsetHeight() < scrollPanel_.getOffsetHeight())
+      list_.setWidth(width + "px");
+   }
+
+   private double getCharWidth()
+   {
+      if (charWidth_ == 0)
       {
-         scrollPanel_.setHeight("") ;
+         int chars = 100;
+         int width = DomMetrics.measureHTML(StringUtil.repeat("m", chars),
+                                            styles_.completionRow()).width;
+         charWidth_ = (double) (width - ROW_PADDING) / chars;
       }
-      grid_.setWidth("100%") ;
-      selectNext() ;
+      return charWidth_;
+   }
+
+   private static int countIcons(String html)
+   {
+      int count = 0;
+      for (int i = html.indexOf("<img"); i >= 0; i = html.indexOf("<img", i + 1))
+         count++;
+      return count;
+   }
+
+   private static String htmlToText(String html)
+   {
+      return html.replaceAll("<[^>]*>", "").replaceAll("&#?\\w+;", "&");
    }
 
    public int getItemCount()
    {
-      if (grid_ != null)
-         return grid_.getRowCount() ;
-      else
-         return 0;
+      return items_.length;
    }
    
    public TItem getSelectedItem()
@@ -221,18 +314,18 @@ class CompletionList<TItem> extends Composite
    {
       if (selectedIndex_ != index)
       {
-         CellFormatter cf = grid_.getCellFormatter() ;
-         if (selectedIndex_ >= 0)
-            cf.removeStyleName(selectedIndex_, 0, styles_.selected()) ;
+         DivElement row = list_.getRowElement(selectedIndex_) ;
+         if (row != null)
+            row.removeClassName(styles_.selected()) ;
          
          selectedIndex_ = index ;
          
          if (index >= 0)
          {
-            cf.addStyleName(selectedIndex_, 0, styles_.selected()) ;
-            com.google.gwt.dom.client.Element el =
-                  DomUtils.getTableCell(grid_.getElement(), index, 0) ;
-            DomUtils.ensureVisibleVert(scrollPanel_.getElement(), el, 2) ;
+            row = list_.getRowElement(index) ;
+            if (row != null)
+               row.addClassName(styles_.selected()) ;
+            list_.ensureRowVisible(index) ;
             SelectionEvent.fire(this, getSelectedItem()) ;
          }
       }
@@ -248,17 +341,18 @@ class CompletionList<TItem> extends Composite
       if (index < 0)
          return null;
       
-      com.google.gwt.dom.client.Element el =
-            DomUtils.getTableCell(grid_.getElement(), index, 0) ;
+      // computed rather than read from the row, which may not be rendered yet
+      Element el = list_.getElement() ;
       return new Rectangle(el.getAbsoluteLeft(), 
-                      el.getAbsoluteTop(), 
-                      el.getOffsetWidth(), 
-                      el.getOffsetHeight()) ;
+                      el.getAbsoluteTop() + index * ROW_HEIGHT - el.getScrollTop(),
+                      el.getClientWidth(),
+                      ROW_HEIGHT) ;
    }
    
    public void setMaxWidth(int maxWidthInPixels)
    {
       maxWidthInPixels_ = maxWidthInPixels;
+      updateSize();
    }
    
    public TItem[] getItems()
@@ -267,11 +361,22 @@ class CompletionList<TItem> extends Composite
    }
 
    private int selectedIndex_ = -1 ;
+   private TItem[] items_ ;
    
-   private final GridEx grid_ ;
-   private final TItem[] items_ ;
-   private final ScrollPanel scrollPanel_ ;
+   private final VirtualizedList list_ ;
+   private final int visibleItems_ ;
+   private final boolean asHtml_ ;
    private final ConsoleResources.ConsoleStyles styles_;
    private final boolean allowVerticalShrink_;
    private Integer maxWidthInPixels_;
+
+   // completion rows are all the same size, so this is measured once
+   private static double charWidth_ = 0;
+
+   private static final int ROW_HEIGHT = 26;
+   private static final int ROW_PADDING = 6;
+
+   // completion icons are 16px wide, plus the padding given them in
+   // CompletionRequester.css
+   private static final int ICON_WIDTH = 24;
 }
@@ -57,6 +57,38 @@ public class CompletionPopupPanel extends ThemedPopupPanel
       truncated_ = new Label("... Not all items shown");
       truncated_.setStylePrimaryName(styles_.truncatedLabel());
       
+      // the list is kept for the life of the popup, and given each new set
+      // of completions, rather than being rebuilt for each request
+      list_ = new CompletionList<QualifiedName>(
+                                       new QualifiedName[0],
+                                       6,
+                                       true,
+                                       true) ;
+
+      list_.addSelectionCommitHandler(new SelectionCommitHandler<QualifiedName>() {
+         public void onSelectionCommit(SelectionCommitEvent<QualifiedName> event)
+         {
+            lastSelectedValue_ = event.getSelectedItem();
+            SelectionCommitEvent.fire(CompletionPopupPanel.this, 
+                                      event.getSelectedItem()) ;
+         }
+      });
+      
+      list_.addSelectionHandler(new SelectionHandler<QualifiedName>() {
+         public void onSelection(SelectionEvent<QualifiedName> event)
+         {
+            lastSelectedValue_ = event.getSelectedItem();
+            SelectionEvent.fire(CompletionPopupPanel.this, 
+                                event.getSelectedItem()) ;
+         }
+      });
+      
+      ElementIds.assignElementId(list_.getElement(), 
+            ElementIds.POPUP_COMPLETIONS);
+      
+      container_ = new VerticalPanel();
+      container_.add(list_);
+      
       setStylePrimaryName(styles_.completionPopup()) ;
       
       addCloseHandler(new CloseHandler<PopupPanel>() {
@@ -120,7 +152,7 @@ public class CompletionPopupPanel extends ThemedPopupPanel
    @Override
    public void clearCompletions()
    {
-      list_ = null;
+      list_.setItems(new QualifiedName[0]);
    }
 
    @Override
@@ -128,49 +160,21 @@ public class CompletionPopupPanel extends ThemedPopupPanel
                                     PositionCallback callback,
                                     boolean truncated)
    {
-      CompletionList<QualifiedName> list = new CompletionList<QualifiedName>(
-                                       values,
-                                       6,
-                                       true,
-                                       true) ;
+      list_.setItems(values);
 
-      list.addSelectionCommitHandler(new SelectionCommitHandler<QualifiedName>() {
-         public void onSelectionCommit(SelectionCommitEvent<QualifiedName> event)
-         {
-            lastSelectedValue_ = event.getSelectedItem();
-            SelectionCommitEvent.fire(CompletionPopupPanel.this, 
-                                      event.getSelectedItem()) ;
-         }
-      });
-      
-      list.addSelectionHandler(new SelectionHandler<QualifiedName>() {
-         public void onSelection(SelectionEvent<QualifiedName> event)
-         {
-            lastSelectedValue_ = event.getSelectedItem();
-            SelectionEvent.fire(CompletionPopupPanel.this, 
-                                event.getSelectedItem()) ;
-         }
-      });
-      
-      list_ = list;
-      
-      container_ = new VerticalPanel();
-      container_.add(list_);
       if (truncated)
          container_.add(truncated_);
+      else
+         truncated_.removeFromParent();
       
-      setWidget(container_);
-      
-      ElementIds.assignElementId(list_.getElement(), 
-            ElementIds.POPUP_COMPLETIONS);
+      if (getWidget() != container_)
+         setWidget(container_);
       
       show(callback) ;
    }
    
    public boolean hasCompletions()
    {
-      if (list_ == null)
-         return false;
       return list_.getItemCount() > 0;
    }
    
@@ -188,14 +192,6 @@ public class CompletionPopupPanel extends ThemedPopupPanel
       else
          show() ;
       
-      
-      // Fudge the completion width when the scrollbar is visible. This has
-      // to be done before help is shown since the help display is offset
-      // from the completion list. This also (implicitly) adds padding between
-      // the completion item and the package name (if it exists)
-      if (list_ != null && list_.getOffsetWidth() > list_.getElement().getClientWidth())
-         list_.setWidth(list_.getOffsetWidth() + 30 + "px");
-      
       // Show help.
       if (help_ != null)
       {
@@ -215,7 +211,7 @@ public class CompletionPopupPanel extends ThemedPopupPanel
    
    public QualifiedName getSelectedValue()
    {
-      if (list_ == null || !list_.isAttached())
+      if (!list_.isAttached())
          return null ;
       
       return list_.getSelectedItem() ;
@@ -268,7 +264,7 @@ public class CompletionPopupPanel extends ThemedPopupPanel
    
    private boolean completionListIsOnScreen()
    {
-      return list_ != null && list_.isAttached() &&
+      return list_.isAttached() &&
              getAbsoluteLeft() >= 0 && getAbsoluteTop() >= 0;
    }
 
@@ -416,11 +412,11 @@ public class CompletionPopupPanel extends ThemedPopupPanel
          handlerRegistration_.removeHandler();
    }
    
-   private CompletionList<QualifiedName> list_ ;
+   private final CompletionList<QualifiedName> list_ ;
    private HelpInfoPopupPanel help_ ;
    private final ConsoleResources.ConsoleStyles styles_;
    private static QualifiedName lastSelectedValue_;
-   private VerticalPanel container_;
+   private final VerticalPanel container_;
    private final Label truncated_;
    private final NativePreviewHandler handler_;
    private HandlerRegistration handlerRegistration_;
@@ -14,17 +14,25 @@
  */
 package org.rstudio.studio.client.workbench.views.console.shell.assist;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 
 import org.rstudio.core.client.Debug;
+import org.rstudio.core.client.LruCache;
 import org.rstudio.studio.client.RStudioGinjector;
+import org.rstudio.studio.client.application.events.EventBus;
 import org.rstudio.studio.client.common.codetools.CodeToolsServerOperations;
 import org.rstudio.studio.client.common.codetools.RCompletionType;
 import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.workbench.views.console.events.ConsolePromptEvent;
+import org.rstudio.studio.client.workbench.views.console.events.ConsolePromptHandler;
 import org.rstudio.studio.client.workbench.views.console.shell.assist.CompletionRequester.QualifiedName;
 import org.rstudio.studio.client.workbench.views.help.model.HelpInfo;
 import org.rstudio.studio.client.workbench.views.help.model.HelpInfo.ParsedInfo;
+import org.rstudio.studio.client.workbench.views.packages.events.PackageStateChangedEvent;
+import org.rstudio.studio.client.workbench.views.packages.events.PackageStateChangedHandler;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -35,10 +43,33 @@ public class HelpStrategy
    final CodeToolsServerOperations server_;
    
    @Inject
-   public HelpStrategy(CodeToolsServerOperations server)
+   public HelpStrategy(CodeToolsServerOperations server, EventBus events)
    {
       server_ = server;
-      cache_ = new HashMap<QualifiedName, ParsedInfo>();
+      cache_ = new LruCache<String, ParsedInfo>(MAX_CACHED_HELP);
+      
+      // installing or updating packages can change their help
+      events.addHandler(PackageStateChangedEvent.TYPE, 
+                        new PackageStateChangedHandler()
+      {
+         @Override
+         public void onPackageStateChanged(PackageStateChangedEvent event)
+         {
+            clearCache();
+         }
+      });
+      
+      // help for anything not from a package namespace (e.g. the formals of
+      // a function in the global environment) can change whenever R runs
+      // code, whether from the console, a source file or a chunk
+      events.addHandler(ConsolePromptEvent.TYPE, new ConsolePromptHandler()
+      {
+         @Override
+         public void onConsolePrompt(ConsolePromptEvent event)
+         {
+            clearLocalHelp();
+         }
+      });
    }
    
    public void showHelpTopic(final QualifiedName selectedItem)
@@ -52,6 +83,9 @@ public class HelpStrategy
    public void showHelp(final QualifiedName item,
                         final CompletionPopupDisplay display)
    {
+      // responses for previously shown items are no longer wanted
+      displayedKey_ = cacheKey(item);
+      
       switch (item.type)
       {
          case RCompletionType.PACKAGE:
@@ -67,46 +101,196 @@ public class HelpStrategy
       }
    }
    
+   // Fetches (and caches) help for an item that is likely to be shown soon,
+   // e.g. the highlighted completion while the help popup is still hidden
+   public void prefetchHelp(final QualifiedName item)
+   {
+      if (item == null || item.type == RCompletionType.SNIPPET)
+         return;
+      
+      fetchHelp(item, new HelpCallback()
+      {
+         @Override
+         public void onHelp(ParsedInfo info)
+         {
+         }
+         
+         @Override
+         public void onError(ServerError error)
+         {
+         }
+      });
+   }
+   
    public void clearCache()
    {
       cache_.clear();
+      localKeys_.clear();
+      generation_++;
    }
    
-   private void showDefaultHelp(final QualifiedName selectedItem,
-                                final CompletionPopupDisplay display)
+   private void clearLocalHelp()
+   {
+      if (localKeys_.isEmpty() && pending_.isEmpty())
+         return;
+      
+      for (String key : localKeys_)
+         cache_.remove(key);
+      localKeys_.clear();
+      generation_++;
+   }
+   
+   private interface HelpCallback
+   {
+      void onHelp(ParsedInfo info);
+      void onError(ServerError error);
+   }
+   
+   // Retrieves help for an item from the cache or the server. Concurrent
+   // requests for the same item share a single server request.
+   private void fetchHelp(final QualifiedName item,
+                          final HelpCallback callback)
    {
-      ParsedInfo cachedHelp = cache_.get(selectedItem);
+      final String key = cacheKey(item);
+      ParsedInfo cachedHelp = cache_.get(key);
       if (cachedHelp != null)
       {
-         display.displayHelp(cachedHelp);
+         callback.onHelp(cachedHelp);
          return;
       }
       
-      server_.getHelp(selectedItem.name,
-                      selectedItem.source,
-                      selectedItem.type,
+      ArrayList<HelpCallback> pending = pending_.get(key);
+      if (pending != null)
+      {
+         pending.add(callback);
+         return;
+      }
+      pending = new ArrayList<HelpCallback>();
+      pending.add(callback);
+      pending_.put(key, pending);
+      
+      final String topic = getHelpTopic(item);
+      final boolean local = !isFromPackage(item);
+      final int generation = generation_;
+      server_.getHelp(topic,
+                      getHelpPackage(item),
+                      item.type,
                       new ServerRequestCallback<HelpInfo>() {
          @Override
          public void onError(ServerError error)
          {
-            Debug.logError(error);
-            RStudioGinjector.INSTANCE.getGlobalDisplay().showErrorMessage(
-                  "Error Retrieving Help", error.getUserMessage());
-            display.clearHelp(false) ;
+            for (HelpCallback callback : pending_.remove(key))
+               callback.onError(error);
          }
 
+         @Override
          public void onResponseReceived(HelpInfo result)
          {
+            ParsedInfo info = null;
             if (result != null)
             {
-               HelpInfo.ParsedInfo help = result.parse(selectedItem.name) ;
-               if (help.hasInfo())
+               info = result.parse(topic);
+               
+               // help requested before the cache was invalidated may
+               // already be stale, so it's shown but not kept
+               if (!local)
+                  cache_.put(key, info);
+               else if (generation == generation_)
                {
-                  cache_.put(selectedItem, help);
-                  display.displayHelp(help) ;
-                  return;
+                  cache_.put(key, info);
+                  localKeys_.add(key);
                }
             }
+            for (HelpCallback callback : pending_.remove(key))
+               callback.onHelp(info);
+         }
+      });
+   }
+   
+   private String getHelpTopic(QualifiedName item)
+   {
+      switch (item.type)
+      {
+         case RCompletionType.ARGUMENT:
+         case RCompletionType.OPTION:
+            return item.source;
+         default:
+            return item.name;
+      }
+   }
+   
+   private String getHelpPackage(QualifiedName item)
+   {
+      switch (item.type)
+      {
+         case RCompletionType.PACKAGE:
+         case RCompletionType.ARGUMENT:
+         case RCompletionType.OPTION:
+            return null;
+         default:
+            return item.source;
+      }
+   }
+   
+   // Whether help for the item comes from an installed package (as opposed
+   // to e.g. a function defined in the global environment)
+   private static boolean isFromPackage(QualifiedName item)
+   {
+      if (item.source == null)
+         return false;
+      
+      switch (item.type)
+      {
+         case RCompletionType.PACKAGE:
+         case RCompletionType.OPTION:
+            return true;
+         case RCompletionType.ARGUMENT:
+            // arguments of a function qualified by its package
+            return item.source.contains("|||");
+         default:
+            // attached packages ("package:stats") and namespaces qualified
+            // with '::' ("stats"); not ".GlobalEnv", "tools:rstudio" etc.
+            return item.source.startsWith("package:") ||
+                   item.source.matches("^[a-zA-Z][a-zA-Z0-9.]*$");
+      }
+   }
+   
+   // QualifiedName doesn't implement equals/hashCode, so key the cache on
+   // the fields that determine the help request
+   private static String cacheKey(QualifiedName item)
+   {
+      return item.type + ":" + item.source + ":" + item.name;
+   }
+   
+   private boolean isDisplayed(QualifiedName item)
+   {
+      return cacheKey(item).equals(displayedKey_);
+   }
+   
+   private void showDefaultHelp(final QualifiedName selectedItem,
+                                final CompletionPopupDisplay display)
+   {
+      fetchHelp(selectedItem, new HelpCallback() {
+         @Override
+         public void onError(ServerError error)
+         {
+            if (!isDisplayed(selectedItem))
+               return;
+            Debug.logError(error);
+            RStudioGinjector.INSTANCE.getGlobalDisplay().showErrorMessage(
+                  "Error Retrieving Help", error.getUserMessage());
+            display.clearHelp(false) ;
+         }
+
+         public void onHelp(ParsedInfo help)
+         {
+            if (!isDisplayed(selectedItem))
+               return;
+            if (help != null && help.hasInfo())
+            {
+               display.displayHelp(help) ;
+               return;
+            }
             display.setHelpVisible(false);
             display.clearHelp(false) ;
          }
@@ -119,39 +303,30 @@ public class HelpStrategy
    {
       
       final String name = selectedItem.name.replaceAll("\\s*=\\s*$", "");
-      ParsedInfo cachedHelp = cache_.get(selectedItem);
-      if (cachedHelp != null)
-      {
-         doShowParameterHelp(cachedHelp, name, display);
-         return;
-      }
+      fetchHelp(selectedItem, new HelpCallback() {
+         @Override
+         public void onError(ServerError error)
+         {
+            if (isDisplayed(selectedItem))
+               display.clearHelp(false) ;
+         }
 
-         server_.getHelp(selectedItem.source,
-                         null,
-                         selectedItem.type,
-                         new ServerRequestCallback<HelpInfo>() {
-            @Override
-            public void onError(ServerError error)
+         @Override
+         public void onHelp(ParsedInfo info)
+         {
+            if (!isDisplayed(selectedItem))
+               return;
+            if (info != null)
             {
-               display.clearHelp(false) ;
+               doShowParameterHelp(info, name, display);
             }
-
-            @Override
-            public void onResponseReceived(HelpInfo response)
+            else
             {
-               if (response != null)
-               {
-                  ParsedInfo info = response.parse(selectedItem.source);
-                  cache_.put(selectedItem, info);
-                  doShowParameterHelp(info, name, display);
-               }
-               else
-               {
-                  display.setHelpVisible(false);
-                  display.clearHelp(false);
-               }
+               display.setHelpVisible(false);
+               display.clearHelp(false);
             }
-         }) ;
+         }
+      }) ;
    }
    
    private void doShowParameterHelp(final ParsedInfo info,
@@ -190,32 +365,22 @@ public class HelpStrategy
    private void showDataHelp(final QualifiedName selectedItem,
                              final CompletionPopupDisplay display)
    {
-      ParsedInfo cachedHelp = cache_.get(selectedItem);
-      if (cachedHelp != null)
-      {
-         doShowDataHelp(cachedHelp, display);
-         return;
-      }
-      
-      server_.getHelp(
-            selectedItem.name,
-            selectedItem.source,
-            selectedItem.type,
-            new ServerRequestCallback<HelpInfo>() {
+      fetchHelp(selectedItem, new HelpCallback() {
          
          @Override
          public void onError(ServerError error)
          {
-            display.clearHelp(false) ;
+            if (isDisplayed(selectedItem))
+               display.clearHelp(false) ;
          }
 
          @Override
-         public void onResponseReceived(HelpInfo response)
+         public void onHelp(ParsedInfo info)
          {
-            if (response != null)
+            if (!isDisplayed(selectedItem))
+               return;
+            if (info != null)
             {
-               ParsedInfo info = response.parse(selectedItem.name);
-               cache_.put(selectedItem, info);
                doShowDataHelp(info, display);
             }
             else
@@ -246,33 +411,22 @@ public class HelpStrategy
    private void showPackageHelp(final QualifiedName selectedItem,
                                 final CompletionPopupDisplay display)
    {
-      ParsedInfo cachedHelp = cache_.get(selectedItem);
-      if (cachedHelp != null)
-      {
-         doShowPackageHelp(cachedHelp, display);
-         return;
-      }
-      
-      final String packageName = selectedItem.name;
-      server_.getHelp(
-            packageName,
-            null,
-            selectedItem.type,
-            new ServerRequestCallback<HelpInfo>() {
+      fetchHelp(selectedItem, new HelpCallback() {
          
          @Override
          public void onError(ServerError error)
          {
-            display.clearHelp(false) ;
+            if (isDisplayed(selectedItem))
+               display.clearHelp(false) ;
          }
 
          @Override
-         public void onResponseReceived(HelpInfo response)
+         public void onHelp(ParsedInfo info)
          {
-            if (response != null)
+            if (!isDisplayed(selectedItem))
+               return;
+            if (info != null)
             {
-               ParsedInfo info = response.parse(packageName);
-               cache_.put(selectedItem, info);
                doShowPackageHelp(info, display);
             }
             else
@@ -298,6 +452,14 @@ public class HelpStrategy
       }
    }
    
-   HashMap<QualifiedName, ParsedInfo> cache_;
+   private final LruCache<String, ParsedInfo> cache_;
+   
+   // keys of cached help that isn't from a package
+   private final HashSet<String> localKeys_ = new HashSet<String>();
+   private int generation_;
+   private final HashMap<String, ArrayList<HelpCallback>> pending_ =
+         new HashMap<String, ArrayList<HelpCallback>>();
+   private String displayedKey_;
    
+   private static final int MAX_CACHED_HELP = 200;
 }
@@ -175,7 +175,11 @@ public class RCompletionManager implements CompletionManager
             if (popup_.isHelpVisible())
                context_.showHelp(lastSelectedItem_);
             else
+            {
+               // fetch the help now so it's ready when the popup shows it
+               helpStrategy_.prefetchHelp(lastSelectedItem_);
                showHelpDeferred(context_, lastSelectedItem_, 600);
+            }
          }
       }) ;
       
@@ -1843,7 +1847,6 @@ public class RCompletionManager implements CompletionManager
             return;
          
          requester_.flushCache() ;
-         helpStrategy_.clearCache();
          
          if (value == null)
          {
@@ -84,10 +84,20 @@ public class EnvironmentPane extends WorkbenchPane
       scrollPosition_ = 0;
       isClientStateDirty_ = false;
       environments_ = null;
+      // the environment state follows session init, so may not be here
+      // yet; if not, the presenter sets the environment once it arrives
       EnvironmentContextData environmentState = 
             session.getSessionInfo().getEnvironmentState();
-      environmentName_ = environmentState.environmentName();
-      environmentIsLocal_ = environmentState.environmentIsLocal();
+      if (environmentState != null)
+      {
+         environmentName_ = environmentState.environmentName();
+         environmentIsLocal_ = environmentState.environmentIsLocal();
+      }
+      else
+      {
+         environmentName_ = ".GlobalEnv";
+         environmentIsLocal_ = false;
+      }
 
       EnvironmentPaneResources.INSTANCE.environmentPaneStyle().ensureInjected();
       
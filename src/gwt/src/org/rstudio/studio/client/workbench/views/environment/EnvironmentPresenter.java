@@ -51,6 +51,7 @@ import org.rstudio.studio.client.workbench.events.ActivatePaneEvent;
 import org.rstudio.studio.client.workbench.model.ClientState;
 import org.rstudio.studio.client.workbench.model.RemoteFileSystemContext;
 import org.rstudio.studio.client.workbench.model.Session;
+import org.rstudio.studio.client.workbench.model.SessionInfo;
 import org.rstudio.studio.client.workbench.model.UnsavedChangesTarget;
 import org.rstudio.studio.client.workbench.model.helper.IntStateValue;
 import org.rstudio.studio.client.workbench.model.helper.JSObjectStateValue;
@@ -503,6 +504,12 @@ public class EnvironmentPresenter extends BasePresenter
       // objects in the environment
       if (!initialized_)
       {
+         // if the environment state hasn't arrived yet, initialize() will
+         // populate the view once it does
+         if (!session_.getSessionInfo().isSectionReady(
+                                          SessionInfo.ENVIRONMENT_STATE))
+            return;
+
          // we may have a cached list of objects in the session info--if
          // we do, use that list; otherwise, refresh the view to get a new one.
          // (the list may be empty e.g. on cold session startup when the 
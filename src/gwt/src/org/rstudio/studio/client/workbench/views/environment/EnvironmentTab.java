@@ -23,10 +23,13 @@ import org.rstudio.studio.client.common.filetypes.events.OpenDataFileHandler;
 import org.rstudio.studio.client.workbench.commands.Commands;
 import org.rstudio.studio.client.workbench.events.SessionInitEvent;
 import org.rstudio.studio.client.workbench.events.SessionInitHandler;
+import org.rstudio.studio.client.workbench.events.SessionReinitEvent;
 import org.rstudio.studio.client.workbench.model.Session;
+import org.rstudio.studio.client.workbench.model.SessionInfo;
 import org.rstudio.studio.client.workbench.ui.DelayLoadTabShim;
 import org.rstudio.studio.client.workbench.ui.DelayLoadWorkbenchTab;
 import org.rstudio.studio.client.workbench.views.environment.model.EnvironmentContextData;
+import com.google.gwt.user.client.Command;
 import com.google.inject.Inject;
 
 public class EnvironmentTab extends DelayLoadWorkbenchTab<EnvironmentPresenter>
@@ -67,6 +70,28 @@ public class EnvironmentTab extends DelayLoadWorkbenchTab<EnvironmentPresenter>
       events.addHandler(SessionInitEvent.TYPE, new SessionInitHandler() {
          
          public void onSessionInit(SessionInitEvent sie)
+         {
+            initializeShim(shim);
+         }
+      });
+      
+      events.addHandler(SessionReinitEvent.TYPE, 
+                        new SessionReinitEvent.Handler()
+      {
+         @Override
+         public void onSessionReinit(SessionReinitEvent event)
+         {
+            initializeShim(shim);
+         }
+      });
+   }
+   
+   private void initializeShim(final Shim shim)
+   {
+      session_.whenSectionReady(SessionInfo.ENVIRONMENT_STATE, new Command()
+      {
+         @Override
+         public void execute()
          {
             EnvironmentContextData environmentState = 
                   session_.getSessionInfo().getEnvironmentState();
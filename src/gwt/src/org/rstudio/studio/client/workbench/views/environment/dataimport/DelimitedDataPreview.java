@@ -0,0 +1,302 @@
+/*
+ * DelimitedDataPreview.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.environment.dataimport;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import org.rstudio.core.client.CsvReader;
+
+import com.google.gwt.safehtml.shared.SafeHtml;
+import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
+
+// The first rows of a data file as read.table would read them with the
+// given settings, parsed from the file's text in the browser. Like
+// read.csv, short rows are filled with NA; each column is given the type
+// type.convert would give it, and its values are formatted as format()
+// would show them.
+public class DelimitedDataPreview
+{
+   public static class Column
+   {
+      public Column(String name)
+      {
+         this.name = name;
+      }
+
+      public final String name;
+      public int type = TYPE_CHARACTER;
+
+      // null for NA
+      public final ArrayList<String> values = new ArrayList<String>();
+   }
+
+   // sep and quote are as read.table's (sep "" being whitespace, quote ""
+   // being none); comment is a single character or ""
+   public DelimitedDataPreview(String lines,
+                               boolean header,
+                               String sep,
+                               String quote,
+                               String decimal,
+                               String comment,
+                               String[] naStrings,
+                               int maxRows)
+   {
+      decimal_ = decimal.length() > 0 ? decimal.charAt(0) : '.';
+      for (String na : naStrings)
+         naStrings_.add(na);
+
+      CsvReader reader = new CsvReader(
+            lines,
+            sep.length() > 0 ? sep.charAt(0) : CsvReader.WHITESPACE,
+            quote.length() > 0 ? quote.charAt(0) : CsvReader.NONE,
+            CsvReader.NONE,
+            comment.length() > 0 ? comment.charAt(0) : CsvReader.NONE);
+
+      String[] names = null;
+      ArrayList<String[]> rows = new ArrayList<String[]>();
+      int cols = 0;
+      for (String[] row : reader)
+      {
+         // blank lines are skipped
+         if (row.length == 0 || (row.length == 1 && row[0].length() == 0))
+            continue;
+
+         if (header && names == null)
+         {
+            names = row;
+            continue;
+         }
+
+         rows.add(row);
+         cols = Math.max(cols, row.length);
+         if (rows.size() == maxRows)
+            break;
+      }
+
+      // a header with one field fewer than the rows names all but the
+      // first column, which is used for row names (and so not shown)
+      int firstCol = 0;
+      if (names != null && names.length == cols - 1)
+         firstCol = 1;
+      cols = Math.max(cols, names == null ? 0 : names.length + firstCol);
+
+      HashSet<String> used = new HashSet<String>();
+      for (int col = firstCol; col < cols; col++)
+      {
+         String name = names == null ? "V" + (col + 1) :
+                       col - firstCol < names.length ?
+                             makeName(names[col - firstCol]) :
+                             "V" + (col + 1);
+         Column column = new Column(makeUnique(name, used));
+         for (String[] row : rows)
+            column.values.add(col < row.length ? row[col] : null);
+         convertColumn(column);
+         columns_.add(column);
+      }
+   }
+
+   public ArrayList<Column> getColumns()
+   {
+      return columns_;
+   }
+
+   public SafeHtml toHtml(String headerStyle, String numericStyle)
+   {
+      SafeHtmlBuilder html = new SafeHtmlBuilder();
+      html.appendHtmlConstant("<table cellpadding=\"0\" cellspacing=\"0\">");
+      html.appendHtmlConstant("<tr class=\"" + headerStyle + "\">");
+      for (Column column : columns_)
+      {
+         html.appendHtmlConstant("<td>");
+         html.appendEscaped(column.name);
+         html.appendHtmlConstant("</td>");
+      }
+      html.appendHtmlConstant("</tr>");
+
+      int rows = columns_.isEmpty() ? 0 : columns_.get(0).values.size();
+      for (int row = 0; row < rows; row++)
+      {
+         html.appendHtmlConstant("<tr>");
+         for (Column column : columns_)
+         {
+            boolean numeric = column.type == TYPE_INTEGER ||
+                              column.type == TYPE_NUMERIC;
+            html.appendHtmlConstant(numeric ?
+                  "<td class=\"" + numericStyle + "\">" : "<td>");
+            String value = column.values.get(row);
+            if (value == null)
+               value = column.type == TYPE_CHARACTER ? "<NA>" : "NA";
+            html.appendEscaped(value);
+            html.appendHtmlConstant("</td>");
+         }
+         html.appendHtmlConstant("</tr>");
+      }
+
+      html.appendHtmlConstant("</table>");
+      return html.toSafeHtml();
+   }
+
+   // Gives the column the first type all of its values fit, and formats its
+   // values for that type; blank values are NA except in character columns
+   private void convertColumn(Column column)
+   {
+      boolean logical = true;
+      boolean integer = true;
+      boolean numeric = true;
+      for (int i = 0; i < column.values.size(); i++)
+      {
+         String value = column.values.get(i);
+         if (value != null && naStrings_.contains(value))
+            column.values.set(i, value = null);
+         if (value == null || value.trim().length() == 0)
+            continue;
+
+         value = value.trim();
+         logical = logical && LOGICAL_VALUES.contains(value);
+         integer = integer && value.matches("[-+]?[0-9]{1,9}");
+         numeric = numeric && toNumber(value) != null;
+      }
+
+      if (logical)
+         column.type = TYPE_LOGICAL;
+      else if (integer)
+         column.type = TYPE_INTEGER;
+      else if (numeric)
+         column.type = TYPE_NUMERIC;
+      else
+         return;
+
+      // numbers are shown with as many decimal places as the most precise
+      int decimals = 0;
+      for (int i = 0; i < column.values.size(); i++)
+      {
+         String value = column.values.get(i);
+         if (value == null || value.trim().length() == 0)
+         {
+            column.values.set(i, null);
+            continue;
+         }
+
+         value = value.trim();
+         if (column.type == TYPE_LOGICAL)
+            value = value.toUpperCase().startsWith("T") ? "TRUE" : "FALSE";
+         else if (column.type == TYPE_INTEGER)
+            value = String.valueOf(Integer.parseInt(value.replace("+", "")));
+         else
+            value = toNumber(value);
+         column.values.set(i, value);
+
+         int point = value.indexOf('.');
+         if (column.type == TYPE_NUMERIC && point >= 0 &&
+             value.indexOf('e') < 0)
+         {
+            decimals = Math.max(decimals, value.length() - point - 1);
+         }
+      }
+
+      if (column.type != TYPE_NUMERIC || decimals == 0)
+         return;
+
+      decimals = Math.min(decimals, MAX_DECIMALS);
+      for (int i = 0; i < column.values.size(); i++)
+      {
+         String value = column.values.get(i);
+         if (value == null || value.indexOf('e') >= 0)
+            continue;
+
+         int point = value.indexOf('.');
+         if (point < 0)
+         {
+            value += ".";
+            point = value.length() - 1;
+         }
+         int places = value.length() - point - 1;
+         if (places > decimals)
+            value = value.substring(0, point + decimals + 1);
+         while (places++ < decimals)
+            value += "0";
+         column.values.set(i, value);
+      }
+   }
+
+   // The value as a number written with a period for the decimal point,
+   // or null if it isn't a number
+   private String toNumber(String value)
+   {
+      if (decimal_ != '.')
+      {
+         if (value.indexOf('.') >= 0)
+            return null;
+         value = value.replace(decimal_, '.');
+      }
+
+      if (value.matches("[-+]?([0-9]+\\.?[0-9]*|\\.[0-9]+)([eE][-+]?[0-9]+)?"))
+      {
+         if (value.startsWith("+"))
+            value = value.substring(1);
+         if (value.startsWith("."))
+            value = "0" + value;
+         else if (value.startsWith("-."))
+            value = "-0" + value.substring(1);
+         return value.toLowerCase();
+      }
+
+      if (value.matches("-?(Inf|NaN)"))
+         return value;
+
+      return null;
+   }
+
+   // as make.names
+   private static String makeName(String name)
+   {
+      name = name.replaceAll("[^A-Za-z0-9._]", ".");
+      if (!name.matches("([A-Za-z]|[.]([^0-9]|$)).*"))
+         name = "X" + name;
+      return name;
+   }
+
+   // as make.unique
+   private static String makeUnique(String name, HashSet<String> used)
+   {
+      String unique = name;
+      for (int i = 1; used.contains(unique); i++)
+         unique = name + "." + i;
+      used.add(unique);
+      return unique;
+   }
+
+   private final char decimal_;
+   private final HashSet<String> naStrings_ = new HashSet<String>();
+   private final ArrayList<Column> columns_ = new ArrayList<Column>();
+
+   public static final int TYPE_CHARACTER = 0;
+   public static final int TYPE_LOGICAL = 1;
+   public static final int TYPE_INTEGER = 2;
+   public static final int TYPE_NUMERIC = 3;
+
+   private static final int MAX_DECIMALS = 7;
+
+   private static final HashSet<String> LOGICAL_VALUES = new HashSet<String>();
+   static
+   {
+      for (String value : new String[] {
+            "T", "F", "TRUE", "FALSE", "True", "False", "true", "false" })
+      {
+         LOGICAL_VALUES.add(value);
+      }
+   }
+}
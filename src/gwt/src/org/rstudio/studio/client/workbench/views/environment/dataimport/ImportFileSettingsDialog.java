@@ -15,11 +15,12 @@
 package org.rstudio.studio.client.workbench.views.environment.dataimport;
 
 import com.google.gwt.core.client.GWT;
-import com.google.gwt.core.client.JsArray;
 import com.google.gwt.core.client.JsArrayString;
 import com.google.gwt.dom.client.TextAreaElement;
 import com.google.gwt.event.dom.client.ChangeEvent;
 import com.google.gwt.event.dom.client.ChangeHandler;
+import com.google.gwt.event.dom.client.KeyUpEvent;
+import com.google.gwt.event.dom.client.KeyUpHandler;
 import com.google.gwt.event.logical.shared.ValueChangeEvent;
 import com.google.gwt.event.logical.shared.ValueChangeHandler;
 import com.google.gwt.resources.client.ClientBundle;
@@ -31,7 +32,6 @@ import com.google.gwt.user.client.ui.*;
 import org.rstudio.core.client.Invalidation;
 import org.rstudio.core.client.Invalidation.Token;
 import org.rstudio.core.client.files.FileSystemItem;
-import org.rstudio.core.client.js.JsObject;
 import org.rstudio.core.client.widget.ModalDialog;
 import org.rstudio.core.client.widget.OperationWithInput;
 import org.rstudio.core.client.widget.ProgressIndicator;
@@ -62,6 +62,7 @@ public class ImportFileSettingsDialog extends ModalDialog<ImportFileSettingsDial
       String header();
       String leftPanel();
       String list();
+      String numeric();
    }
 
    interface MyBinder extends UiBinder<Widget, ImportFileSettingsDialog> {}
@@ -182,30 +183,60 @@ public class ImportFileSettingsDialog extends ModalDialog<ImportFileSettingsDial
       separator_.addChangeHandler(changeHandler);
       decimal_.addChangeHandler(changeHandler);
       quote_.addChangeHandler(changeHandler);
-      encoding_.addChangeHandler(changeHandler);
       comment_.addChangeHandler(changeHandler);
+
+      naStrings_.addKeyUpHandler(new KeyUpHandler()
+      {
+         public void onKeyUp(KeyUpEvent event)
+         {
+            updateOutput();
+         }
+      });
+
+      // the file's lines need to be read again in a different encoding
+      encoding_.addChangeHandler(new ChangeHandler()
+      {
+         public void onChange(ChangeEvent event)
+         {
+            loadPreviewLines();
+         }
+      });
    }
 
+   // Parses the preview lines with the current settings; this happens
+   // here rather than on the server, so it's quick enough to do as the
+   // settings change
    private void updateOutput()
    {
-      if (separator_.getSelectedIndex() < 0
+      if (previewLines_ == null
+          || separator_.getSelectedIndex() < 0
           || quote_.getSelectedIndex() < 0
           || decimal_.getSelectedIndex() < 0)
       {
          return;
       }
 
+      DelimitedDataPreview preview = new DelimitedDataPreview(
+            previewLines_,
+            headingYes_.getValue().booleanValue(),
+            separator_.getValue(separator_.getSelectedIndex()),
+            quote_.getValue(quote_.getSelectedIndex()),
+            decimal_.getValue(decimal_.getSelectedIndex()),
+            comment_.getValue(comment_.getSelectedIndex()),
+            new String[] { naStrings_.getText().trim() },
+            PREVIEW_ROWS);
+      outputPanel_.setWidget(new HTML(preview.toHtml(styles_.header(),
+                                                     styles_.numeric())));
+   }
+
+   private void loadPreviewLines()
+   {
       updateRequest_.invalidate();
       final Token invalidationToken = updateRequest_.getInvalidationToken();
       progress_.onProgress("Updating preview");
-      server_.getOutputPreview(
+      server_.getDataPreviewLines(
             dataFile_.getPath(),
             encoding_.getValue(encoding_.getSelectedIndex()),
-            headingYes_.getValue().booleanValue(),
-            separator_.getValue(separator_.getSelectedIndex()),
-            decimal_.getValue(decimal_.getSelectedIndex()),
-            quote_.getValue(quote_.getSelectedIndex()),
-            comment_.getValue(comment_.getSelectedIndex()),
             new ServerRequestCallback<DataPreviewResult>()
             {
                @Override
@@ -215,7 +246,8 @@ public class ImportFileSettingsDialog extends ModalDialog<ImportFileSettingsDial
                      return;
 
                   progress_.onProgress(null);
-                  populateOutput(response);
+                  previewLines_ = response.getPreviewLines();
+                  updateOutput();
                }
 
                @Override
@@ -250,7 +282,7 @@ public class ImportFileSettingsDialog extends ModalDialog<ImportFileSettingsDial
                      return;
                   
                   progress_.onProgress(null);
-                  populateOutput(response);
+                  previewLines_ = response.getPreviewLines();
                   if (response.hasHeader())
                      headingYes_.setValue(true);
                   else
@@ -263,6 +295,8 @@ public class ImportFileSettingsDialog extends ModalDialog<ImportFileSettingsDial
                   
                   defaultStringsAsFactors_ = response.getDefaultStringsAsFactors();
                   stringsAsFactors_.setValue(defaultStringsAsFactors_);
+
+                  updateOutput();
                }
 
                @Override
@@ -301,34 +335,6 @@ public class ImportFileSettingsDialog extends ModalDialog<ImportFileSettingsDial
       return v1.equals(v2);
    }
 
-   private void populateOutput(DataPreviewResult result)
-   {
-      JsArray<JsObject> output = result.getOutput();
-      JsArrayString names = result.getOutputNames();
-
-      int rows = output.length();
-      int cols = names.length();
-      Grid grid = new Grid(rows + 1, cols);
-      grid.setCellPadding(0);
-      grid.setCellSpacing(0);
-      grid.getRowFormatter().addStyleName(0, styles_.header());
-      for (int col = 0; col < cols; col++)
-         grid.setText(0, col, names.get(col));
-
-      for (int row = 0; row < rows; row++)
-      {
-         for (int col = 0; col < cols; col++)
-         {
-            String val = output.get(row).getString(names.get(col), true);
-            if (val == null)
-               val = "NA";
-            grid.setText(row + 1, col, val);
-         }
-      }
-
-      outputPanel_.setWidget(grid);
-   }
-
    private String toInputHtml(DataPreviewResult response)
    {
       String input = response.getInputLines();
@@ -425,6 +431,8 @@ public class ImportFileSettingsDialog extends ModalDialog<ImportFileSettingsDial
    private ProgressIndicator progress_;
    private final Invalidation updateRequest_ = new Invalidation();
    private final Styles styles_;
+   private String previewLines_;
    
    private static final String autoValue = "Auto";
+   private static final int PREVIEW_ROWS = 20;
 }
@@ -15,9 +15,6 @@
 package org.rstudio.studio.client.workbench.views.environment.model;
 
 import com.google.gwt.core.client.JavaScriptObject;
-import com.google.gwt.core.client.JsArray;
-import com.google.gwt.core.client.JsArrayString;
-import org.rstudio.core.client.js.JsObject;
 
 public class DataPreviewResult extends JavaScriptObject
 {
@@ -29,18 +26,15 @@ public class DataPreviewResult extends JavaScriptObject
       return this.inputLines[0];
    }-*/;
 
-   public final native JsArray<JsObject> getOutput() /*-{
-      return this.output;
+   // the first lines of the file, for parsing with the chosen settings
+   public final native String getPreviewLines() /*-{
+      return this.previewLines[0];
    }-*/;
 
    public final native String getEncoding() /*-{
       return this.encoding[0];
    }-*/;
 
-   public final native JsArrayString getOutputNames() /*-{
-      return this.outputNames;
-   }-*/;
-
    public final native boolean hasHeader() /*-{
       return this.header[0];
    }-*/;
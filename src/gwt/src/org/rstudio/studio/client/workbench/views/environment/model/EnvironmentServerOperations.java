@@ -38,14 +38,9 @@ public interface EnvironmentServerOperations
            String dataFilePath,
            ServerRequestCallback<DataPreviewResult> requestCallback);
 
-   void getOutputPreview(
+   void getDataPreviewLines(
            String dataFilePath,
            String encoding,
-           boolean heading,
-           String separator,
-           String decimal,
-           String quote,
-           String comment,
            ServerRequestCallback<DataPreviewResult> requestCallback);
 
    void setContextDepth(int newContextDepth,
@@ -33,6 +33,7 @@ import com.google.gwt.user.client.ui.*;
 import com.google.gwt.view.client.ListDataProvider;
 
 import org.rstudio.core.client.Debug;
+import org.rstudio.core.client.ElementIds;
 import org.rstudio.core.client.cellview.AutoHidingSplitLayoutPanel;
 import org.rstudio.core.client.widget.FontSizer;
 import org.rstudio.core.client.widget.Operation;
@@ -68,6 +69,7 @@ public class EnvironmentObjects extends ResizeComposite
       callFramePanel_ = new CallFramePanel(observer_, this);
 
       initWidget(GWT.<Binder>create(Binder.class).createAndBindUi(this));
+      ElementIds.assignElementId(getElement(), ElementIds.ENVIRONMENT_OBJECTS);
 
       splitPanel.addSouth(callFramePanel_, 150);
       splitPanel.setWidgetMinSize(callFramePanel_, style.headerRowHeight());
@@ -39,6 +39,7 @@ import org.rstudio.studio.client.server.*;
 import org.rstudio.studio.client.workbench.WorkbenchContext;
 import org.rstudio.studio.client.workbench.WorkbenchView;
 import org.rstudio.studio.client.workbench.commands.Commands;
+import org.rstudio.studio.client.workbench.events.SessionReinitEvent;
 import org.rstudio.studio.client.workbench.model.ClientInitState;
 import org.rstudio.studio.client.workbench.model.ClientState;
 import org.rstudio.studio.client.workbench.model.RemoteFileSystemContext;
@@ -59,7 +60,8 @@ public class Files
       extends BasePresenter
       implements FileChangeHandler, 
                  OpenFileInBrowserHandler,
-                 DirectoryNavigateHandler
+                 DirectoryNavigateHandler,
+                 SessionReinitEvent.Handler
 {
    interface Binder extends CommandBinder<Commands, Files> {}
 
@@ -148,6 +150,7 @@ public class Files
 
       
       eventBus_.addHandler(FileChangeEvent.TYPE, this);
+      eventBus_.addHandler(SessionReinitEvent.TYPE, this);
 
       initSession();
    }
@@ -256,6 +259,15 @@ public class Files
    
    
 
+   // start over when the workbench is handed a new session: the directory
+   // state value then navigates to the new project's last directory (or
+   // the session's initial working directory)
+   @Override
+   public void onSessionReinit(SessionReinitEvent event)
+   {
+      hasNavigatedToDirectory_ = false;
+   }
+
    public Display getDisplay()
    {
       return view_ ;
@@ -14,6 +14,7 @@
  */
 package org.rstudio.studio.client.workbench.views.help.model;
 
+import com.google.gwt.core.client.JsArray;
 import com.google.gwt.core.client.JsArrayString;
 import org.rstudio.studio.client.server.ServerRequestCallback;
 
@@ -21,6 +22,12 @@ public interface HelpServerOperations
 {
    void suggestTopics(String prefix,
                       ServerRequestCallback<JsArrayString> requestCallback);
+   
+   // get the help topics for the given packages (or for all attached
+   // packages if the array is empty)
+   void getHelpTopics(
+               JsArrayString packages,
+               ServerRequestCallback<JsArray<PackageHelpTopics>> requestCallback);
 
    void getHelp(String topic, 
                 String packageName,
@@ -17,6 +17,9 @@ package org.rstudio.studio.client.workbench.views.help.search;
 import com.google.gwt.core.client.JsArrayString;
 import com.google.gwt.user.client.ui.SuggestOracle;
 import com.google.inject.Inject;
+
+import org.rstudio.core.client.Invalidation;
+import org.rstudio.core.client.TimeBufferedCommand;
 import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.workbench.views.help.model.HelpServerOperations;
@@ -26,38 +29,98 @@ import java.util.ArrayList;
 public class HelpSearchOracle extends SuggestOracle
 {
    @Inject
-   public HelpSearchOracle(HelpServerOperations server)
+   public HelpSearchOracle(HelpServerOperations server,
+                           HelpTopicIndex topicIndex)
    {
       server_ = server ;
+      topicIndex_ = topicIndex;
    }
 
    @Override
-   public void requestSuggestions(final Request request, 
+   public void requestSuggestions(final Request request,
                                   final Callback callback)
    {
-      String query = request.getQuery() ;
-      server_.suggestTopics(query,
-                             new ServerRequestCallback<JsArrayString>() {
-         @Override
-         public void onError(ServerError error)
-         {
-         }
-
-         @Override
-         public void onResponseReceived(JsArrayString suggestions)
-         {
-            int maxCount = Math.min(suggestions.length(), request.getLimit());
-
-            ArrayList<SearchSuggestion> results =
-               new ArrayList<SearchSuggestion>() ;
-            for (int i = 0; i< maxCount; i++)
-               results.add(new SearchSuggestion(suggestions.get(i))) ;
-            
-            callback.onSuggestionsReady(request, new Response(results)) ;
-         }
-      }); ;
+      // any outstanding server request is now stale
+      invalidation_.invalidate();
+
+      // answer locally once the topic index is available
+      topicIndex_.ensureLoaded();
+      if (topicIndex_.isReady())
+      {
+         ArrayList<String> topics = topicIndex_.getSuggestions(
+                                       request.getQuery(), request.getLimit());
+         callback.onSuggestionsReady(request, createResponse(topics));
+         return;
+      }
+
+      // otherwise ask the server, once the user pauses typing
+      suggestCommand_.enqueRequest(request, callback);
+   }
+
+   private Response createResponse(ArrayList<String> topics)
+   {
+      ArrayList<SearchSuggestion> results =
+         new ArrayList<SearchSuggestion>() ;
+      for (String topic : topics)
+         results.add(new SearchSuggestion(topic)) ;
+      return new Response(results);
    }
-   
+
+   private class SuggestTopicsCommand extends TimeBufferedCommand
+   {
+      public SuggestTopicsCommand()
+      {
+         super(200);
+      }
+
+      public void enqueRequest(Request request, Callback callback)
+      {
+         request_ = request;
+         callback_ = callback;
+         invalidationToken_ = invalidation_.getInvalidationToken();
+         nudge();
+      }
+
+      @Override
+      protected void performAction(boolean shouldSchedulePassive)
+      {
+         final Request request = request_;
+         final Callback callback = callback_;
+         final Invalidation.Token token = invalidationToken_;
+         if (token.isInvalid())
+            return;
+
+         server_.suggestTopics(request.getQuery(),
+                               new ServerRequestCallback<JsArrayString>() {
+            @Override
+            public void onError(ServerError error)
+            {
+            }
+
+            @Override
+            public void onResponseReceived(JsArrayString suggestions)
+            {
+               // drop responses to queries the user has since changed
+               if (token.isInvalid())
+                  return;
+
+               int maxCount = Math.min(suggestions.length(),
+                                       request.getLimit());
+
+               ArrayList<String> topics = new ArrayList<String>();
+               for (int i = 0; i< maxCount; i++)
+                  topics.add(suggestions.get(i)) ;
+
+               callback.onSuggestionsReady(request, createResponse(topics)) ;
+            }
+         });
+      }
+
+      private Request request_;
+      private Callback callback_;
+      private Invalidation.Token invalidationToken_;
+   }
+
    private class SearchSuggestion implements Suggestion
    {
       public SearchSuggestion(String value)
@@ -74,9 +137,13 @@ public class HelpSearchOracle extends SuggestOracle
       {
          return value_ ;
       }
-      
+
       private final String value_ ;
    }
 
    private final HelpServerOperations server_ ;
+   private final HelpTopicIndex topicIndex_;
+   private final Invalidation invalidation_ = new Invalidation();
+   private final SuggestTopicsCommand suggestCommand_ =
+                                             new SuggestTopicsCommand();
 }
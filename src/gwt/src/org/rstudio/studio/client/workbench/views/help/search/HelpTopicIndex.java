@@ -0,0 +1,283 @@
+/*
+ * HelpTopicIndex.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.help.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import org.rstudio.core.client.StringUtil;
+import org.rstudio.studio.client.application.events.EventBus;
+import org.rstudio.studio.client.server.ServerError;
+import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.workbench.codesearch.CodeSearchOracle;
+import org.rstudio.studio.client.workbench.views.help.model.HelpServerOperations;
+import org.rstudio.studio.client.workbench.views.help.model.PackageHelpTopics;
+import org.rstudio.studio.client.workbench.views.packages.events.PackageStateChangedEvent;
+import org.rstudio.studio.client.workbench.views.packages.events.PackageStateChangedHandler;
+import org.rstudio.studio.client.workbench.views.packages.events.PackageStatusChangedEvent;
+import org.rstudio.studio.client.workbench.views.packages.events.PackageStatusChangedHandler;
+import org.rstudio.studio.client.workbench.views.packages.model.PackageStatus;
+
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayString;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+// A client-side index of the help topics in the attached packages, so
+// that topic suggestions can be answered without a server round trip per
+// keystroke. The full index is fetched lazily on first use and whenever
+// the installed packages change; attaching or detaching a single package
+// updates just that package's topics.
+@Singleton
+public class HelpTopicIndex implements PackageStateChangedHandler,
+                                       PackageStatusChangedHandler
+{
+   @Inject
+   public HelpTopicIndex(HelpServerOperations server, EventBus events)
+   {
+      server_ = server;
+      events.addHandler(PackageStateChangedEvent.TYPE, this);
+      events.addHandler(PackageStatusChangedEvent.TYPE, this);
+   }
+
+   public boolean isReady()
+   {
+      return loaded_;
+   }
+
+   // Starts loading the index if it isn't loaded (or loading) already
+   public void ensureLoaded()
+   {
+      if (loaded_ || loading_)
+         return;
+
+      loading_ = true;
+      final int generation = ++generation_;
+      JsArrayString allAttached = JsArrayString.createArray().cast();
+      server_.getHelpTopics(allAttached,
+            new ServerRequestCallback<JsArray<PackageHelpTopics>>()
+      {
+         @Override
+         public void onResponseReceived(JsArray<PackageHelpTopics> response)
+         {
+            // a newer load superseded this one
+            if (generation != generation_)
+               return;
+
+            loading_ = false;
+            topicsByPackage_.clear();
+            addPackages(response);
+            loaded_ = true;
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            // leave the index unloaded; suggestions fall back to the server
+            if (generation == generation_)
+               loading_ = false;
+         }
+      });
+   }
+
+   // Returns up to 'limit' topics: those starting with the query (in sorted
+   // order, as R's own topic completion does) followed by topics that
+   // contain the query's characters in order, best matches first
+   public ArrayList<String> getSuggestions(String query, int limit)
+   {
+      ArrayList<String> results = new ArrayList<String>();
+      if (!loaded_ || query.length() == 0)
+         return results;
+
+      ensureSorted();
+
+      // prefix matches
+      HashSet<String> seen = new HashSet<String>();
+      for (int i = lowerBound(query);
+           i < topics_.length && results.size() < limit;
+           i++)
+      {
+         if (!topics_[i].startsWith(query))
+            break;
+         results.add(topics_[i]);
+         seen.add(topics_[i]);
+      }
+
+      if (results.size() >= limit)
+         return results;
+
+      // fuzzy (subsequence) matches
+      final String queryLower = query.toLowerCase();
+      ArrayList<String> fuzzy = new ArrayList<String>();
+      for (int i = 0; i < topics_.length; i++)
+      {
+         if (!seen.contains(topics_[i]) &&
+             StringUtil.isSubsequence(topicsLower_[i], queryLower))
+         {
+            fuzzy.add(topics_[i]);
+         }
+      }
+
+      final HashMap<String, Integer> scores = new HashMap<String, Integer>();
+      for (String topic : fuzzy)
+         scores.put(topic, CodeSearchOracle.scoreMatch(topic, query, false));
+
+      Collections.sort(fuzzy, new Comparator<String>()
+      {
+         @Override
+         public int compare(String a, String b)
+         {
+            int result = scores.get(a) - scores.get(b);
+            if (result == 0)
+               result = a.length() - b.length();
+            if (result == 0)
+               result = a.compareTo(b);
+            return result;
+         }
+      });
+
+      for (int i = 0; i < fuzzy.size() && results.size() < limit; i++)
+         results.add(fuzzy.get(i));
+
+      return results;
+   }
+
+   @Override
+   public void onPackageStateChanged(PackageStateChangedEvent event)
+   {
+      // packages may have been installed, updated or removed; reload the
+      // whole index the next time it's needed
+      invalidate();
+   }
+
+   @Override
+   public void onPackageStatusChanged(PackageStatusChangedEvent event)
+   {
+      PackageStatus status = event.getPackageStatus();
+      final String name = status.getName();
+
+      if (loading_)
+      {
+         // the in-flight load may or may not reflect this change
+         invalidate();
+         return;
+      }
+
+      if (!loaded_)
+         return;
+
+      if (!status.isLoaded())
+      {
+         if (topicsByPackage_.remove(name) != null)
+            sorted_ = false;
+         return;
+      }
+
+      JsArrayString packages = JsArrayString.createArray().cast();
+      packages.push(name);
+      final int generation = generation_;
+      server_.getHelpTopics(packages,
+            new ServerRequestCallback<JsArray<PackageHelpTopics>>()
+      {
+         @Override
+         public void onResponseReceived(JsArray<PackageHelpTopics> response)
+         {
+            if (generation == generation_ && loaded_)
+               addPackages(response);
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            // we can't tell which topics are missing, so start over
+            if (generation == generation_)
+               invalidate();
+         }
+      });
+   }
+
+   private void invalidate()
+   {
+      generation_++;
+      loaded_ = false;
+      loading_ = false;
+      topicsByPackage_.clear();
+      topics_ = new String[0];
+      topicsLower_ = new String[0];
+      sorted_ = true;
+   }
+
+   private void addPackages(JsArray<PackageHelpTopics> packages)
+   {
+      for (int i = 0; i < packages.length(); i++)
+      {
+         PackageHelpTopics pkg = packages.get(i);
+         topicsByPackage_.put(pkg.getPackage(), pkg.getTopics());
+      }
+      sorted_ = false;
+   }
+
+   // Rebuilds the sorted, de-duplicated topic list after a change
+   private void ensureSorted()
+   {
+      if (sorted_)
+         return;
+
+      HashSet<String> unique = new HashSet<String>();
+      for (JsArrayString topics : topicsByPackage_.values())
+      {
+         for (int i = 0; i < topics.length(); i++)
+            unique.add(topics.get(i));
+      }
+
+      topics_ = unique.toArray(new String[unique.size()]);
+      Arrays.sort(topics_);
+      topicsLower_ = new String[topics_.length];
+      for (int i = 0; i < topics_.length; i++)
+         topicsLower_[i] = topics_[i].toLowerCase();
+      sorted_ = true;
+   }
+
+   // index of the first topic not less than the query
+   private int lowerBound(String query)
+   {
+      int lo = 0;
+      int hi = topics_.length;
+      while (lo < hi)
+      {
+         int mid = (lo + hi) >>> 1;
+         if (topics_[mid].compareTo(query) < 0)
+            lo = mid + 1;
+         else
+            hi = mid;
+      }
+      return lo;
+   }
+
+   private final HelpServerOperations server_;
+   private final HashMap<String, JsArrayString> topicsByPackage_ =
+         new HashMap<String, JsArrayString>();
+
+   private String[] topics_ = new String[0];
+   private String[] topicsLower_ = new String[0];
+   private boolean sorted_ = true;
+   private boolean loaded_ = false;
+   private boolean loading_ = false;
+   private int generation_ = 0;
+}
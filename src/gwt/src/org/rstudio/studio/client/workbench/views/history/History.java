@@ -47,6 +47,7 @@ import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.server.VoidServerRequestCallback;
 import org.rstudio.studio.client.workbench.WorkbenchView;
 import org.rstudio.studio.client.workbench.commands.Commands;
+import org.rstudio.studio.client.workbench.events.SessionReinitEvent;
 import org.rstudio.studio.client.workbench.model.ClientState;
 import org.rstudio.studio.client.workbench.model.Session;
 import org.rstudio.studio.client.workbench.model.helper.StringStateValue;
@@ -310,6 +311,24 @@ public class History extends BasePresenter implements SelectionCommitHandler<Voi
          }
       };
 
+      events_.addHandler(SessionReinitEvent.TYPE, 
+                         new SessionReinitEvent.Handler()
+      {
+         @Override
+         public void onSessionReinit(SessionReinitEvent event)
+         {
+            // show the new session's history instead
+            view_.dismissContext();
+            searchCommand_.dismissResults();
+            loadRecentCommands();
+         }
+      });
+
+      loadRecentCommands();
+   }
+
+   private void loadRecentCommands()
+   {
       server_.getRecentHistory(
             COMMAND_CHUNK_SIZE,
             new ServerRequestCallback<RpcObjectList<HistoryEntry>>()
@@ -68,10 +68,18 @@ public class CompilePdfOutputTab
          @Override
          public void onSessionInit(SessionInitEvent sie)
          {    
-            SessionInfo sessionInfo = session.getSessionInfo();
-            CompilePdfState compilePdfState = sessionInfo.getCompilePdfState();
-            if (compilePdfState.isTabVisible())
-               shim_.initialize(compilePdfState);
+            session.whenSectionReady(SessionInfo.COMPILE_PDF_STATE,
+                                     new Command()
+            {
+               @Override
+               public void execute()
+               {
+                  CompilePdfState compilePdfState =
+                        session.getSessionInfo().getCompilePdfState();
+                  if (compilePdfState.isTabVisible())
+                     shim_.initialize(compilePdfState);
+               }
+            });
          }
       });
    }
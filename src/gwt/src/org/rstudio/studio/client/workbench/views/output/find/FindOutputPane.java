@@ -15,29 +15,29 @@
 package org.rstudio.studio.client.workbench.views.output.find;
 
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.dom.client.DivElement;
 import com.google.gwt.dom.client.NativeEvent;
-import com.google.gwt.dom.client.TableRowElement;
 import com.google.gwt.event.dom.client.*;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
+import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.ui.Label;
-import com.google.gwt.user.client.ui.ScrollPanel;
 import com.google.gwt.user.client.ui.SimplePanel;
 import com.google.gwt.user.client.ui.Widget;
 import com.google.inject.Inject;
 import org.rstudio.core.client.CodeNavigationTarget;
-import org.rstudio.core.client.dom.DomUtils;
+import org.rstudio.core.client.FilePosition;
 import org.rstudio.core.client.events.EnsureVisibleEvent;
 import org.rstudio.core.client.events.HasSelectionCommitHandlers;
 import org.rstudio.core.client.events.SelectionCommitEvent;
 import org.rstudio.core.client.events.SelectionCommitHandler;
 import org.rstudio.core.client.widget.*;
+import org.rstudio.core.client.widget.events.SelectionChangedEvent;
 import org.rstudio.core.client.widget.events.SelectionChangedHandler;
 import org.rstudio.studio.client.workbench.commands.Commands;
 import org.rstudio.studio.client.workbench.ui.WorkbenchPane;
 import org.rstudio.studio.client.workbench.views.output.find.model.FindResult;
-
-import java.util.ArrayList;
+import org.rstudio.studio.client.workbench.views.output.find.model.FindResultSummary;
 
 
 public class FindOutputPane extends WorkbenchPane
@@ -65,6 +65,8 @@ public class FindOutputPane extends WorkbenchPane
             (ClickHandler) null);
       stopSearch_.setVisible(false);
 
+      matchCountLabel_ = new Label();
+      toolbar.addRightWidget(matchCountLabel_);
       toolbar.addRightWidget(stopSearch_);
 
 
@@ -74,19 +76,51 @@ public class FindOutputPane extends WorkbenchPane
    @Override
    protected Widget createMainWidget()
    {
-      context_ = new FindResultContext();
+      context_ = new FindResultContext(new Command()
+      {
+         @Override
+         public void execute()
+         {
+            list_.invalidate();
+         }
+      });
 
       FindOutputResources resources = GWT.create(FindOutputResources.class);
-      resources.styles().ensureInjected();
-
-      table_ = new FastSelectTable<FindResult, CodeNavigationTarget, Object>(
-            new FindOutputCodec(resources),
-            resources.styles().selectedRow(),
-            true,
-            false);
-      FontSizer.applyNormalFontSize(table_);
-      table_.addStyleName(resources.styles().findOutput());
-      table_.addClickHandler(new ClickHandler()
+      styles_ = resources.styles();
+      styles_.ensureInjected();
+
+      list_ = new VirtualizedList(ROW_HEIGHT, new VirtualizedList.RowRenderer()
+      {
+         @Override
+         public void renderRow(int index, DivElement row)
+         {
+            FindOutputPane.this.renderRow(index, row);
+         }
+      });
+      FontSizer.applyNormalFontSize(list_);
+      list_.addStyleName(styles_.findOutput());
+      list_.setSize("100%", "100%");
+
+      list_.addMouseDownHandler(new MouseDownHandler()
+      {
+         @Override
+         public void onMouseDown(MouseDownEvent event)
+         {
+            if (event.getNativeButton() != NativeEvent.BUTTON_LEFT)
+               return;
+
+            int index = list_.getRowIndex(event.getNativeEvent().getEventTarget());
+            FindResultContext.Row row = context_.getRow(index);
+            if (row == null)
+               return;
+
+            setSelectedRow(row);
+            if (row.isHeader())
+               toggleExpanded(row.getFile());
+         }
+      });
+
+      list_.addClickHandler(new ClickHandler()
       {
          @Override
          public void onClick(ClickEvent event)
@@ -101,15 +135,16 @@ public class FindOutputPane extends WorkbenchPane
          private final DoubleClickState dblClick_ = new DoubleClickState();
       });
 
-      table_.addKeyDownHandler(new KeyDownHandler()
+      list_.addKeyDownHandler(new KeyDownHandler()
       {
          @Override
          public void onKeyDown(KeyDownEvent event)
          {
-            if (event.getNativeKeyCode() == KeyCodes.KEY_ENTER)
-               fireSelectionCommitted();
-            event.stopPropagation();
-            event.preventDefault();
+            if (handleKeyDown(event.getNativeKeyCode()))
+            {
+               event.stopPropagation();
+               event.preventDefault();
+            }
          }
       });
 
@@ -117,45 +152,187 @@ public class FindOutputPane extends WorkbenchPane
       container_.setSize("100%", "100%");
       statusPanel_ = new StatusPanel();
       statusPanel_.setSize("100%", "100%");
-      scrollPanel_ = new ScrollPanel(table_);
-      scrollPanel_.setSize("100%", "100%");
-      container_.setWidget(scrollPanel_);
+      container_.setWidget(list_);
       return container_;
    }
 
+   private void renderRow(int index, DivElement row)
+   {
+      FindResultContext.Row item = context_.getRow(index);
+      if (item == null)
+      {
+         row.setInnerText("");
+         return;
+      }
+
+      SafeHtmlBuilder builder = new SafeHtmlBuilder();
+      FindResultContext.File file = item.getFile();
+      if (item.isHeader())
+      {
+         row.setClassName(styles_.headerRow());
+         builder.appendHtmlConstant("<span class=\"" + styles_.disclosure() + "\">")
+                .appendEscaped(file.isExpanded() ? "\u25BE" : "\u25B8")
+                .appendHtmlConstant("</span>")
+                .appendEscaped(file.getPath())
+                .appendHtmlConstant("<span class=\"" + styles_.matchCount() + "\">")
+                .appendEscaped(" (" + file.getCount() + ")")
+                .appendHtmlConstant("</span>");
+      }
+      else
+      {
+         // rows whose match is still loading are left blank until it arrives
+         FindResult match = item.getMatch();
+         row.setClassName(styles_.matchRow());
+
+         // right-align line numbers by padding to the widest line number
+         // (the font is fixed width)
+         String line = match == null ? "" : match.getLine() + "";
+         StringBuilder padded = new StringBuilder();
+         for (int i = line.length(); i < context_.getMaxLineWidth(); i++)
+            padded.append('\u00A0');
+         padded.append(line).append(match == null ? "\u00A0\u00A0" : ":\u00A0");
+
+         builder.appendHtmlConstant("<span class=\"" + styles_.line() + "\">")
+                .appendEscaped(padded.toString())
+                .appendHtmlConstant("</span>");
+         if (match != null)
+         {
+            builder.appendHtmlConstant("<span class=\"" + styles_.lineValue() + "\">")
+                   .append(match.getLineHTML())
+                   .appendHtmlConstant("</span>");
+         }
+      }
+
+      if (selectedRow_ != null && context_.indexOf(selectedRow_) == index)
+         row.addClassName(styles_.selectedRow());
+
+      row.setInnerHTML(builder.toSafeHtml().asString());
+   }
+
+   private boolean handleKeyDown(int keyCode)
+   {
+      int rowCount = context_.getRowCount();
+      if (rowCount == 0)
+         return false;
+
+      int current = selectedRow_ == null ? -1 : context_.indexOf(selectedRow_);
+      int page = list_.getVisibleRowCount();
+
+      switch (keyCode)
+      {
+         case KeyCodes.KEY_ENTER:
+            if (selectedRow_ != null && selectedRow_.isHeader())
+               toggleExpanded(selectedRow_.getFile());
+            else
+               fireSelectionCommitted();
+            return true;
+         case KeyCodes.KEY_UP:
+            selectRowAt(Math.max(0, current - 1));
+            return true;
+         case KeyCodes.KEY_DOWN:
+            selectRowAt(Math.min(rowCount - 1, current + 1));
+            return true;
+         case KeyCodes.KEY_PAGEUP:
+            selectRowAt(Math.max(0, current - page));
+            return true;
+         case KeyCodes.KEY_PAGEDOWN:
+            selectRowAt(Math.min(rowCount - 1, current + page));
+            return true;
+         case KeyCodes.KEY_HOME:
+            selectRowAt(0);
+            return true;
+         case KeyCodes.KEY_END:
+            selectRowAt(rowCount - 1);
+            return true;
+         case KeyCodes.KEY_LEFT:
+            if (selectedRow_ != null)
+            {
+               FindResultContext.File file = selectedRow_.getFile();
+               setSelectedRow(context_.getHeaderRow(file));
+               if (file.isExpanded())
+                  toggleExpanded(file);
+            }
+            return true;
+         case KeyCodes.KEY_RIGHT:
+            if (selectedRow_ != null && !selectedRow_.getFile().isExpanded())
+               toggleExpanded(selectedRow_.getFile());
+            return true;
+      }
+      return false;
+   }
+
+   private void selectRowAt(int index)
+   {
+      FindResultContext.Row row = context_.getRow(index);
+      if (row != null)
+         setSelectedRow(row);
+   }
+
+   private void setSelectedRow(FindResultContext.Row row)
+   {
+      selectedRow_ = row;
+      list_.invalidate();
+      fireEvent(new SelectionChangedEvent());
+   }
+
+   private void toggleExpanded(FindResultContext.File file)
+   {
+      context_.setExpanded(file, !file.isExpanded());
+      list_.setRowCount(context_.getRowCount());
+      list_.invalidate();
+      ensureSelectedRowIsVisible();
+   }
+
    private void fireSelectionCommitted()
    {
-      ArrayList<CodeNavigationTarget> values = table_.getSelectedValues();
-      if (values.size() == 1)
-         SelectionCommitEvent.fire(this, values.get(0));
+      if (selectedRow_ == null || selectedRow_.isHeader())
+         return;
+
+      FindResult match = selectedRow_.getMatch();
+      if (match == null)
+         return;
+
+      SelectionCommitEvent.fire(this, new CodeNavigationTarget(
+            match.getFile(), FilePosition.create(match.getLine(), 1)));
    }
 
    @Override
-   public void addMatches(ArrayList<FindResult> findResults)
+   public void setMatchLoader(FindResultContext.MatchLoader loader)
    {
-      int matchesToAdd = Math.min(findResults.size(), MAX_COUNT - matchCount_);
+      context_.setMatchLoader(loader);
+   }
 
-      if (matchesToAdd > 0)
+   @Override
+   public void addSummary(FindResultSummary summary)
+   {
+      if (summary.isTruncated() && !truncated_)
       {
-         matchCount_ += matchesToAdd;
-         
-         if (matchCount_ > 0 && container_.getWidget() != scrollPanel_)
-            container_.setWidget(scrollPanel_);
-            
-         table_.addItems(findResults.subList(0, matchesToAdd), false);
+         truncated_ = true;
+         updateMatchCountLabel();
       }
-      
-      if (matchesToAdd != findResults.size())
-         showOverflow();
+
+      if (summary.getFileCount() == 0)
+         return;
+
+      context_.addSummary(summary);
+
+      if (container_.getWidget() != list_)
+         container_.setWidget(list_);
+
+      list_.setRowCount(context_.getRowCount());
+      list_.invalidate();
+      updateMatchCountLabel();
    }
 
    @Override
    public void clearMatches()
    {
       context_.reset();
-      table_.clear();
-      overflow_ = false;
-      matchCount_ = 0;
+      selectedRow_ = null;
+      truncated_ = false;
+      list_.setRowCount(0);
+      list_.scrollToTop();
+      matchCountLabel_.setText("");
       statusPanel_.setStatusText("");
       container_.setWidget(statusPanel_);
    }
@@ -163,7 +340,7 @@ public class FindOutputPane extends WorkbenchPane
    @Override
    public void showSearchCompleted()
    {
-      if (matchCount_ == 0)
+      if (context_.getMatchCount() == 0)
          statusPanel_.setStatusText("(No results found)");
    }
 
@@ -188,30 +365,24 @@ public class FindOutputPane extends WorkbenchPane
    @Override
    public void ensureSelectedRowIsVisible()
    {
-      ArrayList<TableRowElement> rows = table_.getSelectedRows();
-      if (rows.size() > 0)
-      {
-         DomUtils.ensureVisibleVert(scrollPanel_.getElement(),
-                                    rows.get(0),
-                                    20);
-      }
+      if (selectedRow_ != null)
+         list_.ensureRowVisible(context_.indexOf(selectedRow_));
    }
 
    @Override
    public HandlerRegistration addSelectionChangedHandler(SelectionChangedHandler handler)
    {
-      return table_.addSelectionChangedHandler(handler);
+      return addHandler(handler, SelectionChangedEvent.TYPE);
    }
 
-   @Override
-   public void showOverflow()
+   private void updateMatchCountLabel()
    {
-      if (overflow_)
-         return;
-      overflow_ = true;
-      ArrayList<FindResult> items = new ArrayList<FindResult>();
-      items.add(null);
-      table_.addItems(items, false);
+      int matches = context_.getMatchCount();
+      int files = context_.getFileCount();
+      matchCountLabel_.setText(
+            matches + (matches == 1 ? " match" : " matches") + " in " +
+            files + (files == 1 ? " file" : " files") +
+            (truncated_ ? " (search stopped early)" : ""));
    }
 
    @Override
@@ -258,17 +429,17 @@ public class FindOutputPane extends WorkbenchPane
       
    }
    
-   private FastSelectTable<FindResult, CodeNavigationTarget, Object> table_;
+   private VirtualizedList list_;
    private FindResultContext context_;
+   private FindResultContext.Row selectedRow_;
+   private boolean truncated_;
+   private FindOutputResources.Styles styles_;
    private final Commands commands_;
    private Label searchLabel_;
+   private Label matchCountLabel_;
    private ToolbarButton stopSearch_;
    private SimplePanel container_;
-   private ScrollPanel scrollPanel_;
    private StatusPanel statusPanel_;
-   private boolean overflow_ = false;
-   private int matchCount_;
 
-   // This must be the same as MAX_COUNT in SessionFind.cpp
-   private static final int MAX_COUNT = 1000;
+   private static final int ROW_HEIGHT = 20;
 }
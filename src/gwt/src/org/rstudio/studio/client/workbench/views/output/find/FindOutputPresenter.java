@@ -15,12 +15,16 @@
 package org.rstudio.studio.client.workbench.views.output.find;
 
 import com.google.gwt.core.client.JsArrayString;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.event.dom.client.ClickEvent;
 import com.google.gwt.event.dom.client.ClickHandler;
 import com.google.gwt.event.dom.client.HasClickHandlers;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.inject.Inject;
 import org.rstudio.core.client.CodeNavigationTarget;
+import org.rstudio.core.client.CommandWithArg;
+import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.events.HasEnsureHiddenHandlers;
 import org.rstudio.core.client.events.HasSelectionCommitHandlers;
@@ -28,12 +32,15 @@ import org.rstudio.core.client.events.SelectionCommitEvent;
 import org.rstudio.core.client.events.SelectionCommitHandler;
 import org.rstudio.core.client.files.FileSystemItem;
 import org.rstudio.core.client.js.JsObject;
+import org.rstudio.core.client.jsonrpc.RpcObjectList;
 import org.rstudio.core.client.widget.OperationWithInput;
 import org.rstudio.core.client.widget.events.SelectionChangedEvent;
 import org.rstudio.core.client.widget.events.SelectionChangedHandler;
 import org.rstudio.studio.client.application.events.EventBus;
 import org.rstudio.studio.client.common.SimpleRequestCallback;
 import org.rstudio.studio.client.common.filetypes.FileTypeRegistry;
+import org.rstudio.studio.client.server.ServerError;
+import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.server.VoidServerRequestCallback;
 import org.rstudio.studio.client.workbench.WorkbenchContext;
 import org.rstudio.studio.client.workbench.WorkbenchView;
@@ -47,6 +54,7 @@ import org.rstudio.studio.client.workbench.views.output.find.events.FindResultEv
 import org.rstudio.studio.client.workbench.views.output.find.model.FindInFilesServerOperations;
 import org.rstudio.studio.client.workbench.views.output.find.model.FindInFilesState;
 import org.rstudio.studio.client.workbench.views.output.find.model.FindResult;
+import org.rstudio.studio.client.workbench.views.output.find.model.FindResultSummary;
 
 import java.util.ArrayList;
 
@@ -56,7 +64,8 @@ public class FindOutputPresenter extends BasePresenter
                                     HasSelectionCommitHandlers<CodeNavigationTarget>,
                                     HasEnsureHiddenHandlers
    {
-      void addMatches(ArrayList<FindResult> findResults);
+      void setMatchLoader(FindResultContext.MatchLoader loader);
+      void addSummary(FindResultSummary summary);
       void clearMatches();
       void ensureVisible(boolean activate);
 
@@ -67,8 +76,6 @@ public class FindOutputPresenter extends BasePresenter
 
       HandlerRegistration addSelectionChangedHandler(SelectionChangedHandler handler);
 
-      void showOverflow();
-      
       void showSearchCompleted();
 
       void updateSearchLabel(String query, String path);
@@ -90,6 +97,40 @@ public class FindOutputPresenter extends BasePresenter
       session_ = session;
       workbenchContext_ = workbenchContext;
 
+      view_.setMatchLoader(new FindResultContext.MatchLoader()
+      {
+         @Override
+         public void loadMatches(
+               int begin,
+               int end,
+               final CommandWithArg<ArrayList<FindResult>> onLoaded)
+         {
+            if (resultsHandle_ == null)
+            {
+               onLoaded.execute(null);
+               return;
+            }
+
+            server_.getFindResults(
+                  resultsHandle_, begin, end,
+                  new ServerRequestCallback<RpcObjectList<FindResult>>()
+            {
+               @Override
+               public void onResponseReceived(RpcObjectList<FindResult> results)
+               {
+                  onLoaded.execute(results.toArrayList());
+               }
+
+               @Override
+               public void onError(ServerError error)
+               {
+                  Debug.logError(error);
+                  onLoaded.execute(null);
+               }
+            });
+         }
+      });
+
       view_.addSelectionChangedHandler(new SelectionChangedHandler()
       {
          @Override
@@ -127,11 +168,26 @@ public class FindOutputPresenter extends BasePresenter
          @Override
          public void onFindResult(FindResultEvent event)
          {
-            if (!event.getHandle().equals(currentFindHandle_))
+            final String handle = event.getHandle();
+            if (!handle.equals(currentFindHandle_))
                return;
-            view_.addMatches(event.getResults());
+            view_.addSummary(event.getSummary());
             
             view_.ensureVisible(true);
+
+            // acknowledge the summary once it has been rendered so the
+            // server can send the next one (until then it stops reading
+            // results, so a search never runs ahead of the client)
+            Scheduler.get().scheduleDeferred(new ScheduledCommand()
+            {
+               @Override
+               public void execute()
+               {
+                  if (handle.equals(currentFindHandle_))
+                     server_.ackFindResults(handle,
+                                            new VoidServerRequestCallback());
+               }
+            });
          }
       });
 
@@ -176,7 +232,8 @@ public class FindOutputPresenter extends BasePresenter
       view_.ensureVisible(false);
 
       currentFindHandle_ = state.getHandle();
-      view_.addMatches(state.getResults().toArrayList());
+      resultsHandle_ = state.getHandle();
+      view_.addSummary(state.getSummary());
       updateSearchLabel(state.getInput(), state.getPath(), state.isRegex());
 
       if (state.isRunning())
@@ -214,6 +271,7 @@ public class FindOutputPresenter extends BasePresenter
                                  public void onResponseReceived(String handle)
                                  {
                                     currentFindHandle_ = handle;
+                                    resultsHandle_ = handle;
                                     updateSearchLabel(input.getQuery(),
                                                       input.getPath(),
                                                       input.isRegex());
@@ -264,6 +322,7 @@ public class FindOutputPresenter extends BasePresenter
    private void stopAndClear()
    {
       stop();
+      resultsHandle_ = null;
       view_.clearMatches();
       view_.clearSearchLabel();
    }
@@ -281,6 +340,9 @@ public class FindOutputPresenter extends BasePresenter
 
    private String currentFindHandle_;
 
+   // the search whose results are displayed (it may have finished running)
+   private String resultsHandle_;
+
    private FindInFilesDialog.State dialogState_;
 
    private final Display view_;
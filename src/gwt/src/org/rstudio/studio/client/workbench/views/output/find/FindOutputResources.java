@@ -23,10 +23,12 @@ public interface FindOutputResources extends ClientBundle
    {
       String findOutput();
       String headerRow();
+      String matchRow();
+      String disclosure();
+      String matchCount();
       String line();
       String lineValue();
       String selectedRow();
-      String overflowWarning();
    }
 
    @Source("FindOutput.css")
@@ -15,6 +15,7 @@
 package org.rstudio.studio.client.workbench.views.output.find;
 
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.user.client.Command;
 import com.google.inject.Inject;
 import org.rstudio.core.client.command.CommandBinder;
 import org.rstudio.studio.client.application.events.EventBus;
@@ -22,6 +23,7 @@ import org.rstudio.studio.client.workbench.commands.Commands;
 import org.rstudio.studio.client.workbench.events.SessionInitEvent;
 import org.rstudio.studio.client.workbench.events.SessionInitHandler;
 import org.rstudio.studio.client.workbench.model.Session;
+import org.rstudio.studio.client.workbench.model.SessionInfo;
 import org.rstudio.studio.client.workbench.ui.DelayLoadTabShim;
 import org.rstudio.studio.client.workbench.ui.DelayLoadWorkbenchTab;
 import org.rstudio.studio.client.workbench.views.output.find.events.FindInFilesEvent;
@@ -53,10 +55,18 @@ public class FindOutputTab extends DelayLoadWorkbenchTab<FindOutputPresenter>
          @Override
          public void onSessionInit(SessionInitEvent sie)
          {
-            FindInFilesState state =
-                                 session.getSessionInfo().getFindInFilesState();
-            if (state.isTabVisible())
-               shim.initialize(state);
+            session.whenSectionReady(SessionInfo.FIND_IN_FILES_STATE,
+                                     new Command()
+            {
+               @Override
+               public void execute()
+               {
+                  FindInFilesState state =
+                        session.getSessionInfo().getFindInFilesState();
+                  if (state.isTabVisible())
+                     shim.initialize(state);
+               }
+            });
          }
       });
 
@@ -1,7 +1,7 @@
 /*
  * FindResultContext.java
  *
- * Copyright (C) 2009-12 by RStudio, Inc.
+ * Copyright (C) 2009-16 by RStudio, Inc.
  *
  * Unless you have received this program directly from RStudio pursuant
  * to the terms of a commercial license agreement with RStudio, then
@@ -14,20 +14,41 @@
  */
 package org.rstudio.studio.client.workbench.views.output.find;
 
-import com.google.gwt.view.client.AbstractDataProvider;
-import com.google.gwt.view.client.ListDataProvider;
-import com.google.gwt.view.client.ProvidesKey;
+import org.rstudio.core.client.CommandWithArg;
 import org.rstudio.studio.client.workbench.views.output.find.model.FindResult;
+import org.rstudio.studio.client.workbench.views.output.find.model.FindResultSummary;
 
-import java.util.HashMap;
+import com.google.gwt.user.client.Command;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Groups find results by file and exposes them as a flat list of rows
+// (one header row per file followed by its matches when expanded), which
+// is the shape the virtualized results list renders from. Only the number
+// of matches in each file is kept for every result; the match rows
+// themselves are loaded a page at a time as they're shown, and only the
+// most recently used pages are kept.
 public class FindResultContext
 {
+   public interface MatchLoader
+   {
+      // Loads the matches in [begin, end), passing them (or null if they
+      // couldn't be loaded) to onLoaded
+      void loadMatches(int begin,
+                       int end,
+                       CommandWithArg<ArrayList<FindResult>> onLoaded);
+   }
+
    public class File
    {
-      public File(String path)
+      public File(String path, int index, int firstMatch)
       {
          path_ = path;
+         index_ = index;
+         firstMatch_ = firstMatch;
       }
 
       public String getPath()
@@ -35,91 +56,111 @@ public class FindResultContext
          return path_;
       }
 
-      public void addMatch(int line, int column, String value)
-      {
-         int lineWidth = (line + "").length();
-         maxLineWidth_ = Math.max(lineWidth, maxLineWidth_);
-         matchData_.getList().add(new Match(this, line, column, value));
-      }
-
       public int getCount()
       {
-         return matchData_.getList().size();
-      }
-
-      public AbstractDataProvider<Match> getDataProvider()
-      {
-         return matchData_;
+         return count_;
       }
 
-      public void refresh()
+      public boolean isExpanded()
       {
-         matchData_.refresh();
+         return expanded_;
       }
 
-      public void clear()
+      // number of rows this file occupies in the flattened list
+      private int getRowCount()
       {
-         matchData_.getList().clear();
+         return 1 + (expanded_ ? count_ : 0);
       }
 
       private final String path_;
-      private final ListDataProvider<Match> matchData_ =
-            new ListDataProvider<Match>(new ProvidesKey<Match>()
-            {
-               @Override
-               public Object getKey(Match item)
-               {
-                  return item.getParent().getPath() + ":" + item.getLine();
-               }
-            });
+      private final int index_;
+      private final int firstMatch_;
+      private int count_;
+      private boolean expanded_ = true;
    }
 
-   public class Match
+   public class Row
    {
-      public Match(File parent, int line, int column, String value)
+      private Row(File file, int matchIndex)
       {
-         parent_ = parent;
-         line_ = line;
-         column_ = column;
-         value_ = value;
+         file_ = file;
+         matchIndex_ = matchIndex;
       }
 
-      public File getParent()
+      public File getFile()
       {
-         return parent_;
+         return file_;
       }
 
-      public int getLine()
+      public boolean isHeader()
       {
-         return line_;
+         return matchIndex_ < 0;
       }
 
-      public int getColumn()
+      // Returns the match, or null if it hasn't been loaded yet (it's
+      // requested, and the context's listener is told once it arrives)
+      public FindResult getMatch()
       {
-         return column_;
+         return isHeader() ? null : getMatchAt(file_.firstMatch_ + matchIndex_);
       }
 
-      public String getValue()
-      {
-         return value_;
-      }
+      private final File file_;
+      private final int matchIndex_;
+   }
+
+   public FindResultContext(Command onMatchesLoaded)
+   {
+      onMatchesLoaded_ = onMatchesLoaded;
+   }
+
+   public void setMatchLoader(MatchLoader loader)
+   {
+      loader_ = loader;
+   }
 
-      private final File parent_;
-      private final int line_;
-      private final int column_;
-      private final String value_;
+   public void reset()
+   {
+      files_.clear();
+      fileRowOffsets_.clear();
+      pages_.clear();
+      pendingPages_.clear();
+      generation_++;
+      matchCount_ = 0;
+      maxLineWidth_ = 0;
+      offsetsDirty_ = false;
    }
 
-   private File getFile(String path)
+   public void addSummary(FindResultSummary summary)
    {
-      File file = filesByName_.get(path);
-      if (file == null)
+      for (int i = 0; i < summary.getFileCount(); i++)
       {
-         file = new File(path);
-         data_.getList().add(file);
-         filesByName_.put(path, file);
+         // a file's matches may be split across summaries
+         String path = summary.getFile(i);
+         File file = files_.isEmpty() ? null : files_.get(files_.size() - 1);
+         if (file == null || !file.getPath().equals(path))
+         {
+            file = new File(path, files_.size(), matchCount_);
+            files_.add(file);
+         }
+
+         int count = summary.getMatchCount(i);
+         file.count_ += count;
+         matchCount_ += count;
       }
-      return file;
+
+      int lineWidth = (summary.getMaxLine() + "").length();
+      maxLineWidth_ = Math.max(lineWidth, maxLineWidth_);
+      offsetsDirty_ = true;
+   }
+
+   public int getMatchCount()
+   {
+      return matchCount_;
+   }
+
+   public int getFileCount()
+   {
+      return files_.size();
    }
 
    public int getMaxLineWidth()
@@ -127,48 +168,184 @@ public class FindResultContext
       return maxLineWidth_;
    }
 
-   public AbstractDataProvider<File> getDataProvider()
+   public int getRowCount()
    {
-      return data_;
+      ensureOffsets();
+      if (files_.isEmpty())
+         return 0;
+      int last = files_.size() - 1;
+      return fileRowOffsets_.get(last) + files_.get(last).getRowCount();
    }
 
-   public void reset()
+   public Row getRow(int index)
    {
-      data_.getList().clear();
-      filesByName_.clear();
-      maxLineWidth_ = 0;
+      ensureOffsets();
+      int fileIndex = findFileForRow(index);
+      if (fileIndex < 0)
+         return null;
+
+      File file = files_.get(fileIndex);
+      int offset = index - fileRowOffsets_.get(fileIndex);
+      if (offset >= file.getRowCount())
+         return null;
+      return new Row(file, offset - 1);
    }
 
-   public void addMatches(Iterable<FindResult> findResults)
+   // Returns the current index of the row in the flattened list, or -1 if
+   // the row is hidden inside a collapsed file
+   public int indexOf(Row row)
    {
-      int origMaxLineWidth = maxLineWidth_;
+      ensureOffsets();
+      File file = row.getFile();
+      if (file.index_ >= fileRowOffsets_.size() ||
+          files_.get(file.index_) != file)
+      {
+         return -1;
+      }
 
-      for (FindResult fr : findResults)
+      int header = fileRowOffsets_.get(file.index_);
+      if (row.isHeader())
+         return header;
+      else if (!file.isExpanded())
+         return -1;
+      else
+         return header + 1 + row.matchIndex_;
+   }
+
+   public Row getHeaderRow(File file)
+   {
+      return new Row(file, -1);
+   }
+
+   public void setExpanded(File file, boolean expanded)
+   {
+      if (file.expanded_ == expanded)
+         return;
+      file.expanded_ = expanded;
+      offsetsDirty_ = true;
+   }
+
+   private FindResult getMatchAt(int index)
+   {
+      int page = index / PAGE_SIZE;
+      Page loaded = pages_.get(page);
+
+      // a page loaded while the search was running may since have grown
+      if (loaded == null ||
+          (index >= loaded.end && loaded.end < Math.min(matchCount_,
+                                                        (page + 1) * PAGE_SIZE)))
       {
-         File file = getFile(fr.getFile());
+         loadPage(page);
+         return null;
+      }
+
+      int offset = index - page * PAGE_SIZE;
+      return offset < loaded.matches.size() ? loaded.matches.get(offset) : null;
+   }
+
+   private void loadPage(final int page)
+   {
+      if (loader_ == null || pendingPages_.contains(page))
+         return;
 
-         file.addMatch(fr.getLine(), 0, fr.getLineValue());
+      pendingPages_.add(page);
+      final int generation = generation_;
+      final int begin = page * PAGE_SIZE;
+      final int end = Math.min(matchCount_, begin + PAGE_SIZE);
+      loader_.loadMatches(begin, end,
+                          new CommandWithArg<ArrayList<FindResult>>()
+      {
+         @Override
+         public void execute(ArrayList<FindResult> matches)
+         {
+            // ignore pages requested before the results were reset
+            if (generation != generation_)
+               return;
+
+            pendingPages_.remove(page);
+            if (matches == null)
+               return;
+
+            pages_.put(page, new Page(matches, begin + matches.size()));
+            onMatchesLoaded_.execute();
+         }
+      });
+   }
 
-         int index = data_.getList().indexOf(file);
-         if (index >= 0) // not that we are expecting otherwise...
-            data_.getList().set(index, file);
+   private static class Page
+   {
+      public Page(ArrayList<FindResult> matches, int end)
+      {
+         this.matches = matches;
+         this.end = end;
       }
 
-      if (maxLineWidth_ != origMaxLineWidth)
+      public final ArrayList<FindResult> matches;
+      public final int end;
+   }
+
+   private void ensureOffsets()
+   {
+      if (!offsetsDirty_ && fileRowOffsets_.size() == files_.size())
+         return;
+
+      fileRowOffsets_.clear();
+      int offset = 0;
+      for (File file : files_)
       {
-         for (File aFile : data_.getList())
-            aFile.refresh();
+         fileRowOffsets_.add(offset);
+         offset += file.getRowCount();
       }
+      offsetsDirty_ = false;
    }
 
-   private final ListDataProvider<File> data_ = new ListDataProvider<File>(new ProvidesKey<File>()
+   // binary search for the last file whose first row is <= index
+   private int findFileForRow(int index)
    {
-      @Override
-      public Object getKey(File item)
+      int lo = 0;
+      int hi = fileRowOffsets_.size() - 1;
+      int result = -1;
+      while (lo <= hi)
       {
-         return item.getPath();
+         int mid = (lo + hi) >>> 1;
+         if (fileRowOffsets_.get(mid) <= index)
+         {
+            result = mid;
+            lo = mid + 1;
+         }
+         else
+         {
+            hi = mid - 1;
+         }
       }
-   });
-   private final HashMap<String, File> filesByName_ = new HashMap<String, File>();
+      return result;
+   }
+
+   private final ArrayList<File> files_ = new ArrayList<File>();
+   private final ArrayList<Integer> fileRowOffsets_ = new ArrayList<Integer>();
+   private int matchCount_;
    private int maxLineWidth_;
+   private boolean offsetsDirty_;
+
+   private final Command onMatchesLoaded_;
+   private MatchLoader loader_;
+   private int generation_;
+   private final HashSet<Integer> pendingPages_ = new HashSet<Integer>();
+
+   // loaded pages, least recently used first
+   private final LinkedHashMap<Integer, Page> pages_ =
+         new LinkedHashMap<Integer, Page>(16, 0.75f, true)
+   {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, Page> eldest)
+      {
+         return size() > MAX_PAGES;
+      }
+   };
+
+   private static final int PAGE_SIZE = 100;
+
+   // enough to cover the visible rows (and the list's overscan) with room
+   // to scroll back and forth without reloading
+   private static final int MAX_PAGES = 10;
 }
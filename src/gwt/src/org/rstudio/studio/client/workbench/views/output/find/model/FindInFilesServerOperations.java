@@ -16,6 +16,7 @@ package org.rstudio.studio.client.workbench.views.output.find.model;
 
 import com.google.gwt.core.client.JsArrayString;
 import org.rstudio.core.client.files.FileSystemItem;
+import org.rstudio.core.client.jsonrpc.RpcObjectList;
 import org.rstudio.studio.client.server.*;
 import org.rstudio.studio.client.server.Void;
 
@@ -31,5 +32,16 @@ public interface FindInFilesServerOperations
    void stopFind(String findOperationHandle,
                  ServerRequestCallback<Void> requestCallback);
 
+   // acknowledges receipt of a summary of results, allowing the server to
+   // send the next one
+   void ackFindResults(String findOperationHandle,
+                       ServerRequestCallback<Void> requestCallback);
+
+   // gets the match rows in [begin, end)
+   void getFindResults(String findOperationHandle,
+                       int begin,
+                       int end,
+                       ServerRequestCallback<RpcObjectList<FindResult>> requestCallback);
+
    void clearFindResults(ServerRequestCallback<Void> requestCallback);
 }
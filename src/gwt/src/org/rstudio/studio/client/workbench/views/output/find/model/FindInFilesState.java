@@ -16,7 +16,6 @@ package org.rstudio.studio.client.workbench.views.output.find.model;
 
 import com.google.gwt.core.client.JavaScriptObject;
 import org.rstudio.core.client.StringUtil;
-import org.rstudio.core.client.jsonrpc.RpcObjectList;
 
 public class FindInFilesState extends JavaScriptObject
 {
@@ -34,8 +33,8 @@ public class FindInFilesState extends JavaScriptObject
    }-*/;
 
 
-   public native final RpcObjectList<FindResult> getResults() /*-{
-      return this.results;
+   public native final FindResultSummary getSummary() /*-{
+      return this.summary;
    }-*/;
 
    public native final boolean isRunning() /*-{
@@ -0,0 +1,50 @@
+/*
+ * FindResultSummary.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.output.find.model;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+// The number of matches in each run of find results from the same file, in
+// the order the server holds them (the match rows themselves are fetched
+// as they're needed)
+public class FindResultSummary extends JavaScriptObject
+{
+   protected FindResultSummary()
+   {
+   }
+
+   public native final int getFileCount() /*-{
+      return this.file.length;
+   }-*/;
+
+   public native final String getFile(int index) /*-{
+      return this.file[index];
+   }-*/;
+
+   public native final int getMatchCount(int index) /*-{
+      return this.count[index];
+   }-*/;
+
+   // the largest line number of any of the matches
+   public native final int getMaxLine() /*-{
+      return this.maxLine;
+   }-*/;
+
+   // true if the search was stopped before it finished (it found too many
+   // matches, or nothing acknowledged its results for too long)
+   public native final boolean isTruncated() /*-{
+      return !!this.truncated;
+   }-*/;
+}
@@ -24,6 +24,7 @@ import org.rstudio.studio.client.workbench.commands.Commands;
 import org.rstudio.studio.client.workbench.events.SessionInitEvent;
 import org.rstudio.studio.client.workbench.events.SessionInitHandler;
 import org.rstudio.studio.client.workbench.model.Session;
+import org.rstudio.studio.client.workbench.model.SessionInfo;
 import org.rstudio.studio.client.workbench.ui.DelayLoadTabShim;
 import org.rstudio.studio.client.workbench.ui.DelayLoadWorkbenchTab;
 import org.rstudio.studio.client.workbench.views.output.markers.events.MarkersChangedEvent;
@@ -56,8 +57,16 @@ public class MarkersOutputTab extends DelayLoadWorkbenchTab<MarkersOutputPresent
          @Override
          public void onSessionInit(SessionInitEvent sie)
          {
-            MarkersState state = session.getSessionInfo().getMarkersState();
-            shim_.initialize(state);
+            session.whenSectionReady(SessionInfo.MARKERS_STATE, new Command()
+            {
+               @Override
+               public void execute()
+               {
+                  MarkersState state =
+                        session.getSessionInfo().getMarkersState();
+                  shim_.initialize(state);
+               }
+            });
          }
       });
 
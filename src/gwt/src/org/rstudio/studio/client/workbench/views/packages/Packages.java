@@ -161,6 +161,8 @@ public class Packages
          {
             if (value != null)
                installOptions_ = value.cast();
+            else
+               installOptions_ = PackageInstallOptions.create(true, "", true);
             lastKnownState_ = installOptions_;
          }
 
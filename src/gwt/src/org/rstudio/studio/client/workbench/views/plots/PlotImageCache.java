@@ -0,0 +1,135 @@
+/*
+ * PlotImageCache.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.plots;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.ImageElement;
+
+// Remembers the rendered images of plots in the plot history, keyed by
+// plot index, plot size and device pixel ratio, so that paging back and
+// forth through plots can show an image we've already seen without waiting
+// on the server. Prefetched images are loaded into (detached) image
+// elements so the browser holds them decoded and ready to display. The
+// estimated decoded size of the cached images is kept within a budget by
+// evicting the least recently used entries.
+class PlotImageCache
+{
+   public PlotImageCache(long budgetBytes)
+   {
+      budgetBytes_ = budgetBytes;
+   }
+
+   // Returns the URL of the cached image, or null if there isn't one
+   public String get(int index, int width, int height, double pixelRatio)
+   {
+      Entry entry = entries_.get(key(index, width, height, pixelRatio));
+      return entry == null ? null : entry.url;
+   }
+
+   public void put(int index,
+                   int width,
+                   int height,
+                   double pixelRatio,
+                   String url)
+   {
+      String key = key(index, width, height, pixelRatio);
+      Entry existing = entries_.get(key);
+      if (existing != null && existing.url.equals(url))
+         return;
+
+      remove(key);
+      Entry entry = new Entry(url, estimateBytes(width, height, pixelRatio));
+      entries_.put(key, entry);
+      usedBytes_ += entry.bytes;
+      evict();
+   }
+
+   public void remove(int index, int width, int height, double pixelRatio)
+   {
+      remove(key(index, width, height, pixelRatio));
+   }
+
+   // Starts loading the cached image (if any) in the background
+   public void prefetch(int index, int width, int height, double pixelRatio)
+   {
+      Entry entry = entries_.get(key(index, width, height, pixelRatio));
+      if (entry != null && entry.image == null)
+      {
+         entry.image = Document.get().createImageElement();
+         entry.image.setSrc(entry.url);
+      }
+   }
+
+   public void clear()
+   {
+      entries_.clear();
+      usedBytes_ = 0;
+   }
+
+   private void remove(String key)
+   {
+      Entry entry = entries_.remove(key);
+      if (entry != null)
+         usedBytes_ -= entry.bytes;
+   }
+
+   private void evict()
+   {
+      Iterator<Map.Entry<String, Entry>> it = entries_.entrySet().iterator();
+      while (usedBytes_ > budgetBytes_ && entries_.size() > 1 && it.hasNext())
+      {
+         usedBytes_ -= it.next().getValue().bytes;
+         it.remove();
+      }
+   }
+
+   private static long estimateBytes(int width, int height, double pixelRatio)
+   {
+      // 4 bytes per device pixel once decoded
+      return (long) (width * pixelRatio) * (long) (height * pixelRatio) * 4;
+   }
+
+   private static String key(int index,
+                             int width,
+                             int height,
+                             double pixelRatio)
+   {
+      return index + ":" + width + "x" + height + "@" + pixelRatio;
+   }
+
+   private static class Entry
+   {
+      public Entry(String url, long bytes)
+      {
+         this.url = url;
+         this.bytes = bytes;
+      }
+
+      public final String url;
+      public final long bytes;
+      public ImageElement image;
+   }
+
+   private final long budgetBytes_;
+   private long usedBytes_ = 0;
+
+   // access ordered, so iteration starts with the least recently used
+   private final LinkedHashMap<String, Entry> entries_ =
+         new LinkedHashMap<String, Entry>(16, 0.75f, true);
+}
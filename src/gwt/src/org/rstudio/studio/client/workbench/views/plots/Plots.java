@@ -15,12 +15,16 @@
 package org.rstudio.studio.client.workbench.views.plots;
 
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.JsArrayString;
 import com.google.gwt.event.dom.client.ClickEvent;
 import com.google.gwt.event.dom.client.ClickHandler;
 import com.google.gwt.event.logical.shared.HasResizeHandlers;
+import com.google.gwt.event.logical.shared.ResizeEvent;
+import com.google.gwt.event.logical.shared.ResizeHandler;
 import com.google.gwt.event.logical.shared.SelectionEvent;
 import com.google.gwt.event.logical.shared.SelectionHandler;
 import com.google.gwt.json.client.JSONObject;
+import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.ui.HasWidgets;
 import com.google.gwt.user.client.ui.Panel;
 import com.google.inject.Inject;
@@ -29,6 +33,7 @@ import com.google.inject.Provider;
 import org.rstudio.core.client.BrowseCap;
 import org.rstudio.core.client.Point;
 import org.rstudio.core.client.Size;
+import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.dom.WindowEx;
 import org.rstudio.core.client.files.FileSystemItem;
 import org.rstudio.core.client.widget.HasCustomizableToolbar;
@@ -83,6 +88,7 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
    {
       void showEmptyPlot();
       void showPlot(String plotUrl);
+      void setResizePreview(boolean preview);
       String getPlotUrl();
       
       void refresh();
@@ -160,6 +166,22 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
       
       events.addHandler(DeferredInitCompletedEvent.TYPE, this);
       events.addHandler(PlotsZoomSizeChangedEvent.TYPE, this);
+      
+      // while the pane is being resized show the current image scaled to
+      // fit; the plot is re-rendered at the new size once the size settles
+      // (see WorkbenchScreen)
+      view_.addResizeHandler(new ResizeHandler()
+      {
+         @Override
+         public void onResize(ResizeEvent event)
+         {
+            if (plotSize_ != null && 
+                !plotSize_.equals(view_.getPlotFrameSize()))
+            {
+               view_.setResizePreview(true);
+            }
+         }
+      });
 }
    
    public void onPlotsChanged(PlotsChangedEvent event)
@@ -171,6 +193,28 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
       view_.setProgress(false);
       manipulatorManager_.setProgress(false);
       
+      // remember the images we can show again without a re-render
+      updatePlotImageCache(plotsState);
+      
+      // if the user has paged on to another (cached) plot since this change
+      // was requested then don't switch back to it; the server will report
+      // the plot they ended up on shortly
+      if (pendingPlotIndex_ >= 0)
+      {
+         if (plotsState.getPlotCount() != plotCount_ ||
+             plotsState.getPlotIndex() == pendingPlotIndex_)
+         {
+            cancelPendingNavigation();
+         }
+         else
+         {
+            plotIndex_ = plotsState.getPlotIndex();
+            return;
+         }
+      }
+      plotIndex_ = plotsState.getPlotIndex();
+      plotCount_ = plotsState.getPlotCount();
+      
       // if this is the empty plot then clear the display
       // NOTE: we currently return a zero byte PNG as our "empty.png" from
       // the server. this is shown as a blank pane by Webkit, however
@@ -183,6 +227,7 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
       else
       {
          String url = server_.getGraphicsUrl(plotsState.getFilename());
+         view_.setResizePreview(false);
          view_.showPlot(url);
       }
       
@@ -192,6 +237,9 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
       
       // update plot size
       plotSize_ = new Size(plotsState.getWidth(), plotsState.getHeight());
+      
+      // get the neighbouring plots ready in case the user pages to them
+      prefetchAdjacentPlots(plotIndex_);
 
       // manipulator
       manipulatorManager_.setManipulator(plotsState.getManipulator(),
@@ -212,19 +260,126 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
    void onNextPlot()
    {
       view_.bringToFront();
-      setChangePlotProgress();
-      server_.nextPlot(new PlotRequestCallback());
+      if (!showCachedPlot(1))
+      {
+         setChangePlotProgress();
+         server_.nextPlot(new PlotRequestCallback());
+      }
    }
 
    void onPreviousPlot()
    {
       view_.bringToFront();
-      setChangePlotProgress();
-      server_.previousPlot(new PlotRequestCallback());
+      if (!showCachedPlot(-1))
+      {
+         setChangePlotProgress();
+         server_.previousPlot(new PlotRequestCallback());
+      }
+   }
+   
+   // Shows the plot 'offset' positions from the one currently displayed if
+   // we have its image at the current size. The server is told which plot
+   // is active once the user stops paging, so flipping through several
+   // plots costs one server-side render rather than one per plot.
+   private boolean showCachedPlot(int offset)
+   {
+      int current = pendingPlotIndex_ >= 0 ? pendingPlotIndex_ : plotIndex_;
+      int target = current + offset;
+      if (target < 0 || target >= plotCount_)
+      {
+         // the toolbar reflects the server's active plot, so can let us
+         // page past the ends while we're showing cached plots
+         return pendingPlotIndex_ >= 0;
+      }
+      if (plotSize_ == null)
+         return false;
+      
+      String url = plotImageCache_.get(target, 
+                                       plotSize_.width, 
+                                       plotSize_.height,
+                                       BrowseCap.devicePixelRatio());
+      if (url == null)
+      {
+         // if we were paging through cached plots then the server still
+         // thinks the last plot it rendered is active; navigate explicitly
+         if (pendingPlotIndex_ >= 0)
+         {
+            cancelPendingNavigation();
+            setChangePlotProgress();
+            server_.setActivePlot(target, new PlotRequestCallback());
+            return true;
+         }
+         return false;
+      }
+      
+      view_.showPlot(url);
+      pendingPlotIndex_ = target;
+      prefetchAdjacentPlots(target);
+      pendingNavigationTimer_.schedule(NAVIGATION_DELAY_MS);
+      return true;
+   }
+   
+   // Tells the server about the plot being shown right away, for commands
+   // which act on the server's active plot
+   private void commitPendingNavigation()
+   {
+      if (pendingPlotIndex_ >= 0)
+      {
+         pendingNavigationTimer_.cancel();
+         pendingNavigationTimer_.run();
+      }
+   }
+   
+   private void cancelPendingNavigation()
+   {
+      pendingPlotIndex_ = -1;
+      pendingNavigationTimer_.cancel();
+   }
+   
+   private void updatePlotImageCache(PlotsState plotsState)
+   {
+      int width = plotsState.getWidth();
+      int height = plotsState.getHeight();
+      double pixelRatio = BrowseCap.devicePixelRatio();
+      JsArrayString filenames = plotsState.getPlotFilenames();
+      
+      // plots were added or removed, so indexes may refer to other plots
+      if (plotsState.getPlotCount() != plotCount_)
+         plotImageCache_.clear();
+      
+      for (int i = 0; i < filenames.length(); i++)
+      {
+         if (StringUtil.isNullOrEmpty(filenames.get(i)))
+         {
+            plotImageCache_.remove(i, width, height, pixelRatio);
+         }
+         else
+         {
+            plotImageCache_.put(i, width, height, pixelRatio, 
+                                server_.getGraphicsUrl(filenames.get(i)));
+         }
+      }
+   }
+   
+   private void prefetchAdjacentPlots(int index)
+   {
+      if (plotSize_ == null)
+         return;
+      
+      double pixelRatio = BrowseCap.devicePixelRatio();
+      plotImageCache_.prefetch(index - 1, 
+                               plotSize_.width, 
+                               plotSize_.height, 
+                               pixelRatio);
+      plotImageCache_.prefetch(index + 1, 
+                               plotSize_.width, 
+                               plotSize_.height, 
+                               pixelRatio);
    }
    
    void onRemovePlot()
    {
+      commitPendingNavigation();
       // delete plot gesture indicates we are done with locator
       safeClearLocator();
       
@@ -254,6 +409,7 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
    {      
       // clear plots gesture indicates we are done with locator
       safeClearLocator();
+      cancelPendingNavigation();
       
       // confirm
       globalDisplay_.showYesNoMessage(GlobalDisplay.MSG_QUESTION,
@@ -278,6 +434,7 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
    
    void onSavePlotAsImage()
    {
+      commitPendingNavigation();
       view_.bringToFront();
       
       final ProgressIndicator indicator = 
@@ -317,6 +474,7 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
    
    void onSavePlotAsPdf()
    {
+      commitPendingNavigation();
       view_.bringToFront();
       
       final ProgressIndicator indicator = 
@@ -378,6 +536,7 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
    
    void onCopyPlotToClipboard()
    {
+      commitPendingNavigation();
       view_.bringToFront();
       
       exportPlot_.copyPlotToClipboard(
@@ -412,6 +571,7 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
    
    void onZoomPlot()
    {
+      commitPendingNavigation();
       Size windowSize = ZoomUtils.getZoomWindowSize(
                               view_.getPlotFrameSize(), zoomWindowDefaultSize_);
       
@@ -444,6 +604,7 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
 
    void onRefreshPlot()
    {
+      commitPendingNavigation();
       view_.bringToFront();
       view_.setProgress(true);
       server_.refreshPlot(new PlotRequestCallback());
@@ -457,6 +618,7 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
    
    void onShowManipulator()
    {
+      commitPendingNavigation();
       manipulatorManager_.showManipulator();
    }
 
@@ -588,6 +750,39 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
       
    }
 
+   private final Timer pendingNavigationTimer_ = new Timer()
+   {
+      @Override
+      public void run()
+      {
+         if (pendingPlotIndex_ < 0)
+            return;
+         
+         if (pendingPlotIndex_ == plotIndex_)
+         {
+            pendingPlotIndex_ = -1;
+            return;
+         }
+         
+         server_.setActivePlot(pendingPlotIndex_, 
+                               new ServerRequestCallback<Void>()
+         {
+            @Override
+            public void onResponseReceived(Void response)
+            {
+            }
+            
+            @Override
+            public void onError(ServerError error)
+            {
+               // go back to showing whatever the server has active
+               cancelPendingNavigation();
+               server_.refreshPlot(new PlotRequestCallback(false));
+            }
+         });
+      }
+   };
+   
    private final Display view_;
    private final GlobalDisplay globalDisplay_;
    private final PlotsServerOperations server_;
@@ -601,6 +796,14 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
    
    // export plot impl
    private final ExportPlot exportPlot_ ;
+   private final PlotImageCache plotImageCache_ = 
+                              new PlotImageCache(PLOT_IMAGE_CACHE_BYTES);
+   private int plotIndex_ = -1;
+   private int plotCount_ = 0;
+   private int pendingPlotIndex_ = -1;
+   
+   private static final long PLOT_IMAGE_CACHE_BYTES = 256L * 1024 * 1024;
+   private static final int NAVIGATION_DELAY_MS = 300;
    
    // size of most recently rendered plot
    Size plotSize_ = null;
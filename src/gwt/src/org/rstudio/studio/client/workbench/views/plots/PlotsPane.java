@@ -166,6 +166,11 @@ public class PlotsPane extends WorkbenchPane implements Plots.Display,
       plotsToolbar_.invalidateSeparators();
    }
        
+   public void setResizePreview(boolean preview)
+   {
+      frame_.setPreserveAspectRatio(preview);
+   }
+       
    public String getPlotUrl()
    {
       return plotUrl_;
@@ -15,6 +15,7 @@
 package org.rstudio.studio.client.workbench.views.plots.model;
 
 import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayString;
 
 public class PlotsState extends JavaScriptObject
 {
@@ -46,6 +47,12 @@ public class PlotsState extends JavaScriptObject
       return this.plotCount;
    }-*/;
    
+   // image filenames of the plots already rendered at the current size
+   // (empty for plots that would need to be re-rendered)
+   public final native JsArrayString getPlotFilenames() /*-{
+      return this.plotFilenames || [];
+   }-*/;
+   
    public final native boolean getActivatePlots() /*-{
       return this.activatePlots;
    }-*/;
@@ -89,6 +89,7 @@ import org.rstudio.studio.client.workbench.FileMRUList;
 import org.rstudio.studio.client.workbench.WorkbenchContext;
 import org.rstudio.studio.client.workbench.codesearch.model.SearchPathFunctionDefinition;
 import org.rstudio.studio.client.workbench.commands.Commands;
+import org.rstudio.studio.client.workbench.events.SessionReinitEvent;
 import org.rstudio.studio.client.workbench.events.ZoomPaneEvent;
 import org.rstudio.studio.client.workbench.model.ClientState;
 import org.rstudio.studio.client.workbench.model.RemoteFileSystemContext;
@@ -167,7 +168,8 @@ public class Source implements InsertSourceHandler,
                              PopoutDocEvent.Handler,
                              DocWindowChangedEvent.Handler,
                              DocTabDragInitiatedEvent.Handler,
-                             PopoutDocInitiatedEvent.Handler
+                             PopoutDocInitiatedEvent.Handler,
+                             SessionReinitEvent.Handler
 {
    public interface Display extends IsWidget,
                                     HasTabClosingHandlers,
@@ -534,6 +536,7 @@ public class Source implements InsertSourceHandler,
       events.addHandler(DocWindowChangedEvent.TYPE, this);
       events.addHandler(DocTabDragInitiatedEvent.TYPE, this);
       events.addHandler(PopoutDocInitiatedEvent.TYPE, this);
+      events.addHandler(SessionReinitEvent.TYPE, this);
       
       events.addHandler(
             ReplaceRangesEvent.TYPE,
@@ -1897,6 +1900,29 @@ public class Source implements InsertSourceHandler,
       });
    }
    
+   @Override
+   public void onSessionReinit(SessionReinitEvent event)
+   {
+      // source windows are closed along with the previous session
+      if (!SourceWindowManager.isMainSourceWindow())
+         return;
+      
+      // close the previous session's documents (without closing them on
+      // the server, since they belonged to the session that ended)
+      suspendDocumentClose_ = true;
+      for (int i = view_.getTabCount() - 1; i >= 0; i--)
+         view_.closeTab(i, false);
+      suspendDocumentClose_ = false;
+      sourceNavigationHistory_.clear();
+      
+      // and open the new session's, as when the workbench was created (the
+      // active tab state value then selects the project's last active tab)
+      restoreDocuments(session_);
+      manageCommands();
+      fireDocTabsChanged();
+      openProjectDocs(session_);
+   }
+   
    @Override
    public void onPopoutDocInitiated(final PopoutDocInitiatedEvent event)
    {
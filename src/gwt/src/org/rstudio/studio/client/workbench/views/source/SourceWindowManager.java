@@ -155,8 +155,8 @@ public class SourceWindowManager implements PopoutDocEvent.Handler,
             protected void onInit(JsObject value)
             {
                // save the window geometries 
-               if (value != null)
-                  windowGeometry_ = value;
+               windowGeometry_ = value != null ? value :
+                                                 JsObject.createJsObject();
 
                // compute the max ordinal value in the geometry set
                JsArrayString windowIds = windowGeometry_.keys();
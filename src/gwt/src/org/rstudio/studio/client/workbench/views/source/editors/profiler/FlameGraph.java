@@ -0,0 +1,404 @@
+/*
+ * FlameGraph.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.profiler;
+
+import org.rstudio.core.client.BrowseCap;
+import org.rstudio.studio.client.workbench.views.source.editors.profiler.model.ProfileCallTree;
+import org.rstudio.studio.client.workbench.views.source.editors.profiler.model.ProfileCallTree.Node;
+
+import com.google.gwt.canvas.client.Canvas;
+import com.google.gwt.canvas.dom.client.Context2d;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.event.dom.client.ClickEvent;
+import com.google.gwt.event.dom.client.ClickHandler;
+import com.google.gwt.event.dom.client.MouseMoveEvent;
+import com.google.gwt.event.dom.client.MouseMoveHandler;
+import com.google.gwt.event.logical.shared.ResizeEvent;
+import com.google.gwt.event.logical.shared.ResizeHandler;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.Timer;
+import com.google.gwt.user.client.Window;
+import com.google.gwt.user.client.ui.Composite;
+import com.google.gwt.user.client.ui.Label;
+import com.google.gwt.user.client.ui.RequiresResize;
+import com.google.gwt.user.client.ui.ScrollPanel;
+
+// Draws a profile's call tree as a flame graph (callers below callees) or
+// an icicle graph (callers above callees). Each frame's width is
+// proportional to the samples in which it was on the stack. Frames too
+// narrow to see are culled along with everything above them, so drawing
+// cost depends on what's visible rather than on the size of the profile.
+// Zooming (clicking a frame) and searching only redraw from the tree
+// already in memory.
+public class FlameGraph extends Composite implements RequiresResize
+{
+   public FlameGraph()
+   {
+      canvas_ = Canvas.createIfSupported();
+      scrollPanel_ = new ScrollPanel();
+      scrollPanel_.setSize("100%", "100%");
+      if (canvas_ == null)
+      {
+         scrollPanel_.setWidget(new Label(
+               "Profiles can't be displayed in this browser."));
+      }
+      else
+      {
+         scrollPanel_.setWidget(canvas_);
+         canvas_.addClickHandler(new ClickHandler()
+         {
+            @Override
+            public void onClick(ClickEvent event)
+            {
+               Node node = nodeAt(event.getX(), event.getY());
+               if (node != null)
+                  zoomTo(node);
+            }
+         });
+         canvas_.addMouseMoveHandler(new MouseMoveHandler()
+         {
+            @Override
+            public void onMouseMove(MouseMoveEvent event)
+            {
+               Node node = nodeAt(event.getX(), event.getY());
+               canvas_.setTitle(node == null ? "" : describe(node));
+            }
+         });
+      }
+      initWidget(scrollPanel_);
+   }
+
+   public void setTree(ProfileCallTree tree)
+   {
+      tree_ = tree;
+      focus_ = tree.getRoot();
+      redrawNow();
+   }
+
+   // Redraws to show samples added to the tree since it was last drawn; as
+   // this happens while a profile streams in, redraws are rate limited
+   public void onTreeChanged()
+   {
+      if (!redrawPending_)
+      {
+         redrawPending_ = true;
+         redrawTimer_.schedule(REDRAW_DELAY_MS);
+      }
+   }
+
+   public void setIcicle(boolean icicle)
+   {
+      icicle_ = icicle;
+      redrawNow();
+   }
+
+   public boolean isIcicle()
+   {
+      return icicle_;
+   }
+
+   // Makes the given frame span the full width
+   public void zoomTo(Node node)
+   {
+      focus_ = node;
+      redrawNow();
+   }
+
+   public void resetZoom()
+   {
+      if (tree_ != null)
+         zoomTo(tree_.getRoot());
+   }
+
+   // Highlights frames whose function name contains the query
+   public void setSearch(String query)
+   {
+      query_ = query == null ? "" : query.toLowerCase();
+      redrawNow();
+   }
+
+   // The share of samples (under the current zoom) in which a function
+   // matching the search was on the stack
+   public double getSearchMatchFraction()
+   {
+      if (tree_ == null || query_.length() == 0 || focus_.getTotal() == 0)
+         return 0;
+      return (double) matchedSamples(focus_) / focus_.getTotal();
+   }
+
+   @Override
+   public void onResize()
+   {
+      redrawNow();
+   }
+
+   @Override
+   protected void onLoad()
+   {
+      super.onLoad();
+      resizeRegistration_ = Window.addResizeHandler(new ResizeHandler()
+      {
+         @Override
+         public void onResize(ResizeEvent event)
+         {
+            onTreeChanged();
+         }
+      });
+      Scheduler.get().scheduleDeferred(new ScheduledCommand()
+      {
+         @Override
+         public void execute()
+         {
+            redrawNow();
+         }
+      });
+   }
+
+   @Override
+   protected void onUnload()
+   {
+      if (resizeRegistration_ != null)
+      {
+         resizeRegistration_.removeHandler();
+         resizeRegistration_ = null;
+      }
+      redrawTimer_.cancel();
+      redrawPending_ = false;
+      super.onUnload();
+   }
+
+   private void redrawNow()
+   {
+      redrawTimer_.cancel();
+      redrawPending_ = false;
+      draw();
+   }
+
+   private void draw()
+   {
+      if (canvas_ == null || tree_ == null || !isAttached())
+         return;
+
+      int width = scrollPanel_.getOffsetWidth() - SCROLLBAR_WIDTH;
+      if (width <= 0)
+         return;
+
+      // one row for the root plus one per stack level
+      rows_ = tree_.getMaxDepth() + 1;
+      int height = rows_ * ROW_HEIGHT;
+      double ratio = BrowseCap.devicePixelRatio();
+
+      canvas_.setPixelSize(width, height);
+      canvas_.setCoordinateSpaceWidth((int) (width * ratio));
+      canvas_.setCoordinateSpaceHeight((int) (height * ratio));
+      width_ = width;
+
+      Context2d ctx = canvas_.getContext2d();
+      ctx.setTransform(ratio, 0, 0, ratio, 0, 0);
+      ctx.clearRect(0, 0, width, height);
+      ctx.setFont(FONT);
+      ctx.setTextBaseline(Context2d.TextBaseline.MIDDLE);
+
+      // the focused frame's ancestors span the full width
+      for (Node node = focus_.getParent(); node != null; node = node.getParent())
+         drawFrame(ctx, node, 0, width, true);
+
+      if (focus_.getTotal() > 0)
+         drawSubtree(ctx, focus_, 0, (double) width / focus_.getTotal());
+   }
+
+   private void drawSubtree(Context2d ctx,
+                            Node node,
+                            double x,
+                            double pixelsPerSample)
+   {
+      double width = node.getTotal() * pixelsPerSample;
+      if (width < MIN_FRAME_WIDTH)
+         return;
+
+      drawFrame(ctx, node, x, width, false);
+
+      double childX = x;
+      for (Node child : node.getChildren())
+      {
+         drawSubtree(ctx, child, childX, pixelsPerSample);
+         childX += child.getTotal() * pixelsPerSample;
+      }
+   }
+
+   private void drawFrame(Context2d ctx,
+                          Node node,
+                          double x,
+                          double width,
+                          boolean ancestor)
+   {
+      double y = rowTop(node.getDepth());
+      String name = tree_.getName(node.getNameId());
+      boolean searching = query_.length() > 0;
+      boolean matched = searching && name.toLowerCase().contains(query_);
+
+      String color;
+      if (matched)
+         color = MATCH_COLOR;
+      else if (ancestor || searching)
+         color = MUTED_COLOR;
+      else
+         color = frameColor(name);
+
+      ctx.setFillStyle(color);
+      ctx.fillRect(x, y, Math.max(width - 1, MIN_FRAME_WIDTH), ROW_HEIGHT - 1);
+
+      int chars = (int) ((width - 2 * TEXT_PADDING) / CHAR_WIDTH);
+      if (chars >= 3)
+      {
+         String label = name.length() <= chars
+               ? name
+               : name.substring(0, chars - 2) + "..";
+         ctx.setFillStyle(TEXT_COLOR);
+         ctx.fillText(label, x + TEXT_PADDING, y + ROW_HEIGHT / 2.0);
+      }
+   }
+
+   private double rowTop(int depth)
+   {
+      return icicle_
+            ? depth * ROW_HEIGHT
+            : (rows_ - 1 - depth) * ROW_HEIGHT;
+   }
+
+   // Finds the frame drawn at the given position (in CSS pixels)
+   private Node nodeAt(int x, int y)
+   {
+      if (tree_ == null || width_ <= 0)
+         return null;
+
+      int row = y / ROW_HEIGHT;
+      int depth = icicle_ ? row : rows_ - 1 - row;
+      if (depth < 0)
+         return null;
+
+      // ancestors of the focused frame span the full width
+      if (depth <= focus_.getDepth())
+      {
+         Node node = focus_;
+         while (node.getDepth() > depth)
+            node = node.getParent();
+         return node;
+      }
+
+      if (focus_.getTotal() == 0)
+         return null;
+
+      // walk down from the focused frame to the requested depth
+      double pixelsPerSample = (double) width_ / focus_.getTotal();
+      Node node = focus_;
+      double nodeX = 0;
+      while (node.getDepth() < depth)
+      {
+         Node next = null;
+         double childX = nodeX;
+         for (Node child : node.getChildren())
+         {
+            double childWidth = child.getTotal() * pixelsPerSample;
+            if (x >= childX && x < childX + childWidth)
+            {
+               next = child;
+               break;
+            }
+            childX += childWidth;
+         }
+         if (next == null)
+            return null;
+         node = next;
+         nodeX = childX;
+      }
+
+      return node.getTotal() * pixelsPerSample < MIN_FRAME_WIDTH ? null : node;
+   }
+
+   private String describe(Node node)
+   {
+      int total = tree_.getRoot().getTotal();
+      double percent = total == 0 ? 0 : 100.0 * node.getTotal() / total;
+      StringBuilder text = new StringBuilder(tree_.getName(node.getNameId()));
+      text.append(" (").append(node.getTotal()).append(" samples, ");
+      text.append(Math.round(percent * 10) / 10.0).append("%");
+      if (tree_.getInterval() > 0)
+      {
+         double ms = (double) node.getTotal() * tree_.getInterval() / 1000;
+         text.append(", ").append(Math.round(ms)).append(" ms");
+      }
+      text.append(")");
+      return text.toString();
+   }
+
+   // samples with a matching frame on the stack, counting each sample once
+   // even if several of its frames match
+   private int matchedSamples(Node node)
+   {
+      if (tree_.getName(node.getNameId()).toLowerCase().contains(query_))
+         return node.getTotal();
+
+      int matched = 0;
+      for (Node child : node.getChildren())
+         matched += matchedSamples(child);
+      return matched;
+   }
+
+   // a stable warm color per function, so a function looks the same
+   // wherever it appears
+   private static String frameColor(String name)
+   {
+      int hash = name.hashCode();
+      int hue = 10 + Math.abs(hash % 40);
+      int lightness = 55 + Math.abs((hash >> 8) % 15);
+      return "hsl(" + hue + ", 85%, " + lightness + "%)";
+   }
+
+   private final Timer redrawTimer_ = new Timer()
+   {
+      @Override
+      public void run()
+      {
+         redrawPending_ = false;
+         draw();
+      }
+   };
+
+   private final Canvas canvas_;
+   private final ScrollPanel scrollPanel_;
+
+   private HandlerRegistration resizeRegistration_;
+
+   private ProfileCallTree tree_;
+   private Node focus_;
+   private String query_ = "";
+   private boolean icicle_ = false;
+   private boolean redrawPending_ = false;
+   private int rows_ = 0;
+   private int width_ = 0;
+
+   private static final int ROW_HEIGHT = 18;
+   private static final int SCROLLBAR_WIDTH = 18;
+   private static final int REDRAW_DELAY_MS = 250;
+   private static final double MIN_FRAME_WIDTH = 0.5;
+   private static final double TEXT_PADDING = 3;
+   private static final double CHAR_WIDTH = 7;
+   private static final String FONT = "11px sans-serif";
+   private static final String TEXT_COLOR = "#000";
+   private static final String MATCH_COLOR = "#d580d5";
+   private static final String MUTED_COLOR = "#ddd";
+}
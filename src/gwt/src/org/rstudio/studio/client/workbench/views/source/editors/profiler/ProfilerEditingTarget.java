@@ -14,12 +14,17 @@
  */
 package org.rstudio.studio.client.workbench.views.source.editors.profiler;
 
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.RunAsyncCallback;
+import com.google.gwt.event.logical.shared.CloseEvent;
 import com.google.gwt.event.logical.shared.CloseHandler;
 import com.google.gwt.event.shared.GwtEvent;
+import com.google.gwt.event.shared.HandlerManager;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.resources.client.ImageResource;
 import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.ui.HasValue;
+import com.google.gwt.user.client.ui.SimplePanel;
 import com.google.gwt.user.client.ui.Widget;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
@@ -29,6 +34,7 @@ import org.rstudio.core.client.events.EnsureHeightHandler;
 import org.rstudio.core.client.events.EnsureVisibleHandler;
 import org.rstudio.core.client.files.FileSystemContext;
 import org.rstudio.studio.client.application.events.EventBus;
+import org.rstudio.studio.client.common.GlobalDisplay;
 import org.rstudio.studio.client.common.ReadOnlyValue;
 import org.rstudio.studio.client.common.Value;
 import org.rstudio.studio.client.common.filetypes.FileIconResources;
@@ -52,11 +58,13 @@ public class ProfilerEditingTarget implements EditingTarget
    @Inject
    public ProfilerEditingTarget(ProfilerPresenter presenter,
                                 Commands commands,
-                                EventBus events)
+                                EventBus events,
+                                GlobalDisplay globalDisplay)
    {
       presenter_ = presenter;
       commands_ = commands;
       events_ = events;
+      globalDisplay_ = globalDisplay;
    }
 
    public String getId()
@@ -153,6 +161,9 @@ public class ProfilerEditingTarget implements EditingTarget
    
    public void onActivate()
    {
+      // the profile can't be drawn to size while the tab is hidden
+      if (view_ != null)
+         view_.onActivate();
    }
 
    public void onDeactivate()
@@ -281,15 +292,42 @@ public class ProfilerEditingTarget implements EditingTarget
                           FileType type,
                           Provider<String> defaultNameProvider)
    {
-      // initialize doc, view, and presenter
+      // initialize doc, view, and presenter (the view is sequestered in its
+      // own code fragment and is loaded the first time a profile is shown)
       doc_ = document;
-      view_ = new ProfilerEditingTargetWidget(commands_);
-      presenter_.attatch(doc_,  view_);
+      container_.setSize("100%", "100%");
+      GWT.runAsync(ProfilerEditingTargetWidget.class, new RunAsyncCallback()
+      {
+         @Override
+         public void onSuccess()
+         {
+            if (dismissed_)
+               return;
+            view_ = new ProfilerEditingTargetWidget(commands_);
+            container_.setWidget(view_);
+            presenter_.attatch(doc_,  view_);
+         }
+
+         @Override
+         public void onFailure(Throwable reason)
+         {
+            if (dismissed_)
+               return;
+            
+            // there's nothing to show without the view, so close the tab
+            globalDisplay_.showErrorMessage("Error Loading Profile",
+                  "The profile viewer could not be loaded: " +
+                  reason.getMessage());
+            CloseEvent.fire(ProfilerEditingTarget.this, null);
+         }
+      });
    }
    
    public void onDismiss(int dismissType)
    {  
-      presenter_.detach();
+      dismissed_ = true;
+      if (view_ != null)
+         presenter_.detach();
    }
    
    public long getFileSizeLimit()
@@ -304,7 +342,7 @@ public class ProfilerEditingTarget implements EditingTarget
 
    public Widget asWidget()
    {
-      return view_.asWidget();
+      return container_;
    }
 
    public HandlerRegistration addEnsureVisibleHandler(EnsureVisibleHandler handler)
@@ -330,25 +368,24 @@ public class ProfilerEditingTarget implements EditingTarget
    @Override
    public HandlerRegistration addCloseHandler(CloseHandler<java.lang.Void> handler)
    {
-      return new HandlerRegistration()
-      {
-         public void removeHandler()
-         {
-         }
-      };
+      return handlers_.addHandler(CloseEvent.getType(), handler);
    }  
   
    public void fireEvent(GwtEvent<?> event)
    {
-      assert false : "Not implemented";
+      handlers_.fireEvent(event);
    }
    
    private SourceDocument doc_;
    private ProfilerEditingTargetWidget view_;
+   private boolean dismissed_ = false;
+   private final SimplePanel container_ = new SimplePanel();
+   private final HandlerManager handlers_ = new HandlerManager(this);
    private final ProfilerPresenter presenter_;
    
    private final Value<Boolean> neverDirtyState_ = new Value<Boolean>(false);
 
    private final EventBus events_;
    private final Commands commands_;
+   private final GlobalDisplay globalDisplay_;
 }
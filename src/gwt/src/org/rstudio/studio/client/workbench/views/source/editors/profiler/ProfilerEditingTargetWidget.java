@@ -14,19 +14,25 @@
  */
 package org.rstudio.studio.client.workbench.views.source.editors.profiler;
 
-import com.google.gwt.user.client.ui.CheckBox;
+import java.util.ArrayList;
+
+import com.google.gwt.event.dom.client.ClickEvent;
+import com.google.gwt.event.dom.client.ClickHandler;
+import com.google.gwt.event.logical.shared.ValueChangeEvent;
+import com.google.gwt.event.logical.shared.ValueChangeHandler;
+import com.google.gwt.resources.client.ImageResource;
 import com.google.gwt.user.client.ui.Composite;
-import com.google.gwt.user.client.ui.HasValue;
-import com.google.gwt.user.client.ui.IntegerBox;
 import com.google.gwt.user.client.ui.Label;
-
-import com.google.gwt.user.client.ui.VerticalPanel;
+import com.google.gwt.user.client.ui.SuggestOracle;
 import com.google.gwt.user.client.ui.Widget;
 
+import org.rstudio.core.client.widget.SearchWidget;
 import org.rstudio.core.client.widget.Toolbar;
+import org.rstudio.core.client.widget.ToolbarButton;
 import org.rstudio.studio.client.workbench.commands.Commands;
 import org.rstudio.studio.client.workbench.views.source.PanelWithToolbars;
 import org.rstudio.studio.client.workbench.views.source.editors.EditingTargetToolbar;
+import org.rstudio.studio.client.workbench.views.source.editors.profiler.model.ProfileCallTree;
 
 public class ProfilerEditingTargetWidget extends Composite
                                          implements ProfilerPresenter.Display
@@ -34,18 +40,12 @@ public class ProfilerEditingTargetWidget extends Composite
 {
    public ProfilerEditingTargetWidget(Commands commands)
    {
-      VerticalPanel panel = new VerticalPanel();
-      panel.add(new Label("PropA"));
-      txtPropA_ = new IntegerBox();
-      panel.add(txtPropA_);
-      panel.add(new Label("PropB"));
-      chkPropB_ = new CheckBox();
-      panel.add(chkPropB_); 
-      panel.setSize("100%", "100%");
+      flameGraph_ = new FlameGraph();
+      flameGraph_.setSize("100%", "100%");
 
       PanelWithToolbars mainPanel = new PanelWithToolbars(
                                           createToolbar(commands), 
-                                          panel);
+                                          flameGraph_);
 
       initWidget(mainPanel);
 
@@ -57,6 +57,60 @@ public class ProfilerEditingTargetWidget extends Composite
       toolbar.addLeftSeparator();
       toolbar.addLeftWidget(commands.startProfiler().createToolbarButton());
       toolbar.addLeftWidget(commands.stopProfiler().createToolbarButton());
+      
+      toolbar.addLeftSeparator();
+      layoutButton_ = new ToolbarButton("Icicle", (ImageResource) null,
+                                        new ClickHandler()
+      {
+         @Override
+         public void onClick(ClickEvent event)
+         {
+            boolean icicle = !flameGraph_.isIcicle();
+            flameGraph_.setIcicle(icicle);
+            layoutButton_.setText(icicle ? "Flame" : "Icicle");
+         }
+      });
+      layoutButton_.setTitle("Switch between flame and icicle layouts");
+      toolbar.addLeftWidget(layoutButton_);
+      
+      ToolbarButton resetZoom = new ToolbarButton("Reset Zoom", 
+                                                  (ImageResource) null,
+                                                  new ClickHandler()
+      {
+         @Override
+         public void onClick(ClickEvent event)
+         {
+            flameGraph_.resetZoom();
+            updateStatus();
+         }
+      });
+      resetZoom.setTitle("Show the whole profile (click a frame to zoom)");
+      toolbar.addLeftWidget(resetZoom);
+      
+      searchWidget_ = new SearchWidget(new SuggestOracle() {
+         @Override
+         public void requestSuggestions(Request request, Callback callback)
+         {
+            // no suggestions
+            callback.onSuggestionsReady(
+                  request,
+                  new Response(new ArrayList<Suggestion>()));
+         }
+      });
+      searchWidget_.addValueChangeHandler(new ValueChangeHandler<String>() {
+         @Override
+         public void onValueChange(ValueChangeEvent<String> event)
+         {
+            flameGraph_.setSearch(event.getValue().trim());
+            updateStatus();
+         }
+      });
+      toolbar.addRightWidget(searchWidget_);
+      
+      toolbar.addRightSeparator();
+      status_ = new Label();
+      toolbar.addRightWidget(status_);
+      
       return toolbar;
    }
    
@@ -65,18 +119,71 @@ public class ProfilerEditingTargetWidget extends Composite
       return this;
    }
    
+   public void onActivate()
+   {
+      flameGraph_.onResize();
+   }
+   
    @Override
-   public HasValue<Integer> getPropA()
+   public void showProfile(ProfileCallTree tree)
    {
-      return txtPropA_;
+      tree_ = tree;
+      loading_ = true;
+      flameGraph_.setTree(tree);
+      status_.setText("Loading profile...");
    }
-
+   
    @Override
-   public HasValue<Boolean> getPropB()
+   public void onProfileLoading(double loadedFraction)
+   {
+      flameGraph_.onTreeChanged();
+      status_.setText("Loading profile (" + 
+                      Math.round(loadedFraction * 100) + "%)...");
+   }
+   
+   @Override
+   public void onProfileLoaded()
+   {
+      loading_ = false;
+      flameGraph_.onResize();
+      updateStatus();
+   }
+   
+   @Override
+   public void showMessage(String message)
+   {
+      loading_ = false;
+      status_.setText(message);
+   }
+   
+   private void updateStatus()
    {
-      return chkPropB_;
+      if (tree_ == null || loading_)
+         return;
+      
+      int samples = tree_.getRoot().getTotal();
+      StringBuilder status = new StringBuilder();
+      status.append(samples).append(" samples");
+      if (tree_.getInterval() > 0)
+      {
+         double seconds = (double) samples * tree_.getInterval() / 1000000;
+         status.append(" (").append(Math.round(seconds * 10) / 10.0);
+         status.append(" s)");
+      }
+      
+      if (searchWidget_.getText().trim().length() > 0)
+      {
+         double matched = flameGraph_.getSearchMatchFraction();
+         status.append(", ").append(Math.round(matched * 1000) / 10.0);
+         status.append("% matched");
+      }
+      status_.setText(status.toString());
    }
    
-   private IntegerBox txtPropA_;
-   private CheckBox chkPropB_;   
+   private final FlameGraph flameGraph_;
+   private ToolbarButton layoutButton_;
+   private SearchWidget searchWidget_;
+   private Label status_;
+   private ProfileCallTree tree_;
+   private boolean loading_ = false;
 }
@@ -16,19 +16,19 @@ package org.rstudio.studio.client.workbench.views.source.editors.profiler;
 
 import java.util.HashMap;
 
-import org.rstudio.core.client.HandlerRegistrations;
-import org.rstudio.core.client.TimeBufferedCommand;
 import org.rstudio.core.client.command.CommandBinder;
 import org.rstudio.core.client.command.Handler;
+import org.rstudio.studio.client.server.ServerError;
+import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.server.Void;
 import org.rstudio.studio.client.server.VoidServerRequestCallback;
 import org.rstudio.studio.client.workbench.commands.Commands;
+import org.rstudio.studio.client.workbench.views.source.editors.profiler.model.ProfileCallTree;
+import org.rstudio.studio.client.workbench.views.source.editors.profiler.model.ProfileSamplesChunk;
 import org.rstudio.studio.client.workbench.views.source.editors.profiler.model.ProfilerContents;
 import org.rstudio.studio.client.workbench.views.source.editors.profiler.model.ProfilerServerOperations;
 import org.rstudio.studio.client.workbench.views.source.model.SourceDocument;
  
-import com.google.gwt.event.logical.shared.ValueChangeEvent;
-import com.google.gwt.event.logical.shared.ValueChangeHandler;
-import com.google.gwt.user.client.ui.HasValue;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
@@ -37,8 +37,15 @@ public class ProfilerPresenter
 { 
    public interface Display
    {
-      HasValue<Integer> getPropA();
-      HasValue<Boolean> getPropB();
+      // shows a profile which is about to start loading
+      void showProfile(ProfileCallTree tree);
+      
+      // more of the profile has loaded (loadedFraction is of the file size)
+      void onProfileLoading(double loadedFraction);
+      
+      void onProfileLoaded();
+      
+      void showMessage(String message);
    }
 
    @Inject
@@ -61,31 +68,10 @@ public class ProfilerPresenter
       doc_ = doc;
       view_ = view;
       
-      // initialize view
-      ProfilerContents contents = getContents();
-      view_.getPropA().setValue(contents.getPropA());
-      view_.getPropB().setValue(contents.getPropB());
-      
-      // subscribe to value changes on the view to save contents 
-      // to the server whenenver it's modfied
-      handlerRegistrations_.add(view_.getPropA()
-                  .addValueChangeHandler(new ValueChangeHandler<Integer>() {
-         @Override
-         public void onValueChange(ValueChangeEvent<Integer> event)
-         {
-            contentsUpdater_.nudge();           
-         }
-         
-      }));
-      
-      handlerRegistrations_.add(view_.getPropB()
-                 .addValueChangeHandler(new ValueChangeHandler<Boolean>() {
-         @Override
-         public void onValueChange(ValueChangeEvent<Boolean> event)
-         {
-            contentsUpdater_.nudge();
-         }
-      }));
+      // show the document's profile, if it has one
+      String path = getContents().getPath();
+      if (path.length() > 0)
+         loadProfile(path);
       
       // enable commands for stopped state
       enableStoppedCommands();
@@ -93,8 +79,8 @@ public class ProfilerPresenter
    
    public void detach()
    {
-      // unsubscribe from view
-      handlerRegistrations_.removeHandler();
+      // abandon any profile still loading
+      loadGeneration_++;
       
       // null out references to doc and view
       doc_ = null;
@@ -107,18 +93,111 @@ public class ProfilerPresenter
    @Handler
    public void onStartProfiler()
    {
-     
-      // manage commands
-      enableStartedCommands();
+      server_.startProfiling(SAMPLE_INTERVAL_SECONDS, 
+                             new ServerRequestCallback<String>()
+      {
+         @Override
+         public void onResponseReceived(String path)
+         {
+            profilePath_ = path;
+            
+            // manage commands
+            enableStartedCommands();
+         }
+         
+         @Override
+         public void onError(ServerError error)
+         {
+            if (view_ != null)
+               view_.showMessage("Error starting profiler: " + 
+                                 error.getUserMessage());
+         }
+      });
    }
    
    @Handler
    public void onStopProfiler()
    {
-     
-      
-      // manage commands
-      enableStoppedCommands();
+      final String path = profilePath_;
+      server_.stopProfiling(new ServerRequestCallback<Void>()
+      {
+         @Override
+         public void onResponseReceived(Void response)
+         {
+            profilePath_ = null;
+            
+            // manage commands
+            enableStoppedCommands();
+            
+            // tab might have been closed in the meantime
+            if (doc_ == null || view_ == null || path == null)
+               return;
+            
+            // remember the profile with the document, then show it
+            ProfilerContents contents = ProfilerContents.create(path);
+            HashMap<String, String> props = new HashMap<String, String>();
+            contents.fillProperties(props);
+            server_.modifyDocumentProperties(doc_.getId(),
+                                             props,
+                                             new VoidServerRequestCallback());
+            loadProfile(path);
+         }
+         
+         @Override
+         public void onError(ServerError error)
+         {
+            if (view_ != null)
+               view_.showMessage("Error stopping profiler: " + 
+                                 error.getUserMessage());
+         }
+      });
+   }
+   
+   // Streams the samples in a profile into a call tree, a chunk at a time,
+   // so the view can show the profile while the rest of it loads
+   private void loadProfile(String path)
+   {
+      ProfileCallTree tree = new ProfileCallTree();
+      view_.showProfile(tree);
+      loadChunk(path, 0, tree, ++loadGeneration_);
+   }
+   
+   private void loadChunk(final String path,
+                          double offset,
+                          final ProfileCallTree tree,
+                          final int generation)
+   {
+      server_.getProfileSamples(path, offset, CHUNK_SAMPLES,
+            new ServerRequestCallback<ProfileSamplesChunk>()
+      {
+         @Override
+         public void onResponseReceived(ProfileSamplesChunk chunk)
+         {
+            // a newer load (or closing the tab) superseded this one
+            if (generation != loadGeneration_ || view_ == null)
+               return;
+            
+            tree.addChunk(chunk);
+            if (chunk.isDone())
+            {
+               view_.onProfileLoaded();
+            }
+            else
+            {
+               view_.onProfileLoading(chunk.getSize() > 0 ?
+                     chunk.getNextOffset() / chunk.getSize() : 0);
+               loadChunk(path, chunk.getNextOffset(), tree, generation);
+            }
+         }
+         
+         @Override
+         public void onError(ServerError error)
+         {
+            if (generation == loadGeneration_ && view_ != null)
+               view_.showMessage("Error loading profile: " + 
+                                 error.getUserMessage());
+         }
+      });
    }
    
    private void disableAllCommands()
@@ -139,33 +218,6 @@ public class ProfilerPresenter
       commands_.stopProfiler().setEnabled(false);   
    }
    
-   // create a time buffered command for updating profiler contents (ensures
-   // that we save no more frequently than every 100ms even in the face of
-   // many changes over a short time)
-   private TimeBufferedCommand contentsUpdater_ = new TimeBufferedCommand(100) {
-
-      @Override
-      protected void performAction(boolean shouldSchedulePassive)
-      {         
-         // tab might have been closed in the meantime, check for this first
-         if (doc_ == null || view_ == null)
-            return;
-         
-         // update document properties if they've changed
-         ProfilerContents contents = ProfilerContents.create(
-                                           view_.getPropA().getValue(),
-                                           view_.getPropB().getValue());
-         if (!contents.equalTo(getContents()))
-         {
-            HashMap<String, String> props = new HashMap<String, String>();
-            contents.fillProperties(props);
-            server_.modifyDocumentProperties(doc_.getId(),
-                                             props,
-                                             new VoidServerRequestCallback());
-         }  
-      }
-   };
-   
    // typed access to underlying document properties
    private ProfilerContents getContents()
    {
@@ -175,10 +227,16 @@ public class ProfilerPresenter
    
    private SourceDocument doc_ = null;
    private Display view_ = null;
+   private String profilePath_ = null;
+   private int loadGeneration_ = 0;
    private final ProfilerServerOperations server_;
    private final Commands commands_;
-   private final HandlerRegistrations handlerRegistrations_ = 
-                                             new HandlerRegistrations();
+   
+   // Rprof's default sampling interval
+   private static final double SAMPLE_INTERVAL_SECONDS = 0.02;
+   
+   // samples read per request when loading a profile
+   private static final int CHUNK_SAMPLES = 100000;
    
    public interface Binder extends CommandBinder<Commands, ProfilerPresenter> {}
 }
@@ -0,0 +1,166 @@
+/*
+ * ProfileCallTree.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.profiler.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayInteger;
+import com.google.gwt.core.client.JsArrayString;
+
+// Sampled call stacks aggregated into a tree: each node is a function
+// called along a particular path from the root, with the number of samples
+// in which that path was on the stack (total) or was the whole stack
+// (self). Chunks of samples are merged in as they arrive, so a profile can
+// be displayed while it's still loading.
+public class ProfileCallTree
+{
+   public static class Node
+   {
+      private Node(Node parent, int nameId, int depth)
+      {
+         parent_ = parent;
+         nameId_ = nameId;
+         depth_ = depth;
+      }
+
+      public Node getParent()
+      {
+         return parent_;
+      }
+
+      public int getNameId()
+      {
+         return nameId_;
+      }
+
+      public int getDepth()
+      {
+         return depth_;
+      }
+
+      public int getTotal()
+      {
+         return total_;
+      }
+
+      public int getSelf()
+      {
+         return self_;
+      }
+
+      public ArrayList<Node> getChildren()
+      {
+         return children_;
+      }
+
+      private Node getOrAddChild(int nameId)
+      {
+         Node child = childrenByName_.get(nameId);
+         if (child == null)
+         {
+            child = new Node(this, nameId, depth_ + 1);
+            childrenByName_.put(nameId, child);
+            children_.add(child);
+         }
+         return child;
+      }
+
+      private final Node parent_;
+      private final int nameId_;
+      private final int depth_;
+      private int total_ = 0;
+      private int self_ = 0;
+      private final ArrayList<Node> children_ = new ArrayList<Node>();
+      private final HashMap<Integer, Node> childrenByName_ =
+            new HashMap<Integer, Node>();
+   }
+
+   public Node getRoot()
+   {
+      return root_;
+   }
+
+   public String getName(int nameId)
+   {
+      return nameId < 0 ? "(all)" : names_.get(nameId);
+   }
+
+   public int getNameCount()
+   {
+      return names_.size();
+   }
+
+   public int getMaxDepth()
+   {
+      return maxDepth_;
+   }
+
+   // sampling interval in microseconds, or -1 if not yet known
+   public int getInterval()
+   {
+      return interval_;
+   }
+
+   public void addChunk(ProfileSamplesChunk chunk)
+   {
+      if (chunk.getInterval() > 0)
+         interval_ = chunk.getInterval();
+
+      // map the chunk's name table onto ours
+      JsArrayString names = chunk.getNames();
+      int[] nameIds = new int[names.length()];
+      for (int i = 0; i < names.length(); i++)
+         nameIds[i] = internName(names.get(i));
+
+      JsArray<JsArrayInteger> stacks = chunk.getStacks();
+      JsArrayInteger counts = chunk.getCounts();
+      for (int i = 0; i < stacks.length(); i++)
+      {
+         JsArrayInteger stack = stacks.get(i);
+         int count = counts.get(i);
+
+         Node node = root_;
+         node.total_ += count;
+         for (int j = 0; j < stack.length(); j++)
+         {
+            node = node.getOrAddChild(nameIds[stack.get(j)]);
+            node.total_ += count;
+         }
+         node.self_ += count;
+         maxDepth_ = Math.max(maxDepth_, stack.length());
+      }
+   }
+
+   private int internName(String name)
+   {
+      Integer id = nameIds_.get(name);
+      if (id == null)
+      {
+         id = names_.size();
+         names_.add(name);
+         nameIds_.put(name, id);
+      }
+      return id;
+   }
+
+   private final Node root_ = new Node(null, -1, 0);
+   private final ArrayList<String> names_ = new ArrayList<String>();
+   private final HashMap<String, Integer> nameIds_ =
+         new HashMap<String, Integer>();
+   private int maxDepth_ = 0;
+   private int interval_ = -1;
+}
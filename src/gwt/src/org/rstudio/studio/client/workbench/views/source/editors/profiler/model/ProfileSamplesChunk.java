@@ -0,0 +1,64 @@
+/*
+ * ProfileSamplesChunk.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.profiler.model;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayInteger;
+import com.google.gwt.core.client.JsArrayString;
+
+// A chunk of samples read from an Rprof output file. Identical stacks are
+// listed once, with the number of samples that had them; each stack holds
+// indexes into this chunk's table of function names, outermost call first.
+public class ProfileSamplesChunk extends JavaScriptObject
+{
+   protected ProfileSamplesChunk()
+   {
+   }
+
+   // sampling interval in microseconds, or -1 if the chunk had no header
+   public final native int getInterval() /*-{
+      return this.interval;
+   }-*/;
+
+   public final native int getSampleCount() /*-{
+      return this.samples;
+   }-*/;
+
+   public final native JsArrayString getNames() /*-{
+      return this.names;
+   }-*/;
+
+   public final native JsArray<JsArrayInteger> getStacks() /*-{
+      return this.stacks;
+   }-*/;
+
+   public final native JsArrayInteger getCounts() /*-{
+      return this.counts;
+   }-*/;
+
+   // byte offset to read the next chunk from
+   public final native double getNextOffset() /*-{
+      return this.next_offset;
+   }-*/;
+
+   public final native double getSize() /*-{
+      return this.size;
+   }-*/;
+
+   public final native boolean isDone() /*-{
+      return this.done;
+   }-*/;
+}
@@ -26,47 +26,27 @@ public class ProfilerContents extends JavaScriptObject
 
    public static final ProfilerContents createDefault()
    {
-      return create(10, true);
+      return create("");
    }
    
-   public static final native ProfilerContents create(int propA,
-                                                      boolean propB) /*-{
+   public static final native ProfilerContents create(String path) /*-{
       var contents = new Object();
-      contents.prop_a = propA.toString();
-      contents.prop_b = propB.toString();
+      contents.path = path;
       return contents ;
    }-*/;
    
-   
-   public final int getPropA()
-   {
-      return Integer.parseInt(getPropAString());
-   };
-   
-   public final boolean getPropB()
-   {
-      return Boolean.parseBoolean(getPropBString());
-   };
+   // path of the Rprof output shown in the profiler (empty if none)
+   public final native String getPath() /*-{
+      return this.path || "";
+   }-*/;
    
    public final boolean equalTo(ProfilerContents other)
    {
-      return getPropA() == other.getPropA() &&
-             getPropB() == other.getPropB();
+      return getPath().equals(other.getPath());
    }
    
    public final void fillProperties(HashMap<String, String> properties)
    {
-      properties.put("prop_a", getPropAString());
-      properties.put("prop_b", getPropBString());
+      properties.put("path", getPath());
    }
-   
-   private native final String getPropAString() /*-{
-      return this.prop_a;
-   }-*/;
-
-   private native final String getPropBString() /*-{
-      return this.prop_b;
-   }-*/;
-   
-   
 }
@@ -24,4 +24,16 @@ public interface ProfilerServerOperations
 {
    void modifyDocumentProperties(String id, HashMap<String, String> properties,
          ServerRequestCallback<Void> requestCallback);
+
+   // starts Rprof, returning the path of its output file
+   void startProfiling(double interval, ServerRequestCallback<String> callback);
+
+   void stopProfiling(ServerRequestCallback<Void> callback);
+
+   // reads up to maxSamples samples from an Rprof output file, starting at
+   // the given byte offset
+   void getProfileSamples(String path,
+                          double offset,
+                          int maxSamples,
+                          ServerRequestCallback<ProfileSamplesChunk> callback);
 }
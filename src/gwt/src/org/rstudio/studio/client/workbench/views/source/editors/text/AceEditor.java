@@ -264,7 +264,7 @@ public class AceEditor implements DocDisplay,
       completionManager_ = new NullCompletionManager();
       diagnosticsBgPopup_ = new DiagnosticsBackgroundPopup(this);
       
-      bgTokenizer_ = new BackgroundTokenizer();
+      bgTokenizer_ = new TokenizationScheduler(widget_);
       
       RStudioGinjector.INSTANCE.injectMembers(this);
       
@@ -1686,7 +1686,7 @@ public class AceEditor implements DocDisplay,
    public void setHighlightRFunctionCalls(boolean highlight)
    {
       _setHighlightRFunctionCallsImpl(highlight);
-      widget_.getEditor().retokenizeDocument();
+      bgTokenizer_.retokenize();
    }
    
    private native final void _setHighlightRFunctionCallsImpl(boolean highlight)
@@ -2337,6 +2337,12 @@ public class AceEditor implements DocDisplay,
    {
       return handlers_.addHandler(FoldChangeEvent.TYPE, handler);
    }
+   
+   @Override
+   public void whenTokenizedUpToRow(int row, Command command)
+   {
+      bgTokenizer_.whenTokenizedUpToRow(row, command);
+   }
 
    public HandlerRegistration addRenderFinishedHandler(RenderFinishedEvent.Handler handler)
    {
@@ -2687,6 +2693,30 @@ public class AceEditor implements DocDisplay,
    {
       widget_.removeMarkersOnCursorLine();
    }
+   
+   @Override
+   public int addMarker(Range range, String clazz, String type, boolean inFront)
+   {
+      return getSession().addMarker(range, clazz, type, inFront);
+   }
+   
+   @Override
+   public void removeMarker(int markerId)
+   {
+      getSession().removeMarker(markerId);
+   }
+   
+   @Override
+   public int getFirstVisibleRow()
+   {
+      return widget_.getEditor().getFirstVisibleRow();
+   }
+   
+   @Override
+   public int getLastVisibleRow()
+   {
+      return widget_.getEditor().getLastVisibleRow();
+   }
 
    @Override
    public void showLint(JsArray<LintItem> lint)
@@ -2721,8 +2751,9 @@ public class AceEditor implements DocDisplay,
       infoBar_.show();
    }
 
-   public Range createAnchoredRange(Position start,
-                                    Position end)
+   @Override
+   public AnchoredRange createAnchoredRange(Position start,
+                                            Position end)
    {
       return widget_.getEditor().getSession().createAnchoredRange(start, end);
    }
@@ -2827,31 +2858,7 @@ public class AceEditor implements DocDisplay,
    private Integer executionLine_ = null;
    private boolean valueChangeSuppressed_ = false;
    private AceInfoBar infoBar_;
-   private final BackgroundTokenizer bgTokenizer_;
-   
-   private class BackgroundTokenizer
-   {
-      public BackgroundTokenizer()
-      {
-         timer_ = new Timer()
-         {
-            @Override
-            public void run()
-            {
-              widget_.getEditor().tokenizeUpToRow(row_);
-            }
-         };
-      }
-      
-      public void scheduleTokenization(int row)
-      {
-         row_ = row;
-         timer_.schedule(300);
-      }
-      
-      private int row_ = 0;
-      private final Timer timer_;
-   }
+   private final TokenizationScheduler bgTokenizer_;
    
    private static final ExternalJavaScriptLoader getLoader(StaticDataResource release)
    {
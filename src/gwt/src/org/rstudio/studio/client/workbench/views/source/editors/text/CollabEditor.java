@@ -14,31 +14,113 @@
  */
 package org.rstudio.studio.client.workbench.views.source.editors.text;
 
+import java.util.HashMap;
+
+import org.rstudio.studio.client.application.events.EventBus;
+import org.rstudio.studio.client.common.satellite.Satellite;
+import org.rstudio.studio.client.workbench.views.source.editors.text.collab.CollabSession;
+import org.rstudio.studio.client.workbench.views.source.editors.text.collab.CollabTransport;
+import org.rstudio.studio.client.workbench.views.source.editors.text.collab.LoopbackCollabServer;
+import org.rstudio.studio.client.workbench.views.source.editors.text.collab.SatelliteCollabTransport;
+import org.rstudio.studio.client.workbench.views.source.editors.text.collab.WebSocketCollabTransport;
+import org.rstudio.studio.client.workbench.views.source.events.CollabEditSavedEvent;
 import org.rstudio.studio.client.workbench.views.source.events.CollabEditStartParams;
 import org.rstudio.studio.client.workbench.views.source.model.DirtyState;
 
 import com.google.gwt.user.client.Command;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
 
-public class CollabEditor
+// Tracks the collaborative editing session (if any) of each editor. The
+// session's URL chooses the transport: "loopback:<name>" joins an
+// in-process session hosted by the main window, which editors in source
+// satellite windows reach through the main window; anything else is the
+// web socket URL of an external collaboration server.
+@Singleton
+public class CollabEditor implements CollabEditSavedEvent.Handler
 {
+   @Inject
+   public CollabEditor(EventBus events)
+   {
+      events.addHandler(CollabEditSavedEvent.TYPE, this);
+      if (!Satellite.isCurrentWindowSatellite())
+         LoopbackCollabServer.exportToSatellites();
+   }
+
    void beginCollabSession(AceEditor editor, CollabEditStartParams params, 
          DirtyState dirtyState, Command onCompleted)
    {
-      onCompleted.execute();
+      endCollabSession(editor);
+
+      CollabSession session = new CollabSession(editor, dirtyState,
+            createTransport(params));
+      sessions_.put(editor, new ActiveSession(session, params, dirtyState));
+
+      // the editor's contents are swapped for the session's once joined
+      session.start(onCompleted);
    }
    
    boolean hasActiveCollabSession(AceEditor editor)
    {
-      return false;
+      ActiveSession active = sessions_.get(editor);
+      return active != null && active.session.isActive();
    }
    
    boolean hasFollowingCollabSession(AceEditor editor)
    {
+      // following other users' cursors isn't supported
       return false;
    }
    
    void endCollabSession(AceEditor editor)
    {
-      
+      ActiveSession active = sessions_.remove(editor);
+      if (active != null)
+         active.session.end();
+   }
+
+   @Override
+   public void onCollabEditSaved(CollabEditSavedEvent event)
+   {
+      // another editor in the session saved the file, so our copy (which
+      // has the same contents) is now clean too
+      String path = event.getData().getPath();
+      for (ActiveSession active : sessions_.values())
+      {
+         if (path != null && path.equals(active.params.getPath()))
+            active.dirtyState.markClean();
+      }
    }
+
+   private CollabTransport createTransport(CollabEditStartParams params)
+   {
+      String url = params.getUrl();
+      if (url.startsWith(LoopbackCollabServer.URL_SCHEME))
+      {
+         String name = url.substring(LoopbackCollabServer.URL_SCHEME.length());
+         if (Satellite.isCurrentWindowSatellite())
+            return new SatelliteCollabTransport(name);
+         return LoopbackCollabServer.forSession(name).createTransport();
+      }
+      return new WebSocketCollabTransport(url, params.getId(), params.getPath());
+   }
+
+   private static class ActiveSession
+   {
+      public ActiveSession(CollabSession session,
+                           CollabEditStartParams params,
+                           DirtyState dirtyState)
+      {
+         this.session = session;
+         this.params = params;
+         this.dirtyState = dirtyState;
+      }
+
+      public final CollabSession session;
+      public final CollabEditStartParams params;
+      public final DirtyState dirtyState;
+   }
+
+   private final HashMap<AceEditor, ActiveSession> sessions_ =
+         new HashMap<AceEditor, ActiveSession>();
 }
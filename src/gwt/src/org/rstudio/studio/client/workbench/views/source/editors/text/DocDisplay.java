@@ -32,6 +32,7 @@ import org.rstudio.studio.client.workbench.views.source.editors.text.ace.AceComm
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.AceFold;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Anchor;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Mode.InsertChunkInfo;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.AnchoredRange;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Position;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Range;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Selection;
@@ -57,6 +58,7 @@ import com.google.gwt.event.dom.client.HasFocusHandlers;
 import com.google.gwt.event.dom.client.HasKeyDownHandlers;
 import com.google.gwt.event.logical.shared.HasValueChangeHandlers;
 import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.ui.IsWidget;
 import com.google.gwt.user.client.ui.Widget;
 
@@ -240,6 +242,10 @@ public interface DocDisplay extends HasValueChangeHandlers<Void>,
    Scope getSectionAtPosition(Position position);
    boolean hasScopeTree();
    JsArray<Scope> getScopeTree();
+   
+   // Runs the command once the document is tokenized (in the background)
+   // up to the given row
+   void whenTokenizedUpToRow(int row, Command command);
    InsertChunkInfo getInsertChunkInfo();
 
    void foldAll();
@@ -312,6 +318,13 @@ public interface DocDisplay extends HasValueChangeHandlers<Void>,
    void removeMarkersAtCursorPosition();
    void removeMarkersOnCursorLine();
    
+   int addMarker(Range range, String clazz, String type, boolean inFront);
+   void removeMarker(int markerId);
+   AnchoredRange createAnchoredRange(Position start, Position end);
+   
+   int getFirstVisibleRow();
+   int getLastVisibleRow();
+   
    void beginCollabSession(CollabEditStartParams params, DirtyState dirtyState);
    boolean hasActiveCollabSession();
    boolean hasFollowingCollabSession();
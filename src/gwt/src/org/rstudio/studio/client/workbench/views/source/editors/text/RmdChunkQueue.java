@@ -0,0 +1,188 @@
+/*
+ * RmdChunkQueue.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text;
+
+import org.rstudio.core.client.command.AppCommand;
+import org.rstudio.core.client.command.CommandHandler;
+import org.rstudio.studio.client.RStudioGinjector;
+import org.rstudio.studio.client.application.events.EventBus;
+import org.rstudio.studio.client.rmarkdown.events.RmdChunkExecutionEvent;
+import org.rstudio.studio.client.rmarkdown.model.RMarkdownServerOperations;
+import org.rstudio.studio.client.rmarkdown.model.RmdChunkRef;
+import org.rstudio.studio.client.server.ServerError;
+import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.server.Void;
+import org.rstudio.studio.client.server.VoidServerRequestCallback;
+import org.rstudio.studio.client.workbench.commands.Commands;
+import org.rstudio.studio.client.workbench.views.console.events.SendToConsoleEvent;
+import org.rstudio.studio.client.workbench.views.source.editors.text.status.StatusBar;
+import org.rstudio.studio.client.workbench.views.source.model.DocUpdateSentinel;
+
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.Command;
+import com.google.inject.Inject;
+
+// Runs chunks of an R Markdown document by reference: the document is
+// saved, the server is told which rows make up each chunk, and the console
+// is only sent a call to run them. Progress is shown in the status bar as
+// the server reports each chunk starting and finishing. Interrupting R
+// cancels the chunks which haven't run yet.
+public class RmdChunkQueue implements RmdChunkExecutionEvent.Handler
+{
+   public RmdChunkQueue(DocUpdateSentinel docUpdateSentinel,
+                        StatusBar statusBar)
+   {
+      RStudioGinjector.INSTANCE.injectMembers(this);
+      docUpdateSentinel_ = docUpdateSentinel;
+      statusBar_ = statusBar;
+      registration_ = events_.addHandler(RmdChunkExecutionEvent.TYPE, this);
+
+      // the interrupt stops the chunk that's running; the queue also has to
+      // be cleared in case the call to run it hadn't reached R yet
+      interruptRegistration_ = commands_.interruptR().addHandler(
+            new CommandHandler()
+      {
+         @Override
+         public void onCommand(AppCommand command)
+         {
+            cancel();
+         }
+      });
+   }
+
+   @Inject
+   void initialize(RMarkdownServerOperations server,
+                   EventBus events,
+                   Commands commands)
+   {
+      server_ = server;
+      events_ = events;
+      commands_ = commands;
+   }
+
+   // Runs the chunks, replacing any still waiting to run
+   public void execute(final JsArray<RmdChunkRef> chunks)
+   {
+      if (chunks.length() == 0)
+         return;
+
+      docUpdateSentinel_.withSavedDoc(new Command()
+      {
+         @Override
+         public void execute()
+         {
+            server_.queueRmdChunks(docUpdateSentinel_.getId(), chunks,
+                                   new ServerRequestCallback<Void>()
+            {
+               @Override
+               public void onResponseReceived(Void response)
+               {
+                  pending_ = true;
+                  failed_ = false;
+                  elapsedMs_ = 0;
+                  events_.fireEvent(new SendToConsoleEvent(
+                        ".rs.executeQueuedRmdChunks()", true));
+               }
+
+               @Override
+               public void onError(ServerError error)
+               {
+                  statusBar_.showMessage("Error running chunks: " +
+                                         error.getUserMessage(),
+                                         MESSAGE_TIME_MS);
+               }
+            });
+         }
+      });
+   }
+
+   // Cancels the chunks which haven't started yet
+   public void cancel()
+   {
+      if (!pending_)
+         return;
+
+      pending_ = false;
+      server_.cancelRmdChunks(docUpdateSentinel_.getId(),
+                              new VoidServerRequestCallback());
+   }
+
+   public void detach()
+   {
+      cancel();
+      registration_.removeHandler();
+      interruptRegistration_.removeHandler();
+   }
+
+   @Override
+   public void onRmdChunkExecution(RmdChunkExecutionEvent event)
+   {
+      RmdChunkExecutionEvent.Data data = event.getData();
+      if (!data.getDocId().equals(docUpdateSentinel_.getId()))
+         return;
+
+      String state = data.getState();
+      String chunk = (data.getIndex() + 1) + " of " + data.getCount();
+      if (state.equals(RmdChunkExecutionEvent.STATE_STARTED))
+      {
+         statusBar_.showMessage("Running chunk " + chunk + ": " +
+                                data.getLabel());
+         return;
+      }
+
+      elapsedMs_ += data.getElapsedMs();
+      boolean last = data.getIndex() == data.getCount() - 1;
+      if (state.equals(RmdChunkExecutionEvent.STATE_ERROR))
+      {
+         // (the chunks after this one are reported as cancelled)
+         failed_ = true;
+         statusBar_.showMessage("Error in chunk " + chunk + ": " +
+                                data.getLabel(), MESSAGE_TIME_MS);
+      }
+      else if (last && state.equals(RmdChunkExecutionEvent.STATE_FINISHED))
+      {
+         statusBar_.showMessage("Ran " + data.getCount() + " chunks in " +
+                                formatSeconds(elapsedMs_), MESSAGE_TIME_MS);
+      }
+      else if (last && !failed_)
+      {
+         statusBar_.showMessage("Chunks cancelled", MESSAGE_TIME_MS);
+      }
+
+      if (last)
+         pending_ = false;
+   }
+
+   private static String formatSeconds(int ms)
+   {
+      return (ms / 100) / 10.0 + "s";
+   }
+
+   private final DocUpdateSentinel docUpdateSentinel_;
+   private final StatusBar statusBar_;
+   private final HandlerRegistration registration_;
+   private final HandlerRegistration interruptRegistration_;
+
+   private boolean pending_ = false;
+   private boolean failed_ = false;
+   private int elapsedMs_ = 0;
+
+   private RMarkdownServerOperations server_;
+   private EventBus events_;
+   private Commands commands_;
+
+   private static final int MESSAGE_TIME_MS = 4000;
+}
@@ -0,0 +1,162 @@
+/*
+ * RmdFrontMatterModel.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text;
+
+import org.rstudio.core.client.Debug;
+import org.rstudio.studio.client.rmarkdown.model.RmdFrontMatter;
+import org.rstudio.studio.client.rmarkdown.model.YamlTree;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Position;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Range;
+import org.rstudio.studio.client.workbench.views.source.editors.text.events.DocumentChangedEvent;
+
+// The YAML front matter of an editor's document, read from the rows at the
+// top of the document rather than from a copy of all of it. It's kept until
+// a change touches the rows it was read from, so edits to the body of a
+// long document don't cause the header to be found (or parsed) again.
+// Follows the rules of YamlFrontMatter.getFrontMatterRange: only blank rows
+// may come before the opening ---, and the header ends with --- or ...
+public class RmdFrontMatterModel
+{
+   public RmdFrontMatterModel(DocDisplay docDisplay)
+   {
+      docDisplay_ = docDisplay;
+      docDisplay_.addDocumentChangedHandler(new DocumentChangedEvent.Handler()
+      {
+         @Override
+         public void onDocumentChanged(DocumentChangedEvent event)
+         {
+            if (valid_ &&
+                event.getEvent().getRange().getStart().getRow() <= lastRowRead_)
+            {
+               invalidate();
+            }
+         }
+      });
+   }
+
+   // The front matter, or the default (an HTML document) if there's none,
+   // as YamlFrontMatter.getFrontMatter
+   public String getFrontMatter()
+   {
+      ensureRead();
+      return yaml_ == null ? DEFAULT_FRONT_MATTER : yaml_;
+   }
+
+   // The parsed front matter, or null if it couldn't be parsed; the tree
+   // is shared, so callers mustn't change it
+   public YamlTree getTree()
+   {
+      ensureRead();
+      if (tree_ == null)
+      {
+         try
+         {
+            tree_ = new YamlTree(getFrontMatter());
+         }
+         catch (Exception e)
+         {
+            Debug.log("Warning: Exception thrown while parsing YAML:\n" +
+                      getFrontMatter());
+         }
+      }
+      return tree_;
+   }
+
+   // Replaces the front matter (adding it to the top of the document if
+   // there's none) and returns whether the document changed
+   public boolean applyFrontMatter(String yaml)
+   {
+      if (yaml == null || yaml.isEmpty())
+         return false;
+
+      ensureRead();
+      if (yaml_ == null)
+      {
+         docDisplay_.replaceRange(
+               Range.fromPoints(Position.create(0, 0), Position.create(0, 0)),
+               RmdFrontMatter.FRONTMATTER_SEPARATOR +
+               yaml +
+               RmdFrontMatter.FRONTMATTER_SEPARATOR);
+         return true;
+      }
+
+      if (yaml.equals(yaml_))
+         return false;
+
+      docDisplay_.replaceRange(
+            Range.fromPoints(Position.create(beginRow_ + 1, 0),
+                             Position.create(endRow_, 0)),
+            yaml);
+      return true;
+   }
+
+   public void invalidate()
+   {
+      valid_ = false;
+      yaml_ = null;
+      tree_ = null;
+   }
+
+   private void ensureRead()
+   {
+      if (valid_)
+         return;
+
+      valid_ = true;
+      yaml_ = null;
+      tree_ = null;
+
+      int rowCount = docDisplay_.getRowCount();
+
+      // only whitespace may come before the header
+      int row = 0;
+      while (row < rowCount && docDisplay_.getLine(row).trim().length() == 0)
+         row++;
+      lastRowRead_ = row;
+      if (row == rowCount || !docDisplay_.getLine(row).matches("---\\s*"))
+         return;
+      beginRow_ = row;
+
+      StringBuilder yaml = new StringBuilder();
+      for (row = beginRow_ + 1; row < rowCount; row++)
+      {
+         String line = docDisplay_.getLine(row);
+         if (line.matches("(---|\\.\\.\\.)\\s*"))
+         {
+            endRow_ = row;
+            lastRowRead_ = row;
+            yaml_ = yaml.toString();
+            return;
+         }
+         yaml.append(line).append("\n");
+      }
+
+      // an unterminated header: any row could end it
+      lastRowRead_ = rowCount;
+   }
+
+   private final DocDisplay docDisplay_;
+
+   private boolean valid_ = false;
+   private String yaml_;
+   private YamlTree tree_;
+   private int beginRow_;
+   private int endRow_;
+
+   // the last row the front matter (or its absence) depends on
+   private int lastRowRead_;
+
+   private static final String DEFAULT_FRONT_MATTER = "output: html_document\n";
+}
@@ -90,12 +90,12 @@ import org.rstudio.studio.client.notebook.CompileNotebookResult;
 import org.rstudio.studio.client.rmarkdown.events.ConvertToShinyDocEvent;
 import org.rstudio.studio.client.rmarkdown.events.RmdOutputFormatChangedEvent;
 import org.rstudio.studio.client.rmarkdown.model.RMarkdownContext;
+import org.rstudio.studio.client.rmarkdown.model.RmdChunkRef;
 import org.rstudio.studio.client.rmarkdown.model.RmdFrontMatter;
 import org.rstudio.studio.client.rmarkdown.model.RmdFrontMatterOutputOptions;
 import org.rstudio.studio.client.rmarkdown.model.RmdOutputFormat;
 import org.rstudio.studio.client.rmarkdown.model.RmdTemplateFormat;
 import org.rstudio.studio.client.rmarkdown.model.RmdYamlData;
-import org.rstudio.studio.client.rmarkdown.model.YamlFrontMatter;
 import org.rstudio.studio.client.rmarkdown.ui.RmdTemplateOptionsDialog;
 import org.rstudio.studio.client.rsconnect.events.RSConnectActionEvent;
 import org.rstudio.studio.client.rsconnect.events.RSConnectDeployInitiatedEvent;
@@ -406,6 +406,7 @@ public class TextEditingTarget implements
       codeExecution_ = new EditingTargetCodeExecution(docDisplay_, this);
       compilePdfHelper_ = new TextEditingTargetCompilePdfHelper(docDisplay_);
       rmarkdownHelper_ = new TextEditingTargetRMarkdownHelper();
+      frontMatter_ = new RmdFrontMatterModel(docDisplay_);
       cppHelper_ = new TextEditingTargetCppHelper(cppCompletionContext_, 
                                                   docDisplay_);
       presentationHelper_ = new TextEditingTargetPresentationHelper(
@@ -2429,6 +2430,9 @@ public class TextEditingTarget implements
       docDisplay_.endCollabSession();
 
       codeExecution_.detachLastExecuted();
+      
+      if (chunkQueue_ != null)
+         chunkQueue_.detach();
    }
 
    public ReadOnlyValue<Boolean> dirtyState()
@@ -3405,28 +3409,20 @@ public class TextEditingTarget implements
    
    private String getRmdFrontMatter()
    {
-      return YamlFrontMatter.getFrontMatter(docDisplay_.getCode());
+      return frontMatter_.getFrontMatter();
    }
    
    private void applyRmdFrontMatter(String yaml)
    {
-      String code = docDisplay_.getCode();
-      String newCode = YamlFrontMatter.applyFrontMatter(code, yaml);
-      if (!code.equals(newCode)) 
-      {
-         docDisplay_.setCode(newCode, true);
+      if (frontMatter_.applyFrontMatter(yaml))
          updateRmdFormatList();
-      }
    }
 
    private RmdSelectedTemplate getSelectedTemplate()
    {
       // try to extract the front matter and ascertain the template to which
       // it refers
-      String yaml = getRmdFrontMatter();
-      if (yaml == null)
-         return null;
-      return rmarkdownHelper_.getTemplateFormat(yaml);
+      return rmarkdownHelper_.getTemplateFormat(frontMatter_.getTree());
    }
    
    private void updateRmdFormatList()
@@ -3928,6 +3924,28 @@ public class TextEditingTarget implements
       // execute the previous chunks
       Scope[] previousScopes = scopeHelper_.getPreviousSweaveChunks(position);
       
+      // R Markdown chunks are run by reference (see RmdChunkQueue), unless
+      // one of them includes another chunk's code (<<label>>)
+      if (fileType_.isRmd() && !hasChunkIncludes(previousScopes))
+      {
+         JsArray<RmdChunkRef> chunks = JavaScriptObject.createArray().cast();
+         for (Scope scope : previousScopes)
+         {
+            if (isRChunk(scope) && isExecutableChunk(scope))
+            {
+               chunks.push(RmdChunkRef.create(
+                     scope.getLabel(),
+                     scope.getPreamble().getRow() + 1,
+                     scope.getEnd().getRow()));
+            }
+         }
+         
+         if (chunkQueue_ == null)
+            chunkQueue_ = new RmdChunkQueue(docUpdateSentinel_, statusBar_);
+         chunkQueue_.execute(chunks);
+         return;
+      }
+      
       StringBuilder builder = new StringBuilder();
       for (Scope scope : previousScopes)
       {
@@ -3967,6 +3985,22 @@ public class TextEditingTarget implements
       }
    }
    
+   private boolean hasChunkIncludes(Scope[] chunks)
+   {
+      Pattern reInclude = Pattern.create("^<<(.*?)>>");
+      for (Scope chunk : chunks)
+      {
+         for (int row = chunk.getPreamble().getRow() + 1;
+              row < chunk.getEnd().getRow();
+              row++)
+         {
+            if (reInclude.test(docDisplay_.getLine(row)))
+               return true;
+         }
+      }
+      return false;
+   }
+   
    @Handler
    public void onExecuteSetupChunk()
    {
@@ -4365,10 +4399,15 @@ public class TextEditingTarget implements
    void onPreviewHTML()
    {
       // last ditch extended type detection
+      // (only markdown documents without one need the code to be checked)
       String extendedType = extendedType_;
-      extendedType = rmarkdownHelper_.detectExtendedType(docDisplay_.getCode(),
+      if (extendedType.length() == 0 && fileType_.isMarkdown())
+      {
+         extendedType = rmarkdownHelper_.detectExtendedType(
+                                                         docDisplay_.getCode(),
                                                          extendedType, 
                                                          fileType_);
+      }
       
       if (extendedType == SourceDocument.XT_RMARKDOWN)
          renderRmd();
@@ -5683,6 +5722,8 @@ public class TextEditingTarget implements
    private FileSystemContext fileContext_;
    private final TextEditingTargetCompilePdfHelper compilePdfHelper_;
    private final TextEditingTargetRMarkdownHelper rmarkdownHelper_;
+   private final RmdFrontMatterModel frontMatter_;
+   private RmdChunkQueue chunkQueue_;
    private final TextEditingTargetCppHelper cppHelper_;
    private final TextEditingTargetPresentationHelper presentationHelper_;
    private final TextEditingTargetReformatHelper reformatHelper_;
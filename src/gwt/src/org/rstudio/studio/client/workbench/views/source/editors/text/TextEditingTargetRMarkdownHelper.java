@@ -451,7 +451,23 @@ public class TextEditingTargetRMarkdownHelper
       // template here just turns off the template-specific UI format editor.
       try
       {
-         YamlTree tree = new YamlTree(yaml);
+         return getTemplateFormat(new YamlTree(yaml));
+      }
+      catch (Exception e)
+      {
+         Debug.log("Warning: Exception thrown while parsing YAML:\n" + yaml);
+      }
+      return null;
+   }
+   
+   // as above, for front matter which has already been parsed
+   public RmdSelectedTemplate getTemplateFormat(YamlTree tree)
+   {
+      if (tree == null)
+         return null;
+      
+      try
+      {
          boolean isShiny = false;
          
          if (tree.getKeyValue(RmdFrontMatter.KNIT_KEY).length() > 0)
@@ -482,7 +498,8 @@ public class TextEditingTargetRMarkdownHelper
       }
       catch (Exception e)
       {
-         Debug.log("Warning: Exception thrown while parsing YAML:\n" + yaml);
+         Debug.log("Warning: Exception thrown while reading YAML:\n" + 
+                   tree.toString());
       }
       return null;
    }
@@ -29,6 +29,9 @@ import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Range;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Token;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Tokenizer;
 
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.RepeatingCommand;
+
 public class TextEditingTargetReformatHelper
 {
    
@@ -1087,6 +1090,11 @@ public class TextEditingTargetReformatHelper
       AceEditor editor = (AceEditor) docDisplay_;
       if (editor != null)
       {
+         // Only one reformat at a time; a new request supersedes the old one
+         if (reformatter_ != null)
+            reformatter_.cancel();
+         
+         Range range = docDisplay_.getSelectionRange();
          String selectionText = docDisplay_.getSelectionValue();
          
          // Tokenize the selection and walk through and replace
@@ -1094,10 +1102,120 @@ public class TextEditingTargetReformatHelper
          Tokenizer tokenizer = Tokenizer.createRTokenizer();
          ArrayList<Token> tokens = tokenizer.tokenize(selectionText);
          
-         SimpleTokenCursor cursor = new SimpleTokenCursor(tokens);
+         // The incremental reformatter maps tokens back onto document
+         // positions, which requires that the tokens reproduce the selection
+         // exactly. If they don't (the tokenizer normalizes some blank
+         // lines), fall back to replacing the whole selection.
+         if (!joinTokenValues(tokens).equals(selectionText))
+         {
+            reformatSelection(tokens);
+            return;
+         }
+         
+         reformatter_ = new IncrementalReformatter(range, selectionText, tokens);
+         reformatter_.start();
+      }
+   }
+   
+   private void reformatSelection(ArrayList<Token> tokens)
+   {
+      SimpleTokenCursor cursor = new SimpleTokenCursor(tokens);
+      
+      // Set the initial state -- we recurse every time we encounter
+      // an opening paren, so check for that initially.
+      String lhs = "";
+      String rhs = "";
+      if (cursor.isLeftBrace())
+      {
+         lhs = cursor.currentValue();
+         rhs = cursor.getComplement(lhs);
+      }
+      
+      // TODO: Figure out current nesting level for the
+      // active selection.
+      doInsertPrettyNewlines(cursor, lhs, rhs, 0, 0, true);
+      
+      // Build the replacement from the modified token set
+      String replacement = joinTokenValues(tokens);
+      
+      // Trim off trailing whitespace
+      replacement = replacement.replaceAll("[ \\t]*\\n", "\n");
+      replacement = replacement.replaceAll("\\n+$", "\n");
+      
+      docDisplay_.replaceSelection(replacement);
+      docDisplay_.reindent(docDisplay_.getSelectionRange());
+   }
+   
+   private static String joinTokenValues(ArrayList<Token> tokens)
+   {
+      StringBuilder builder = new StringBuilder();
+      for (int i = 0; i < tokens.size(); i++)
+         builder.append(tokens.get(i).getValue());
+      return builder.toString();
+   }
+   
+   // Reformats a (potentially very large) selection without blocking the
+   // UI. The token stream is split into runs of top-level statements, each
+   // of which is formatted on its own in a time-sliced incremental command.
+   // Once every run has been formatted, the changed tokens are diffed
+   // against their original values and only the changed ranges are written
+   // back to the document, so the cursor, folds and undo history outside
+   // those ranges are left alone.
+   private class IncrementalReformatter implements RepeatingCommand
+   {
+      public IncrementalReformatter(Range range,
+                                    String original,
+                                    ArrayList<Token> tokens)
+      {
+         range_ = range;
+         original_ = original;
+         tokens_ = tokens;
+         
+         originalValues_ = new String[tokens.size()];
+         for (int i = 0; i < tokens.size(); i++)
+            originalValues_[i] = tokens.get(i).getValue();
+         
+         segments_ = findSegments(tokens);
+      }
+      
+      public void start()
+      {
+         Scheduler.get().scheduleIncremental(this);
+      }
+      
+      public void cancel()
+      {
+         cancelled_ = true;
+      }
+      
+      @Override
+      public boolean execute()
+      {
+         if (cancelled_)
+            return false;
+         
+         long sliceStart = System.currentTimeMillis();
+         while (nextSegment_ < segments_.size())
+         {
+            Pair<Integer, Integer> segment = segments_.get(nextSegment_++);
+            formatSegment(segment.first, segment.second);
+            
+            if (System.currentTimeMillis() - sliceStart > SLICE_MS)
+               return true;
+         }
+         
+         finish();
+         return false;
+      }
+      
+      private void formatSegment(int begin, int end)
+      {
+         // the segment shares token objects with the full token list, so
+         // edits made by the cursor are visible in tokens_
+         ArrayList<Token> segment = new ArrayList<Token>(
+               tokens_.subList(begin, end));
+         SimpleTokenCursor cursor = new SimpleTokenCursor(segment);
          
-         // Set the initial state -- we recurse every time we encounter
-         // an opening paren, so check for that initially.
          String lhs = "";
          String rhs = "";
          if (cursor.isLeftBrace())
@@ -1106,24 +1224,252 @@ public class TextEditingTargetReformatHelper
             rhs = cursor.getComplement(lhs);
          }
          
-         // TODO: Figure out current nesting level for the
-         // active selection.
          doInsertPrettyNewlines(cursor, lhs, rhs, 0, 0, true);
+      }
+      
+      private void finish()
+      {
+         if (reformatter_ == this)
+            reformatter_ = null;
          
-         // Build the replacement from the modified token set
-         StringBuilder builder = new StringBuilder();
-         for (int i = 0; i < tokens.size(); i++)
-            builder.append(tokens.get(i).getValue());
-         String replacement = builder.toString();
+         // if the user edited the selected code while we were working, our
+         // edits no longer line up with the document; drop them
+         if (!docDisplay_.getTextForRange(range_).equals(original_))
+            return;
+         
+         trimTrailingWhitespace();
+         
+         ArrayList<Edit> edits = computeEdits();
+         if (edits.isEmpty())
+            return;
+         
+         // apply edits from the bottom up so that positions of the edits
+         // above remain valid
+         for (int i = edits.size() - 1; i >= 0; i--)
+         {
+            Edit edit = edits.get(i);
+            docDisplay_.replaceRange(
+                  Range.fromPoints(edit.start, edit.end),
+                  edit.text);
+         }
+         
+         // reindent only the rows produced by each edit; reindenting never
+         // changes row numbers, so these can be computed up front
+         int rowDelta = 0;
+         ArrayList<Range> reindentRanges = new ArrayList<Range>();
+         for (Edit edit : edits)
+         {
+            int startRow = edit.start.getRow() + rowDelta;
+            int newRows = StringUtil.countMatches(edit.text, '\n');
+            reindentRanges.add(Range.create(startRow, 0, startRow + newRows, 0));
+            rowDelta += newRows - (edit.end.getRow() - edit.start.getRow());
+         }
+         
+         for (Range range : reindentRanges)
+            docDisplay_.reindent(range);
+      }
+      
+      // Applies the same trailing whitespace rules as a whole-selection
+      // reformat, but token by token so unchanged tokens stay unchanged
+      private void trimTrailingWhitespace()
+      {
+         for (int i = 0; i < tokens_.size(); i++)
+         {
+            Token token = tokens_.get(i);
+            String value = token.getValue();
+            if (value.indexOf('\n') == -1)
+               continue;
+            
+            value = value.replaceAll("[ \\t]*\\n", "\n");
+            token.setValue(value);
+            
+            // trailing whitespace may also live at the end of the
+            // preceding tokens
+            if (value.startsWith("\n"))
+            {
+               for (int j = i - 1; j >= 0; j--)
+               {
+                  Token previous = tokens_.get(j);
+                  String trimmed = previous.getValue().replaceAll("[ \\t]*$", "");
+                  previous.setValue(trimmed);
+                  if (!trimmed.isEmpty())
+                     break;
+               }
+            }
+         }
+         
+         // collapse trailing newlines to a single newline
+         boolean removedNewline = false;
+         for (int i = tokens_.size() - 1; i >= 0; i--)
+         {
+            Token token = tokens_.get(i);
+            String value = token.getValue();
+            String trimmed = value.replaceAll("\\n+$", "");
+            removedNewline = removedNewline || trimmed.length() != value.length();
+            if (!trimmed.isEmpty())
+            {
+               token.setValue(removedNewline ? trimmed + "\n" : trimmed);
+               break;
+            }
+            token.setValue("");
+         }
+      }
+      
+      private ArrayList<Edit> computeEdits()
+      {
+         ArrayList<Edit> edits = new ArrayList<Edit>();
          
-         // Trim off trailing whitespace
-         replacement = replacement.replaceAll("[ \\t]*\\n", "\n");
-         replacement = replacement.replaceAll("\\n+$", "\n");
+         Position start = range_.getStart();
+         int row = start.getRow();
+         int column = start.getColumn();
          
-         docDisplay_.replaceSelection(replacement);
-         docDisplay_.reindent(docDisplay_.getSelectionRange());
+         int i = 0;
+         int n = tokens_.size();
+         while (i < n)
+         {
+            if (tokens_.get(i).getValue().equals(originalValues_[i]))
+            {
+               int[] pos = advance(row, column, originalValues_[i]);
+               row = pos[0];
+               column = pos[1];
+               i++;
+               continue;
+            }
+            
+            // collect the run of consecutive changed tokens
+            StringBuilder oldText = new StringBuilder();
+            StringBuilder newText = new StringBuilder();
+            while (i < n && !tokens_.get(i).getValue().equals(originalValues_[i]))
+            {
+               oldText.append(originalValues_[i]);
+               newText.append(tokens_.get(i).getValue());
+               i++;
+            }
+            
+            // narrow the edit to the part that actually differs
+            String oldValue = oldText.toString();
+            String newValue = newText.toString();
+            int prefix = 0;
+            int maxPrefix = Math.min(oldValue.length(), newValue.length());
+            while (prefix < maxPrefix &&
+                   oldValue.charAt(prefix) == newValue.charAt(prefix))
+            {
+               prefix++;
+            }
+            int suffix = 0;
+            int maxSuffix = maxPrefix - prefix;
+            while (suffix < maxSuffix &&
+                   oldValue.charAt(oldValue.length() - 1 - suffix) ==
+                   newValue.charAt(newValue.length() - 1 - suffix))
+            {
+               suffix++;
+            }
+            
+            int[] editStart = advance(row, column,
+                                      oldValue.substring(0, prefix));
+            int[] editEnd = advance(editStart[0], editStart[1],
+                  oldValue.substring(prefix, oldValue.length() - suffix));
+            edits.add(new Edit(
+                  Position.create(editStart[0], editStart[1]),
+                  Position.create(editEnd[0], editEnd[1]),
+                  newValue.substring(prefix, newValue.length() - suffix)));
+            
+            int[] pos = advance(row, column, oldValue);
+            row = pos[0];
+            column = pos[1];
+         }
          
+         return edits;
+      }
+      
+      private int[] advance(int row, int column, String text)
+      {
+         int lastNewline = text.lastIndexOf('\n');
+         if (lastNewline == -1)
+            return new int[] { row, column + text.length() };
+         return new int[] {
+               row + StringUtil.countMatches(text, '\n'),
+               text.length() - lastNewline - 1 };
+      }
+      
+      private final Range range_;
+      private final String original_;
+      private final ArrayList<Token> tokens_;
+      private final String[] originalValues_;
+      private final ArrayList<Pair<Integer, Integer>> segments_;
+      private int nextSegment_ = 0;
+      private boolean cancelled_ = false;
+   }
+   
+   private static class Edit
+   {
+      public Edit(Position start, Position end, String text)
+      {
+         this.start = start;
+         this.end = end;
+         this.text = text;
+      }
+      
+      public final Position start;
+      public final Position end;
+      public final String text;
+   }
+   
+   // Splits the token stream into [begin, end) runs of complete top-level
+   // statements, each roughly SEGMENT_TOKENS long. Runs begin on a
+   // top-level newline which neither continues the previous statement
+   // (trailing operator or comma) nor precedes an 'else', so each run can
+   // be formatted independently of its neighbours.
+   private ArrayList<Pair<Integer, Integer>> findSegments(
+         ArrayList<Token> tokens)
+   {
+      ArrayList<Pair<Integer, Integer>> segments =
+            new ArrayList<Pair<Integer, Integer>>();
+      
+      SimpleTokenCursor cursor = new SimpleTokenCursor(tokens);
+      
+      // a selection starting on an opening brace is formatted as a single
+      // scope
+      if (tokens.isEmpty() || cursor.isLeftBrace())
+      {
+         segments.add(new Pair<Integer, Integer>(0, tokens.size()));
+         return segments;
       }
+      
+      int begin = 0;
+      int depth = 0;
+      do
+      {
+         if (cursor.isLeftBrace())
+            depth++;
+         else if (cursor.isRightBrace())
+            depth = Math.max(0, depth - 1);
+         
+         int offset = cursor.getOffset();
+         if (depth == 0 &&
+             offset - begin >= SEGMENT_TOKENS &&
+             cursor.isWhitespaceOrNewline() &&
+             cursor.hasNewline())
+         {
+            SimpleTokenCursor prev = cursor.clone();
+            SimpleTokenCursor next = cursor.clone();
+            boolean continues =
+                  prev.moveToPreviousSignificantToken() &&
+                  (prev.isOperator() || prev.currentValue().endsWith(","));
+            boolean beforeElse =
+                  next.moveToNextSignificantToken() &&
+                  (next.currentValue().equals("else") || next.isOperator());
+            
+            if (!continues && !beforeElse)
+            {
+               segments.add(new Pair<Integer, Integer>(begin, offset));
+               begin = offset;
+            }
+         }
+      } while (cursor.moveToNextToken());
+      
+      segments.add(new Pair<Integer, Integer>(begin, tokens.size()));
+      return segments;
    }
    
    void alignAssignment()
@@ -1314,5 +1660,11 @@ public class TextEditingTargetReformatHelper
    
    
    private final DocDisplay docDisplay_;
+   private IncrementalReformatter reformatter_;
+   
+   // maximum time spent formatting per slice, and the approximate number
+   // of tokens per independently formatted run of statements
+   private static final int SLICE_MS = 20;
+   private static final int SEGMENT_TOKENS = 500;
 
 }
@@ -22,13 +22,18 @@ import org.rstudio.core.client.CsvReader;
 import org.rstudio.core.client.CsvWriter;
 import org.rstudio.core.client.ResultCallback;
 import org.rstudio.core.client.widget.NullProgressIndicator;
+import org.rstudio.studio.client.RStudioGinjector;
 import org.rstudio.studio.client.common.spelling.SpellChecker;
 import org.rstudio.studio.client.server.Void;
+import org.rstudio.studio.client.workbench.prefs.model.Prefs.PrefValue;
 import org.rstudio.studio.client.workbench.views.source.editors.text.spelling.CheckSpelling;
 import org.rstudio.studio.client.workbench.views.source.editors.text.spelling.InitialProgressDialog;
+import org.rstudio.studio.client.workbench.views.source.editors.text.spelling.RealtimeSpellChecker;
 import org.rstudio.studio.client.workbench.views.source.editors.text.spelling.SpellingDialog;
 import org.rstudio.studio.client.workbench.views.source.model.DocUpdateSentinel;
 
+import com.google.gwt.event.logical.shared.ValueChangeEvent;
+import com.google.gwt.event.logical.shared.ValueChangeHandler;
 import com.google.gwt.event.shared.HandlerRegistration;
 
 public class TextEditingTargetSpelling implements SpellChecker.Context
@@ -40,6 +45,17 @@ public class TextEditingTargetSpelling implements SpellChecker.Context
       docUpdateSentinel_ = docUpdateSentinel;
       spellChecker_ = new SpellChecker(this);
       
+      PrefValue<Boolean> realtimePref = 
+            RStudioGinjector.INSTANCE.getUIPrefs().realTimeSpellChecking();
+      releaseOnDismiss(realtimePref.addValueChangeHandler(
+                                       new ValueChangeHandler<Boolean>() {
+         @Override
+         public void onValueChange(ValueChangeEvent<Boolean> event)
+         {
+            setRealtimeSpellChecking(event.getValue());
+         }
+      }));
+      setRealtimeSpellChecking(realtimePref.getValue());
    }
    
    public void checkSpelling()
@@ -75,15 +91,30 @@ public class TextEditingTargetSpelling implements SpellChecker.Context
    @Override
    public void invalidateAllWords()
    {
-      
+      if (realtime_ != null)
+         realtime_.invalidateAll();
    }
 
    @Override
    public void invalidateMisspelledWords()
    {
-      
+      if (realtime_ != null)
+         realtime_.invalidateMisspelledWords();
    }  
    
+   private void setRealtimeSpellChecking(boolean enabled)
+   {
+      if (enabled && realtime_ == null)
+      {
+         realtime_ = new RealtimeSpellChecker(spellChecker_, docDisplay_);
+      }
+      else if (!enabled && realtime_ != null)
+      {
+         realtime_.detach();
+         realtime_ = null;
+      }
+   }
+   
    @Override
    public ArrayList<String> readDictionary()
    {
@@ -116,6 +147,7 @@ public class TextEditingTargetSpelling implements SpellChecker.Context
    
    void onDismiss()
    {
+      setRealtimeSpellChecking(false);
       while (releaseOnDismiss_.size() > 0)
          releaseOnDismiss_.remove(0).removeHandler();
    }
@@ -134,6 +166,7 @@ public class TextEditingTargetSpelling implements SpellChecker.Context
    private final DocDisplay docDisplay_;
    private final DocUpdateSentinel docUpdateSentinel_;
    private final SpellChecker spellChecker_;
+   private RealtimeSpellChecker realtime_;
  
    private ArrayList<HandlerRegistration> releaseOnDismiss_ = 
                                     new ArrayList<HandlerRegistration>();
@@ -0,0 +1,175 @@
+/*
+ * TokenizationScheduler.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text;
+
+import java.util.ArrayList;
+
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.AceEditorNative;
+
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.RepeatingCommand;
+import com.google.gwt.user.client.Command;
+import com.google.gwt.user.client.Timer;
+
+// Tokenizes an editor's document in time-limited slices, yielding to the
+// browser (and so to input) between them. Tokenizing is sequential, as
+// each row's state depends on the row above, so a request for a row first
+// tokenizes up to that row or the bottom of the viewport, whichever is
+// further, in larger slices; the rest of the document follows in smaller
+// ones.
+public class TokenizationScheduler
+{
+   public TokenizationScheduler(AceEditorWidget widget)
+   {
+      widget_ = widget;
+   }
+
+   // Tokenizes up to the given row once the document has been left alone
+   // for a moment (typically called as the document changes)
+   public void scheduleTokenization(int row)
+   {
+      scheduledRow_ = row;
+      idleTimer_.schedule(IDLE_DELAY_MS);
+   }
+
+   public void tokenizeUpToRow(int row)
+   {
+      priorityRow_ = Math.max(priorityRow_, row);
+      start();
+   }
+
+   // Discards all tokens and tokenizes the document again
+   public void retokenize()
+   {
+      getEditor().resetTokenization();
+      tokenizeUpToRow(0);
+   }
+
+   public boolean isTokenizedUpToRow(int row)
+   {
+      return getEditor().getTokenizedRowCount() > row;
+   }
+
+   // Runs the command once the document is tokenized up to the given row
+   // (right away if it already is)
+   public void whenTokenizedUpToRow(int row, Command command)
+   {
+      if (isTokenizedUpToRow(row))
+      {
+         command.execute();
+         return;
+      }
+
+      waiters_.add(new Waiter(row, command));
+      tokenizeUpToRow(row);
+   }
+
+   private void start()
+   {
+      if (running_)
+         return;
+
+      running_ = true;
+      Scheduler.get().scheduleFixedDelay(new RepeatingCommand()
+      {
+         @Override
+         public boolean execute()
+         {
+            running_ = tokenizeSlice();
+            return running_;
+         }
+      }, SLICE_DELAY_MS);
+   }
+
+   // returns true if there's more to do
+   private boolean tokenizeSlice()
+   {
+      AceEditorNative editor = getEditor();
+      int rowCount = editor.getSession().getLength();
+      int urgentRow = Math.min(
+            Math.max(priorityRow_, editor.getLastVisibleRow()),
+            rowCount - 1);
+
+      int tokenized;
+      if (editor.getTokenizedRowCount() <= urgentRow)
+         tokenized = editor.tokenizeRows(urgentRow, URGENT_BUDGET_MS);
+      else
+         tokenized = editor.tokenizeRows(rowCount - 1, BACKGROUND_BUDGET_MS);
+
+      notifyWaiters(tokenized);
+
+      if (tokenized < rowCount)
+         return true;
+
+      priorityRow_ = 0;
+      return false;
+   }
+
+   private void notifyWaiters(int tokenized)
+   {
+      if (waiters_.isEmpty())
+         return;
+
+      ArrayList<Waiter> ready = new ArrayList<Waiter>();
+      for (Waiter waiter : waiters_)
+         if (waiter.row < tokenized)
+            ready.add(waiter);
+
+      waiters_.removeAll(ready);
+      for (Waiter waiter : ready)
+         waiter.command.execute();
+   }
+
+   private AceEditorNative getEditor()
+   {
+      return widget_.getEditor();
+   }
+
+   private static class Waiter
+   {
+      public Waiter(int row, Command command)
+      {
+         this.row = row;
+         this.command = command;
+      }
+
+      public final int row;
+      public final Command command;
+   }
+
+   private final Timer idleTimer_ = new Timer()
+   {
+      @Override
+      public void run()
+      {
+         tokenizeUpToRow(scheduledRow_);
+      }
+   };
+
+   private final AceEditorWidget widget_;
+   private final ArrayList<Waiter> waiters_ = new ArrayList<Waiter>();
+
+   private int scheduledRow_ = 0;
+   private int priorityRow_ = 0;
+   private boolean running_ = false;
+
+   private static final int IDLE_DELAY_MS = 300;
+   private static final int SLICE_DELAY_MS = 1;
+
+   // up to the viewport (or requested row) work in bigger slices, as the
+   // user is waiting on it; past that, smaller slices keep typing smooth
+   private static final double URGENT_BUDGET_MS = 16;
+   private static final double BACKGROUND_BUDGET_MS = 6;
+}
@@ -15,6 +15,7 @@
 package org.rstudio.studio.client.workbench.views.source.editors.text.ace;
 
 import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayString;
 
 public class AceDocumentChangeEventNative extends JavaScriptObject
 {
@@ -31,4 +32,9 @@ public class AceDocumentChangeEventNative extends JavaScriptObject
    public final native String getText() /*-{
       return this.data.text;
    }-*/;
+
+   // the lines inserted or removed by "insertLines" and "removeLines"
+   public final native JsArrayString getLines() /*-{
+      return this.data.lines;
+   }-*/;
 }
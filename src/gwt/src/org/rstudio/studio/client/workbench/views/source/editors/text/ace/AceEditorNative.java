@@ -417,19 +417,50 @@ public class AceEditorNative extends JavaScriptObject {
       return this.commands;
    }-*/;
    
-   public final void retokenizeDocument()
-   {
-      tokenizeUpToRow(getSession().getLength() - 1);
-   }
-   
-   public final native void tokenizeUpToRow(int row) /*-{
+   // Tokenizes rows not yet tokenized, up to 'maxRow', for (roughly) at
+   // most 'budgetMs'. Returns the first row still to be tokenized, which
+   // is past 'maxRow' once it's done.
+   public final native int tokenizeRows(int maxRow, double budgetMs) /*-{
       var session = this.getSession();
       var tokenizer = session.bgTokenizer;
-      var lastTokenizedRow = tokenizer.currentLine;
-      var maxRow = Math.max(row, session.getLength() - 1);
-      for (var i = lastTokenizedRow; i <= maxRow; i++)
-         tokenizer.$tokenizeRow(i);
-      tokenizer.fireUpdateEvent(lastTokenizedRow, maxRow);
+      var lastRow = Math.min(maxRow, session.getLength() - 1);
+      var deadline = new Date().getTime() + budgetMs;
+      
+      // skip rows that are still valid (as Ace's own worker does)
+      var row = tokenizer.currentLine;
+      while (tokenizer.lines[row])
+         row++;
+      
+      var firstRow = row;
+      var endRow = -1;
+      var count = 0;
+      while (row <= lastRow)
+      {
+         tokenizer.$tokenizeRow(row);
+         endRow = row;
+         do {
+            row++;
+         } while (tokenizer.lines[row]);
+         
+         // checking the clock is costly next to tokenizing a row
+         if (++count % 16 === 0 && new Date().getTime() >= deadline)
+            break;
+      }
+      tokenizer.currentLine = row;
+      
+      if (firstRow <= endRow)
+         tokenizer.fireUpdateEvent(firstRow, endRow);
+      return Math.min(row, session.getLength());
+   }-*/;
+   
+   // The first row whose tokens aren't known to be current
+   public final native int getTokenizedRowCount() /*-{
+      return this.getSession().bgTokenizer.currentLine;
+   }-*/;
+   
+   // Discards all tokens, e.g. after the highlight rules change
+   public final native void resetTokenization() /*-{
+      this.getSession().bgTokenizer.start(0);
    }-*/;
    
    public final native void setCommandManager(AceCommandManager commands)
@@ -41,6 +41,18 @@ public class Document extends JavaScriptObject
       return this.positionToIndex(pos, startRow);
    }-*/;
 
+   public native final String getNewLineCharacter() /*-{
+      return this.getNewLineCharacter();
+   }-*/;
+
+   public native final Position insert(Position position, String text) /*-{
+      return this.insert(position, text);
+   }-*/;
+
+   public native final Position remove(Range range) /*-{
+      return this.remove(range);
+   }-*/;
+
    public final String getDocumentDump()
    {
       StringBuilder output = new StringBuilder();
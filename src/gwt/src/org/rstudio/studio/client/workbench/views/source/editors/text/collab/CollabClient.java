@@ -0,0 +1,105 @@
+/*
+ * CollabClient.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text.collab;
+
+// The client half of the operational transformation protocol. At most one
+// local operation is in flight to the server at a time; local edits made
+// while waiting for its acknowledgement are composed into a single buffered
+// operation, which is sent once the acknowledgement arrives. Operations
+// from the server are transformed against the in-flight and buffered
+// operations before being applied locally, so every client converges on
+// the document as ordered by the server.
+public abstract class CollabClient
+{
+   public CollabClient(int revision)
+   {
+      revision_ = revision;
+   }
+
+   // the last server revision this client has seen
+   public int getRevision()
+   {
+      return revision_;
+   }
+
+   public boolean isSynchronized()
+   {
+      return outstanding_ == null;
+   }
+
+   // Called with an operation the user made locally (and which has already
+   // been applied to the local document)
+   public void applyClient(TextOperation operation)
+   {
+      if (outstanding_ == null)
+      {
+         outstanding_ = operation;
+         sendOperation(revision_, operation);
+      }
+      else if (buffer_ == null)
+      {
+         buffer_ = operation;
+      }
+      else
+      {
+         buffer_ = buffer_.compose(operation);
+      }
+   }
+
+   // Called with an operation another client made, as ordered by the server
+   public void applyServer(TextOperation operation)
+   {
+      revision_++;
+
+      if (outstanding_ != null)
+      {
+         TextOperation[] pair = TextOperation.transform(outstanding_, operation);
+         outstanding_ = pair[0];
+         operation = pair[1];
+
+         if (buffer_ != null)
+         {
+            pair = TextOperation.transform(buffer_, operation);
+            buffer_ = pair[0];
+            operation = pair[1];
+         }
+      }
+
+      applyOperation(operation);
+   }
+
+   // Called when the server acknowledges our in-flight operation
+   public void serverAck()
+   {
+      if (outstanding_ == null)
+         throw new IllegalStateException("No operation awaiting acknowledgement");
+
+      revision_++;
+      outstanding_ = buffer_;
+      buffer_ = null;
+      if (outstanding_ != null)
+         sendOperation(revision_, outstanding_);
+   }
+
+   // sends an operation, made against the given revision, to the server
+   protected abstract void sendOperation(int revision, TextOperation operation);
+
+   // applies an operation from the server to the local document
+   protected abstract void applyOperation(TextOperation operation);
+
+   private int revision_;
+   private TextOperation outstanding_;
+   private TextOperation buffer_;
+}
@@ -0,0 +1,279 @@
+/*
+ * CollabSession.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text.collab;
+
+import org.rstudio.studio.client.workbench.views.source.editors.text.AceEditor;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.AceDocumentChangeEventNative;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Document;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Range;
+import org.rstudio.studio.client.workbench.views.source.editors.text.events.DocumentChangedEvent;
+import org.rstudio.studio.client.workbench.views.source.model.DirtyState;
+
+import com.google.gwt.core.client.JsArrayString;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.Command;
+import com.google.gwt.user.client.Timer;
+
+// Keeps one Ace editor in sync with a collaborative editing session. Each
+// Ace document delta becomes a TextOperation; deltas arriving within a
+// short window are composed into one operation before being handed to
+// the OT client, which in turn keeps at most one operation in flight.
+// Operations from other editors are applied to the Ace document as
+// individual inserts and removes, so the cursor, selection, folds and
+// anchors of this editor are preserved.
+public class CollabSession implements CollabTransport.Handler
+{
+   public CollabSession(AceEditor editor,
+                        DirtyState dirtyState,
+                        CollabTransport transport)
+   {
+      editor_ = editor;
+      dirtyState_ = dirtyState;
+      transport_ = transport;
+   }
+
+   // Joins the session; 'onJoined' runs once the editor holds the
+   // session's contents (or if joining fails)
+   public void start(Command onJoined)
+   {
+      onJoined_ = onJoined;
+      transport_.connect(editor_.getCode(), this);
+   }
+
+   // true until the session ends (whether or not it has joined yet)
+   public boolean isActive()
+   {
+      return !ended_;
+   }
+
+   public void end()
+   {
+      if (ended_)
+         return;
+
+      ended_ = true;
+      flushTimer_.cancel();
+      if (changeRegistration_ != null)
+      {
+         changeRegistration_.removeHandler();
+         changeRegistration_ = null;
+      }
+      transport_.disconnect();
+      client_ = null;
+      runOnJoined();
+   }
+
+   @Override
+   public void onJoined(int revision, String contents)
+   {
+      if (ended_)
+         return;
+
+      // take on the session's contents
+      if (!contents.equals(editor_.getCode()))
+      {
+         applyingRemote_ = true;
+         editor_.setCode(contents, true);
+         applyingRemote_ = false;
+         dirtyState_.markDirty(false);
+      }
+
+      docLength_ = editor_.getCode().length();
+      client_ = new CollabClient(revision)
+      {
+         @Override
+         protected void sendOperation(int revision, TextOperation operation)
+         {
+            transport_.sendOperation(revision, operation);
+         }
+
+         @Override
+         protected void applyOperation(TextOperation operation)
+         {
+            applyToEditor(operation);
+         }
+      };
+
+      changeRegistration_ = editor_.addDocumentChangedHandler(
+            new DocumentChangedEvent.Handler()
+      {
+         @Override
+         public void onDocumentChanged(DocumentChangedEvent event)
+         {
+            onLocalChange(event.getEvent());
+         }
+      });
+
+      runOnJoined();
+   }
+
+   @Override
+   public void onAck()
+   {
+      if (client_ != null)
+         client_.serverAck();
+   }
+
+   @Override
+   public void onOperation(TextOperation operation)
+   {
+      if (client_ == null)
+         return;
+
+      // local edits still waiting out the batching window must be known to
+      // the client before it transforms the incoming operation
+      flushPending();
+      client_.applyServer(operation);
+   }
+
+   @Override
+   public void onDisconnected(String reason)
+   {
+      end();
+   }
+
+   private void onLocalChange(AceDocumentChangeEventNative event)
+   {
+      if (applyingRemote_ || client_ == null)
+         return;
+
+      Document doc = editor_.getSession().getDocument();
+      String action = event.getAction();
+      int start = doc.positionToIndex(event.getRange().getStart(), 0);
+
+      TextOperation operation = new TextOperation().retain(start);
+      if (action.startsWith("insert"))
+      {
+         String text = action.equals("insertLines")
+               ? joinLines(event.getLines(), doc.getNewLineCharacter())
+               : event.getText();
+         operation.insert(text).retain(docLength_ - start);
+      }
+      else
+      {
+         int length = action.equals("removeLines")
+               ? joinLines(event.getLines(), doc.getNewLineCharacter()).length()
+               : event.getText().length();
+         operation.delete(length).retain(docLength_ - start - length);
+      }
+
+      docLength_ = operation.getTargetLength();
+      pending_ = pending_ == null ? operation : pending_.compose(operation);
+      if (!flushScheduled_)
+      {
+         flushScheduled_ = true;
+         flushTimer_.schedule(BATCH_MS);
+      }
+   }
+
+   private void flushPending()
+   {
+      flushTimer_.cancel();
+      flushScheduled_ = false;
+      if (pending_ != null && client_ != null)
+      {
+         TextOperation operation = pending_;
+         pending_ = null;
+         client_.applyClient(operation);
+      }
+   }
+
+   private void applyToEditor(TextOperation operation)
+   {
+      final Document doc = editor_.getSession().getDocument();
+      applyingRemote_ = true;
+      try
+      {
+         operation.visit(new TextOperation.Visitor()
+         {
+            @Override
+            public void retain(int count)
+            {
+               index_ += count;
+            }
+
+            @Override
+            public void insert(String text)
+            {
+               doc.insert(doc.indexToPosition(index_, 0), text);
+               index_ += text.length();
+            }
+
+            @Override
+            public void delete(int count)
+            {
+               doc.remove(Range.fromPoints(
+                     doc.indexToPosition(index_, 0),
+                     doc.indexToPosition(index_ + count, 0)));
+            }
+
+            private int index_ = 0;
+         });
+      }
+      finally
+      {
+         applyingRemote_ = false;
+      }
+      docLength_ = operation.getTargetLength();
+   }
+
+   private void runOnJoined()
+   {
+      if (onJoined_ != null)
+      {
+         Command onJoined = onJoined_;
+         onJoined_ = null;
+         onJoined.execute();
+      }
+   }
+
+   // the text of 'insertLines' and 'removeLines' deltas: whole lines, each
+   // with its line ending
+   private static String joinLines(JsArrayString lines, String newLine)
+   {
+      StringBuilder text = new StringBuilder();
+      for (int i = 0; i < lines.length(); i++)
+      {
+         text.append(lines.get(i));
+         text.append(newLine);
+      }
+      return text.toString();
+   }
+
+   private final Timer flushTimer_ = new Timer()
+   {
+      @Override
+      public void run()
+      {
+         flushPending();
+      }
+   };
+
+   private final AceEditor editor_;
+   private final DirtyState dirtyState_;
+   private final CollabTransport transport_;
+
+   private CollabClient client_;
+   private HandlerRegistration changeRegistration_;
+   private Command onJoined_;
+   private TextOperation pending_;
+   private int docLength_;
+   private boolean applyingRemote_ = false;
+   private boolean flushScheduled_ = false;
+   private boolean ended_ = false;
+
+   // local edits made within this long of each other are sent together
+   private static final int BATCH_MS = 50;
+}
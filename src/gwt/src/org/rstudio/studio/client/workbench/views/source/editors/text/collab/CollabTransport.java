@@ -0,0 +1,42 @@
+/*
+ * CollabTransport.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text.collab;
+
+// A connection between one editor and the server ordering the operations
+// of every editor in a collaborative editing session.
+public interface CollabTransport
+{
+   public interface Handler
+   {
+      // the session's current revision and contents, once connected
+      void onJoined(int revision, String contents);
+
+      // the server accepted our last operation
+      void onAck();
+
+      // another editor's operation, in server order
+      void onOperation(TextOperation operation);
+
+      void onDisconnected(String reason);
+   }
+
+   // Connects to the session. If the session is new, 'contents' become its
+   // initial contents.
+   void connect(String contents, Handler handler);
+
+   void sendOperation(int revision, TextOperation operation);
+
+   void disconnect();
+}
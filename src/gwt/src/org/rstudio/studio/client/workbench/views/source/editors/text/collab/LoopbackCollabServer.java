@@ -0,0 +1,311 @@
+/*
+ * LoopbackCollabServer.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text.collab;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.json.client.JSONParser;
+
+// An in-process collaboration server, used to exercise the sync engine
+// without a network. It orders operations exactly as a remote server
+// would; messages are delivered asynchronously, in order, so clients see
+// the same interleavings they would over a real connection. Sessions live
+// in the main window; editors in satellite windows join them through
+// SatelliteCollabTransport.
+public class LoopbackCollabServer
+{
+   public static final String URL_SCHEME = "loopback:";
+
+   // Returns the server for the given session, creating it if needed
+   public static LoopbackCollabServer forSession(String sessionId)
+   {
+      LoopbackCollabServer server = servers_.get(sessionId);
+      if (server == null)
+      {
+         server = new LoopbackCollabServer(sessionId);
+         servers_.put(sessionId, server);
+      }
+      return server;
+   }
+
+   // Lets satellite windows join this window's sessions. Call from the main
+   // window only.
+   public static native void exportToSatellites() /*-{
+      $wnd.rstudioCollabConnect = $entry(function(sessionId, contents, callbacks) {
+         return @org.rstudio.studio.client.workbench.views.source.editors.text.collab.LoopbackCollabServer::connectSatellite(Ljava/lang/String;Ljava/lang/String;Lcom/google/gwt/core/client/JavaScriptObject;)(sessionId, contents, callbacks);
+      });
+   }-*/;
+
+   private LoopbackCollabServer(String sessionId)
+   {
+      sessionId_ = sessionId;
+   }
+
+   public CollabTransport createTransport()
+   {
+      return new Connection();
+   }
+
+   public int getRevision()
+   {
+      return history_.size();
+   }
+
+   public String getContents()
+   {
+      return contents_;
+   }
+
+   // Connects a satellite's editor, whose handler is a set of callbacks in
+   // the satellite's context; returns the functions it calls in turn
+   private static JavaScriptObject connectSatellite(
+                                          String sessionId,
+                                          String contents,
+                                          final JavaScriptObject callbacks)
+   {
+      final CollabTransport transport =
+            forSession(sessionId).createTransport();
+      transport.connect(contents, new CollabTransport.Handler()
+      {
+         @Override
+         public void onJoined(int revision, String contents)
+         {
+            onCalled(invokeJoined(callbacks, revision, contents));
+         }
+
+         @Override
+         public void onAck()
+         {
+            onCalled(invokeCallback(callbacks, "onAck", null));
+         }
+
+         @Override
+         public void onOperation(TextOperation operation)
+         {
+            onCalled(invokeCallback(callbacks, "onOperation",
+                                    operation.toJson().toString()));
+         }
+
+         @Override
+         public void onDisconnected(String reason)
+         {
+            invokeCallback(callbacks, "onDisconnected", reason);
+         }
+
+         // a satellite that went away without disconnecting can't be
+         // called any more; drop it from the session
+         private void onCalled(boolean succeeded)
+         {
+            if (!succeeded)
+               transport.disconnect();
+         }
+      });
+      return createSatelliteConnection(transport);
+   }
+
+   private static void sendFromSatellite(CollabTransport transport,
+                                         int revision,
+                                         String operation)
+   {
+      transport.sendOperation(revision, TextOperation.fromJson(
+            JSONParser.parseStrict(operation).isArray()));
+   }
+
+   private static native JavaScriptObject createSatelliteConnection(
+                                          CollabTransport transport) /*-{
+      return {
+         send: $entry(function(revision, operation) {
+            @org.rstudio.studio.client.workbench.views.source.editors.text.collab.LoopbackCollabServer::sendFromSatellite(Lorg/rstudio/studio/client/workbench/views/source/editors/text/collab/CollabTransport;ILjava/lang/String;)(transport, revision, operation);
+         }),
+         disconnect: $entry(function() {
+            transport.@org.rstudio.studio.client.workbench.views.source.editors.text.collab.CollabTransport::disconnect()();
+         })
+      };
+   }-*/;
+
+   private static native boolean invokeJoined(JavaScriptObject callbacks,
+                                              int revision,
+                                              String contents) /*-{
+      try {
+         callbacks.onJoined(revision, contents);
+         return true;
+      }
+      catch (e) {
+         return false;
+      }
+   }-*/;
+
+   private static native boolean invokeCallback(JavaScriptObject callbacks,
+                                                String callback,
+                                                String arg) /*-{
+      try {
+         callbacks[callback](arg);
+         return true;
+      }
+      catch (e) {
+         return false;
+      }
+   }-*/;
+
+   private void receive(Connection from, int revision, TextOperation operation)
+   {
+      if (revision < 0 || revision > history_.size())
+      {
+         from.deliverDisconnect("Invalid revision " + revision);
+         return;
+      }
+
+      // transform the operation past everything the client hadn't yet seen
+      for (int i = revision; i < history_.size(); i++)
+         operation = TextOperation.transform(operation, history_.get(i))[0];
+
+      try
+      {
+         contents_ = operation.apply(contents_);
+      }
+      catch (IllegalArgumentException e)
+      {
+         from.deliverDisconnect(e.getMessage());
+         return;
+      }
+      history_.add(operation);
+
+      for (Connection connection : connections_)
+      {
+         if (connection == from)
+            connection.deliverAck();
+         else
+            connection.deliverOperation(operation);
+      }
+   }
+
+   private class Connection implements CollabTransport
+   {
+      @Override
+      public void connect(String contents, Handler handler)
+      {
+         handler_ = handler;
+         if (connections_.isEmpty() && history_.isEmpty())
+            contents_ = contents;
+         connections_.add(this);
+
+         final int revision = history_.size();
+         final String current = contents_;
+         deliver(new ScheduledCommand()
+         {
+            @Override
+            public void execute()
+            {
+               handler_.onJoined(revision, current);
+            }
+         });
+      }
+
+      @Override
+      public void sendOperation(final int revision,
+                                final TextOperation operation)
+      {
+         if (!connections_.contains(this))
+            return;
+
+         // the trip to the server is asynchronous too
+         Scheduler.get().scheduleDeferred(new ScheduledCommand()
+         {
+            @Override
+            public void execute()
+            {
+               if (connections_.contains(Connection.this))
+                  receive(Connection.this, revision, operation);
+            }
+         });
+      }
+
+      @Override
+      public void disconnect()
+      {
+         connections_.remove(this);
+         if (connections_.isEmpty())
+            servers_.remove(sessionId_);
+      }
+
+      public void deliverAck()
+      {
+         deliver(new ScheduledCommand()
+         {
+            @Override
+            public void execute()
+            {
+               handler_.onAck();
+            }
+         });
+      }
+
+      public void deliverOperation(final TextOperation operation)
+      {
+         deliver(new ScheduledCommand()
+         {
+            @Override
+            public void execute()
+            {
+               handler_.onOperation(operation);
+            }
+         });
+      }
+
+      public void deliverDisconnect(final String reason)
+      {
+         disconnect();
+         Scheduler.get().scheduleDeferred(new ScheduledCommand()
+         {
+            @Override
+            public void execute()
+            {
+               handler_.onDisconnected(reason);
+            }
+         });
+      }
+
+      // deferred commands run in the order scheduled, which preserves
+      // message order; nothing is delivered after a disconnect
+      private void deliver(final ScheduledCommand command)
+      {
+         Scheduler.get().scheduleDeferred(new ScheduledCommand()
+         {
+            @Override
+            public void execute()
+            {
+               if (connections_.contains(Connection.this))
+                  command.execute();
+            }
+         });
+      }
+
+      private Handler handler_;
+   }
+
+   private final String sessionId_;
+   private final ArrayList<Connection> connections_ =
+         new ArrayList<Connection>();
+   private final ArrayList<TextOperation> history_ =
+         new ArrayList<TextOperation>();
+   private String contents_ = "";
+
+   private static final HashMap<String, LoopbackCollabServer> servers_ =
+         new HashMap<String, LoopbackCollabServer>();
+}
@@ -0,0 +1,135 @@
+/*
+ * SatelliteCollabTransport.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text.collab;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.event.logical.shared.CloseEvent;
+import com.google.gwt.event.logical.shared.CloseHandler;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.json.client.JSONParser;
+import com.google.gwt.user.client.Window;
+
+// Joins a loopback session from a satellite window. Loopback sessions live
+// in the main window (see LoopbackCollabServer.exportToSatellites); this
+// transport relays through the main window's window object. Only
+// functions and primitive values can pass between the windows' GWT
+// modules, so operations travel in their JSON form, as strings.
+public class SatelliteCollabTransport implements CollabTransport
+{
+   public SatelliteCollabTransport(String sessionId)
+   {
+      sessionId_ = sessionId;
+   }
+
+   @Override
+   public void connect(String contents, Handler handler)
+   {
+      handler_ = handler;
+      connection_ = connectToMainWindow(sessionId_, contents);
+
+      // leave the session if this window closes first
+      closeRegistration_ = Window.addCloseHandler(new CloseHandler<Window>()
+      {
+         @Override
+         public void onClose(CloseEvent<Window> event)
+         {
+            disconnect();
+         }
+      });
+   }
+
+   @Override
+   public void sendOperation(int revision, TextOperation operation)
+   {
+      if (connection_ != null)
+         sendToMainWindow(connection_, revision, operation.toJson().toString());
+   }
+
+   @Override
+   public void disconnect()
+   {
+      if (connection_ == null)
+         return;
+
+      JavaScriptObject connection = connection_;
+      connection_ = null;
+      closeRegistration_.removeHandler();
+      disconnectFromMainWindow(connection);
+   }
+
+   private void onJoined(int revision, String contents)
+   {
+      if (connection_ != null)
+         handler_.onJoined(revision, contents);
+   }
+
+   private void onAck()
+   {
+      if (connection_ != null)
+         handler_.onAck();
+   }
+
+   private void onOperation(String operation)
+   {
+      if (connection_ != null)
+         handler_.onOperation(TextOperation.fromJson(
+               JSONParser.parseStrict(operation).isArray()));
+   }
+
+   private void onDisconnected(String reason)
+   {
+      if (connection_ == null)
+         return;
+
+      connection_ = null;
+      closeRegistration_.removeHandler();
+      handler_.onDisconnected(reason);
+   }
+
+   private native JavaScriptObject connectToMainWindow(String sessionId,
+                                                       String contents) /*-{
+      var self = this;
+      return $wnd.opener.rstudioCollabConnect(sessionId, contents, {
+         onJoined: $entry(function(revision, contents) {
+            self.@org.rstudio.studio.client.workbench.views.source.editors.text.collab.SatelliteCollabTransport::onJoined(ILjava/lang/String;)(revision, contents);
+         }),
+         onAck: $entry(function() {
+            self.@org.rstudio.studio.client.workbench.views.source.editors.text.collab.SatelliteCollabTransport::onAck()();
+         }),
+         onOperation: $entry(function(operation) {
+            self.@org.rstudio.studio.client.workbench.views.source.editors.text.collab.SatelliteCollabTransport::onOperation(Ljava/lang/String;)(operation);
+         }),
+         onDisconnected: $entry(function(reason) {
+            self.@org.rstudio.studio.client.workbench.views.source.editors.text.collab.SatelliteCollabTransport::onDisconnected(Ljava/lang/String;)(reason);
+         })
+      });
+   }-*/;
+
+   private static native void sendToMainWindow(JavaScriptObject connection,
+                                               int revision,
+                                               String operation) /*-{
+      connection.send(revision, operation);
+   }-*/;
+
+   private static native void disconnectFromMainWindow(
+                                       JavaScriptObject connection) /*-{
+      connection.disconnect();
+   }-*/;
+
+   private final String sessionId_;
+   private Handler handler_;
+   private JavaScriptObject connection_;
+   private HandlerRegistration closeRegistration_;
+}
@@ -0,0 +1,375 @@
+/*
+ * TextOperation.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text.collab;
+
+import java.util.ArrayList;
+
+import com.google.gwt.json.client.JSONArray;
+import com.google.gwt.json.client.JSONNumber;
+import com.google.gwt.json.client.JSONString;
+import com.google.gwt.json.client.JSONValue;
+
+// An edit to a whole document, for operational transformation: a sequence
+// of components which together walk the entire original document, each
+// either retaining, inserting or deleting characters. Operations can be
+// composed (one after the other) and transformed (two made concurrently
+// against the same document are adjusted so that applying them in either
+// order gives the same result).
+//
+// Components are stored (and sent over the wire) in a compact form: a
+// positive number retains that many characters, a negative number deletes
+// that many, and a string is inserted.
+public class TextOperation
+{
+   public interface Visitor
+   {
+      void retain(int count);
+      void insert(String text);
+      void delete(int count);
+   }
+
+   public TextOperation retain(int count)
+   {
+      if (count <= 0)
+         return this;
+
+      baseLength_ += count;
+      targetLength_ += count;
+
+      Object last = last();
+      if (isRetain(last))
+         ops_.set(ops_.size() - 1, (Integer) last + count);
+      else
+         ops_.add(count);
+      return this;
+   }
+
+   public TextOperation insert(String text)
+   {
+      if (text.length() == 0)
+         return this;
+
+      targetLength_ += text.length();
+
+      // keep inserts ahead of deletes at the same position, so equivalent
+      // operations have the same components
+      Object last = last();
+      if (isInsert(last))
+      {
+         ops_.set(ops_.size() - 1, (String) last + text);
+      }
+      else if (isDelete(last))
+      {
+         int index = ops_.size() - 1;
+         Object previous = index > 0 ? ops_.get(index - 1) : null;
+         if (isInsert(previous))
+            ops_.set(index - 1, (String) previous + text);
+         else
+            ops_.add(index, text);
+      }
+      else
+      {
+         ops_.add(text);
+      }
+      return this;
+   }
+
+   public TextOperation delete(int count)
+   {
+      if (count <= 0)
+         return this;
+
+      baseLength_ += count;
+
+      Object last = last();
+      if (isDelete(last))
+         ops_.set(ops_.size() - 1, (Integer) last - count);
+      else
+         ops_.add(-count);
+      return this;
+   }
+
+   // the length of the document this operation applies to
+   public int getBaseLength()
+   {
+      return baseLength_;
+   }
+
+   // the length of the document after this operation is applied
+   public int getTargetLength()
+   {
+      return targetLength_;
+   }
+
+   public boolean isNoop()
+   {
+      return ops_.isEmpty() || (ops_.size() == 1 && isRetain(ops_.get(0)));
+   }
+
+   public void visit(Visitor visitor)
+   {
+      for (Object op : ops_)
+      {
+         if (isRetain(op))
+            visitor.retain((Integer) op);
+         else if (isInsert(op))
+            visitor.insert((String) op);
+         else
+            visitor.delete(-(Integer) op);
+      }
+   }
+
+   public String apply(String document)
+   {
+      if (document.length() != baseLength_)
+         throw new IllegalArgumentException(
+               "Operation expects a document of length " + baseLength_ +
+               ", not " + document.length());
+
+      StringBuilder result = new StringBuilder();
+      int pos = 0;
+      for (Object op : ops_)
+      {
+         if (isRetain(op))
+         {
+            int count = (Integer) op;
+            result.append(document.substring(pos, pos + count));
+            pos += count;
+         }
+         else if (isInsert(op))
+         {
+            result.append((String) op);
+         }
+         else
+         {
+            pos -= (Integer) op;
+         }
+      }
+      return result.toString();
+   }
+
+   // Returns an operation with the same effect as applying this operation
+   // and then 'other'
+   public TextOperation compose(TextOperation other)
+   {
+      if (targetLength_ != other.baseLength_)
+         throw new IllegalArgumentException(
+               "Operations can't be composed: lengths don't match");
+
+      TextOperation result = new TextOperation();
+      OpIterator it1 = new OpIterator(ops_);
+      OpIterator it2 = new OpIterator(other.ops_);
+      Object op1 = it1.next();
+      Object op2 = it2.next();
+      while (op1 != null || op2 != null)
+      {
+         if (isDelete(op1))
+         {
+            result.delete(-(Integer) op1);
+            op1 = it1.next();
+            continue;
+         }
+         if (isInsert(op2))
+         {
+            result.insert((String) op2);
+            op2 = it2.next();
+            continue;
+         }
+         if (op1 == null || op2 == null)
+            throw new IllegalArgumentException(
+                  "Operations can't be composed: lengths don't match");
+
+         if (isRetain(op1) && isRetain(op2))
+         {
+            int n1 = (Integer) op1;
+            int n2 = (Integer) op2;
+            result.retain(Math.min(n1, n2));
+            op1 = n1 > n2 ? (Object) (n1 - n2) : it1.next();
+            op2 = n2 > n1 ? (Object) (n2 - n1) : it2.next();
+         }
+         else if (isInsert(op1) && isDelete(op2))
+         {
+            String text = (String) op1;
+            int n2 = -(Integer) op2;
+            op1 = text.length() > n2 ? text.substring(n2) : it1.next();
+            op2 = n2 > text.length() ? (Object) (text.length() - n2) : it2.next();
+         }
+         else if (isInsert(op1) && isRetain(op2))
+         {
+            String text = (String) op1;
+            int n2 = (Integer) op2;
+            result.insert(text.substring(0, Math.min(n2, text.length())));
+            op1 = text.length() > n2 ? text.substring(n2) : it1.next();
+            op2 = n2 > text.length() ? (Object) (n2 - text.length()) : it2.next();
+         }
+         else // retain and delete
+         {
+            int n1 = (Integer) op1;
+            int n2 = -(Integer) op2;
+            result.delete(Math.min(n1, n2));
+            op1 = n1 > n2 ? (Object) (n1 - n2) : it1.next();
+            op2 = n2 > n1 ? (Object) (n1 - n2) : it2.next();
+         }
+      }
+      return result;
+   }
+
+   // Given operations 'a' and 'b' made concurrently against the same
+   // document, returns {a', b'} such that applying a then b' gives the same
+   // result as applying b then a'. Where both insert at the same position,
+   // a's text comes first.
+   public static TextOperation[] transform(TextOperation a, TextOperation b)
+   {
+      if (a.baseLength_ != b.baseLength_)
+         throw new IllegalArgumentException(
+               "Operations can't be transformed: lengths don't match");
+
+      TextOperation aPrime = new TextOperation();
+      TextOperation bPrime = new TextOperation();
+      OpIterator it1 = new OpIterator(a.ops_);
+      OpIterator it2 = new OpIterator(b.ops_);
+      Object op1 = it1.next();
+      Object op2 = it2.next();
+      while (op1 != null || op2 != null)
+      {
+         if (isInsert(op1))
+         {
+            aPrime.insert((String) op1);
+            bPrime.retain(((String) op1).length());
+            op1 = it1.next();
+            continue;
+         }
+         if (isInsert(op2))
+         {
+            aPrime.retain(((String) op2).length());
+            bPrime.insert((String) op2);
+            op2 = it2.next();
+            continue;
+         }
+         if (op1 == null || op2 == null)
+            throw new IllegalArgumentException(
+                  "Operations can't be transformed: lengths don't match");
+
+         int n1 = Math.abs((Integer) op1);
+         int n2 = Math.abs((Integer) op2);
+         int count = Math.min(n1, n2);
+         if (isRetain(op1) && isRetain(op2))
+         {
+            aPrime.retain(count);
+            bPrime.retain(count);
+         }
+         else if (isDelete(op1) && isRetain(op2))
+         {
+            aPrime.delete(count);
+         }
+         else if (isRetain(op1) && isDelete(op2))
+         {
+            bPrime.delete(count);
+         }
+         // both deleting the same text: nothing left for either to do
+
+         op1 = n1 > count ? (Object) (signum(op1) * (n1 - count)) : it1.next();
+         op2 = n2 > count ? (Object) (signum(op2) * (n2 - count)) : it2.next();
+      }
+      return new TextOperation[] { aPrime, bPrime };
+   }
+
+   public JSONArray toJson()
+   {
+      JSONArray json = new JSONArray();
+      for (int i = 0; i < ops_.size(); i++)
+      {
+         Object op = ops_.get(i);
+         if (isInsert(op))
+            json.set(i, new JSONString((String) op));
+         else
+            json.set(i, new JSONNumber((Integer) op));
+      }
+      return json;
+   }
+
+   public static TextOperation fromJson(JSONArray json)
+   {
+      TextOperation result = new TextOperation();
+      for (int i = 0; i < json.size(); i++)
+      {
+         JSONValue value = json.get(i);
+         if (value.isString() != null)
+         {
+            result.insert(value.isString().stringValue());
+         }
+         else if (value.isNumber() != null)
+         {
+            int count = (int) value.isNumber().doubleValue();
+            if (count > 0)
+               result.retain(count);
+            else
+               result.delete(-count);
+         }
+         else
+         {
+            throw new IllegalArgumentException(
+                  "Invalid operation component: " + value);
+         }
+      }
+      return result;
+   }
+
+   private Object last()
+   {
+      return ops_.isEmpty() ? null : ops_.get(ops_.size() - 1);
+   }
+
+   private static boolean isRetain(Object op)
+   {
+      return op instanceof Integer && (Integer) op > 0;
+   }
+
+   private static boolean isDelete(Object op)
+   {
+      return op instanceof Integer && (Integer) op < 0;
+   }
+
+   private static boolean isInsert(Object op)
+   {
+      return op instanceof String;
+   }
+
+   private static int signum(Object op)
+   {
+      return (Integer) op < 0 ? -1 : 1;
+   }
+
+   private static class OpIterator
+   {
+      public OpIterator(ArrayList<Object> ops)
+      {
+         ops_ = ops;
+      }
+
+      // returns the next component, or null at the end
+      public Object next()
+      {
+         return index_ < ops_.size() ? ops_.get(index_++) : null;
+      }
+
+      private final ArrayList<Object> ops_;
+      private int index_ = 0;
+   }
+
+   private final ArrayList<Object> ops_ = new ArrayList<Object>();
+   private int baseLength_ = 0;
+   private int targetLength_ = 0;
+}
@@ -0,0 +1,177 @@
+/*
+ * WebSocketCollabTransport.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text.collab;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.json.client.JSONNumber;
+import com.google.gwt.json.client.JSONObject;
+import com.google.gwt.json.client.JSONParser;
+import com.google.gwt.json.client.JSONString;
+import com.google.gwt.json.client.JSONValue;
+
+// Client transport for an external collaboration server, over a web
+// socket. No such server is part of RStudio, and nothing here creates
+// sessions: the URL and id come from whatever supplies a document's
+// collab params or raises collab_edit_started. Messages are JSON objects
+// with a "type" field:
+//
+//   client -> server
+//     {type: "join", id, path, contents}
+//     {type: "operation", revision, operation}
+//
+//   server -> client
+//     {type: "joined", revision, contents}
+//     {type: "ack"}
+//     {type: "operation", operation}
+//
+// where operations are in TextOperation's JSON form.
+public class WebSocketCollabTransport implements CollabTransport
+{
+   public WebSocketCollabTransport(String url, String id, String path)
+   {
+      url_ = url;
+      id_ = id;
+      path_ = path;
+   }
+
+   @Override
+   public void connect(String contents, Handler handler)
+   {
+      handler_ = handler;
+      initialContents_ = contents;
+      socket_ = openSocket(url_);
+   }
+
+   @Override
+   public void sendOperation(int revision, TextOperation operation)
+   {
+      JSONObject message = new JSONObject();
+      message.put("type", new JSONString("operation"));
+      message.put("revision", new JSONNumber(revision));
+      message.put("operation", operation.toJson());
+      send(message);
+   }
+
+   @Override
+   public void disconnect()
+   {
+      if (socket_ != null)
+      {
+         JavaScriptObject socket = socket_;
+         socket_ = null;
+         closeSocket(socket);
+      }
+   }
+
+   private void onOpen()
+   {
+      JSONObject message = new JSONObject();
+      message.put("type", new JSONString("join"));
+      message.put("id", new JSONString(id_));
+      message.put("path", new JSONString(path_));
+      message.put("contents", new JSONString(initialContents_));
+      initialContents_ = null;
+      send(message);
+   }
+
+   private void onMessage(String data)
+   {
+      if (socket_ == null)
+         return;
+
+      JSONObject message;
+      String type;
+      try
+      {
+         message = JSONParser.parseStrict(data).isObject();
+         type = message.get("type").isString().stringValue();
+      }
+      catch (Exception e)
+      {
+         fail("Invalid message from collaboration server");
+         return;
+      }
+
+      if (type.equals("joined"))
+      {
+         JSONValue revision = message.get("revision");
+         JSONValue contents = message.get("contents");
+         handler_.onJoined((int) revision.isNumber().doubleValue(),
+                           contents.isString().stringValue());
+      }
+      else if (type.equals("ack"))
+      {
+         handler_.onAck();
+      }
+      else if (type.equals("operation"))
+      {
+         handler_.onOperation(TextOperation.fromJson(
+               message.get("operation").isArray()));
+      }
+   }
+
+   private void onClose(String reason)
+   {
+      // closing the socket ourselves isn't news to the handler
+      if (socket_ == null)
+         return;
+
+      socket_ = null;
+      handler_.onDisconnected(reason);
+   }
+
+   private void fail(String reason)
+   {
+      disconnect();
+      handler_.onDisconnected(reason);
+   }
+
+   private void send(JSONObject message)
+   {
+      if (socket_ != null)
+         sendMessage(socket_, message.toString());
+   }
+
+   private native JavaScriptObject openSocket(String url) /*-{
+      var self = this;
+      var socket = new $wnd.WebSocket(url);
+      socket.onopen = $entry(function() {
+         self.@org.rstudio.studio.client.workbench.views.source.editors.text.collab.WebSocketCollabTransport::onOpen()();
+      });
+      socket.onmessage = $entry(function(event) {
+         self.@org.rstudio.studio.client.workbench.views.source.editors.text.collab.WebSocketCollabTransport::onMessage(Ljava/lang/String;)(event.data);
+      });
+      socket.onclose = $entry(function(event) {
+         self.@org.rstudio.studio.client.workbench.views.source.editors.text.collab.WebSocketCollabTransport::onClose(Ljava/lang/String;)(event.reason || "Connection closed");
+      });
+      return socket;
+   }-*/;
+
+   private static native void sendMessage(JavaScriptObject socket,
+                                          String message) /*-{
+      socket.send(message);
+   }-*/;
+
+   private static native void closeSocket(JavaScriptObject socket) /*-{
+      socket.close();
+   }-*/;
+
+   private final String url_;
+   private final String id_;
+   private final String path_;
+   private Handler handler_;
+   private String initialContents_;
+   private JavaScriptObject socket_;
+}
@@ -22,6 +22,7 @@ import com.google.gwt.event.dom.client.*;
 import com.google.gwt.event.logical.shared.CloseEvent;
 import com.google.gwt.event.logical.shared.CloseHandler;
 import com.google.gwt.event.logical.shared.HasCloseHandlers;
+import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.ui.HasText;
 import com.google.gwt.user.client.ui.PopupPanel;
 import org.rstudio.core.client.Debug;
@@ -187,7 +188,18 @@ public class CheckSpelling
 
       progressDisplay_.show();
 
-      findNextMisspelling();
+      // words are found by their tokens, which are only right once every
+      // row above has been tokenized; tokenize the document in the
+      // background (behind the progress display) before checking it
+      docDisplay_.whenTokenizedUpToRow(docDisplay_.getRowCount() - 1,
+                                       new Command()
+      {
+         @Override
+         public void execute()
+         {
+            findNextMisspelling();
+         }
+      });
    }
 
    private void cancel()
@@ -0,0 +1,443 @@
+/*
+ * RealtimeSpellChecker.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text.spelling;
+
+import java.util.ArrayList;
+
+import org.rstudio.core.client.Debug;
+import org.rstudio.core.client.HandlerRegistrations;
+import org.rstudio.studio.client.common.filetypes.TextFileType;
+import org.rstudio.studio.client.common.spelling.SpellChecker;
+import org.rstudio.studio.client.common.spelling.model.SpellCheckerResult;
+import org.rstudio.studio.client.server.ServerError;
+import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.workbench.views.output.lint.LintResources;
+import org.rstudio.studio.client.workbench.views.source.editors.text.DocDisplay;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.AnchoredRange;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Position;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Range;
+import org.rstudio.studio.client.workbench.views.source.editors.text.events.DocumentChangedEvent;
+import org.rstudio.studio.client.workbench.views.source.editors.text.events.RenderFinishedEvent;
+
+import com.google.gwt.user.client.Timer;
+
+// Checks spelling as the user types, underlining misspelled words.
+//
+// Only the visible rows and rows that were recently edited are checked.
+// Each row remembers whether it has been checked; editing a row (or
+// scrolling it into view) queues it, and queued rows are sent to the
+// spelling service in batches with several batches in flight at once.
+// Verdicts are cached by the spelling service, so re-checking rows whose
+// words have been seen before doesn't require a round trip.
+public class RealtimeSpellChecker
+{
+   public RealtimeSpellChecker(SpellChecker spellChecker,
+                               DocDisplay docDisplay)
+   {
+      spellChecker_ = spellChecker;
+      docDisplay_ = docDisplay;
+
+      LintResources.INSTANCE.styles().ensureInjected();
+
+      handlers_.add(docDisplay_.addDocumentChangedHandler(
+            new DocumentChangedEvent.Handler()
+      {
+         @Override
+         public void onDocumentChanged(DocumentChangedEvent event)
+         {
+            onRowsChanged(event.getEvent().getAction(),
+                          event.getEvent().getRange());
+         }
+      }));
+
+      // rendering happens after scrolling and resizing, either of which
+      // can bring unchecked rows into view
+      handlers_.add(docDisplay_.addRenderFinishedHandler(
+            new RenderFinishedEvent.Handler()
+      {
+         @Override
+         public void onRenderFinished(RenderFinishedEvent event)
+         {
+            scheduleCheck();
+         }
+      }));
+
+      invalidateAll();
+   }
+
+   public void detach()
+   {
+      detached_ = true;
+      timer_.cancel();
+      handlers_.removeHandler();
+      clearMarkers();
+   }
+
+   // Forgets all results (e.g. after the dictionary changed)
+   public void invalidateAll()
+   {
+      docVersion_++;
+      clearMarkers();
+      rows_.clear();
+      recentRows_.clear();
+      scheduleCheck();
+   }
+
+   // Re-checks only the rows that currently have misspellings (e.g. after a
+   // word was added to the dictionary)
+   public void invalidateMisspelledWords()
+   {
+      for (Marker marker : markers_)
+      {
+         int row = marker.range.getStart().getRow();
+         if (row < rows_.size())
+            rows_.get(row).checked = false;
+      }
+      clearMarkers();
+      scheduleCheck();
+   }
+
+   private void onRowsChanged(String action, Range range)
+   {
+      // nothing has been checked yet; the row states will be created the
+      // next time we check
+      if (rows_.isEmpty())
+      {
+         scheduleCheck();
+         return;
+      }
+
+      int startRow = range.getStart().getRow();
+      int lineDelta = range.getEnd().getRow() - startRow;
+      boolean isInsert = action.startsWith("insert");
+
+      if (lineDelta > 0)
+      {
+         // rows have shifted, so results for batches in flight no longer
+         // line up with the document
+         docVersion_++;
+
+         if (isInsert)
+         {
+            for (int i = 0; i < lineDelta && startRow + 1 <= rows_.size(); i++)
+               rows_.add(startRow + 1, new RowState());
+         }
+         else
+         {
+            for (int i = 0; i < lineDelta && startRow + 1 < rows_.size(); i++)
+               rows_.remove(startRow + 1);
+         }
+
+         for (int i = 0; i < recentRows_.size(); i++)
+         {
+            int row = recentRows_.get(i);
+            if (row > startRow)
+               recentRows_.set(i, isInsert ? row + lineDelta :
+                                             Math.max(startRow, row - lineDelta));
+         }
+      }
+
+      // if our bookkeeping disagrees with the document, start over
+      syncRowCount();
+
+      int lastRow = isInsert ? startRow + lineDelta : startRow;
+      removeMarkers(startRow, lastRow);
+      for (int row = startRow; row <= lastRow && row < rows_.size(); row++)
+      {
+         RowState state = rows_.get(row);
+         state.checked = false;
+         state.stamp = ++stampCounter_;
+         addRecentRow(row);
+      }
+
+      scheduleCheck();
+   }
+
+   private void addRecentRow(int row)
+   {
+      recentRows_.remove(Integer.valueOf(row));
+      recentRows_.add(0, row);
+      while (recentRows_.size() > MAX_RECENT_ROWS)
+         recentRows_.remove(recentRows_.size() - 1);
+   }
+
+   private void scheduleCheck()
+   {
+      if (detached_)
+         return;
+      timer_.schedule(CHECK_DELAY_MS);
+   }
+
+   // Keeps the row state list the same length as the document; if they
+   // disagree (e.g. the document was replaced wholesale) start over
+   private void syncRowCount()
+   {
+      int rowCount = docDisplay_.getRowCount();
+      if (rows_.size() == rowCount)
+         return;
+
+      if (!rows_.isEmpty())
+      {
+         docVersion_++;
+         clearMarkers();
+         rows_.clear();
+         recentRows_.clear();
+      }
+      for (int i = 0; i < rowCount; i++)
+         rows_.add(new RowState());
+   }
+
+   private void pump()
+   {
+      if (detached_)
+         return;
+
+      // the document's type may have changed since we were created
+      if (!docDisplay_.getFileType().canCheckSpelling())
+         return;
+
+      syncRowCount();
+      while (inFlight_ < MAX_IN_FLIGHT)
+      {
+         Batch batch = nextBatch();
+         if (batch == null)
+            break;
+         send(batch);
+      }
+   }
+
+   private Batch nextBatch()
+   {
+      Batch batch = new Batch(docVersion_);
+
+      // recently edited rows first, then whatever is on screen
+      for (int row : recentRows_)
+      {
+         if (batch.words.size() >= BATCH_WORDS)
+            break;
+         addRowToBatch(batch, row);
+      }
+
+      int first = Math.max(0, docDisplay_.getFirstVisibleRow());
+      int last = Math.min(rows_.size() - 1, docDisplay_.getLastVisibleRow());
+      for (int row = first; row <= last; row++)
+      {
+         if (batch.words.size() >= BATCH_WORDS)
+            break;
+         addRowToBatch(batch, row);
+      }
+
+      return batch.rows.isEmpty() ? null : batch;
+   }
+
+   private void addRowToBatch(Batch batch, int row)
+   {
+      if (row < 0 || row >= rows_.size())
+         return;
+
+      RowState state = rows_.get(row);
+      if (state.checked || state.queuedVersion == docVersion_)
+         return;
+
+      state.queuedVersion = docVersion_;
+      batch.rows.add(row);
+      batch.stamps.add(state.stamp);
+
+      TextFileType fileType = docDisplay_.getFileType();
+      String line = docDisplay_.getLine(row);
+      Iterable<Range> words = docDisplay_.getWords(
+            fileType.getTokenPredicate(),
+            fileType.getCharPredicate(),
+            Position.create(row, 0),
+            Position.create(row, line.length()));
+
+      for (Range range : words)
+      {
+         // Don't worry about pathologically long words
+         if (range.getEnd().getColumn() - range.getStart().getColumn() > 250)
+            continue;
+
+         batch.words.add(docDisplay_.getTextForRange(range));
+         batch.ranges.add(range);
+      }
+   }
+
+   private void send(final Batch batch)
+   {
+      inFlight_++;
+      spellChecker_.checkSpelling(batch.words,
+            new ServerRequestCallback<SpellCheckerResult>()
+      {
+         @Override
+         public void onResponseReceived(SpellCheckerResult result)
+         {
+            inFlight_--;
+            if (detached_)
+               return;
+
+            apply(batch, result);
+            pump();
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            inFlight_--;
+            Debug.logError(error);
+
+            // leave the rows unchecked; they'll be retried on the next edit
+            // or scroll rather than immediately
+            for (int row : batch.rows)
+            {
+               if (batch.version == docVersion_ && row < rows_.size())
+                  rows_.get(row).queuedVersion = -1;
+            }
+         }
+      });
+   }
+
+   private void apply(Batch batch, SpellCheckerResult result)
+   {
+      // rows shifted while the batch was in flight; the rows have been
+      // requeued already and will be checked again from the cache
+      if (batch.version != docVersion_)
+         return;
+
+      for (int i = 0; i < batch.rows.size(); i++)
+      {
+         int row = batch.rows.get(i);
+         RowState state = rows_.get(row);
+         state.queuedVersion = -1;
+
+         // skip rows edited since the batch was sent
+         if (state.stamp != batch.stamps.get(i))
+            continue;
+
+         removeMarkers(row, row);
+         state.checked = true;
+      }
+
+      for (int i = 0; i < batch.words.size(); i++)
+      {
+         Range range = batch.ranges.get(i);
+         int row = range.getStart().getRow();
+         int index = batch.rows.indexOf(row);
+         if (rows_.get(row).stamp != batch.stamps.get(index))
+            continue;
+
+         if (result.getIncorrect().contains(batch.words.get(i)))
+            addMarker(range);
+      }
+   }
+
+   private void addMarker(Range range)
+   {
+      AnchoredRange anchored = docDisplay_.createAnchoredRange(
+            range.getStart(), range.getEnd());
+      int id = docDisplay_.addMarker(
+            anchored,
+            LintResources.INSTANCE.styles().error(),
+            "text",
+            true);
+      markers_.add(new Marker(anchored, id));
+   }
+
+   private void removeMarkers(int firstRow, int lastRow)
+   {
+      for (int i = markers_.size() - 1; i >= 0; i--)
+      {
+         Marker marker = markers_.get(i);
+         int row = marker.range.getStart().getRow();
+         if (row >= firstRow && row <= lastRow)
+         {
+            marker.detach();
+            markers_.remove(i);
+         }
+      }
+   }
+
+   private void clearMarkers()
+   {
+      for (Marker marker : markers_)
+         marker.detach();
+      markers_.clear();
+   }
+
+   private class Marker
+   {
+      public Marker(AnchoredRange range, int id)
+      {
+         this.range = range;
+         this.id = id;
+      }
+
+      public void detach()
+      {
+         range.detach();
+         docDisplay_.removeMarker(id);
+      }
+
+      public final AnchoredRange range;
+      public final int id;
+   }
+
+   private static class RowState
+   {
+      public boolean checked = false;
+      public int stamp = 0;
+      public int queuedVersion = -1;
+   }
+
+   private static class Batch
+   {
+      public Batch(int version)
+      {
+         this.version = version;
+      }
+
+      public final int version;
+      public final ArrayList<Integer> rows = new ArrayList<Integer>();
+      public final ArrayList<Integer> stamps = new ArrayList<Integer>();
+      public final ArrayList<String> words = new ArrayList<String>();
+      public final ArrayList<Range> ranges = new ArrayList<Range>();
+   }
+
+   private final Timer timer_ = new Timer()
+   {
+      @Override
+      public void run()
+      {
+         pump();
+      }
+   };
+
+   private final SpellChecker spellChecker_;
+   private final DocDisplay docDisplay_;
+   private final HandlerRegistrations handlers_ = new HandlerRegistrations();
+
+   private final ArrayList<RowState> rows_ = new ArrayList<RowState>();
+   private final ArrayList<Integer> recentRows_ = new ArrayList<Integer>();
+   private final ArrayList<Marker> markers_ = new ArrayList<Marker>();
+
+   private int docVersion_ = 0;
+   private int stampCounter_ = 0;
+   private int inFlight_ = 0;
+   private boolean detached_ = false;
+
+   private static final int CHECK_DELAY_MS = 250;
+   private static final int BATCH_WORDS = 100;
+   private static final int MAX_IN_FLIGHT = 3;
+   private static final int MAX_RECENT_ROWS = 50;
+}
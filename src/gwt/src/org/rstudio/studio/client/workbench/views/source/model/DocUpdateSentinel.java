@@ -28,7 +28,7 @@ import org.rstudio.core.client.Barrier.Token;
 import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.TimeBufferedCommand;
 import org.rstudio.core.client.js.JsObject;
-import org.rstudio.core.client.patch.SubstringDiff;
+import org.rstudio.core.client.patch.HunkDiff;
 import org.rstudio.core.client.widget.ProgressIndicator;
 import org.rstudio.studio.client.application.events.EventBus;
 import org.rstudio.studio.client.common.SimpleRequestCallback;
@@ -338,7 +338,7 @@ public class DocUpdateSentinel
       String oldFoldSpec = sourceDoc_.getFoldSpec();
 
       //String patch = DiffMatchPatch.diff(oldContents, newContents);
-      SubstringDiff diff = new SubstringDiff(oldContents, newContents);
+      HunkDiff diff = new HunkDiff(oldContents, newContents);
 
       // Don't auto-save when there are no changes. In addition to being
       // wasteful, it causes the server to think the document is dirty.
@@ -362,16 +362,7 @@ public class DocUpdateSentinel
          return false;
       }
 
-      server_.saveDocumentDiff(
-            sourceDoc_.getId(),
-            path,
-            fileType,
-            encoding,
-            foldSpec,
-            diff.getReplacement(),
-            diff.getOffset(),
-            diff.getLength(),
-            hash,
+      ServerRequestCallback<String> callback =
             new ServerRequestCallback<String>()
             {
                @Override
@@ -434,7 +425,37 @@ public class DocUpdateSentinel
                            this);
                   }
                }
-            });
+            };
+
+      // separate edits are sent as separate hunks; a single (or no) change
+      // uses the original single replacement form
+      if (diff.getHunks().size() > 1)
+      {
+         server_.saveDocumentHunks(sourceDoc_.getId(),
+                                   path,
+                                   fileType,
+                                   encoding,
+                                   foldSpec,
+                                   diff,
+                                   hash,
+                                   callback);
+      }
+      else
+      {
+         HunkDiff.Hunk hunk = diff.isEmpty()
+               ? new HunkDiff.Hunk(0, 0, "")
+               : diff.getHunks().get(0);
+         server_.saveDocumentDiff(sourceDoc_.getId(),
+                                  path,
+                                  fileType,
+                                  encoding,
+                                  foldSpec,
+                                  hunk.replacement,
+                                  hunk.offset,
+                                  hunk.length,
+                                  hash,
+                                  callback);
+      }
 
       return true;
    }
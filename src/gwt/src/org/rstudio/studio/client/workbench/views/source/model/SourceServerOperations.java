@@ -17,6 +17,7 @@ package org.rstudio.studio.client.workbench.views.source.model;
 import com.google.gwt.core.client.JsArrayString;
 
 import org.rstudio.core.client.js.JsObject;
+import org.rstudio.core.client.patch.HunkDiff;
 import org.rstudio.studio.client.common.codetools.CodeToolsServerOperations;
 import org.rstudio.studio.client.events.GetActiveDocumentContextEvent;
 import org.rstudio.studio.client.htmlpreview.model.HTMLPreviewServerOperations;
@@ -116,6 +117,20 @@ public interface SourceServerOperations extends FilesServerOperations,
                          String hash,
                          ServerRequestCallback<String> requestCallback);
 
+   /**
+    * Same as saveDocumentDiff, but sends several separate replacements
+    * (hunks) in one request. Hunk offsets and lengths refer to the contents
+    * the server is expected to have before any of them are applied.
+    */
+   void saveDocumentHunks(String id,
+                          String path,
+                          String fileType,
+                          String encoding,
+                          String foldSpec,
+                          HunkDiff diff,
+                          String hash,
+                          ServerRequestCallback<String> requestCallback);
+
    void checkForExternalEdit(
          String id,
          ServerRequestCallback<CheckForExternalEditResult> requestCallback);
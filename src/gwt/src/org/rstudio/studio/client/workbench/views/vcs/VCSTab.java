@@ -20,11 +20,14 @@ import org.rstudio.core.client.command.CommandBinder;
 import org.rstudio.core.client.command.Handler;
 import org.rstudio.studio.client.application.events.EventBus;
 import org.rstudio.studio.client.workbench.commands.Commands;
+import org.rstudio.studio.client.workbench.events.SessionReinitEvent;
 import org.rstudio.studio.client.workbench.model.Session;
 import org.rstudio.studio.client.workbench.ui.DelayLoadTabShim;
 import org.rstudio.studio.client.workbench.ui.DelayLoadWorkbenchTab;
 import org.rstudio.studio.client.workbench.views.vcs.common.events.ShowVcsDiffEvent;
 import org.rstudio.studio.client.workbench.views.vcs.common.events.ShowVcsHistoryEvent;
+import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEvent;
+import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEvent.Reason;
 import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRevertFileEvent;
 import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsViewOnGitHubEvent;
 
@@ -63,10 +66,25 @@ public class VCSTab extends DelayLoadWorkbenchTab<VCSPresenter>
       super(session.getSessionInfo().getVcsName(), shim);
       binder.bind(commands, shim);
       session_ = session;
+      eventBus_ = eventBus;
       eventBus.addHandler(ShowVcsHistoryEvent.TYPE, shim);
       eventBus.addHandler(ShowVcsDiffEvent.TYPE, shim);
       eventBus.addHandler(VcsRevertFileEvent.TYPE, shim);
       eventBus.addHandler(VcsViewOnGitHubEvent.TYPE, shim);
+      
+      // refresh the status for the new project's repository when the 
+      // workbench is handed a new session (the tab itself stays as it is, 
+      // since that only happens if the version control system is the same)
+      eventBus.addHandler(SessionReinitEvent.TYPE, 
+                          new SessionReinitEvent.Handler()
+      {
+         @Override
+         public void onSessionReinit(SessionReinitEvent event)
+         {
+            if (session_.getSessionInfo().isVcsEnabled())
+               eventBus_.fireEvent(new VcsRefreshEvent(Reason.NA));
+         }
+      });
    }
 
    @Override
@@ -76,4 +94,5 @@ public class VCSTab extends DelayLoadWorkbenchTab<VCSPresenter>
    }
 
    private final Session session_;
+   private final EventBus eventBus_;
 }
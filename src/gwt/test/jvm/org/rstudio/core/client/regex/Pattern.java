@@ -0,0 +1,198 @@
+/*
+ * Pattern.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.regex;
+
+import java.util.regex.Matcher;
+
+// JVM stand-in for the JavaScript RegExp-backed Pattern in src/, used when
+// client code runs outside the browser (e.g. in the benchmarks). It has
+// the same API and follows JavaScript's semantics where they differ from
+// java.util.regex: a pattern without the 'g' (or 'y') flag always matches
+// from the start of the input, and 'test' on a global pattern resumes
+// from where the last match ended.
+public class Pattern
+{
+   public interface ReplaceOperation
+   {
+      String replace(Match m);
+   }
+
+   private Pattern(String pattern, String flags)
+   {
+      int javaFlags = 0;
+      if (flags.indexOf('i') >= 0)
+         javaFlags |= java.util.regex.Pattern.CASE_INSENSITIVE |
+                      java.util.regex.Pattern.UNICODE_CASE;
+      if (flags.indexOf('m') >= 0)
+         javaFlags |= java.util.regex.Pattern.MULTILINE;
+
+      regex_ = java.util.regex.Pattern.compile(pattern, javaFlags);
+      global_ = flags.indexOf('g') >= 0 || flags.indexOf('y') >= 0;
+   }
+
+   public static Pattern create(String pattern)
+   {
+      return new Pattern(pattern, "gm");
+   }
+
+   public static Pattern create(String pattern, String flags)
+   {
+      return new Pattern(pattern, flags);
+   }
+
+   public final int search(String string)
+   {
+      Matcher matcher = regex_.matcher(string);
+      return matcher.find() ? matcher.start() : -1;
+   }
+
+   public final Match match(String input, int index)
+   {
+      lastIndex_ = index;
+      return exec(input);
+   }
+
+   public final boolean test(String input)
+   {
+      return exec(input) != null;
+   }
+
+   public static String escape(String str)
+   {
+      // Replace every character with its \\uXXXX equivalent
+
+      StringBuilder output = new StringBuilder();
+      for (int i = 0; i < str.length(); i++)
+      {
+         char c = str.charAt(i);
+         String hexStr = Integer.toHexString(c);
+         output.append("\\u");
+         for (int j = 4 - hexStr.length(); j > 0; j--)
+            output.append('0');
+         output.append(hexStr);
+      }
+      return output.toString();
+   }
+
+   public final String replaceAll(String str, String substr)
+   {
+      Matcher matcher = regex_.matcher(str);
+      String replacement = toJavaReplacement(substr);
+      return global_
+            ? matcher.replaceAll(replacement)
+            : matcher.replaceFirst(replacement);
+   }
+
+   public final String replaceAll(String str, ReplaceOperation op)
+   {
+      StringBuilder result = new StringBuilder();
+      int tail = 0; // Index of last character copied/replaced from source str
+      Match match = match(str, 0);
+      while (match != null)
+      {
+         if (tail < match.getIndex())
+            result.append(str, tail, match.getIndex());
+
+         result.append(op.replace(match));
+
+         tail = match.getIndex() + match.getValue().length();
+
+         match = match.nextMatch();
+      }
+
+      if (tail < str.length())
+         result.append(str, tail, str.length());
+
+      return result.toString();
+   }
+
+   public static String replace(String find,
+                                String repl,
+                                boolean caseSensitive)
+   {
+      return create(find, caseSensitive ? "g" : "ig").replaceAll(find, repl);
+   }
+
+   // RegExp.exec: global patterns search from (and advance) lastIndex,
+   // others always search the whole input
+   private Match exec(String input)
+   {
+      int start = global_ ? lastIndex_ : 0;
+      if (start > input.length())
+      {
+         lastIndex_ = 0;
+         return null;
+      }
+
+      Matcher matcher = regex_.matcher(input);
+      if (!matcher.find(start))
+      {
+         if (global_)
+            lastIndex_ = 0;
+         return null;
+      }
+
+      if (global_)
+         lastIndex_ = matcher.end();
+
+      String[] groups = new String[matcher.groupCount() + 1];
+      for (int i = 0; i < groups.length; i++)
+         groups[i] = matcher.group(i);
+
+      return new Match(this, input, matcher.start(), lastIndex_, groups);
+   }
+
+   // JavaScript replacement strings use $& for the whole match and $$ for
+   // a literal dollar sign; Java's use $0 and \$
+   private static String toJavaReplacement(String replacement)
+   {
+      StringBuilder result = new StringBuilder();
+      for (int i = 0; i < replacement.length(); i++)
+      {
+         char c = replacement.charAt(i);
+         char next = i + 1 < replacement.length()
+               ? replacement.charAt(i + 1)
+               : '\0';
+         if (c == '\\')
+         {
+            result.append("\\\\");
+         }
+         else if (c == '$' && next == '&')
+         {
+            result.append("$0");
+            i++;
+         }
+         else if (c == '$' && Character.isDigit(next))
+         {
+            result.append(c);
+         }
+         else if (c == '$')
+         {
+            result.append("\\$");
+            if (next == '$')
+               i++;
+         }
+         else
+         {
+            result.append(c);
+         }
+      }
+      return result.toString();
+   }
+
+   private final java.util.regex.Pattern regex_;
+   private final boolean global_;
+   private int lastIndex_ = 0;
+}
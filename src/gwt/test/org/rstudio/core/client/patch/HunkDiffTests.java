@@ -0,0 +1,177 @@
+/*
+ * HunkDiffTests.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.patch;
+
+import java.util.ArrayList;
+
+import junit.framework.Assert;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class HunkDiffTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudio";
+   }
+
+   public void testEmpty()
+   {
+      HunkDiff diff = verify("", "");
+      Assert.assertTrue(diff.isEmpty());
+   }
+
+   public void testUnchanged()
+   {
+      String doc = document(100);
+      HunkDiff diff = verify(doc, doc);
+      Assert.assertTrue(diff.isEmpty());
+   }
+
+   public void testFromAndToEmpty()
+   {
+      String doc = document(100);
+      Assert.assertEquals(1, verify("", doc).getHunks().size());
+      Assert.assertEquals(1, verify(doc, "").getHunks().size());
+   }
+
+   public void testSmallChangeIsOneHunk()
+   {
+      // changes smaller than MIN_SPLIT_LENGTH are taken as they are, even
+      // if they span separate edits
+      String doc = document(100);
+      String edited = replaceLine(replaceLine(doc, 10, "first"), 12, "second");
+      Assert.assertTrue(new SubstringDiff(doc, edited).getLength() <
+                        HunkDiff.MIN_SPLIT_LENGTH);
+
+      HunkDiff diff = verify(doc, edited);
+      Assert.assertEquals(1, diff.getHunks().size());
+   }
+
+   public void testDistantEditsAreSeparateHunks()
+   {
+      String doc = document(200);
+      String edited = replaceLine(replaceLine(doc, 5, "near the top"),
+                                  190, "near the bottom");
+
+      HunkDiff diff = verify(doc, edited);
+      ArrayList<HunkDiff.Hunk> hunks = diff.getHunks();
+      Assert.assertEquals(2, hunks.size());
+      Assert.assertEquals("near the top", hunks.get(0).replacement.trim());
+      Assert.assertEquals("near the bottom", hunks.get(1).replacement.trim());
+   }
+
+   public void testNearbyEditsAreMerged()
+   {
+      // two edits with less than MERGE_GAP_LENGTH between them, in a
+      // change too large to be taken as one
+      String doc = document(200);
+      String edited = replaceLine(replaceLine(replaceLine(doc,
+            5, "top"), 100, "middle"), 102, "middle again");
+      Assert.assertTrue(line(doc, 101).length() < HunkDiff.MERGE_GAP_LENGTH);
+
+      HunkDiff diff = verify(doc, edited);
+      Assert.assertEquals(2, diff.getHunks().size());
+   }
+
+   public void testAllChanged()
+   {
+      String doc = document(100);
+      String edited = doc.toUpperCase();
+      HunkDiff diff = verify(doc, edited);
+      Assert.assertEquals(1, diff.getHunks().size());
+   }
+
+   public void testRepeatedLines()
+   {
+      // lines occurring more than once can't anchor the match
+      StringBuilder doc = new StringBuilder();
+      for (int i = 0; i < 100; i++)
+         doc.append("}\n").append("   x <- ").append(i).append("\n");
+      String edited = replaceLine(replaceLine(doc.toString(), 3, "   y <- 1"),
+                                  181, "   y <- 2");
+      Assert.assertEquals(2, verify(doc.toString(), edited).getHunks().size());
+   }
+
+   public void testMovedLines()
+   {
+      String doc = document(100);
+      String block = doc.substring(lineStart(doc, 10), lineStart(doc, 20));
+      String edited = doc.replace(block, "") + block;
+      verify(doc, edited);
+   }
+
+   public void testSurrogatePairs()
+   {
+      // changes which begin or end within a surrogate pair
+      String doc = document(100);
+      String withFace = replaceLine(doc, 50, "face 😀 here");
+      String otherFace = replaceLine(doc, 50, "face 😁 here");
+      String farFace = replaceLine(otherFace, 5, "😀");
+
+      verify(doc, withFace);
+      verify(withFace, otherFace);
+      verify(withFace, farFace);
+      verify(farFace, doc);
+   }
+
+   // Checks that the hunks are in order, don't overlap or come too close,
+   // and turn the original into the new string
+   private static HunkDiff verify(String origVal, String newVal)
+   {
+      HunkDiff diff = new HunkDiff(origVal, newVal);
+      Assert.assertEquals(newVal, diff.patch(origVal));
+      Assert.assertEquals(origVal.equals(newVal), diff.isEmpty());
+
+      int end = -HunkDiff.MERGE_GAP_LENGTH;
+      for (HunkDiff.Hunk hunk : diff.getHunks())
+      {
+         Assert.assertTrue(hunk.offset - end >= HunkDiff.MERGE_GAP_LENGTH);
+         Assert.assertTrue(hunk.length > 0 || hunk.replacement.length() > 0);
+         end = hunk.offset + hunk.length;
+         Assert.assertTrue(end <= origVal.length());
+      }
+      return diff;
+   }
+
+   // A document of distinct lines
+   private static String document(int lines)
+   {
+      StringBuilder doc = new StringBuilder();
+      for (int i = 0; i < lines; i++)
+         doc.append("line number ").append(i).append(" of the document\n");
+      return doc.toString();
+   }
+
+   private static String replaceLine(String doc, int index, String text)
+   {
+      return doc.substring(0, lineStart(doc, index)) + text + "\n" +
+             doc.substring(lineStart(doc, index + 1));
+   }
+
+   private static String line(String doc, int index)
+   {
+      return doc.substring(lineStart(doc, index), lineStart(doc, index + 1));
+   }
+
+   private static int lineStart(String doc, int index)
+   {
+      int pos = 0;
+      for (int i = 0; i < index; i++)
+         pos = doc.indexOf('\n', pos) + 1;
+      return pos;
+   }
+}
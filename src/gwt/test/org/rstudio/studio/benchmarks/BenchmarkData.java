@@ -0,0 +1,220 @@
+/*
+ * BenchmarkData.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.benchmarks;
+
+import java.util.Random;
+
+// Inputs for the benchmarks. Everything is generated from a fixed seed so
+// that every run (and every machine) measures the same work.
+public class BenchmarkData
+{
+   public BenchmarkData()
+   {
+      random_ = new Random(SEED);
+   }
+
+   // identifiers in the styles found in R code, e.g. "read_csv",
+   // "data.frame", "getOption"
+   public String identifier()
+   {
+      StringBuilder result = new StringBuilder(word());
+      int parts = random_.nextInt(3);
+      for (int i = 0; i < parts; i++)
+      {
+         switch (random_.nextInt(3))
+         {
+         case 0: result.append('_').append(word()); break;
+         case 1: result.append('.').append(word()); break;
+         default: result.append(capitalize(word())); break;
+         }
+      }
+      return result.toString();
+   }
+
+   public String[] identifiers(int count)
+   {
+      String[] result = new String[count];
+      for (int i = 0; i < count; i++)
+         result[i] = identifier();
+      return result;
+   }
+
+   // R-like source, roughly 40 characters per line
+   public String source(int lines)
+   {
+      StringBuilder result = new StringBuilder();
+      for (int i = 0; i < lines; i++)
+      {
+         result.append(identifier()).append(" <- ").append(identifier())
+               .append('(').append(identifier()).append(", ")
+               .append(random_.nextInt(1000)).append(")\n");
+      }
+      return result.toString();
+   }
+
+   // 'source' with a few scattered lines changed, inserted and removed
+   public String edit(String source, int edits)
+   {
+      String[] lines = source.split("\n", -1);
+      StringBuilder result = new StringBuilder();
+      for (int i = 0; i < lines.length; i++)
+      {
+         if (random_.nextInt(lines.length) < edits)
+         {
+            switch (random_.nextInt(3))
+            {
+            case 0: // change
+               result.append(identifier()).append(" <- NULL");
+               break;
+            case 1: // insert
+               result.append(identifier()).append("()\n").append(lines[i]);
+               break;
+            default: // remove
+               continue;
+            }
+         }
+         else
+         {
+            result.append(lines[i]);
+         }
+         if (i < lines.length - 1)
+            result.append('\n');
+      }
+      return result.toString();
+   }
+
+   // output of 'git diff' touching the given number of files
+   public String unifiedDiff(int files, int hunksPerFile)
+   {
+      StringBuilder result = new StringBuilder();
+      for (int f = 0; f < files; f++)
+      {
+         String path = "R/" + identifier() + ".R";
+         result.append("diff --git a/").append(path)
+               .append(" b/").append(path).append('\n');
+         result.append("index 3b18e51..a8c2f4d 100644\n");
+         result.append("--- a/").append(path).append('\n');
+         result.append("+++ b/").append(path).append('\n');
+
+         int line = 1;
+         for (int h = 0; h < hunksPerFile; h++)
+         {
+            line += 10 + random_.nextInt(50);
+            result.append("@@ -").append(line).append(",7 +")
+                  .append(line).append(",8 @@ ")
+                  .append(identifier()).append("\n");
+            for (int i = 0; i < 3; i++)
+               result.append(' ').append(sourceLine()).append('\n');
+            result.append('-').append(sourceLine()).append('\n');
+            result.append('+').append(sourceLine()).append('\n');
+            result.append('+').append(sourceLine()).append('\n');
+            for (int i = 0; i < 3; i++)
+               result.append(' ').append(sourceLine()).append('\n');
+         }
+      }
+      return result.toString();
+   }
+
+   // comma-separated values with a header, some fields quoted (including
+   // quotes and commas within quotes)
+   public String csv(int rows, int columns)
+   {
+      StringBuilder result = new StringBuilder();
+      for (int r = 0; r <= rows; r++)
+      {
+         for (int c = 0; c < columns; c++)
+         {
+            if (c > 0)
+               result.append(',');
+
+            if (r == 0)
+               result.append(identifier());
+            else if (c % 3 == 0)
+               result.append(random_.nextInt(100000));
+            else if (c % 3 == 1)
+               result.append(identifier());
+            else
+               result.append('"').append(word()).append(", ")
+                     .append("\"\"").append(word()).append("\"\"")
+                     .append('"');
+         }
+         result.append('\n');
+      }
+      return result.toString();
+   }
+
+   // console output as R prints it while running a long job: plain lines,
+   // progress bars redrawn in place with \r, and the odd backspace
+   public String consoleOutput(int lines)
+   {
+      StringBuilder result = new StringBuilder();
+      for (int i = 0; i < lines; i++)
+      {
+         switch (random_.nextInt(4))
+         {
+         case 0:
+            for (int p = 0; p <= 100; p += 5)
+            {
+               result.append("\r  |");
+               for (int j = 0; j < 50; j++)
+                  result.append(j < p / 2 ? '=' : ' ');
+               result.append("| ").append(p).append('%');
+            }
+            result.append('\n');
+            break;
+         case 1:
+            result.append(word()).append("\b\b").append(word()).append('\n');
+            break;
+         default:
+            result.append("[").append(i).append("] ")
+                  .append(sourceLine()).append('\n');
+            break;
+         }
+      }
+      return result.toString();
+   }
+
+   public int nextInt(int bound)
+   {
+      return random_.nextInt(bound);
+   }
+
+   private String sourceLine()
+   {
+      return identifier() + " <- " + identifier() + "(" + word() + ")";
+   }
+
+   private String word()
+   {
+      return WORDS[random_.nextInt(WORDS.length)];
+   }
+
+   private static String capitalize(String word)
+   {
+      return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+   }
+
+   private final Random random_;
+
+   private static final long SEED = 20160401L;
+
+   private static final String[] WORDS = {
+      "data", "frame", "read", "write", "csv", "table", "model", "fit",
+      "plot", "summary", "get", "set", "option", "list", "vector", "apply",
+      "map", "filter", "select", "mutate", "group", "by", "x", "y", "value",
+      "names", "file", "path", "rstudio", "api", "shiny", "render", "output",
+      "input", "session", "env", "call", "args", "format", "print"
+   };
+}
@@ -0,0 +1,124 @@
+/*
+ * KeyMapBenchmarks.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rstudio.core.client.command.KeyMap;
+import org.rstudio.core.client.command.KeyMap.CommandBinding;
+import org.rstudio.core.client.command.KeyboardShortcut;
+import org.rstudio.core.client.command.KeyboardShortcut.KeySequence;
+
+// Keyboard shortcut handling: building the key map (the DirectedGraph of
+// key combinations) as happens when bindings are loaded, and the lookups
+// made on every key press
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class KeyMapBenchmarks
+{
+   @Setup
+   public void setup()
+   {
+      BenchmarkData data = new BenchmarkData();
+
+      keys_ = new KeySequence[BINDINGS];
+      bindings_ = new CommandBinding[BINDINGS];
+      for (int i = 0; i < BINDINGS; i++)
+      {
+         // mostly single key combinations, some two-key (Emacs style)
+         // sequences sharing a prefix
+         KeySequence keys = new KeySequence();
+         if (i % 4 == 0)
+            keys.add('X', KeyboardShortcut.CTRL);
+         keys.add('A' + data.nextInt(26), MODIFIERS[data.nextInt(MODIFIERS.length)]);
+         keys_[i] = keys;
+         bindings_[i] = new Binding("command" + i, i % 7 != 0);
+      }
+
+      keyMap_ = buildKeyMap();
+   }
+
+   @Benchmark
+   public KeyMap build()
+   {
+      return buildKeyMap();
+   }
+
+   @Benchmark
+   public int lookup()
+   {
+      int found = 0;
+      for (KeySequence keys : keys_)
+      {
+         if (keyMap_.getActiveBinding(keys) != null)
+            found++;
+         if (keyMap_.isPrefix(keys))
+            found++;
+      }
+      return found;
+   }
+
+   private KeyMap buildKeyMap()
+   {
+      KeyMap keyMap = new KeyMap();
+      for (int i = 0; i < BINDINGS; i++)
+         keyMap.addBinding(keys_[i], bindings_[i]);
+      return keyMap;
+   }
+
+   private static class Binding implements CommandBinding
+   {
+      public Binding(String id, boolean enabled)
+      {
+         id_ = id;
+         enabled_ = enabled;
+      }
+
+      public String getId() { return id_; }
+      public void execute() {}
+      public boolean isEnabled() { return enabled_; }
+      public boolean isUserDefinedBinding() { return false; }
+
+      private final String id_;
+      private final boolean enabled_;
+   }
+
+   private KeySequence[] keys_;
+   private CommandBinding[] bindings_;
+   private KeyMap keyMap_;
+
+   private static final int BINDINGS = 1000;
+   private static final int[] MODIFIERS = {
+      KeyboardShortcut.CTRL,
+      KeyboardShortcut.ALT,
+      KeyboardShortcut.CTRL | KeyboardShortcut.SHIFT,
+      KeyboardShortcut.META,
+      KeyboardShortcut.META | KeyboardShortcut.SHIFT
+   };
+}
@@ -0,0 +1,97 @@
+/*
+ * ParserBenchmarks.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rstudio.core.client.CsvReader;
+import org.rstudio.core.client.VirtualConsole;
+import org.rstudio.studio.client.workbench.views.vcs.common.diff.DiffChunk;
+import org.rstudio.studio.client.workbench.views.vcs.common.diff.DiffFileHeader;
+import org.rstudio.studio.client.workbench.views.vcs.common.diff.UnifiedParser;
+
+// Parsing of large blocks of text arriving from the session: console
+// output, diffs shown in the Review Changes view, and delimited files
+// previewed for import
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ParserBenchmarks
+{
+   @Setup
+   public void setup()
+   {
+      BenchmarkData data = new BenchmarkData();
+      consoleOutput_ = data.consoleOutput(CONSOLE_LINES);
+      diff_ = data.unifiedDiff(DIFF_FILES, DIFF_HUNKS_PER_FILE);
+      csv_ = data.csv(CSV_ROWS, CSV_COLUMNS);
+   }
+
+   @Benchmark
+   public String virtualConsole()
+   {
+      VirtualConsole console = new VirtualConsole();
+      console.submit(consoleOutput_);
+      return console.toString();
+   }
+
+   @Benchmark
+   public int unifiedParser()
+   {
+      int size = 0;
+      UnifiedParser parser = new UnifiedParser(diff_);
+      DiffFileHeader header;
+      while (null != (header = parser.nextFilePair()))
+      {
+         size += header.getDescription().length();
+         DiffChunk chunk;
+         while (null != (chunk = parser.nextChunk()))
+            size += chunk.getLines().size();
+      }
+      return size;
+   }
+
+   @Benchmark
+   public int csvReader()
+   {
+      int fields = 0;
+      for (String[] row : new CsvReader(csv_))
+         fields += row.length;
+      return fields;
+   }
+
+   private String consoleOutput_;
+   private String diff_;
+   private String csv_;
+
+   private static final int CONSOLE_LINES = 2000;
+   private static final int DIFF_FILES = 50;
+   private static final int DIFF_HUNKS_PER_FILE = 20;
+   private static final int CSV_ROWS = 5000;
+   private static final int CSV_COLUMNS = 12;
+}
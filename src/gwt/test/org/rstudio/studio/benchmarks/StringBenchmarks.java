@@ -0,0 +1,105 @@
+/*
+ * StringBenchmarks.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rstudio.core.client.StringUtil;
+import org.rstudio.core.client.patch.SubstringDiff;
+import org.rstudio.studio.client.workbench.codesearch.CodeSearchOracle;
+
+// Fuzzy matching as done for every keystroke in Go to File/Function and
+// completion (over a workspace-sized list of names), and the diff computed
+// on every document save
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class StringBenchmarks
+{
+   @Setup
+   public void setup()
+   {
+      BenchmarkData data = new BenchmarkData();
+      names_ = data.identifiers(NAMES);
+      lowerNames_ = new String[NAMES];
+      for (int i = 0; i < NAMES; i++)
+         lowerNames_[i] = names_[i].toLowerCase();
+
+      original_ = data.source(DOCUMENT_LINES);
+      edited_ = data.edit(original_, 1);
+   }
+
+   @Benchmark
+   public int isSubsequence()
+   {
+      int matches = 0;
+      for (String name : lowerNames_)
+         if (StringUtil.isSubsequence(name, QUERY))
+            matches++;
+      return matches;
+   }
+
+   @Benchmark
+   public int subsequenceIndices()
+   {
+      int sum = 0;
+      for (String name : lowerNames_)
+      {
+         if (StringUtil.isSubsequence(name, QUERY))
+            sum += StringUtil.subsequenceIndices(name, QUERY)[0];
+      }
+      return sum;
+   }
+
+   @Benchmark
+   public int scoreMatch()
+   {
+      int sum = 0;
+      for (int i = 0; i < NAMES; i++)
+      {
+         if (StringUtil.isSubsequence(lowerNames_[i], QUERY))
+            sum += CodeSearchOracle.scoreMatch(names_[i], QUERY, false);
+      }
+      return sum;
+   }
+
+   @Benchmark
+   public SubstringDiff substringDiff()
+   {
+      return new SubstringDiff(original_, edited_);
+   }
+
+   private String[] names_;
+   private String[] lowerNames_;
+   private String original_;
+   private String edited_;
+
+   private static final int NAMES = 20000;
+   private static final int DOCUMENT_LINES = 5000;
+   private static final String QUERY = "rdcsv";
+}
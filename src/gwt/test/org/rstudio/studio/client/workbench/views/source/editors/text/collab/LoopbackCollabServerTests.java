@@ -0,0 +1,227 @@
+/*
+ * LoopbackCollabServerTests.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text.collab;
+
+import junit.framework.Assert;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import com.google.gwt.user.client.Timer;
+
+public class LoopbackCollabServerTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudio";
+   }
+
+   public void testJoin()
+   {
+      final LoopbackCollabServer server =
+            LoopbackCollabServer.forSession("loopback-join");
+      final TestEditor first = new TestEditor(server, "hello world");
+      final TestEditor second = new TestEditor(server, "ignored");
+
+      // the session takes its contents from the first editor to join
+      whenReady(new Condition()
+      {
+         @Override
+         public boolean isReady()
+         {
+            return first.isJoined() && second.isJoined();
+         }
+
+         @Override
+         public void onReady()
+         {
+            Assert.assertEquals("hello world", server.getContents());
+            Assert.assertEquals("hello world", second.getContents());
+            first.disconnect();
+            second.disconnect();
+            finishTest();
+         }
+      });
+   }
+
+   public void testConcurrentEditsConverge()
+   {
+      final LoopbackCollabServer server =
+            LoopbackCollabServer.forSession("loopback-converge");
+      final TestEditor first = new TestEditor(server, "hello world");
+      final TestEditor second = new TestEditor(server, "");
+
+      whenReady(new Condition()
+      {
+         @Override
+         public boolean isReady()
+         {
+            return first.isJoined() && second.isJoined();
+         }
+
+         @Override
+         public void onReady()
+         {
+            // both edit before either has seen the other's changes; the
+            // second edit of each is buffered behind the first
+            first.insert(0, "Oh, ");
+            second.replace(6, 5, "there");
+            first.insert(first.getContents().length(), "!");
+            second.insert(0, ">> ");
+
+            whenReady(new Condition()
+            {
+               @Override
+               public boolean isReady()
+               {
+                  return first.isSynchronized() &&
+                         second.isSynchronized() &&
+                         first.getContents().equals(server.getContents()) &&
+                         second.getContents().equals(server.getContents());
+               }
+
+               @Override
+               public void onReady()
+               {
+                  Assert.assertEquals(">> Oh, hello there!",
+                                      server.getContents());
+                  Assert.assertEquals(4, server.getRevision());
+                  first.disconnect();
+                  second.disconnect();
+                  finishTest();
+               }
+            });
+         }
+      });
+   }
+
+   private interface Condition
+   {
+      boolean isReady();
+      void onReady();
+   }
+
+   // polls until the condition holds; the loopback server delivers its
+   // messages asynchronously, as a remote server would
+   private void whenReady(final Condition condition)
+   {
+      delayTestFinish(TIMEOUT_MS);
+      new Timer()
+      {
+         @Override
+         public void run()
+         {
+            if (condition.isReady())
+            {
+               cancel();
+               condition.onReady();
+            }
+         }
+      }.scheduleRepeating(POLL_MS);
+   }
+
+   // An editor whose document is a string
+   private static class TestEditor implements CollabTransport.Handler
+   {
+      public TestEditor(LoopbackCollabServer server, String contents)
+      {
+         contents_ = contents;
+         transport_ = server.createTransport();
+         transport_.connect(contents, this);
+      }
+
+      public boolean isJoined()
+      {
+         return client_ != null;
+      }
+
+      public boolean isSynchronized()
+      {
+         return client_.isSynchronized();
+      }
+
+      public String getContents()
+      {
+         return contents_;
+      }
+
+      public void insert(int pos, String text)
+      {
+         edit(new TextOperation().retain(pos).insert(text)
+               .retain(contents_.length() - pos));
+      }
+
+      public void replace(int pos, int count, String text)
+      {
+         edit(new TextOperation().retain(pos).delete(count).insert(text)
+               .retain(contents_.length() - pos - count));
+      }
+
+      public void disconnect()
+      {
+         transport_.disconnect();
+      }
+
+      @Override
+      public void onJoined(int revision, String contents)
+      {
+         contents_ = contents;
+         client_ = new CollabClient(revision)
+         {
+            @Override
+            protected void sendOperation(int revision, TextOperation operation)
+            {
+               transport_.sendOperation(revision, operation);
+            }
+
+            @Override
+            protected void applyOperation(TextOperation operation)
+            {
+               contents_ = operation.apply(contents_);
+            }
+         };
+      }
+
+      @Override
+      public void onAck()
+      {
+         client_.serverAck();
+      }
+
+      @Override
+      public void onOperation(TextOperation operation)
+      {
+         client_.applyServer(operation);
+      }
+
+      @Override
+      public void onDisconnected(String reason)
+      {
+         Assert.fail("Disconnected: " + reason);
+      }
+
+      private void edit(TextOperation operation)
+      {
+         contents_ = operation.apply(contents_);
+         client_.applyClient(operation);
+      }
+
+      private final CollabTransport transport_;
+      private CollabClient client_;
+      private String contents_;
+   }
+
+   private static final int TIMEOUT_MS = 5000;
+   private static final int POLL_MS = 10;
+}
@@ -0,0 +1,175 @@
+/*
+ * TextOperationTests.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text.collab;
+
+import junit.framework.Assert;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class TextOperationTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudio";
+   }
+
+   public void testApply()
+   {
+      TextOperation op = new TextOperation()
+            .retain(6).delete(5).insert("there").retain(1);
+      Assert.assertEquals(12, op.getBaseLength());
+      Assert.assertEquals(12, op.getTargetLength());
+      Assert.assertEquals("hello there!", op.apply("hello world!"));
+   }
+
+   public void testApplyWrongLength()
+   {
+      try
+      {
+         insert("abc", 0, "x").apply("ab");
+         Assert.fail("Applied an operation to a document of the wrong length");
+      }
+      catch (IllegalArgumentException e)
+      {
+      }
+   }
+
+   public void testNoop()
+   {
+      Assert.assertTrue(new TextOperation().isNoop());
+      Assert.assertTrue(new TextOperation().retain(5).isNoop());
+      Assert.assertFalse(insert("abc", 1, "x").isNoop());
+   }
+
+   public void testCompose()
+   {
+      String doc = "hello world";
+      TextOperation[][] pairs = new TextOperation[][] {
+         // insert, then delete part of what was inserted
+         { insert(doc, 5, " there"), delete(doc + " there", 5, 3) },
+         // delete, then insert where the text was deleted
+         { delete(doc, 0, 6), insert("world", 0, "goodbye ") },
+         // two inserts at either end
+         { insert(doc, 0, ">> "), insert(">> " + doc, 14, "!") },
+         // delete everything, then insert new contents
+         { delete(doc, 0, 11), insert("", 0, "new") },
+      };
+
+      for (TextOperation[] pair : pairs)
+      {
+         String expected = pair[1].apply(pair[0].apply(doc));
+         TextOperation composed = pair[0].compose(pair[1]);
+         Assert.assertEquals(expected, composed.apply(doc));
+         Assert.assertEquals(doc.length(), composed.getBaseLength());
+         Assert.assertEquals(expected.length(), composed.getTargetLength());
+      }
+   }
+
+   public void testComposeWrongLength()
+   {
+      try
+      {
+         insert("abc", 0, "x").compose(insert("abc", 0, "y"));
+         Assert.fail("Composed operations with mismatched lengths");
+      }
+      catch (IllegalArgumentException e)
+      {
+      }
+   }
+
+   public void testTransform()
+   {
+      String doc = "hello world";
+      TextOperation[][] pairs = new TextOperation[][] {
+         // inserts at different positions
+         { insert(doc, 0, "Oh, "), insert(doc, 11, "!") },
+         // insert inside text the other deletes
+         { insert(doc, 8, "XYZ"), delete(doc, 6, 5) },
+         // overlapping deletes
+         { delete(doc, 2, 5), delete(doc, 4, 6) },
+         // the same delete
+         { delete(doc, 0, 6), delete(doc, 0, 6) },
+         // replacements of the same word
+         { replace(doc, 6, 5, "there"), replace(doc, 6, 5, "everyone") },
+      };
+
+      for (TextOperation[] pair : pairs)
+      {
+         TextOperation[] primes = TextOperation.transform(pair[0], pair[1]);
+         String ab = primes[1].apply(pair[0].apply(doc));
+         String ba = primes[0].apply(pair[1].apply(doc));
+         Assert.assertEquals(ab, ba);
+      }
+   }
+
+   public void testTransformInsertTie()
+   {
+      // both insert at the same position: the first operation's text comes
+      // first, whichever order they're applied in
+      String doc = "abc";
+      TextOperation a = insert(doc, 1, "X");
+      TextOperation b = insert(doc, 1, "Y");
+      TextOperation[] primes = TextOperation.transform(a, b);
+      Assert.assertEquals("aXYbc", primes[1].apply(a.apply(doc)));
+      Assert.assertEquals("aXYbc", primes[0].apply(b.apply(doc)));
+   }
+
+   public void testTransformThenCompose()
+   {
+      // what a client does with an operation from the server while it has
+      // its own in flight: transform, then compose with what follows
+      String doc = "hello world";
+      TextOperation local = insert(doc, 5, ",");
+      TextOperation remote = replace(doc, 6, 5, "there");
+      TextOperation[] primes = TextOperation.transform(local, remote);
+
+      String server = primes[0].apply(remote.apply(doc));
+      String client = primes[1].apply(local.apply(doc));
+      Assert.assertEquals("hello, there", server);
+      Assert.assertEquals(server, client);
+
+      TextOperation next = insert(client, client.length(), "!");
+      Assert.assertEquals("hello, there!",
+                          primes[1].compose(next).apply(local.apply(doc)));
+   }
+
+   public void testJsonRoundTrip()
+   {
+      TextOperation op = replace("hello world", 6, 5, "there");
+      TextOperation copy = TextOperation.fromJson(op.toJson());
+      Assert.assertEquals(op.toJson().toString(), copy.toJson().toString());
+      Assert.assertEquals("hello there", copy.apply("hello world"));
+   }
+
+   private static TextOperation insert(String doc, int pos, String text)
+   {
+      return new TextOperation()
+            .retain(pos).insert(text).retain(doc.length() - pos);
+   }
+
+   private static TextOperation delete(String doc, int pos, int count)
+   {
+      return new TextOperation()
+            .retain(pos).delete(count).retain(doc.length() - pos - count);
+   }
+
+   private static TextOperation replace(String doc, int pos, int count,
+                                        String text)
+   {
+      return new TextOperation().retain(pos).delete(count).insert(text)
+            .retain(doc.length() - pos - count);
+   }
+}
@@ -0,0 +1,92 @@
+/*
+ * PerformanceRecorder.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.selenium;
+
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+// Collects the timings taken by PerformanceTests, checks each against its
+// threshold, and writes them all out as JSON so runs of different client
+// builds can be compared:
+//
+//   {"timings": [{"name": ..., "ms": ..., "threshold": ..., "passed": ...}]}
+//
+// Thresholds are read from -Dperf.thresholds (a properties file of
+// name=milliseconds) and results written to -Dperf.results.
+public class PerformanceRecorder
+{
+   public PerformanceRecorder() throws IOException {
+      InputStream input = new FileInputStream(System.getProperty(
+            "perf.thresholds",
+            "test/org/rstudio/studio/selenium/resources/" +
+            "performance-thresholds.properties"));
+      try {
+         thresholds_.load(input);
+      } finally {
+         input.close();
+      }
+   }
+
+   // Records a timing, failing if it's over the threshold. The timing is
+   // kept (and written out) either way; the JSON file is the only report.
+   public void record(String name, double ms) {
+      timings_.put(name, ms);
+
+      double threshold = getThreshold(name);
+      assertTrue(name + " took " + ms + "ms; threshold is " + threshold + "ms",
+                 ms <= threshold);
+   }
+
+   public void write() throws IOException {
+      Writer writer = new FileWriter(System.getProperty(
+            "perf.results", "performance-results.json"));
+      try {
+         writer.write("{\"timings\": [");
+         String separator = "\n";
+         for (Map.Entry<String, Double> timing: timings_.entrySet()) {
+            double threshold = getThreshold(timing.getKey());
+            writer.write(separator);
+            writer.write(String.format(Locale.US,
+                  "  {\"name\": \"%s\", \"ms\": %.1f, \"threshold\": %.0f, " +
+                  "\"passed\": %s}",
+                  timing.getKey(), timing.getValue(), threshold,
+                  timing.getValue() <= threshold));
+            separator = ",\n";
+         }
+         writer.write("\n]}\n");
+      } finally {
+         writer.close();
+      }
+   }
+
+   private double getThreshold(String name) {
+      String threshold = thresholds_.getProperty(name);
+      assertNotNull("No threshold for " + name, threshold);
+      return Double.parseDouble(threshold);
+   }
+
+   private final Properties thresholds_ = new Properties();
+   private final Map<String, Double> timings_ =
+         new LinkedHashMap<String, Double>();
+}
@@ -0,0 +1,261 @@
+/*
+ * PerformanceTests.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.selenium;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.Keys;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.Actions;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+import org.openqa.selenium.support.ui.WebDriverWait;
+import org.rstudio.core.client.ElementIds;
+
+import static org.junit.Assert.*;
+
+// Times common operations on large inputs against a running session. Each
+// timing runs from the user's action until its result is on screen, and is
+// checked against a threshold by PerformanceRecorder.
+public class PerformanceTests
+{
+   @BeforeClass
+   public static void setUpBeforeClass() throws Exception {
+      recorder_ = new PerformanceRecorder();
+      driver_ = RStudioWebAppDriver.start();
+      waitForConsoleInput();
+   }
+
+   @AfterClass
+   public static void tearDownAfterClass() throws Exception {
+      try {
+         recorder_.write();
+      } finally {
+         RStudioWebAppDriver.stop();
+      }
+   }
+
+   @Test
+   public void timeToInteractive() {
+      long start = System.nanoTime();
+      driver_.navigate().refresh();
+      waitForConsoleInput();
+      recorder_.record("time_to_interactive", elapsedMs(start));
+   }
+
+   @Test
+   public void open30Tabs() {
+      runAndWait(
+         "for (i in 1:30) writeLines('x <- 1', " +
+         "file.path(tempdir(), sprintf('perf_tab_%02d.R', i)))");
+
+      long start = System.nanoTime();
+      runInConsole(
+         "for (i in 1:30) file.edit(" +
+         "file.path(tempdir(), sprintf('perf_tab_%02d.R', i)))");
+      waitFor(new ExpectedCondition<Boolean>() {
+         public Boolean apply(WebDriver d) {
+            return countTabs("perf_tab_") == 30;
+         }
+      });
+      recorder_.record("open_30_tabs", elapsedMs(start));
+
+      closeAllSourceDocs();
+   }
+
+   @Test
+   public void stream100kConsoleLines() {
+      final String marker = newMarker();
+      long start = System.nanoTime();
+      runInConsole(
+         "cat(paste0('line ', 1:100000, '\\n'), sep = ''); " +
+         rMarker(marker));
+      waitForConsoleText(marker);
+      recorder_.record("stream_100k_console_lines", elapsedMs(start));
+   }
+
+   @Test
+   public void typeIn10kLineFile() {
+      runInConsole(
+         "writeLines(rep('x <- c(1, 2, 3)', 10000), " +
+         "f <- file.path(tempdir(), 'perf_typing.R')); file.edit(f)");
+      waitFor(new ExpectedCondition<Boolean>() {
+         public Boolean apply(WebDriver d) {
+            return countTabs("perf_typing.R") == 1;
+         }
+      });
+
+      final WebElement editor = findVisibleEditor();
+      editor.click();
+      new Actions(driver_)
+         .sendKeys(Keys.chord(Keys.CONTROL, Keys.END))
+         .sendKeys(Keys.ENTER + "# ")
+         .perform();
+
+      // a comment, so no completions pop up while typing
+      StringBuilder typed = new StringBuilder();
+      for (int i = 0; i < TYPED_KEYS; i++)
+         typed.append((char) ('a' + i % 26));
+      final String text = typed.toString();
+
+      long start = System.nanoTime();
+      new Actions(driver_).sendKeys(text).perform();
+      waitFor(new ExpectedCondition<Boolean>() {
+         public Boolean apply(WebDriver d) {
+            return textContent(editor).contains(text);
+         }
+      });
+      recorder_.record("type_in_10k_line_file", elapsedMs(start) / TYPED_KEYS);
+
+      new Actions(driver_).sendKeys(Keys.chord(Keys.CONTROL, "s")).perform();
+      closeAllSourceDocs();
+   }
+
+   @Test
+   public void refreshEnvironment5kObjects() {
+      final String marker = newMarker();
+      final WebElement environment = driver_.findElement(By.id(
+            ElementIds.getElementId(ElementIds.ENVIRONMENT_OBJECTS)));
+
+      // the marker object sorts first, so it's shown without scrolling
+      long start = System.nanoTime();
+      runInConsole(
+         "for (i in 1:5000) assign(paste0('perf_obj_', i), i, " +
+         "envir = globalenv()); assign('aaa_" + marker + "', TRUE, " +
+         "envir = globalenv())");
+      waitFor(new ExpectedCondition<Boolean>() {
+         public Boolean apply(WebDriver d) {
+            return textContent(environment).contains("aaa_" + marker);
+         }
+      });
+      recorder_.record("refresh_environment_5k_objects", elapsedMs(start));
+
+      runAndWait("rm(list = ls(pattern = '^(perf_obj_|aaa_perf_)', " +
+                 "envir = globalenv()), envir = globalenv())");
+   }
+
+   private static void waitForConsoleInput() {
+      waitFor(new ExpectedCondition<Boolean>() {
+         public Boolean apply(WebDriver d) {
+            List<WebElement> elements = driver_.findElements(By.id(
+                  ElementIds.getElementId(ElementIds.CONSOLE_INPUT)));
+            return elements.size() > 0 && elements.get(0).isDisplayed();
+         }
+      });
+   }
+
+   private static void runInConsole(String code) {
+      ConsoleTestUtils.resumeConsoleInteraction(driver_);
+      new Actions(driver_)
+         .sendKeys(Keys.ESCAPE + code + Keys.ENTER)
+         .perform();
+   }
+
+   // Runs code and waits for it to finish
+   private static void runAndWait(String code) {
+      String marker = newMarker();
+      runInConsole(code + "; " + rMarker(marker));
+      waitForConsoleText(marker);
+   }
+
+   private static void waitForConsoleText(final String text) {
+      final WebElement output = driver_.findElement(By.id(
+            ElementIds.getElementId(ElementIds.CONSOLE_OUTPUT)));
+      waitFor(new ExpectedCondition<Boolean>() {
+         public Boolean apply(WebDriver d) {
+            return textContent(output).contains(text);
+         }
+      });
+   }
+
+   private static void closeAllSourceDocs() {
+      MenuNavigator.getMenuItem(driver_, "File", "Close All").click();
+      waitFor(new ExpectedCondition<Boolean>() {
+         public Boolean apply(WebDriver d) {
+            return countTabs("perf_") == 0;
+         }
+      });
+   }
+
+   private static WebElement findVisibleEditor() {
+      List<WebElement> editors = driver_.findElements(By.id(
+            ElementIds.getElementId(ElementIds.SOURCE_TEXT_EDITOR)));
+      for (WebElement editor: editors) {
+         if (editor.isDisplayed())
+            return editor;
+      }
+      fail("No source editor is visible");
+      return null;
+   }
+
+   private static int countTabs(String name) {
+      Object count = ((JavascriptExecutor) driver_).executeScript(
+            "var tabs = document.getElementsByClassName(" +
+            "   'gwt-TabLayoutPanelTab');" +
+            "var count = 0;" +
+            "for (var i = 0; i < tabs.length; i++)" +
+            "   if (tabs[i].textContent.indexOf(arguments[0]) >= 0)" +
+            "      count++;" +
+            "return count;", name);
+      return ((Number) count).intValue();
+   }
+
+   // The text of an element, read in the page: much cheaper than
+   // WebElement.getText() for elements as large as the console
+   private static String textContent(WebElement element) {
+      return (String) ((JavascriptExecutor) driver_).executeScript(
+            "return arguments[0].textContent;", element);
+   }
+
+   private static void waitFor(ExpectedCondition<Boolean> condition) {
+      new WebDriverWait(driver_, TIMEOUT_SECONDS)
+         .pollingEvery(POLL_MS, TimeUnit.MILLISECONDS)
+         .until(condition);
+   }
+
+   // markers are unique across runs, since the console may still show
+   // output from an earlier run
+   private static String newMarker() {
+      return "perf_done_" + RUN_ID + "_" + (++markers_);
+   }
+
+   // R code printing the marker; the marker itself doesn't appear in the
+   // code, so the echoed command can't be mistaken for its output
+   private static String rMarker(String marker) {
+      int split = marker.length() / 2;
+      return "cat(paste0('" + marker.substring(0, split) + "', '" +
+             marker.substring(split) + "'), '\\n')";
+   }
+
+   private static double elapsedMs(long start) {
+      return (System.nanoTime() - start) / 1000000.0;
+   }
+
+   private static WebDriver driver_;
+   private static PerformanceRecorder recorder_;
+   private static int markers_ = 0;
+
+   private static final long RUN_ID = System.currentTimeMillis();
+
+   private static final int TYPED_KEYS = 200;
+   private static final int TIMEOUT_SECONDS = 120;
+   private static final int POLL_MS = 20;
+}
@@ -17,19 +17,35 @@ package org.rstudio.studio.selenium;
 import java.net.URL;
 
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.remote.DesiredCapabilities;
 import org.openqa.selenium.remote.RemoteWebDriver;
 
 public class RStudioWebAppDriver
 {
    public static WebDriver start() throws Exception {
+      DesiredCapabilities capabilities = DesiredCapabilities.chrome();
+      
+      // -Drstudio.headless=true runs Chrome without a window (e.g. for the
+      // performance suite on a build machine)
+      if (Boolean.getBoolean("rstudio.headless")) {
+         ChromeOptions options = new ChromeOptions();
+         options.addArguments("--headless", "--disable-gpu",
+                              "--window-size=1600,1000");
+         capabilities.setCapability(ChromeOptions.CAPABILITY, options);
+      }
+      
       driver_ = new RemoteWebDriver(
-            new URL("http://localhost:9515/"), DesiredCapabilities.chrome());
+            new URL("http://localhost:9515/"), capabilities);
       
-      driver_.get("http://localhost:4011/");
+      driver_.get(getUrl());
       return driver_;
    }
    
+   public static String getUrl() {
+      return System.getProperty("rstudio.url", "http://localhost:4011/");
+   }
+   
    public static void stop() {
       driver_.quit();
    }
@@ -0,0 +1,49 @@
+<?xml version="1.0" encoding="utf-8" ?>
+
+<!--
+#
+# soyc-budget.xsl
+#
+# Copyright (C) 2009-16 by RStudio, Inc.
+#
+# This program is licensed to you under the terms of version 3 of the
+# GNU Affero General Public License. This program is distributed WITHOUT
+# ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+# MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+# AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+#
+-->
+
+<!-- Lists the code fragments in a SOYC stories file whose size exceeds
+     the budget; prints nothing if all are within it.
+     Fragment 0 is the initial download, the rest are split points. -->
+<xsl:stylesheet version="1.0"
+                xmlns:xsl="http://www.w3.org/1999/XSL/Transform">
+
+   <xsl:output method="text"/>
+
+   <xsl:param name="initialBudget"/>
+   <xsl:param name="fragmentBudget"/>
+
+   <xsl:template match="/">
+      <xsl:for-each select="//sizemap[@fragment = 0 and
+                                      number(@size) &gt; number($initialBudget)]">
+         <xsl:text>  initial download (fragment 0): </xsl:text>
+         <xsl:value-of select="@size"/>
+         <xsl:text> bytes (budget </xsl:text>
+         <xsl:value-of select="$initialBudget"/>
+         <xsl:text>)&#10;</xsl:text>
+      </xsl:for-each>
+      <xsl:for-each select="//sizemap[@fragment != 0 and
+                                      number(@size) &gt; number($fragmentBudget)]">
+         <xsl:text>  fragment </xsl:text>
+         <xsl:value-of select="@fragment"/>
+         <xsl:text>: </xsl:text>
+         <xsl:value-of select="@size"/>
+         <xsl:text> bytes (budget </xsl:text>
+         <xsl:value-of select="$fragmentBudget"/>
+         <xsl:text>)&#10;</xsl:text>
+      </xsl:for-each>
+   </xsl:template>
+
+</xsl:stylesheet>